@@ -3,6 +3,7 @@ plugins {
     jacoco
     id("org.springframework.boot") version "3.4.4"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "id.ac.ui.cs.advprog"
@@ -42,6 +43,14 @@ dependencies {
     // Optional: Advanced metrics
     implementation("io.micrometer:micrometer-observation")
 
+    // Pooled keep-alive HTTP client for the rating service
+    implementation("org.apache.httpcomponents.client5:httpclient5")
+
+    // Circuit breaker and bulkhead around the rating service client
+    implementation("io.github.resilience4j:resilience4j-circuitbreaker:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-bulkhead:2.2.0")
+    implementation("io.github.resilience4j:resilience4j-micrometer:2.2.0")
+
     // JWT dependencies
     implementation("io.jsonwebtoken:jjwt-api:0.11.5")
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
@@ -97,6 +106,17 @@ tasks.processTestResources {
     duplicatesStrategy = DuplicatesStrategy.INCLUDE
 }
 
+// Micro-benchmarks under src/jmh, run with ./gradlew jmh
+jmh {
+    // Benchmarks share StubRatingHttpServer with the tests
+    includeTests.set(true)
+    warmupIterations.set(2)
+    iterations.set(3)
+    fork.set(1)
+    timeUnit.set("ns")
+    benchmarkMode.set(listOf("avgt"))
+}
+
 // Configure JaCoCo test coverage
 tasks.jacocoTestReport {
     reports {
@@ -109,5 +129,20 @@ tasks.jacocoTestReport {
 
 // Make sure tests always run before the coverage report is generated
 tasks.test {
+    // Wall-clock load comparisons are too noisy for the unit suite
+    useJUnitPlatform {
+        excludeTags("load")
+    }
     finalizedBy(tasks.jacocoTestReport)
+}
+
+// Load tests tagged "load", run on demand with ./gradlew loadTest
+tasks.register<Test>("loadTest") {
+    description = "Runs the tests tagged load."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import id.ac.ui.cs.advprog.authprofile.config.AppConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+/**
+ * RatingClientService.getRatingsByDoctorId against a local stub rating server with
+ * 16 concurrent callers (the bulk refresh pattern): HttpURLConnection versus the
+ * pooled Apache HttpClient 5 factory from AppConfig.
+ */
+@State(Scope.Benchmark)
+@Threads(16)
+public class RatingClientPoolBenchmark {
+
+    @Param({"simple", "pooled"})
+    public String factory;
+
+    private StubRatingHttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RatingClientService ratingClientService;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubRatingHttpServer(20);
+
+        AppConfig appConfig = new AppConfig();
+        ReflectionTestUtils.setField(appConfig, "connectionTimeout", 5000);
+        ReflectionTestUtils.setField(appConfig, "readTimeout", 10000);
+        ReflectionTestUtils.setField(appConfig, "poolMaxTotal", 50);
+        ReflectionTestUtils.setField(appConfig, "poolMaxPerRoute", 20);
+        ReflectionTestUtils.setField(appConfig, "connectionTtlMillis", 60000L);
+        ReflectionTestUtils.setField(appConfig, "idleEvictMillis", 30000L);
+        ReflectionTestUtils.setField(appConfig, "acquireTimeoutMillis", 2000L);
+
+        RestTemplate restTemplate;
+        if ("pooled".equals(factory)) {
+            connectionManager = appConfig.ratingConnectionManager(new SimpleMeterRegistry());
+            httpClient = appConfig.ratingHttpClient(connectionManager);
+            restTemplate = appConfig.restTemplate(appConfig.clientHttpRequestFactory(httpClient));
+        } else {
+            SimpleClientHttpRequestFactory simple = new SimpleClientHttpRequestFactory();
+            simple.setConnectTimeout(5000);
+            simple.setReadTimeout(10000);
+            restTemplate = appConfig.restTemplate(simple);
+        }
+        ratingClientService = new RatingClientService(restTemplate, server.getBaseUrl(),
+                CircuitBreaker.ofDefaults("ratingService"), Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+            connectionManager.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public int getRatingsByDoctorId() {
+        return ratingClientService.getRatingsByDoctorId(1L).size();
+    }
+}
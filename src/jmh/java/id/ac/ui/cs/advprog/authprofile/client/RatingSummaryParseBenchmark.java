@@ -0,0 +1,54 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.authprofile.dto.response.ApiResponseDto;
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Rating summary for one heavily rated doctor: binding the body to ApiResponseDto and
+ * summing the list (the old path) versus the streaming RatingSummaryExtractor.
+ * Run the jmh jar with "-prof gc" to compare gc.alloc.rate.norm (bytes per call).
+ */
+@State(Scope.Benchmark)
+public class RatingSummaryParseBenchmark {
+
+    private static final TypeReference<ApiResponseDto<RatingResponseDto>> RESPONSE_TYPE = new TypeReference<>() {};
+
+    @Param({"10000"})
+    public int ratings;
+
+    private ObjectMapper objectMapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        // Same builder RestTemplate's default Jackson converter uses
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        body = StubRatingHttpServer.ratingsJson(ratings).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public double bindDtoList() throws IOException {
+        ApiResponseDto<RatingResponseDto> response = objectMapper.readValue(new ByteArrayInputStream(body), RESPONSE_TYPE);
+        List<RatingResponseDto> data = response.getData();
+        double sum = data.stream().mapToInt(RatingResponseDto::getScore).sum();
+        return sum / data.size();
+    }
+
+    @Benchmark
+    public double streamingExtractor() throws IOException {
+        return RatingSummaryExtractor.parse(new ByteArrayInputStream(body)).getAverageRating();
+    }
+}
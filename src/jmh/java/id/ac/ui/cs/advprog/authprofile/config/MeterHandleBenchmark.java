@@ -0,0 +1,61 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Set;
+
+/**
+ * Cost of recording one search request: per-call registry lookup (the old pattern)
+ * versus the pre-registered handle from MonitoringConfig.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class MeterHandleBenchmark {
+
+    private PrometheusMeterRegistry meterRegistry;
+    private MonitoringConfig monitoringConfig;
+    private String name;
+    private String speciality;
+
+    @Setup
+    public void setUp() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        meterRegistry.config().meterFilter(new CardinalityGuardMeterFilter(200, Set.of()));
+        monitoringConfig = new MonitoringConfig(meterRegistry);
+        name = "Smith";
+        speciality = "";
+    }
+
+    @Benchmark
+    public void registryLookupPerCall() {
+        meterRegistry.counter("search_requests_total",
+                Tags.of(
+                        "type", "optimized",
+                        "hasName", String.valueOf(name != null && !name.trim().isEmpty()),
+                        "hasSpeciality", String.valueOf(speciality != null && !speciality.trim().isEmpty()),
+                        "sortBy", "none",
+                        "sortDirection", "none"
+                )).increment();
+    }
+
+    @Benchmark
+    public void preRegisteredHandle() {
+        monitoringConfig.searchRequest(SearchType.OPTIMIZED,
+                name != null && !name.trim().isEmpty(),
+                speciality != null && !speciality.trim().isEmpty()
+        ).increment();
+    }
+
+    @Benchmark
+    public void memoizedHandle() {
+        monitoringConfig.authorization(true, "VIEW_OWN_PROFILE", "Pacillian", "getCurrentUserProfile").increment();
+    }
+}
@@ -0,0 +1,139 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.client.RatingRequestHedgers;
+import id.ac.ui.cs.advprog.authprofile.client.StubRatingHttpServer;
+import id.ac.ui.cs.advprog.authprofile.config.AppConfig;
+import id.ac.ui.cs.advprog.authprofile.config.AsyncConfig;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Full bulk rating refresh of {@code caregivers} rows against a stub rating service with
+ * {@code latencyMs} per call: the old one-at-a-time loop (read row, fetch, update row)
+ * versus CaregiverRatingRefresher. The database is in-memory H2 so the comparison
+ * isolates request fan-out and write batching.
+ * Run the jmh jar with "RatingRefreshBenchmark -bm ss -wi 1 -i 3".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RatingRefreshBenchmark {
+
+    @Param({"10000"})
+    public int caregivers;
+
+    @Param({"2"})
+    public long latencyMs;
+
+    private StubRatingHttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private JdbcTemplate jdbcTemplate;
+    private RatingClientService ratingClientService;
+    private CaregiverRatingRefresher refresher;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubRatingHttpServer(20, latencyMs);
+
+        AppConfig appConfig = new AppConfig();
+        ReflectionTestUtils.setField(appConfig, "connectionTimeout", 5000);
+        ReflectionTestUtils.setField(appConfig, "readTimeout", 10000);
+        ReflectionTestUtils.setField(appConfig, "poolMaxTotal", 50);
+        ReflectionTestUtils.setField(appConfig, "poolMaxPerRoute", 20);
+        ReflectionTestUtils.setField(appConfig, "connectionTtlMillis", 60000L);
+        ReflectionTestUtils.setField(appConfig, "idleEvictMillis", 30000L);
+        ReflectionTestUtils.setField(appConfig, "acquireTimeoutMillis", 2000L);
+        connectionManager = appConfig.ratingConnectionManager(new SimpleMeterRegistry());
+        httpClient = appConfig.ratingHttpClient(connectionManager);
+        RestTemplate restTemplate = appConfig.restTemplate(appConfig.clientHttpRequestFactory(httpClient));
+        ratingClientService = new RatingClientService(restTemplate, server.getBaseUrl(),
+                CircuitBreaker.ofDefaults("ratingService"), Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:refresh;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS caregivers "
+                + "(user_id BIGINT PRIMARY KEY, average_rating DOUBLE PRECISION, rating_count INT, "
+                + "rating_stars_1 INT, rating_stars_2 INT, rating_stars_3 INT, rating_stars_4 INT, rating_stars_5 INT)");
+        jdbcTemplate.execute("DELETE FROM caregivers");
+        jdbcTemplate.batchUpdate("INSERT INTO caregivers VALUES (?, 0, 0, 0, 0, 0, 0, 0)",
+                LongStream.rangeClosed(1, caregivers)
+                        .mapToObj(id -> new Object[]{id}).toList());
+
+        CareGiverRepository careGiverRepository = mock(CareGiverRepository.class);
+        when(careGiverRepository.findIdsInRange(anyLong(), anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                jdbcTemplate.queryForList(
+                        "SELECT user_id FROM caregivers WHERE user_id > ? AND user_id <= ? ORDER BY user_id LIMIT ?",
+                        Long.class, invocation.getArgument(0), invocation.getArgument(1),
+                        ((Pageable) invocation.getArgument(2)).getPageSize()));
+
+        refresher = new CaregiverRatingRefresher(ratingClientService, careGiverRepository, jdbcTemplate,
+                new DataSourceTransactionManager(dataSource),
+                new AsyncConfig(false, 10, new AsyncConfig.VirtualConcurrency(5, 2, 8, 1), new SimpleMeterRegistry())
+                        .ratingServiceExecutor(),
+                500, 8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int sequential() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT user_id FROM caregivers ORDER BY user_id", Long.class);
+        int updated = 0;
+        for (Long id : ids) {
+            // findById, getRatingSummary, save: one round trip each, autocommit per caregiver
+            jdbcTemplate.queryForMap("SELECT * FROM caregivers WHERE user_id = ?", id);
+            RatingClientService.RatingSummary summary = ratingClientService.getRatingSummary(id);
+            updated += jdbcTemplate.update(CaregiverRatingRefresher.UPDATE_RATING_SQL, ps -> {
+                ps.setDouble(1, summary.getAverageRating());
+                ps.setInt(2, summary.getTotalRatings());
+                CaregiverRatingRefresher.setStarCounts(ps, 3, summary.getStarCounts());
+                ps.setLong(8, id);
+            });
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public int pipelined() {
+        return refresher.refreshAll().successful();
+    }
+}
@@ -1,35 +1,79 @@
 package id.ac.ui.cs.advprog.authprofile.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import id.ac.ui.cs.advprog.authprofile.dto.response.ApiResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingFeedNotFoundException;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 public class RatingClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(RatingClientService.class);
+    private static final RatingSummaryExtractor SUMMARY_EXTRACTOR = new RatingSummaryExtractor();
+    private static final int VALIDATOR_CACHE_SIZE = 10_000;
+    // Hedge latency windows, one per kind of read
+    private static final String RATINGS_CALL = "ratings";
+    private static final String SUMMARY_CALL = "summary";
 
     private final RestTemplate restTemplate;
     private final String ratingServiceUrl;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RatingRequestHedger hedger;
+    // Last validators and summary per doctor, so unchanged ratings come back as a bodiless 304
+    private final Cache<Long, ValidatedSummary> validatedSummaries = Caffeine.newBuilder()
+            .maximumSize(VALIDATOR_CACHE_SIZE)
+            .build();
 
     public RatingClientService(RestTemplate restTemplate,
-                               @Value("${service.rating.url:http://localhost:8083}") String ratingServiceUrl) {
+                               @Value("${service.rating.url:http://localhost:8083}") String ratingServiceUrl,
+                               CircuitBreaker ratingServiceCircuitBreaker,
+                               Bulkhead ratingServiceBulkhead,
+                               RatingRequestHedger ratingRequestHedger) {
         this.restTemplate = restTemplate;
         this.ratingServiceUrl = ratingServiceUrl;
+        this.circuitBreaker = ratingServiceCircuitBreaker;
+        this.bulkhead = ratingServiceBulkhead;
+        this.hedger = ratingRequestHedger;
         logger.info("RatingClientService initialized with URL: {}", ratingServiceUrl);
     }
 
+    /**
+     * Runs a rating service call through the bulkhead and circuit breaker (see ResilienceConfig).
+     * A call refused by either fails at once with RatingServiceUnavailableException
+     */
+    private <T> T guarded(Supplier<T> call) {
+        try {
+            return circuitBreaker.executeSupplier(Bulkhead.decorateSupplier(bulkhead, call));
+        } catch (CallNotPermittedException e) {
+            throw new RatingServiceUnavailableException("Rating service circuit breaker is open", e);
+        } catch (BulkheadFullException e) {
+            throw new RatingServiceUnavailableException("Too many concurrent rating service calls", e);
+        }
+    }
+
     @Timed(value = "rating_client_get_by_doctor_duration", description = "Time taken to get ratings by doctor ID")
     public List<RatingResponseDto> getRatingsByDoctorId(Long doctorId) {
         if (doctorId == null) {
@@ -45,12 +89,13 @@ public class RatingClientService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<?> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<ApiResponseDto<RatingResponseDto>> response = restTemplate.exchange(
+            // Each hedged attempt goes through the bulkhead and breaker on its own
+            ResponseEntity<ApiResponseDto<RatingResponseDto>> response = hedger.execute(RATINGS_CALL, () -> guarded(() -> restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     entity,
                     new ParameterizedTypeReference<ApiResponseDto<RatingResponseDto>>() {}
-            );
+            )));
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 ApiResponseDto<RatingResponseDto> responseBody = response.getBody();
@@ -69,7 +114,7 @@ public class RatingClientService {
                 return Collections.emptyList();
             }
 
-        } catch (RestClientException e) {
+        } catch (RestClientException | RatingServiceUnavailableException e) {
             logger.error("Failed to fetch ratings for doctor {} from rating service: {}", doctorId, e.getMessage());
             return Collections.emptyList();
         } catch (Exception e) {
@@ -78,23 +123,147 @@ public class RatingClientService {
         }
     }
 
+    /**
+     * Reads the rating feed: up to {@code limit} ratings with an id greater than {@code afterId},
+     * across all doctors, in ascending id order. Unlike the per-doctor lookups this does not
+     * swallow failures, because an empty page means "caught up" to the incremental sync.
+     *
+     * @throws RatingFeedNotFoundException if the rating service does not offer the feed
+     * @throws RatingServiceUnavailableException if the feed cannot be read
+     */
+    @Timed(value = "rating_client_get_feed_duration", description = "Time taken to read a page of the rating feed")
+    public List<RatingResponseDto> getRatingsAfter(long afterId, int limit) {
+        String url = ratingServiceUrl + "/api/rating/feed?afterId=" + afterId + "&limit=" + limit;
+        logger.debug("Fetching rating feed after {} from URL: {}", afterId, url);
+
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<?> entity = new HttpEntity<>(headers);
+
+            // Not hedged: only the sync reads the feed, and nobody is waiting on it
+            ResponseEntity<ApiResponseDto<RatingResponseDto>> response = guarded(() -> restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    entity,
+                    new ParameterizedTypeReference<ApiResponseDto<RatingResponseDto>>() {}
+            ));
+
+            ApiResponseDto<RatingResponseDto> responseBody = response.getBody();
+            if (response.getStatusCode() != HttpStatus.OK || responseBody == null || responseBody.getSuccess() != 1) {
+                throw new RatingServiceUnavailableException("Rating feed returned an unsuccessful response: "
+                        + response.getStatusCode());
+            }
+            return responseBody.getData() != null ? responseBody.getData() : Collections.emptyList();
+
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new RatingFeedNotFoundException("Rating service has no rating feed at " + url, e);
+        } catch (RestClientException e) {
+            throw new RatingServiceUnavailableException("Failed to read rating feed after " + afterId, e);
+        }
+    }
+
+    /**
+     * Streams the doctor's ratings and reduces them to a sum and count as they are read,
+     * without materializing the rating list (see {@link RatingSummaryExtractor}).
+     * Failures yield an empty summary; use {@link #fetchRatingSummary} where an outage
+     * must not be mistaken for a doctor without ratings
+     */
     @Timed(value = "rating_client_get_summary_duration", description = "Time taken to get rating summary")
     public RatingSummary getRatingSummary(Long doctorId) {
-        List<RatingResponseDto> ratings = getRatingsByDoctorId(doctorId);
+        if (doctorId == null) {
+            logger.warn("Doctor ID is null, returning empty summary");
+            return new RatingSummary(0.0, 0);
+        }
 
-        if (ratings.isEmpty()) {
+        try {
+            return fetchRatingSummary(doctorId);
+        } catch (RatingServiceUnavailableException e) {
+            logger.error("Failed to fetch rating summary for doctor {} from rating service: {}", doctorId, e.getMessage());
+            return new RatingSummary(0.0, 0);
+        } catch (Exception e) {
+            logger.error("Unexpected error while fetching rating summary for doctor {}: {}", doctorId, e.getMessage(), e);
             return new RatingSummary(0.0, 0);
         }
+    }
+
+    /**
+     * Same as {@link #getRatingSummary}, but a failed call throws. Not hedged, as the
+     * refreshers and the sync call it in the background; see {@link #loadRatingSummary}
+     *
+     * @throws RatingServiceUnavailableException if the rating service cannot be read
+     */
+    public RatingSummary fetchRatingSummary(Long doctorId) {
+        return readSummary(doctorId);
+    }
 
-        double sum = ratings.stream()
-                .mapToInt(RatingResponseDto::getScore)
-                .sum();
+    /**
+     * Same as {@link #fetchRatingSummary}, hedged, for a read that a user is waiting on
+     *
+     * @throws RatingServiceUnavailableException if the rating service cannot be read
+     */
+    public RatingSummary loadRatingSummary(Long doctorId) {
+        return hedger.execute(SUMMARY_CALL, () -> readSummary(doctorId));
+    }
+
+    private RatingSummary readSummary(Long doctorId) {
+        String url = ratingServiceUrl + "/api/rating/doctor/" + doctorId;
+        logger.debug("Streaming rating summary for doctor {} from URL: {}", doctorId, url);
+
+        try {
+            return guarded(() -> {
+                ValidatedSummary previous = validatedSummaries.getIfPresent(doctorId);
+                RatingSummary summary = restTemplate.execute(
+                        url,
+                        HttpMethod.GET,
+                        request -> {
+                            HttpHeaders headers = request.getHeaders();
+                            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                            if (previous != null) {
+                                previous.applyTo(headers);
+                            }
+                        },
+                        response -> extractSummary(doctorId, previous, response)
+                );
+                if (summary == null) {
+                    throw new RatingServiceUnavailableException("Empty rating summary response for doctor " + doctorId);
+                }
+                return summary;
+            });
+
+        } catch (RestClientException e) {
+            throw new RatingServiceUnavailableException("Failed to fetch rating summary for doctor " + doctorId, e);
+        }
+    }
 
-        double average = sum / ratings.size();
+    /**
+     * A 304 reuses the summary remembered for the validators that were sent, without
+     * reading a body. Any other response is parsed, and its ETag / Last-Modified are kept
+     * for the next request
+     */
+    private RatingSummary extractSummary(Long doctorId, ValidatedSummary previous, ClientHttpResponse response)
+            throws IOException {
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && previous != null) {
+            logger.debug("Rating summary for doctor {} not modified", doctorId);
+            return previous.summary();
+        }
 
-        return new RatingSummary(average, ratings.size());
+        RatingSummary summary = SUMMARY_EXTRACTOR.extractData(response);
+        HttpHeaders headers = response.getHeaders();
+        String etag = headers.getETag();
+        long lastModified = headers.getLastModified();
+        if (response.getStatusCode().is2xxSuccessful() && (etag != null || lastModified > 0)) {
+            validatedSummaries.put(doctorId, new ValidatedSummary(etag, lastModified, summary));
+        } else {
+            validatedSummaries.invalidate(doctorId);
+        }
+        return summary;
     }
 
+    /**
+     * Probes the rating service directly, bypassing the circuit breaker, so the scheduler
+     * can still see it recover while the breaker is open
+     */
     @Timed(value = "rating_client_health_check_duration", description = "Time taken to check rating service health")
     public boolean isRatingServiceHealthy() {
         try {
@@ -110,13 +279,34 @@ public class RatingClientService {
     }
 
     // Inner class for rating summary
+    private record ValidatedSummary(String etag, long lastModified, RatingSummary summary) {
+
+        void applyTo(HttpHeaders headers) {
+            if (etag != null) {
+                headers.setIfNoneMatch(etag);
+            }
+            if (lastModified > 0) {
+                headers.setIfModifiedSince(lastModified);
+            }
+        }
+    }
+
     public static class RatingSummary {
         private final double averageRating;
         private final int totalRatings;
+        private final int[] starCounts;
 
         public RatingSummary(double averageRating, int totalRatings) {
+            this(averageRating, totalRatings, null);
+        }
+
+        /**
+         * @param starCounts ratings with 1 to 5 stars, or null if the distribution is not known
+         */
+        public RatingSummary(double averageRating, int totalRatings, int[] starCounts) {
             this.averageRating = averageRating;
             this.totalRatings = totalRatings;
+            this.starCounts = starCounts;
         }
 
         public double getAverageRating() {
@@ -126,5 +316,9 @@ public class RatingClientService {
         public int getTotalRatings() {
             return totalRatings;
         }
+
+        public int[] getStarCounts() {
+            return starCounts;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,270 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Hedged reads against the rating service.
+ * If the first attempt has not answered within the configured percentile of recent
+ * latency, a second identical attempt is sent and whichever succeeds first wins. Latency
+ * is tracked per named call, since reading a doctor's ratings and streaming their summary
+ * take different times. Hedges are paid for from a token budget shared by all calls that
+ * every call tops up by max-extra-load-percent, so hedging can never add more than that
+ * share of extra requests, even while the rating service is slow across the board. Only
+ * use for idempotent reads that a caller is waiting on; background jobs gain nothing
+ * from a hedge but the extra load.
+ */
+@Component
+public class RatingRequestHedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingRequestHedger.class);
+
+    private static final int WINDOW = 512;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 32;
+    // Budget is kept in thousandths of a hedge; at most 10 hedges can be saved up
+    private static final long TOKEN_SCALE = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN_SCALE;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long tokensPerCall;
+    private final ExecutorService executor;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final Counter calls;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter hedgesThrottled;
+
+    @Autowired
+    public RatingRequestHedger(MeterRegistry meterRegistry,
+                               @Value("${rating.service.hedge.enabled:false}") boolean enabled,
+                               @Value("${rating.service.hedge.percentile:0.95}") double percentile,
+                               @Value("${rating.service.hedge.min-delay-ms:20}") long minDelayMillis,
+                               @Value("${rating.service.hedge.max-extra-load-percent:10}") double maxExtraLoadPercent) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.tokensPerCall = Math.round(maxExtraLoadPercent / 100.0 * TOKEN_SCALE);
+        // Attempts block on HTTP; virtual threads keep a slow attempt from holding a pool thread
+        this.executor = enabled
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("RatingHedge-", 0).factory())
+                : null;
+
+        this.calls = hedgeCounter(meterRegistry, "call");
+        this.hedgesSent = hedgeCounter(meterRegistry, "hedge_sent");
+        this.hedgesWon = hedgeCounter(meterRegistry, "hedge_won");
+        this.hedgesThrottled = hedgeCounter(meterRegistry, "hedge_throttled");
+        Gauge.builder("rating_client_hedge_rate", this, h -> ratio(h.hedgesSent, h.calls))
+                .description("Share of rating service calls that sent a hedge")
+                .register(meterRegistry);
+        Gauge.builder("rating_client_hedge_win_rate", this, h -> ratio(h.hedgesWon, h.hedgesSent))
+                .description("Share of hedges that answered before the first attempt")
+                .register(meterRegistry);
+
+        if (enabled) {
+            logger.info("Rating service hedging enabled at p{} with a {}% extra load budget",
+                    Math.round(percentile * 100), maxExtraLoadPercent);
+        }
+    }
+
+    private static Counter hedgeCounter(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("rating_client_hedge_events_total")
+                .description("Hedged rating service calls, hedges sent, won and refused by the budget")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    private static double ratio(Counter part, Counter whole) {
+        double total = whole.count();
+        return total == 0 ? 0.0 : part.count() / total;
+    }
+
+    /**
+     * Runs the call, hedging it once if it is slower than the hedge delay of calls with the
+     * same name and the budget allows. Fails only once every attempt sent has failed
+     */
+    public <T> T execute(String name, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        calls.increment();
+        tokens.accumulateAndGet(tokensPerCall, (current, add) -> Math.min(current + add, MAX_TOKENS));
+
+        LatencyWindow window = windows.computeIfAbsent(name, this::newWindow);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        launch(call, window, result, outstanding, false);
+
+        long delay = window.hedgeDelayNanos;
+        if (delay != Long.MAX_VALUE) {
+            try {
+                return result.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (result.isDone()) {
+                    // Answered between the timeout and here; a hedge now would be pure extra load
+                    return await(result);
+                }
+                if (tryTakeToken()) {
+                    hedgesSent.increment();
+                    outstanding.incrementAndGet();
+                    launch(call, window, result, outstanding, true);
+                } else {
+                    hedgesThrottled.increment();
+                }
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RatingServiceUnavailableException("Interrupted waiting for the rating service", e);
+            }
+        }
+        return await(result);
+    }
+
+    private LatencyWindow newWindow(String name) {
+        LatencyWindow window = new LatencyWindow();
+        Gauge.builder("rating_client_hedge_delay_seconds", window, LatencyWindow::hedgeDelaySeconds)
+                .description("Current wait before a hedge is sent")
+                .tag("call", name)
+                .register(meterRegistry);
+        return window;
+    }
+
+    private <T> void launch(Supplier<T> call, LatencyWindow window, CompletableFuture<T> result,
+                            AtomicInteger outstanding, boolean hedge) {
+        CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            T value = call.get();
+            window.record(System.nanoTime() - start);
+            return value;
+        }, executor).whenComplete((value, error) -> {
+            if (error == null) {
+                // The loser is left to finish rather than interrupted, so the circuit breaker
+                // does not count a cancelled attempt as a failure. The win is counted before
+                // completing so the caller never sees the answer ahead of the metric
+                synchronized (result) {
+                    if (!result.isDone()) {
+                        if (hedge) {
+                            hedgesWon.increment();
+                        }
+                        result.complete(value);
+                    }
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private boolean tryTakeToken() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN_SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN_SCALE));
+        return true;
+    }
+
+    /**
+     * Recent successful latencies of one named call and the hedge delay derived from them
+     */
+    private class LatencyWindow {
+
+        private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+        private final AtomicLong sampleCount = new AtomicLong();
+        private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+
+        void record(long nanos) {
+            long n = sampleCount.getAndIncrement();
+            samples.set((int) (n % WINDOW), nanos);
+            if (n + 1 >= MIN_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+                recomputeHedgeDelay(Math.min(n + 1, WINDOW));
+            }
+        }
+
+        private void recomputeHedgeDelay(long size) {
+            long[] sorted = new long[(int) size];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+            hedgeDelayNanos = Math.max(sorted[Math.max(index, 0)], minDelayNanos);
+        }
+
+        double hedgeDelaySeconds() {
+            long delay = hedgeDelayNanos;
+            return delay == Long.MAX_VALUE ? 0.0 : delay / 1e9;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RatingServiceUnavailableException("Interrupted waiting for the rating service", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new RatingServiceUnavailableException("Rating service call failed", cause);
+    }
+
+    /**
+     * Current wait before a call with this name is hedged, or 0 while it has too few samples
+     */
+    public double getHedgeDelaySeconds(String name) {
+        LatencyWindow window = windows.get(name);
+        return window == null ? 0.0 : window.hedgeDelaySeconds();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
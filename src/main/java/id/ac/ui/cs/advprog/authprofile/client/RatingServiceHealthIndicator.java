@@ -0,0 +1,57 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the probed rating service state and its circuit breaker under /actuator/health
+ * (component "ratingService"). A DOWN service or an open breaker is reported as UNKNOWN
+ * rather than DOWN: auth-profile keeps serving persisted ratings, so the rating service
+ * being down must not fail our own health check. DEGRADED is still UP, with the state
+ * in the details. No call is made to the rating service.
+ */
+@Component("ratingServiceHealthIndicator")
+public class RatingServiceHealthIndicator implements HealthIndicator {
+
+    private final RatingServiceHealthMonitor healthMonitor;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public RatingServiceHealthIndicator(RatingServiceHealthMonitor healthMonitor,
+                                        CircuitBreaker ratingServiceCircuitBreaker,
+                                        Bulkhead ratingServiceBulkhead) {
+        this.healthMonitor = healthMonitor;
+        this.circuitBreaker = ratingServiceCircuitBreaker;
+        this.bulkhead = ratingServiceBulkhead;
+    }
+
+    @Override
+    public Health health() {
+        RatingServiceHealthMonitor.State probed = healthMonitor.getState();
+        CircuitBreaker.State state = circuitBreaker.getState();
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+
+        boolean unavailable = probed == RatingServiceHealthMonitor.State.DOWN
+                || state == CircuitBreaker.State.OPEN
+                || state == CircuitBreaker.State.FORCED_OPEN;
+        Health.Builder builder = unavailable ? Health.unknown() : Health.up();
+        if (healthMonitor.getLastProbe() != null) {
+            builder.withDetail("lastProbe", healthMonitor.getLastProbe().toString());
+        }
+        return builder
+                .withDetail("state", probed.name())
+                .withDetail("since", healthMonitor.getLastTransition().toString())
+                .withDetail("circuitBreakerState", state.name())
+                .withDetail("failureRate", metrics.getFailureRate())
+                .withDetail("slowCallRate", metrics.getSlowCallRate())
+                .withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+                .withDetail("failedCalls", metrics.getNumberOfFailedCalls())
+                .withDetail("slowCalls", metrics.getNumberOfSlowCalls())
+                .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+                .withDetail("bulkheadAvailableCalls", bulkhead.getMetrics().getAvailableConcurrentCalls())
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Background-probed health of the rating service.
+ * One probe runs per interval no matter how many callers ask, and readers get the last
+ * state in O(1). State changes use hysteresis: a single failed probe only marks the
+ * service DEGRADED, it takes downAfterFailures failures in a row to go DOWN, and
+ * upAfterSuccesses successes in a row to come back UP, so one slow probe does not
+ * flip the sync on and off.
+ */
+@Component
+public class RatingServiceHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingServiceHealthMonitor.class);
+
+    public enum State {
+        UP, DEGRADED, DOWN
+    }
+
+    private final RatingClientService ratingClientService;
+    private final MonitoringConfig monitoringConfig;
+    private final boolean probeEnabled;
+    private final int downAfterFailures;
+    private final int upAfterSuccesses;
+
+    private volatile State state = State.UP;
+    private volatile Instant lastProbe;
+    private volatile Instant lastTransition = Instant.now();
+    // Only touched by record(), which is synchronized
+    private int consecutiveFailures;
+    private int consecutiveSuccesses;
+
+    @Autowired
+    public RatingServiceHealthMonitor(RatingClientService ratingClientService,
+                                      MonitoringConfig monitoringConfig,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${rating.health.probe.enabled:true}") boolean probeEnabled,
+                                      @Value("${rating.health.probe.down-after-failures:3}") int downAfterFailures,
+                                      @Value("${rating.health.probe.up-after-successes:2}") int upAfterSuccesses) {
+        this.ratingClientService = ratingClientService;
+        this.monitoringConfig = monitoringConfig;
+        this.probeEnabled = probeEnabled;
+        this.downAfterFailures = downAfterFailures;
+        this.upAfterSuccesses = upAfterSuccesses;
+
+        // 2 = UP, 1 = DEGRADED, 0 = DOWN
+        Gauge.builder("rating_service_health_state", this, m -> 2 - m.getState().ordinal())
+                .description("Probed rating service health: 2 up, 1 degraded, 0 down")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${rating.health.probe.interval-ms:15000}")
+    public void probe() {
+        if (!probeEnabled) {
+            return;
+        }
+        record(ratingClientService.isRatingServiceHealthy());
+    }
+
+    /**
+     * Feeds one probe result into the state machine
+     */
+    synchronized void record(boolean healthy) {
+        monitoringConfig.ratingHealthCheck(healthy).increment();
+        lastProbe = Instant.now();
+
+        State next = state;
+        if (healthy) {
+            consecutiveFailures = 0;
+            consecutiveSuccesses++;
+            if (consecutiveSuccesses >= upAfterSuccesses) {
+                next = State.UP;
+            }
+        } else {
+            consecutiveSuccesses = 0;
+            consecutiveFailures++;
+            if (consecutiveFailures >= downAfterFailures) {
+                next = State.DOWN;
+            } else if (state == State.UP) {
+                next = State.DEGRADED;
+            }
+        }
+
+        if (next != state) {
+            logger.warn("Rating service health {} -> {}", state, next);
+            state = next;
+            lastTransition = lastProbe;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * False only once the service is DOWN; a DEGRADED service is still worth calling
+     */
+    public boolean isAvailable() {
+        return state != State.DOWN;
+    }
+
+    public Instant getLastProbe() {
+        return lastProbe;
+    }
+
+    public Instant getLastTransition() {
+        return lastTransition;
+    }
+}
@@ -0,0 +1,92 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService.RatingSummary;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reduces a rating service ApiResponseDto body to a RatingSummary while it is being read.
+ * Only "success" and each rating's "score" are looked at; comments, timestamps and any
+ * other fields are skipped by the parser, so no RatingResponseDto list is ever built.
+ * Scores of 1 to 5 are also counted per star. A response that is not a successful envelope
+ * throws rather than reading as a doctor without ratings, so it is never cached as data;
+ * RatingClientService.getRatingSummary is where a failure becomes an empty summary.
+ */
+public class RatingSummaryExtractor implements ResponseExtractor<RatingSummary> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public RatingSummary extractData(ClientHttpResponse response) throws IOException {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RatingServiceUnavailableException("Rating service answered " + response.getStatusCode());
+        }
+        return parse(response.getBody());
+    }
+
+    /**
+     * Streams the envelope and accumulates the score sum and count in primitives.
+     * A successful envelope without data yields an empty summary.
+     *
+     * @throws RatingServiceUnavailableException if the body is not an envelope with success 1
+     */
+    public static RatingSummary parse(InputStream body) throws IOException {
+        long sum = 0;
+        int count = 0;
+        int success = 0;
+        int[] starCounts = new int[5];
+
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RatingServiceUnavailableException("Rating service response is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("success".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    success = parser.getIntValue();
+                } else if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    JsonToken element;
+                    while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                        if (element != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            continue;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            JsonToken ratingValue = parser.nextToken();
+                            if ("score".equals(parser.currentName()) && ratingValue == JsonToken.VALUE_NUMBER_INT) {
+                                int score = parser.getIntValue();
+                                sum += score;
+                                count++;
+                                if (score >= 1 && score <= 5) {
+                                    starCounts[score - 1]++;
+                                }
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (success != 1) {
+            throw new RatingServiceUnavailableException("Rating service response was not successful");
+        }
+        if (count == 0) {
+            return new RatingSummary(0.0, 0, starCounts);
+        }
+        return new RatingSummary((double) sum / count, count, starCounts);
+    }
+}
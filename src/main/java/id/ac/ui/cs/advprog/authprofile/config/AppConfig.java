@@ -1,12 +1,26 @@
 package id.ac.ui.cs.advprog.authprofile.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class AppConfig {
 
@@ -16,18 +30,77 @@ public class AppConfig {
     @Value("${rating.service.read.timeout:10000}")
     private int readTimeout;
 
+    @Value("${rating.service.pool.max-total:50}")
+    private int poolMaxTotal;
+
+    @Value("${rating.service.pool.max-per-route:20}")
+    private int poolMaxPerRoute;
+
+    @Value("${rating.service.pool.connection-ttl-ms:60000}")
+    private long connectionTtlMillis;
+
+    @Value("${rating.service.pool.idle-evict-ms:30000}")
+    private long idleEvictMillis;
+
+    @Value("${rating.service.pool.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMillis;
+
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(ClientHttpRequestFactory clientHttpRequestFactory) {
         RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setRequestFactory(clientHttpRequestFactory());
+        restTemplate.setRequestFactory(clientHttpRequestFactory);
         return restTemplate;
     }
 
+    /**
+     * Replaces Spring Boot's default JSON converter so search responses record their serialization time
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                 MonitoringConfig monitoringConfig) {
+        return new SearchTimingJsonHttpMessageConverter(objectMapper, monitoringConfig);
+    }
+
+    /**
+     * Keep-alive connection pool for calls to the rating service.
+     * Connections are reused across requests and retired after the configured TTL so
+     * DNS or load balancer changes are eventually picked up.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager ratingConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolMaxTotal)
+                .setMaxConnPerRoute(poolMaxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectionTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMillis))
+                        .build())
+                .build();
+
+        // httpcomponents_httpclient_pool_{total_max,total_connections,route_max_default,total_pending}
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "rating-service")
+                .bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient ratingHttpClient(PoolingHttpClientConnectionManager ratingConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(ratingConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeoutMillis))
+                        .build())
+                // The default strategy retries a 503 after a second inside one breaker call, which
+                // hides failures from the breaker and doubles load on a struggling service
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEvictMillis, TimeUnit.MILLISECONDS))
+                .build();
+    }
+
     @Bean
-    public ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(connectionTimeout);
-        factory.setReadTimeout(readTimeout);
-        return factory;
+    public ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient ratingHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(ratingHttpClient);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,10 @@
 package id.ac.ui.cs.advprog.authprofile.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -13,7 +18,69 @@ import java.util.concurrent.ThreadPoolExecutor;
 @EnableAsync
 public class AsyncConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private final boolean virtualThreadsEnabled;
+    private final VirtualConcurrency virtualConcurrency;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Virtual-thread mode follows spring.threads.virtual.enabled, so Tomcat and these
+     * executors always switch together. In that mode concurrency is capped by a permit limit
+     * per executor instead of by threads. Search, autocomplete and the refresh drains each
+     * hold a JDBC connection while they run, so their limits together should stay below the
+     * Hikari pool size, leaving connections for request threads; the rating executor only
+     * calls the rating service.
+     */
+    @Autowired
+    public AsyncConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                       @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                       @Value("${async.virtual.search.max-concurrency:5}") int searchConcurrency,
+                       @Value("${async.virtual.autocomplete.max-concurrency:2}") int autocompleteConcurrency,
+                       @Value("${async.virtual.rating.max-concurrency:8}") int ratingConcurrency,
+                       @Value("${async.virtual.rating-refresh.max-concurrency:1}") int ratingRefreshConcurrency,
+                       MeterRegistry meterRegistry) {
+        this(virtualThreadsEnabled, connectionPoolSize, new VirtualConcurrency(searchConcurrency,
+                autocompleteConcurrency, ratingConcurrency, ratingRefreshConcurrency), meterRegistry);
+    }
+
+    public AsyncConfig(boolean virtualThreadsEnabled,
+                       int connectionPoolSize,
+                       VirtualConcurrency virtualConcurrency,
+                       MeterRegistry meterRegistry) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.virtualConcurrency = virtualConcurrency;
+        this.meterRegistry = meterRegistry;
+
+        if (virtualThreadsEnabled) {
+            logger.info("Async executors use virtual threads, concurrency limited to {} search, {} autocomplete, "
+                            + "{} rating, {} rating refresh",
+                    virtualConcurrency.search(), virtualConcurrency.autocomplete(),
+                    virtualConcurrency.rating(), virtualConcurrency.ratingRefresh());
+            if (virtualConcurrency.jdbcBound() > connectionPoolSize) {
+                logger.warn("Virtual executor limits allow {} concurrent JDBC tasks but the connection pool has {}; "
+                                + "tasks will queue on Hikari instead of on the executors",
+                        virtualConcurrency.jdbcBound(), connectionPoolSize);
+            }
+        } else {
+            logger.info("Async executors use platform thread pools");
+        }
+    }
+
+    private Executor createVirtualExecutor(String executorName, String threadNamePrefix, int maxConcurrency) {
+        ExecutorMetrics metrics = new ExecutorMetrics(executorName, meterRegistry);
+        BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor(
+                threadNamePrefix, maxConcurrency, metrics.taskDecorator());
+        metrics.bindVirtual(executor);
+        return executor;
+    }
+
+    /**
+     * Every pool is instrumented with queue-wait and execution timers, saturation gauges
+     * and rejection counters, all tagged with executorName
+     */
     private ThreadPoolTaskExecutor createExecutor(
+            String executorName,
             int corePoolSize,
             int maxPoolSize,
             int queueCapacity,
@@ -22,6 +89,8 @@ public class AsyncConfig {
             int awaitTerminationSeconds,
             RejectedExecutionHandler rejectionPolicy) {
 
+        ExecutorMetrics metrics = new ExecutorMetrics(executorName, meterRegistry);
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setMaxPoolSize(maxPoolSize);
@@ -31,8 +100,10 @@ public class AsyncConfig {
         executor.setKeepAliveSeconds(keepAliveSeconds);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
-        executor.setRejectedExecutionHandler(rejectionPolicy);
+        executor.setRejectedExecutionHandler(metrics.countingRejections(rejectionPolicy));
+        executor.setTaskDecorator(metrics.taskDecorator());
         executor.initialize();
+        metrics.bindPool(executor);
         return executor;
     }
 
@@ -41,17 +112,24 @@ public class AsyncConfig {
      * - Container: 1GB RAM, 0.5 CPU (half of 2 vCPUs)
      * - Conservative thread counts to prevent CPU thrashing
      * - Optimized for containerized environment
+     * - Virtual-thread mode: one virtual thread per task, capped at async.virtual.search.max-concurrency
      */
     @Bean("searchTaskExecutor")
     public Executor searchTaskExecutor() {
+        if (virtualThreadsEnabled) {
+            return createVirtualExecutor("search", "Search-", virtualConcurrency.search());
+        }
         return createExecutor(
+                "search",
                 4,   // corePoolSize (was 10)
                 12,  // maxPoolSize (was 50)
                 500, // queueCapacity (was 200)
                 "Search-",
                 30,  // keepAliveSeconds
                 30,  // awaitTerminationSeconds
-                new ThreadPoolExecutor.CallerRunsPolicy()
+                // Fail fast instead of running searches on Tomcat threads;
+                // SearchConcurrencyLimiter turns the rejection into a 503
+                new ThreadPoolExecutor.AbortPolicy()
         );
     }
 
@@ -62,7 +140,11 @@ public class AsyncConfig {
      */
     @Bean("autocompleteTaskExecutor")
     public Executor autocompleteTaskExecutor() {
+        if (virtualThreadsEnabled) {
+            return createVirtualExecutor("autocomplete", "Autocomplete-", virtualConcurrency.autocomplete());
+        }
         return createExecutor(
+                "autocomplete",
                 2,   // corePoolSize (was 5)
                 6,   // maxPoolSize (was 15)
                 100, // queueCapacity (was 50)
@@ -77,11 +159,18 @@ public class AsyncConfig {
      * Dedicated executor for rating service integration
      * - Handles external API calls to rating service
      * - Optimized for I/O bound operations
+     * - Core size equals max size: the pool only grows past core once the queue is full,
+     *   so a bulk refresh with a few fetches in flight would otherwise run on 2 threads.
+     *   Idle threads still time out (allowCoreThreadTimeOut)
      */
     @Bean("ratingServiceExecutor")
     public Executor ratingServiceExecutor() {
+        if (virtualThreadsEnabled) {
+            return createVirtualExecutor("rating", "Rating-", virtualConcurrency.rating());
+        }
         return createExecutor(
-                2,   // corePoolSize
+                "rating",
+                8,   // corePoolSize (was 2)
                 8,   // maxPoolSize
                 200, // queueCapacity
                 "Rating-",
@@ -90,4 +179,41 @@ public class AsyncConfig {
                 new ThreadPoolExecutor.CallerRunsPolicy()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs the shard drains picked up by ShardedRatingRefresh.pollShards, so a drain of
+     * thousands of caregivers never holds one of the few scheduler threads
+     * - A single thread: a node works through one shard at a time, the fetches inside a
+     *   shard already fan out on ratingServiceExecutor
+     * - No queue: the poller does not hand over a drain while one is running
+     */
+    @Bean("ratingRefreshExecutor")
+    public Executor ratingRefreshExecutor() {
+        if (virtualThreadsEnabled) {
+            return createVirtualExecutor("rating-refresh", "RatingRefresh-", virtualConcurrency.ratingRefresh());
+        }
+        return createExecutor(
+                "rating-refresh",
+                1,   // corePoolSize
+                1,   // maxPoolSize
+                0,   // queueCapacity
+                "RatingRefresh-",
+                60,  // keepAliveSeconds
+                45,  // awaitTerminationSeconds
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Permit limit of each executor in virtual-thread mode
+     */
+    public record VirtualConcurrency(int search, int autocomplete, int rating, int ratingRefresh) {
+
+        /**
+         * Tasks that may hold a JDBC connection at once across the executors that use one
+         */
+        public int jdbcBound() {
+            return search + autocomplete + ratingRefresh;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor that starts one virtual thread per task and limits how many tasks run at once
+ * with a semaphore. Waiting tasks park their (cheap) virtual thread instead of holding a
+ * platform thread, so the real limit is the number of permits, not the number of threads.
+ */
+public class BoundedVirtualThreadExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final TaskDecorator taskDecorator;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency) {
+        this(threadNamePrefix, maxConcurrency, task -> task);
+    }
+
+    /**
+     * @param taskDecorator applied at submission, so decorated tasks observe the permit wait as queue time
+     */
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency, TaskDecorator taskDecorator) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.delegate = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.taskDecorator = taskDecorator;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable decorated = taskDecorator.decorate(task);
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                decorated.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Number of tasks currently holding a permit
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Number of tasks parked waiting for a permit
+     */
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Stops accepting tasks and waits for submitted ones to finish
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
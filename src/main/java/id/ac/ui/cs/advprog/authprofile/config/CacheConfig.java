@@ -1,6 +1,7 @@
 package id.ac.ui.cs.advprog.authprofile.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.authprofile.service.RatingSummaryCache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -14,7 +15,7 @@ import java.util.concurrent.TimeUnit;
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(RatingSummaryCache ratingSummaryCache) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
 
         // Configure cache settings
@@ -25,11 +26,14 @@ public class CacheConfig {
 
         // Set cache names
         cacheManager.setCacheNames(java.util.List.of(
-                "ratingSummary",
                 "nameSuggestions",
                 "specialitySuggestions"
         ));
 
+        // ratingSummary refreshes in the background instead of expiring (see RatingSummaryCache);
+        // registered here so evictions by cache name still reach it
+        cacheManager.registerCustomCache(RatingSummaryCache.CACHE_NAME, ratingSummaryCache.nativeCache());
+
         return cacheManager;
     }
 }
\ No newline at end of file
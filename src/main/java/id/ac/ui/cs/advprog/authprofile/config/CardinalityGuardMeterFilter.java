@@ -0,0 +1,66 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.config.MeterFilterReply;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps the number of series any single meter name may register. Once a name reaches the
+ * limit, new tag combinations are denied (they become no-op meters) and a warning is
+ * logged once, so a tag fed by unexpected input cannot grow the registry without bound.
+ */
+public class CardinalityGuardMeterFilter implements MeterFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardinalityGuardMeterFilter.class);
+
+    private final int maxSeriesPerMeter;
+    private final Set<String> exemptMeterNames;
+    private final Map<String, Set<Meter.Id>> seriesByName = new ConcurrentHashMap<>();
+    private final Set<String> overflowedNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param exemptMeterNames meters whose tags are already bounded by the framework
+     */
+    public CardinalityGuardMeterFilter(int maxSeriesPerMeter, Set<String> exemptMeterNames) {
+        if (maxSeriesPerMeter <= 0) {
+            throw new IllegalArgumentException("maxSeriesPerMeter must be positive: " + maxSeriesPerMeter);
+        }
+        this.maxSeriesPerMeter = maxSeriesPerMeter;
+        this.exemptMeterNames = exemptMeterNames;
+    }
+
+    @Override
+    public MeterFilterReply accept(Meter.Id id) {
+        if (exemptMeterNames.contains(id.getName())) {
+            return MeterFilterReply.NEUTRAL;
+        }
+
+        Set<Meter.Id> series = seriesByName.computeIfAbsent(id.getName(), name -> ConcurrentHashMap.newKeySet());
+        if (series.contains(id)) {
+            return MeterFilterReply.NEUTRAL;
+        }
+        synchronized (series) {
+            if (series.size() < maxSeriesPerMeter) {
+                series.add(id);
+                return MeterFilterReply.NEUTRAL;
+            }
+        }
+
+        if (overflowedNames.add(id.getName())) {
+            logger.warn("Meter {} reached {} series, dropping new tag combinations such as {}",
+                    id.getName(), maxSeriesPerMeter, id.getTags());
+        }
+        return MeterFilterReply.DENY;
+    }
+
+    public int getSeriesCount(String meterName) {
+        Set<Meter.Id> series = seriesByName.get(meterName);
+        return series == null ? 0 : series.size();
+    }
+}
@@ -0,0 +1,126 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-executor instrumentation for the pools built in AsyncConfig.
+ * Separates the time a task spends queued from the time it spends running,
+ * and exposes saturation gauges plus rejection / caller-runs counters.
+ */
+public class ExecutorMetrics {
+
+    private static final String EXECUTOR_TAG = "executor";
+
+    private final MeterRegistry meterRegistry;
+    private final Tags tags;
+    private final Timer queueWait;
+    private final Timer execution;
+    private final Counter rejected;
+    private final Counter callerRuns;
+
+    public ExecutorMetrics(String executorName, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.tags = Tags.of(EXECUTOR_TAG, executorName);
+
+        this.queueWait = Timer.builder("async_executor_queue_wait")
+                .description("Time tasks spend waiting before they start running")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.execution = Timer.builder("async_executor_execution")
+                .description("Time tasks spend running")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("async_executor_rejected_total")
+                .description("Tasks rejected because the pool and its queue were full")
+                .tags(tags)
+                .register(meterRegistry);
+        this.callerRuns = Counter.builder("async_executor_caller_runs_total")
+                .description("Rejected tasks that ran on the submitting thread")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decorator that records queue wait from submission to start, then execution time
+     */
+    public TaskDecorator taskDecorator() {
+        return task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    execution.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+    }
+
+    /**
+     * Wraps a rejection policy so every rejection is counted, and caller-runs separately
+     */
+    public RejectedExecutionHandler countingRejections(RejectedExecutionHandler delegate) {
+        boolean runsOnCaller = delegate instanceof ThreadPoolExecutor.CallerRunsPolicy;
+        return (task, pool) -> {
+            rejected.increment();
+            if (runsOnCaller && !pool.isShutdown()) {
+                callerRuns.increment();
+            }
+            delegate.rejectedExecution(task, pool);
+        };
+    }
+
+    public void bindPool(ThreadPoolTaskExecutor executor) {
+        registerGauges(executor,
+                ThreadPoolTaskExecutor::getActiveCount,
+                ThreadPoolTaskExecutor::getQueueSize,
+                ThreadPoolTaskExecutor::getPoolSize,
+                ThreadPoolTaskExecutor::getMaxPoolSize);
+    }
+
+    public void bindVirtual(BoundedVirtualThreadExecutor executor) {
+        registerGauges(executor,
+                BoundedVirtualThreadExecutor::getActiveCount,
+                BoundedVirtualThreadExecutor::getQueuedCount,
+                BoundedVirtualThreadExecutor::getActiveCount,
+                BoundedVirtualThreadExecutor::getMaxConcurrency);
+    }
+
+    private <T> void registerGauges(T executor,
+                                    ToIntFunction<T> active,
+                                    ToIntFunction<T> queued,
+                                    ToIntFunction<T> poolSize,
+                                    ToIntFunction<T> poolMax) {
+        Gauge.builder("async_executor_active", executor, e -> active.applyAsInt(e))
+                .description("Tasks currently running")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("async_executor_queued", executor, e -> queued.applyAsInt(e))
+                .description("Tasks waiting to run")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("async_executor_pool_size", executor, e -> poolSize.applyAsInt(e))
+                .description("Current number of worker threads")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("async_executor_pool_max", executor, e -> poolMax.applyAsInt(e))
+                .description("Maximum number of concurrently running tasks")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+}
@@ -2,21 +2,39 @@ package id.ac.ui.cs.advprog.authprofile.config;
 
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.config.MeterFilter;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.boot.actuate.info.Info;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Application metrics.
+ * Hot paths get their meters from the typed handle methods below instead of calling
+ * meterRegistry.counter(name, tags) per request: every tag combination is either
+ * pre-registered here or memoized on first use, so recording is a plain increment.
+ */
 @Configuration
 public class MonitoringConfig {
 
+    private static final String NONE = "none";
+    private static final String UNKNOWN = "unknown";
+    private static final List<String> SORT_FIELDS = List.of("name", "speciality", "averageRating", "ratingCount",
+            "weightedScore");
+    private static final List<String> USER_TYPES = List.of("pacillian", "caregiver", UNKNOWN);
+
     public MeterRegistry meterRegistry; // Make public for access from services
 
     // Authentication metrics
@@ -30,23 +48,73 @@ public class MonitoringConfig {
     private final Counter registrationAttempts;
     @Getter
     private final Counter profileUpdates;
-    @Getter
-    private final Counter authorizationDenied;
 
     // Search-specific metrics
     @Getter
     private final Counter searchRequests;
+
+    // Rating metrics
+    @Getter
+    private final Counter ratingRequests;
+    @Getter
+    private final Counter ratingRequestsSuccessful;
+    @Getter
+    private final Counter ratingRequestsFailed;
+    @Getter
+    private final Counter ratingSummaryRequests;
+    @Getter
+    private final Counter ratingSummaryRequestsSuccessful;
+    @Getter
+    private final Counter ratingSummaryRequestsFailed;
+    @Getter
+    private final Counter ratingCacheUpdatesSuccessful;
+    @Getter
+    private final Counter ratingCacheUpdatesFailed;
+    @Getter
+    private final Counter ratingBulkCacheUpdates;
     @Getter
-    private final Counter searchResults;
+    private final Counter ratingBulkCacheUpdatesSuccessful;
     @Getter
-    private final Counter suggestionRequests;
+    private final Counter ratingBulkCacheUpdatesFailed;
     @Getter
-    private final Counter suggestionResults;
+    private final Counter ratingBulkCacheUpdatesErrors;
+    @Getter
+    private final Counter ratingBulkCacheUpdatesRefused;
+    @Getter
+    private final Counter ratingSyncRatingsApplied;
+    @Getter
+    private final Counter ratingSyncRebuilds;
+    @Getter
+    private final Counter ratingSyncErrors;
+    private final Counter ratingHealthChecksHealthy;
+    private final Counter ratingHealthChecksUnhealthy;
 
     // Gauge for active sessions (simplified)
     @Getter
     private final AtomicInteger activeSessions = new AtomicInteger(0);
 
+    // Pre-registered handles indexed by their bounded tag values
+    private final Map<SearchType, Counter[]> searchRequestCounters = new EnumMap<>(SearchType.class);
+    private final Map<String, Counter> advancedSearchRequestCounters = new HashMap<>();
+    private final Map<SearchType, Counter> searchResultCounters = new EnumMap<>(SearchType.class);
+    private final Map<SearchType, DistributionSummary> searchTotalElementSummaries = new EnumMap<>(SearchType.class);
+    private final Map<SearchType, DistributionSummary> searchResultSizeSummaries = new EnumMap<>(SearchType.class);
+    private final Map<SearchType, DistributionSummary> searchPageSizeSummaries = new EnumMap<>(SearchType.class);
+    private final Map<SearchType, Map<SearchPhase, Timer>> searchPhaseTimers = new EnumMap<>(SearchType.class);
+    private final Map<SuggestionType, Counter> suggestionRequestCounters = new EnumMap<>(SuggestionType.class);
+    private final Map<SuggestionType, Counter> suggestionResultCounters = new EnumMap<>(SuggestionType.class);
+    private final Counter[] profileSearchCounters;
+    @Getter
+    private final Counter profileSearchResults;
+    private final Map<String, Counter> profileUpdateSuccessCounters = new HashMap<>();
+    private final Map<String, Timer> profileUpdateTimers = new HashMap<>();
+    private final Map<String, Counter> profileDeleteSuccessCounters = new HashMap<>();
+    private final Map<String, Timer> profileDeleteTimers = new HashMap<>();
+
+    // Handles whose tag values are only known at runtime, memoized on first use
+    private final Map<List<String>, Counter> authorizationCounters = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> failureCounters = new ConcurrentHashMap<>();
+
     @Autowired
     public MonitoringConfig(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -72,26 +140,135 @@ public class MonitoringConfig {
                 .description("Profile update operations")
                 .register(meterRegistry);
 
-        this.authorizationDenied = Counter.builder("auth_authorization_denied_total")
-                .description("Authorization denied events")
-                .register(meterRegistry);
+        // Initialize search-specific metrics. Every series of a metric carries the same
+        // tag keys, otherwise Prometheus drops all but the first one registered.
+        for (SearchType type : SearchType.values()) {
+            Counter[] counters = new Counter[4];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = searchRequestCounter(type.tagValue,
+                        String.valueOf((i & 2) != 0), String.valueOf((i & 1) != 0), NONE, NONE);
+            }
+            searchRequestCounters.put(type, counters);
 
-        // Initialize search-specific metrics
-        this.searchRequests = Counter.builder("search_requests_total")
-                .description("Total search operations performed")
-                .tag("service", "caregiver")
-                .register(meterRegistry);
+            searchResultCounters.put(type, Counter.builder("search_caregivers_results_total")
+                    .description("Total search results returned")
+                    .tag("type", type.tagValue)
+                    .register(meterRegistry));
 
-        this.searchResults = Counter.builder("search_caregivers_results_total")
-                .description("Total search results returned")
-                .register(meterRegistry);
+            searchTotalElementSummaries.put(type, DistributionSummary.builder("search_caregivers_total_elements")
+                    .description("Total matching caregivers reported by paginated searches")
+                    .tag("type", type.tagValue)
+                    .register(meterRegistry));
 
-        this.suggestionRequests = Counter.builder("search_suggestions_requests_total")
-                .description("Total suggestion requests")
-                .register(meterRegistry);
+            searchResultSizeSummaries.put(type, DistributionSummary.builder("search_caregivers_result_size")
+                    .description("Caregivers returned per search response")
+                    .tag("type", type.tagValue)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(10_000.0)
+                    .register(meterRegistry));
 
-        this.suggestionResults = Counter.builder("search_suggestions_results_total")
-                .description("Total suggestion results returned")
+            searchPageSizeSummaries.put(type, DistributionSummary.builder("search_caregivers_page_size")
+                    .description("Page size used by paginated searches after validation")
+                    .tag("type", type.tagValue)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(100.0)
+                    .register(meterRegistry));
+
+            Map<SearchPhase, Timer> phaseTimers = new EnumMap<>(SearchPhase.class);
+            for (SearchPhase phase : SearchPhase.values()) {
+                phaseTimers.put(phase, Timer.builder("search_caregivers_phase_duration")
+                        .description("Time spent in each phase of a search: database query, entity mapping, JSON serialization")
+                        .tag("type", type.tagValue)
+                        .tag("phase", phase.tagValue)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            searchPhaseTimers.put(type, phaseTimers);
+        }
+        for (String sortField : SORT_FIELDS) {
+            for (String direction : List.of("asc", "desc")) {
+                advancedSearchRequestCounters.put(sortField + ":" + direction, searchRequestCounter(
+                        SearchType.ADVANCED.tagValue, NONE, NONE, sortField, direction));
+            }
+        }
+        this.searchRequests = searchRequestCounter("profile", NONE, NONE, NONE, NONE);
+
+        for (SuggestionType type : SuggestionType.values()) {
+            suggestionRequestCounters.put(type, Counter.builder("search_suggestions_requests_total")
+                    .description("Total suggestion requests")
+                    .tag("type", type.requestTagValue)
+                    .register(meterRegistry));
+            suggestionResultCounters.put(type, Counter.builder("search_suggestions_results_total")
+                    .description("Total suggestion results returned")
+                    .tag("type", type.resultTagValue)
+                    .register(meterRegistry));
+        }
+
+        // Initialize profile metrics
+        this.profileSearchCounters = new Counter[4];
+        for (int i = 0; i < profileSearchCounters.length; i++) {
+            profileSearchCounters[i] = Counter.builder("profile_search_caregivers")
+                    .tag("hasName", String.valueOf((i & 2) != 0))
+                    .tag("hasSpeciality", String.valueOf((i & 1) != 0))
+                    .register(meterRegistry);
+        }
+        this.profileSearchResults = Counter.builder("profile_search_results").register(meterRegistry);
+
+        for (String userType : USER_TYPES) {
+            for (boolean emailChanged : new boolean[] {false, true}) {
+                String key = userType + ":" + emailChanged;
+                profileUpdateSuccessCounters.put(key, Counter.builder("profile_update_successful")
+                        .tag("userType", userType)
+                        .tag("emailChanged", String.valueOf(emailChanged))
+                        .register(meterRegistry));
+                profileUpdateTimers.put(key, Timer.builder("profile_update_duration")
+                        .description("Time taken to update user profile")
+                        .tag("userType", userType)
+                        .tag("emailChanged", String.valueOf(emailChanged))
+                        .register(meterRegistry));
+            }
+            profileDeleteSuccessCounters.put(userType, Counter.builder("profile_delete_successful")
+                    .tag("userType", userType)
+                    .register(meterRegistry));
+            profileDeleteTimers.put(userType, Timer.builder("profile_delete_duration")
+                    .description("Time taken to delete user account")
+                    .tag("userType", userType)
+                    .register(meterRegistry));
+        }
+
+        // Initialize rating metrics
+        this.ratingRequests = ratingCounter("rating_requests_total");
+        this.ratingRequestsSuccessful = ratingCounter("rating_requests_successful");
+        this.ratingRequestsFailed = Counter.builder("rating_requests_failed")
+                .tag("operation", "get_ratings")
+                .tag("reason", "client_error")
+                .register(meterRegistry);
+        this.ratingSummaryRequests = Counter.builder("rating_summary_requests_total").register(meterRegistry);
+        this.ratingSummaryRequestsSuccessful = Counter.builder("rating_summary_requests_successful").register(meterRegistry);
+        this.ratingSummaryRequestsFailed = Counter.builder("rating_summary_requests_failed").register(meterRegistry);
+        this.ratingCacheUpdatesSuccessful = Counter.builder("rating_cache_updates_successful").register(meterRegistry);
+        this.ratingCacheUpdatesFailed = Counter.builder("rating_cache_updates_failed").register(meterRegistry);
+        this.ratingBulkCacheUpdates = Counter.builder("rating_bulk_cache_updates_total").register(meterRegistry);
+        this.ratingBulkCacheUpdatesSuccessful = Counter.builder("rating_bulk_cache_updates_successful").register(meterRegistry);
+        this.ratingBulkCacheUpdatesFailed = Counter.builder("rating_bulk_cache_updates_failed").register(meterRegistry);
+        this.ratingBulkCacheUpdatesErrors = Counter.builder("rating_bulk_cache_updates_errors").register(meterRegistry);
+        this.ratingBulkCacheUpdatesRefused = Counter.builder("rating_bulk_cache_updates_refused")
+                .description("Bulk rating refreshes not started because one was already running on this node")
+                .register(meterRegistry);
+        this.ratingSyncRatingsApplied = Counter.builder("rating_sync_ratings_applied_total")
+                .description("New ratings applied incrementally from the rating feed")
+                .register(meterRegistry);
+        this.ratingSyncRebuilds = Counter.builder("rating_sync_rebuilds_total")
+                .description("Full rating cache rebuilds triggered by a missing watermark or detected drift")
+                .register(meterRegistry);
+        this.ratingSyncErrors = Counter.builder("rating_sync_errors_total").register(meterRegistry);
+        this.ratingHealthChecksHealthy = Counter.builder("rating_service_health_checks")
+                .tag("status", "healthy")
+                .register(meterRegistry);
+        this.ratingHealthChecksUnhealthy = Counter.builder("rating_service_health_checks")
+                .tag("status", "unhealthy")
                 .register(meterRegistry);
 
         // Register gauge for active sessions using the correct API
@@ -103,5 +280,170 @@ public class MonitoringConfig {
         return new TimedAspect(registry);
     }
 
+    /**
+     * Static so the filter can be applied to the registry before this configuration
+     * (which needs the registry) is created
+     */
+    @Bean
+    public static MeterFilter cardinalityGuardMeterFilter(
+            @Value("${monitoring.metrics.max-series-per-meter:200}") int maxSeriesPerMeter) {
+        return new CardinalityGuardMeterFilter(maxSeriesPerMeter,
+                Set.of("http.server.requests", "http.client.requests"));
+    }
+
+    public Counter searchRequest(SearchType type, boolean hasName, boolean hasSpeciality) {
+        return searchRequestCounters.get(type)[(hasName ? 2 : 0) | (hasSpeciality ? 1 : 0)];
+    }
+
+    /**
+     * @param sortField a validated sort field; anything else is recorded as averageRating
+     */
+    public Counter advancedSearchRequest(String sortField, boolean descending) {
+        Counter counter = advancedSearchRequestCounters.get(sortField + (descending ? ":desc" : ":asc"));
+        return counter != null ? counter
+                : advancedSearchRequestCounters.get(descending ? "averageRating:desc" : "averageRating:asc");
+    }
+
+    public Counter searchResults(SearchType type) {
+        return searchResultCounters.get(type);
+    }
+
+    public DistributionSummary searchTotalElements(SearchType type) {
+        return searchTotalElementSummaries.get(type);
+    }
+
+    public DistributionSummary searchResultSize(SearchType type) {
+        return searchResultSizeSummaries.get(type);
+    }
+
+    public DistributionSummary searchPageSize(SearchType type) {
+        return searchPageSizeSummaries.get(type);
+    }
+
+    public Timer searchPhase(SearchType type, SearchPhase phase) {
+        return searchPhaseTimers.get(type).get(phase);
+    }
+
+    public Counter suggestionRequests(SuggestionType type) {
+        return suggestionRequestCounters.get(type);
+    }
+
+    public Counter suggestionResults(SuggestionType type) {
+        return suggestionResultCounters.get(type);
+    }
+
+    public Counter ratingHealthCheck(boolean healthy) {
+        return healthy ? ratingHealthChecksHealthy : ratingHealthChecksUnhealthy;
+    }
+
+    public Counter profileSearch(boolean hasName, boolean hasSpeciality) {
+        return profileSearchCounters[(hasName ? 2 : 0) | (hasSpeciality ? 1 : 0)];
+    }
+
+    public Counter profileUpdateSuccessful(String userType, boolean emailChanged) {
+        return profileUpdateSuccessCounters.get(knownUserType(userType) + ":" + emailChanged);
+    }
+
+    public Timer profileUpdateDuration(String userType, boolean emailChanged) {
+        return profileUpdateTimers.get(knownUserType(userType) + ":" + emailChanged);
+    }
+
+    public Counter profileUpdateFailed(String userType, Exception cause) {
+        return failureCounter("profile_update_failed", knownUserType(userType), cause);
+    }
+
+    public Counter profileDeleteSuccessful(String userType) {
+        return profileDeleteSuccessCounters.get(knownUserType(userType));
+    }
+
+    public Timer profileDeleteDuration(String userType) {
+        return profileDeleteTimers.get(knownUserType(userType));
+    }
 
+    public Counter profileDeleteFailed(String userType, Exception cause) {
+        return failureCounter("profile_delete_failed", knownUserType(userType), cause);
+    }
+
+    /**
+     * Tag values come from @RequiresAuthorization actions and method names, so the set is
+     * bounded by the code base; the cardinality guard still caps it in case that changes.
+     */
+    public Counter authorization(boolean granted, String action, String userType, String method) {
+        String name = granted ? "auth_authorization_successful" : "auth_authorization_denied";
+        return authorizationCounters.computeIfAbsent(List.of(name, action, userType, method),
+                key -> Counter.builder(name)
+                        .tag("action", action)
+                        .tag("userType", userType)
+                        .tag("method", method)
+                        .register(meterRegistry));
+    }
+
+    private Counter searchRequestCounter(String type, String hasName, String hasSpeciality,
+                                         String sortBy, String sortDirection) {
+        return Counter.builder("search_requests_total")
+                .description("Total search operations performed")
+                .tag("type", type)
+                .tag("hasName", hasName)
+                .tag("hasSpeciality", hasSpeciality)
+                .tag("sortBy", sortBy)
+                .tag("sortDirection", sortDirection)
+                .register(meterRegistry);
+    }
+
+    private Counter ratingCounter(String name) {
+        return Counter.builder(name)
+                .tag("operation", "get_ratings")
+                .register(meterRegistry);
+    }
+
+    private Counter failureCounter(String name, String userType, Exception cause) {
+        String reason = cause.getClass().getSimpleName();
+        return failureCounters.computeIfAbsent(List.of(name, userType, reason),
+                key -> Counter.builder(name)
+                        .tag("userType", userType)
+                        .tag("reason", reason)
+                        .register(meterRegistry));
+    }
+
+    private static String knownUserType(String userType) {
+        return USER_TYPES.contains(userType) ? userType : UNKNOWN;
+    }
+
+    public enum SearchType {
+        OPTIMIZED("optimized"),
+        PAGINATED("paginated"),
+        ADVANCED("advanced"),
+        TOPRATED("toprated");
+
+        private final String tagValue;
+
+        SearchType(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    public enum SearchPhase {
+        DB("db"),
+        MAPPING("mapping"),
+        SERIALIZATION("serialization");
+
+        private final String tagValue;
+
+        SearchPhase(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    public enum SuggestionType {
+        NAME("name_suggestions", "name"),
+        SPECIALITY("speciality_suggestions", "speciality");
+
+        private final String requestTagValue;
+        private final String resultTagValue;
+
+        SuggestionType(String requestTagValue, String resultTagValue) {
+            this.requestTagValue = requestTagValue;
+            this.resultTagValue = resultTagValue;
+        }
+    }
 }
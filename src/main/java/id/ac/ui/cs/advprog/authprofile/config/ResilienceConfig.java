@@ -0,0 +1,103 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead for calls to the rating service.
+ * The breaker opens when too many recent calls fail or are slow, after which calls fail
+ * immediately and readers fall back to the persisted caregiver aggregate. The bulkhead
+ * caps concurrent calls at the connection pool's per-route limit, so a slow rating
+ * service cannot tie up more request threads than there are connections to give them.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceConfig.class);
+
+    public static final String RATING_SERVICE = "ratingService";
+
+    @Value("${rating.service.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${rating.service.circuit-breaker.slow-call-rate-threshold:50}")
+    private float slowCallRateThreshold;
+
+    @Value("${rating.service.circuit-breaker.slow-call-duration-ms:2000}")
+    private long slowCallDurationMillis;
+
+    @Value("${rating.service.circuit-breaker.window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${rating.service.circuit-breaker.minimum-calls:10}")
+    private int minimumNumberOfCalls;
+
+    @Value("${rating.service.circuit-breaker.wait-in-open-ms:30000}")
+    private long waitInOpenMillis;
+
+    @Value("${rating.service.circuit-breaker.half-open-calls:3}")
+    private int permittedCallsInHalfOpen;
+
+    @Value("${rating.service.bulkhead.max-concurrent-calls:20}")
+    private int maxConcurrentCalls;
+
+    @Value("${rating.service.bulkhead.max-wait-ms:0}")
+    private long bulkheadMaxWaitMillis;
+
+    @Bean
+    public CircuitBreaker ratingServiceCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMillis))
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenMillis))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpen)
+                // 4xx means the request was wrong, not that the service is unhealthy;
+                // a full bulkhead is our own back-pressure
+                .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(RATING_SERVICE);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("Rating service circuit breaker: {}", event.getStateTransition()));
+
+        // resilience4j_circuitbreaker_{state,calls,failure_rate,slow_call_rate,not_permitted_calls,...}
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead ratingServiceBulkhead(MeterRegistry meterRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(bulkheadMaxWaitMillis))
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        Bulkhead bulkhead = registry.bulkhead(RATING_SERVICE);
+
+        // resilience4j_bulkhead_{available_concurrent_calls,max_allowed_concurrent_calls}
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return bulkhead;
+    }
+}
@@ -0,0 +1,68 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchPhase;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON converter that records the serialization phase of search responses.
+ * The search controller tags the request with its SearchType; any other response is
+ * written exactly as the default converter would.
+ */
+public class SearchTimingJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final String SEARCH_TYPE_ATTRIBUTE = SearchTimingJsonHttpMessageConverter.class.getName() + ".searchType";
+
+    private final MonitoringConfig monitoringConfig;
+
+    public SearchTimingJsonHttpMessageConverter(ObjectMapper objectMapper, MonitoringConfig monitoringConfig) {
+        super(objectMapper);
+        this.monitoringConfig = monitoringConfig;
+    }
+
+    /**
+     * Marks the current request as a search so its response body gets timed
+     */
+    public static void markSearchRequest(SearchType type) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(SEARCH_TYPE_ATTRIBUTE, type, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        SearchType searchType = currentSearchType();
+        if (searchType == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            monitoringConfig.searchPhase(searchType, SearchPhase.SERIALIZATION)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Nullable
+    private static SearchType currentSearchType() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(SEARCH_TYPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof SearchType type
+                ? type : null;
+    }
+}
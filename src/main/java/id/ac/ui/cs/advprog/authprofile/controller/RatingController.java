@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.authprofile.controller;
 
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
 import id.ac.ui.cs.advprog.authprofile.security.annotation.RequiresAuthorization;
@@ -83,16 +84,18 @@ public class RatingController {
 
     /**
      * Health check endpoint for rating service integration
+     * Reports the last background probe, so this never calls the rating service itself
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> checkRatingServiceHealth() {
         logger.debug("Checking rating service health");
 
-        boolean healthy = ratingService.isRatingServiceHealthy();
+        RatingServiceHealthMonitor.State state = ratingService.getRatingServiceHealthState();
+        boolean healthy = state != RatingServiceHealthMonitor.State.DOWN;
 
         Map<String, Object> response = new HashMap<>();
         response.put("ratingServiceHealthy", healthy);
-        response.put("status", healthy ? "UP" : "DOWN");
+        response.put("status", state.name());
         response.put("timestamp", System.currentTimeMillis());
 
         HttpStatus status = healthy ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
@@ -0,0 +1,92 @@
+package id.ac.ui.cs.advprog.authprofile.controller;
+
+import id.ac.ui.cs.advprog.authprofile.dto.request.RatingEventBatchRequest;
+import id.ac.ui.cs.advprog.authprofile.dto.request.RatingEventRequest;
+import id.ac.ui.cs.advprog.authprofile.service.RatingEventAggregator;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Receives rating created/updated/deleted events pushed by the rating service.
+ * The caller authenticates with a shared secret header rather than a user JWT; events are
+ * only accumulated here and reach the database on the aggregator's next flush.
+ */
+@RestController
+@RequestMapping("/api/ratings/events")
+public class RatingEventController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingEventController.class);
+
+    public static final String TOKEN_HEADER = "X-Rating-Events-Token";
+
+    private final RatingEventAggregator ratingEventAggregator;
+    private final boolean enabled;
+    private final byte[] secret;
+
+    @Autowired
+    public RatingEventController(RatingEventAggregator ratingEventAggregator,
+                                 @Value("${rating.events.enabled:false}") boolean enabled,
+                                 @Value("${rating.events.secret:}") String secret) {
+        this.ratingEventAggregator = ratingEventAggregator;
+        this.enabled = enabled;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+
+        if (enabled && secret.isBlank()) {
+            logger.warn("Rating event ingestion is enabled but rating.events.secret is empty; all events will be rejected");
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> ingestEvents(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @Valid @RequestBody RatingEventBatchRequest request) {
+        if (!enabled) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isAuthorized(token)) {
+            logger.warn("Rejected rating events with missing or invalid {} header", TOKEN_HEADER);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Reject the whole batch before recording anything
+        for (RatingEventRequest event : request.getEvents()) {
+            if (event.getType() == RatingEventRequest.EventType.UPDATED && event.getPreviousScore() == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("message", "UPDATED event for rating " + event.getRatingId() + " requires previousScore");
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+
+        int accepted = 0;
+        int duplicates = 0;
+        for (RatingEventRequest event : request.getEvents()) {
+            if (ratingEventAggregator.record(event)) {
+                accepted++;
+            } else {
+                duplicates++;
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("accepted", accepted);
+        response.put("duplicates", duplicates);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    private boolean isAuthorized(String token) {
+        return secret.length > 0
+                && token != null
+                && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,15 @@
 package id.ac.ui.cs.advprog.authprofile.controller;
 
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import id.ac.ui.cs.advprog.authprofile.config.SearchTimingJsonHttpMessageConverter;
 import id.ac.ui.cs.advprog.authprofile.dto.response.ProfileResponse;
+import id.ac.ui.cs.advprog.authprofile.exception.SearchOverloadedException;
 import id.ac.ui.cs.advprog.authprofile.service.SearchCareGiverService;
+import id.ac.ui.cs.advprog.authprofile.service.SearchConcurrencyLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -19,11 +25,16 @@ import java.util.concurrent.CompletableFuture;
 public class SearchCareGiverController {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchCareGiverController.class);
+    private static final String SEARCH_OVERLOADED_MESSAGE = "Search is temporarily overloaded. Please retry shortly.";
+
     private final SearchCareGiverService searchCareGiverService;
+    private final SearchConcurrencyLimiter searchConcurrencyLimiter;
 
     @Autowired
-    public SearchCareGiverController(SearchCareGiverService searchCareGiverService) {
+    public SearchCareGiverController(SearchCareGiverService searchCareGiverService,
+                                     SearchConcurrencyLimiter searchConcurrencyLimiter) {
         this.searchCareGiverService = searchCareGiverService;
+        this.searchConcurrencyLimiter = searchConcurrencyLimiter;
     }
 
     /**
@@ -36,7 +47,7 @@ public class SearchCareGiverController {
 
         logger.debug("Received async search request - name: {}, speciality: {}", name, speciality);
 
-        return searchCareGiverService.searchCareGiversOptimized(name, speciality)
+        return admit(SearchType.OPTIMIZED, () -> searchCareGiverService.searchCareGiversOptimized(name, speciality))
                 .thenApply(results -> {
                     logger.debug("Search completed with {} results", results.size());
                     return ResponseEntity.ok(results);
@@ -108,7 +119,7 @@ public class SearchCareGiverController {
         logger.debug("Received paginated search request - name: {}, speciality: {}, page: {}, size: {}",
                 name, speciality, page, size);
 
-        return searchCareGiverService.searchCareGiversPaginated(name, speciality, page, size)
+        return admit(SearchType.PAGINATED, () -> searchCareGiverService.searchCareGiversPaginated(name, speciality, page, size))
                 .thenApply(results -> {
                     logger.debug("Paginated search completed - total elements: {}, total pages: {}",
                             results.getTotalElements(), results.getTotalPages());
@@ -129,7 +140,7 @@ public class SearchCareGiverController {
             @RequestParam(required = false) String speciality,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "averageRating") String sortBy,
+            @RequestParam(defaultValue = "weightedScore") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
 
         // Validate sort parameters before making async call
@@ -150,8 +161,8 @@ public class SearchCareGiverController {
         logger.debug("Received advanced search request - name: {}, speciality: {}, page: {}, size: {}, sortBy: {}, sortDirection: {}",
                 name, speciality, page, size, sortBy, sortDirection);
 
-        return searchCareGiverService.searchCareGiversPaginatedWithSort(
-                        name, speciality, page, size, sortBy, sortDirection)
+        return admit(SearchType.ADVANCED, () -> searchCareGiverService.searchCareGiversPaginatedWithSort(
+                        name, speciality, page, size, sortBy, sortDirection))
                 .thenApply(results -> {
                     logger.debug("Advanced search completed - total elements: {}", results.getTotalElements());
                     return ResponseEntity.ok(results);
@@ -172,7 +183,7 @@ public class SearchCareGiverController {
 
         logger.debug("Received top-rated caregivers request - page: {}, size: {}", page, size);
 
-        return searchCareGiverService.getTopRatedCareGivers(page, size)
+        return admit(SearchType.TOPRATED, () -> searchCareGiverService.getTopRatedCareGivers(page, size))
                 .thenApply(results -> {
                     logger.debug("Top-rated search completed - total elements: {}", results.getTotalElements());
                     return ResponseEntity.ok(results);
@@ -183,10 +194,36 @@ public class SearchCareGiverController {
                 });
     }
 
+    /**
+     * Runs an async search through the adaptive concurrency limiter.
+     * Searches over the limit, or rejected by the search pool, fail fast with 503.
+     */
+    private <T> CompletableFuture<T> admit(SearchType type, Supplier<CompletableFuture<T>> search) {
+        SearchConcurrencyLimiter.Permit permit = searchConcurrencyLimiter.tryAcquire()
+                .orElseThrow(this::overloaded);
+        SearchTimingJsonHttpMessageConverter.markSearchRequest(type);
+
+        try {
+            return search.get().whenComplete((result, ex) -> permit.release(ex == null));
+        } catch (TaskRejectedException ex) {
+            permit.release(false);
+            logger.warn("Search pool rejected the task: {}", ex.getMessage());
+            throw overloaded();
+        } catch (RuntimeException ex) {
+            permit.release(false);
+            throw ex;
+        }
+    }
+
+    private SearchOverloadedException overloaded() {
+        return new SearchOverloadedException(SEARCH_OVERLOADED_MESSAGE,
+                searchConcurrencyLimiter.getRetryAfterSeconds());
+    }
+
     // Helper methods for validation
     private boolean isValidSortField(String sortBy) {
         return sortBy != null &&
-                java.util.List.of("name", "speciality", "averageRating", "ratingCount").contains(sortBy);
+                java.util.List.of("name", "speciality", "averageRating", "ratingCount", "weightedScore").contains(sortBy);
     }
 
     private boolean isValidSortDirection(String sortDirection) {
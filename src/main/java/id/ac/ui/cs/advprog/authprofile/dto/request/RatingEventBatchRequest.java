@@ -0,0 +1,20 @@
+package id.ac.ui.cs.advprog.authprofile.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingEventBatchRequest {
+
+    @NotEmpty(message = "At least one event is required")
+    @Size(max = 1000, message = "At most 1000 events per request")
+    private List<@Valid RatingEventRequest> events;
+}
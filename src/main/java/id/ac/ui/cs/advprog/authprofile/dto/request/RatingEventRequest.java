@@ -0,0 +1,50 @@
+package id.ac.ui.cs.advprog.authprofile.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rating change pushed by the rating service.
+ * CREATED and DELETED carry the score that was added or removed; UPDATED carries the
+ * new score and the score it replaced. The eventId is assigned by the publisher once per
+ * change and kept on redelivery, so a retry can be told apart from a repeated edit.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingEventRequest {
+
+    @NotBlank(message = "Event ID is required")
+    private String eventId;
+
+    @NotNull(message = "Event type is required")
+    private EventType type;
+
+    @NotNull(message = "Rating ID is required")
+    private Long ratingId;
+
+    @NotNull(message = "Doctor ID is required")
+    private Long doctorId;
+
+    @NotNull(message = "Score is required")
+    @Min(value = 1, message = "Score must be between 1 and 5")
+    @Max(value = 5, message = "Score must be between 1 and 5")
+    private Integer score;
+
+    @Min(value = 1, message = "Previous score must be between 1 and 5")
+    @Max(value = 5, message = "Previous score must be between 1 and 5")
+    private Integer previousScore;
+
+    public enum EventType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
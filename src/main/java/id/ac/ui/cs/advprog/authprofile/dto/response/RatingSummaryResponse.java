@@ -3,6 +3,8 @@ package id.ac.ui.cs.advprog.authprofile.dto.response;
 public class RatingSummaryResponse {
     private double averageRating;
     private int totalRatings;
+    // Ratings with 1 to 5 stars; all zero when the distribution is not known
+    private int[] starCounts = new int[5];
 
     public RatingSummaryResponse() {}
 
@@ -11,6 +13,13 @@ public class RatingSummaryResponse {
         this.totalRatings = totalRatings;
     }
 
+    public RatingSummaryResponse(double averageRating, int totalRatings, int[] starCounts) {
+        this(averageRating, totalRatings);
+        if (starCounts != null) {
+            this.starCounts = starCounts;
+        }
+    }
+
     public double getAverageRating() {
         return averageRating;
     }
@@ -26,4 +35,12 @@ public class RatingSummaryResponse {
     public void setTotalRatings(int totalRatings) {
         this.totalRatings = totalRatings;
     }
+
+    public int[] getStarCounts() {
+        return starCounts;
+    }
+
+    public void setStarCounts(int[] starCounts) {
+        this.starCounts = starCounts;
+    }
 }
@@ -3,6 +3,7 @@ package id.ac.ui.cs.advprog.authprofile.exception;
 import id.ac.ui.cs.advprog.authprofile.dto.response.MessageResponse;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -65,6 +66,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(SearchOverloadedException.class)
+    public ResponseEntity<MessageResponse> handleSearchOverloadedException(SearchOverloadedException ex) {
+        MessageResponse response = new MessageResponse(ex.getMessage(), false);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<MessageResponse> handleGlobalException(Exception ex) {
         MessageResponse response = new MessageResponse("An unexpected error occurred: " + ex.getMessage(), false);
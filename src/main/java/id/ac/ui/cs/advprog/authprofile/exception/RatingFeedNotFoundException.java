@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.authprofile.exception;
+
+/**
+ * Thrown when the rating service answers the rating feed with 404, i.e. it does not offer the feed
+ */
+public class RatingFeedNotFoundException extends RatingServiceUnavailableException {
+    public RatingFeedNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
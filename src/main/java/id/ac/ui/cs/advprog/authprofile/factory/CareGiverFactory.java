@@ -6,6 +6,7 @@ import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.model.Role;
 import id.ac.ui.cs.advprog.authprofile.model.User;
 import id.ac.ui.cs.advprog.authprofile.repository.RoleRepository;
+import id.ac.ui.cs.advprog.authprofile.service.WeightedRatingScore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -19,10 +20,12 @@ import java.util.Set;
 public class CareGiverFactory implements UserFactory {
 
     private final RoleRepository roleRepository;
+    private final WeightedRatingScore weightedRatingScore;
 
     @Autowired
-    public CareGiverFactory(RoleRepository roleRepository) {
+    public CareGiverFactory(RoleRepository roleRepository, WeightedRatingScore weightedRatingScore) {
         this.roleRepository = roleRepository;
+        this.weightedRatingScore = weightedRatingScore;
     }
 
     @Override
@@ -43,6 +46,9 @@ public class CareGiverFactory implements UserFactory {
                 careGiverRequest.getWorkAddress()
         );
 
+        // Start from the prior so a new caregiver ranks alongside the other unrated ones
+        careGiver.setWeightedScore(weightedRatingScore.unratedScore());
+
         // Set CareGiver role
         Set<Role> roles = new HashSet<>();
         Role careGiverRole = roleRepository.findByName(Role.ERole.ROLE_CAREGIVER)
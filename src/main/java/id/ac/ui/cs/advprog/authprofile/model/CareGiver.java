@@ -11,7 +11,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "caregivers")
+@Table(name = "caregivers",
+        indexes = @Index(name = "idx_caregivers_weighted_score", columnList = "weighted_score, rating_count"))
 @PrimaryKeyJoinColumn(name = "user_id")
 public class CareGiver extends User {
 
@@ -21,12 +22,42 @@ public class CareGiver extends User {
     @Column(name = "work_address", nullable = false)
     private String workAddress;
 
-    @Column(name = "average_rating")
+    // The rating aggregates below are written only in SQL (event flush, incremental sync,
+    // summary refresh, weighted-score recompute), never by an entity save, so a profile edit
+    // cannot write back values it loaded before a delta landed or rewind rating_version
+    @Column(name = "average_rating", updatable = false)
     private Double averageRating = 0.0;
 
-    @Column(name = "rating_count")
+    @Column(name = "rating_count", updatable = false)
     private Integer ratingCount = 0;
 
+    // Average pulled towards the global mean, maintained by WeightedRatingScore for ranking.
+    // NOT NULL with a default so adding the column to a populated table leaves no NULLs, which
+    // PostgreSQL would sort first in the descending top-rated order
+    @Column(name = "weighted_score", nullable = false, updatable = false, columnDefinition = "double precision default 0 not null")
+    private Double weightedScore = 0.0;
+
+    // Bumped by every write of the rating aggregates, so the summary refresh can write its
+    // absolute values only if no delta landed while the summary was being fetched
+    @Column(name = "rating_version", nullable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private Long ratingVersion = 0L;
+
+    // Ratings per star, kept in step with averageRating/ratingCount by the rating sync
+    @Column(name = "rating_stars_1", updatable = false)
+    private Integer ratingStars1 = 0;
+
+    @Column(name = "rating_stars_2", updatable = false)
+    private Integer ratingStars2 = 0;
+
+    @Column(name = "rating_stars_3", updatable = false)
+    private Integer ratingStars3 = 0;
+
+    @Column(name = "rating_stars_4", updatable = false)
+    private Integer ratingStars4 = 0;
+
+    @Column(name = "rating_stars_5", updatable = false)
+    private Integer ratingStars5 = 0;
+
     public CareGiver(String email, String password, String name, String nik,
                      String address, String phoneNumber, String speciality, String workAddress) {
         super(email, password, name, nik, address, phoneNumber);
@@ -39,5 +70,31 @@ public class CareGiver extends User {
         double totalRating = (averageRating * ratingCount) + newRating;
         ratingCount++;
         averageRating = totalRating / ratingCount;
+        ratingVersion = (ratingVersion == null ? 0L : ratingVersion) + 1;
+    }
+
+    // Helper method to add a 1-5 star rating to the average and the star counts
+    public void addRating(int score) {
+        updateRating((double) score);
+        switch (score) {
+            case 1 -> ratingStars1 = orZero(ratingStars1) + 1;
+            case 2 -> ratingStars2 = orZero(ratingStars2) + 1;
+            case 3 -> ratingStars3 = orZero(ratingStars3) + 1;
+            case 4 -> ratingStars4 = orZero(ratingStars4) + 1;
+            case 5 -> ratingStars5 = orZero(ratingStars5) + 1;
+            default -> { }
+        }
+    }
+
+    /**
+     * Ratings with 1 to 5 stars, index 0 holding the 1-star count
+     */
+    public int[] starCounts() {
+        return new int[]{orZero(ratingStars1), orZero(ratingStars2), orZero(ratingStars3),
+                orZero(ratingStars4), orZero(ratingStars5)};
+    }
+
+    private static int orZero(Integer count) {
+        return count != null ? count : 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package id.ac.ui.cs.advprog.authprofile.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of a paced sweep over the caregivers, shared by every replica so the sweep
+ * carries on wherever the job runs next. Times are stored in UTC. Rows are written by
+ * PriorityRatingRefresher with plain JDBC.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rating_refresh_cursor")
+public class RatingRefreshCursor {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_caregiver_id", nullable = false)
+    private Long lastCaregiverId;
+
+    @Column(name = "sweep_started_at", nullable = false)
+    private LocalDateTime sweepStartedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,69 @@
+package id.ac.ui.cs.advprog.authprofile.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One id range (fromId, toId] of a sharded bulk rating refresh, claimed by whichever replica
+ * gets to it first. checkpointId is the last caregiver id written, so a retried shard resumes
+ * there instead of starting over. Rows are written by ShardedRatingRefresh with plain JDBC.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rating_refresh_shard", indexes = @Index(name = "idx_rating_refresh_shard_status", columnList = "status"))
+public class RatingRefreshShard {
+
+    public enum Status {
+        PENDING, CLAIMED, DONE, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "from_id", nullable = false)
+    private Long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private Long toId;
+
+    @Column(name = "checkpoint_id", nullable = false)
+    private Long checkpointId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "claimed_by")
+    private String claimedBy;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(nullable = false)
+    private int refreshed;
+
+    @Column(nullable = false)
+    private int failed;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
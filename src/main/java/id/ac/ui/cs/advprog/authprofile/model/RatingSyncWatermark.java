@@ -0,0 +1,33 @@
+package id.ac.ui.cs.advprog.authprofile.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * High-water mark of the rating feed: the last rating applied to the caregiver rating cache.
+ * Updated in the same transaction as the caregiver rows so a crash can never apply a rating twice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rating_sync_watermark")
+public class RatingSyncWatermark {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "last_rating_id", nullable = false)
+    private Long lastRatingId;
+
+    @Column(name = "last_rating_created_at")
+    private LocalDateTime lastRatingCreatedAt;
+
+    @Column(name = "synced_at")
+    private LocalDateTime syncedAt;
+}
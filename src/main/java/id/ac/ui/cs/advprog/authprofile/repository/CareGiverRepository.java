@@ -71,5 +71,16 @@ public interface CareGiverRepository extends JpaRepository<CareGiver, Long> {
             "ORDER BY c.speciality")
     List<String> findSpecialitySuggestions(@Param("query") String query);
 
+    /**
+     * Keyset page of caregiver ids after the given id, for batch jobs that walk every caregiver
+     */
+    @Query("SELECT c.id FROM CareGiver c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Keyset page of caregiver ids in (afterId, upToId], for batch jobs split into id ranges
+     */
+    @Query("SELECT c.id FROM CareGiver c WHERE c.id > :afterId AND c.id <= :upToId ORDER BY c.id")
+    List<Long> findIdsInRange(@Param("afterId") Long afterId, @Param("upToId") Long upToId, Pageable pageable);
 
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package id.ac.ui.cs.advprog.authprofile.repository;
+
+import id.ac.ui.cs.advprog.authprofile.model.RatingSyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RatingSyncWatermarkRepository extends JpaRepository<RatingSyncWatermark, String> {
+}
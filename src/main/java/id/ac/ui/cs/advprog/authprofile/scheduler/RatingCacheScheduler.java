@@ -9,10 +9,13 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Scheduler to periodically update caregiver rating caches
  * This ensures that the rating data in the auth-profile service stays up-to-date
- * with the rating service
+ * with the rating service. Each job runs under a SchedulerLeaseLock, so with several
+ * replicas only one of them runs it per interval
  */
 @Component
 @ConditionalOnProperty(value = "rating.cache.scheduler.enabled", havingValue = "true", matchIfMissing = true)
@@ -20,43 +23,84 @@ public class RatingCacheScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(RatingCacheScheduler.class);
 
+    static final String SYNC_LOCK = "rating-cache-sync";
+    static final String HEALTH_LOCK = "rating-health-check";
+
     private final IRatingService ratingService;
+    private final SchedulerLeaseLock leaseLock;
     private final boolean schedulerEnabled;
+    private final boolean eventsEnabled;
+    // Lease lengths; the at-least values must stay below the job intervals
+    private final Duration syncLockAtMost;
+    private final Duration syncLockAtLeast;
+    private final Duration healthLockAtMost;
+    private final Duration healthLockAtLeast;
 
     @Autowired
     public RatingCacheScheduler(IRatingService ratingService,
-                                @Value("${rating.cache.scheduler.enabled:true}") boolean schedulerEnabled) {
+                                SchedulerLeaseLock leaseLock,
+                                @Value("${rating.cache.scheduler.enabled:true}") boolean schedulerEnabled,
+                                @Value("${rating.events.enabled:false}") boolean eventsEnabled,
+                                @Value("${scheduler.lock.rating-sync.at-most-ms:600000}") long syncLockAtMostMillis,
+                                @Value("${scheduler.lock.rating-sync.at-least-ms:30000}") long syncLockAtLeastMillis,
+                                @Value("${scheduler.lock.rating-health.at-most-ms:300000}") long healthLockAtMostMillis,
+                                @Value("${scheduler.lock.rating-health.at-least-ms:150000}") long healthLockAtLeastMillis) {
         this.ratingService = ratingService;
+        this.leaseLock = leaseLock;
         this.schedulerEnabled = schedulerEnabled;
+        this.eventsEnabled = eventsEnabled;
+        this.syncLockAtMost = leaseLength(SYNC_LOCK, syncLockAtMostMillis, syncLockAtLeastMillis);
+        this.syncLockAtLeast = Duration.ofMillis(syncLockAtLeastMillis);
+        this.healthLockAtMost = leaseLength(HEALTH_LOCK, healthLockAtMostMillis, healthLockAtLeastMillis);
+        this.healthLockAtLeast = Duration.ofMillis(healthLockAtLeastMillis);
 
         if (schedulerEnabled) {
             logger.info("Rating cache scheduler is ENABLED");
         } else {
             logger.info("Rating cache scheduler is DISABLED");
         }
+        if (eventsEnabled) {
+            logger.info("Rating events are pushed to /api/ratings/events, polling sync is skipped");
+        }
+    }
+
+    /**
+     * A lease shortened on release to at-least must have been at least that long to begin with
+     */
+    private static Duration leaseLength(String lock, long atMostMillis, long atLeastMillis) {
+        if (atLeastMillis > atMostMillis) {
+            throw new IllegalArgumentException("Lease " + lock + " at-least (" + atLeastMillis
+                    + "ms) exceeds its at-most (" + atMostMillis + "ms)");
+        }
+        return Duration.ofMillis(atMostMillis);
     }
 
     /**
-     * Update all caregiver rating caches every hour
-     * This can be configured via application properties
+     * Sync ratings created since the last run into the caregiver rating caches
+     * Only new ratings are fetched, so this can run far more often than the old full refresh
      */
-    @Scheduled(fixedRateString = "${rating.cache.update.interval:3600000}") // Default: 1 hour
+    @Scheduled(fixedRateString = "${rating.cache.update.interval:60000}") // Default: 1 minute
     public void updateCaregiverRatingCaches() {
-        if (!schedulerEnabled) {
+        // With push ingestion the aggregator already applies every rating; polling would count them twice
+        if (!schedulerEnabled || eventsEnabled) {
             return;
         }
 
-        logger.info("Starting scheduled rating cache update");
+        leaseLock.runLocked(SYNC_LOCK, syncLockAtMost, syncLockAtLeast, this::syncRatingCaches);
+    }
+
+    private void syncRatingCaches() {
+        logger.debug("Starting scheduled rating cache sync");
 
         try {
-            // Check if rating service is healthy before attempting update
+            // Cached probe state, so skipping costs nothing while the rating service is down
             if (!ratingService.isRatingServiceHealthy()) {
                 logger.warn("Rating service is not healthy, skipping cache update");
                 return;
             }
 
-            ratingService.updateAllCaregiverRatingCaches();
-            logger.info("Scheduled rating cache update completed successfully");
+            ratingService.syncCaregiverRatingCaches();
+            logger.debug("Scheduled rating cache sync completed");
 
         } catch (Exception e) {
             logger.error("Scheduled rating cache update failed", e);
@@ -64,8 +108,31 @@ public class RatingCacheScheduler {
     }
 
     /**
-     * Health check of rating service every 5 minutes
-     * This helps monitor the connectivity to the rating service
+     * Full refresh of every caregiver from the per-doctor summaries, which also repairs what the
+     * incremental sync and the pushed events cannot see. Not lease-locked: the first replica to
+     * fire plans the sharded run and the others join it and work on its shards
+     */
+    @Scheduled(cron = "${rating.refresh.full.cron:0 0 3 * * *}")
+    public void refreshAllCaregiverRatingCaches() {
+        if (!schedulerEnabled) {
+            return;
+        }
+
+        try {
+            if (!ratingService.isRatingServiceHealthy()) {
+                logger.warn("Rating service is not healthy, skipping full rating refresh");
+                return;
+            }
+
+            ratingService.updateAllCaregiverRatingCaches();
+        } catch (Exception e) {
+            logger.error("Scheduled full rating refresh failed", e);
+        }
+    }
+
+    /**
+     * Logs the probed rating service health every 5 minutes
+     * The probe itself runs in RatingServiceHealthMonitor; this only reads its state
      */
     @Scheduled(fixedRateString = "${rating.health.check.interval:300000}") // Default: 5 minutes
     public void checkRatingServiceHealth() {
@@ -73,6 +140,10 @@ public class RatingCacheScheduler {
             return;
         }
 
+        leaseLock.runLocked(HEALTH_LOCK, healthLockAtMost, healthLockAtLeast, this::logRatingServiceHealth);
+    }
+
+    private void logRatingServiceHealth() {
         try {
             boolean healthy = ratingService.isRatingServiceHealthy();
             if (healthy) {
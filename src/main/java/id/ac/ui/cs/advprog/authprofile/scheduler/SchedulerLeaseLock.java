@@ -0,0 +1,167 @@
+package id.ac.ui.cs.advprog.authprofile.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Database lease that lets only one replica run a scheduled job per interval.
+ * A node takes the lease with a single conditional UPDATE (or the first INSERT), so the
+ * database decides the winner and nobody waits on a row lock. The lease lasts lockAtMostFor,
+ * which bounds how long a crashed node can block the job. On completion it is shortened to
+ * lockAtLeastFor after the start, so a replica whose timer fires a little later in the same
+ * interval still sees it taken. Leases compare application clocks, so nodes must be
+ * NTP-synced to well within lockAtLeastFor.
+ */
+@Component
+public class SchedulerLeaseLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLeaseLock.class);
+
+    static final String INSERT_SQL = "INSERT INTO scheduler_lock (name, locked_until, locked_at, locked_by) "
+            + "VALUES (?, ?, ?, ?)";
+    static final String ACQUIRE_SQL = "UPDATE scheduler_lock SET locked_until = ?, locked_at = ?, locked_by = ? "
+            + "WHERE name = ? AND locked_until <= ?";
+    static final String RELEASE_SQL = "UPDATE scheduler_lock SET locked_until = ? "
+            + "WHERE name = ? AND locked_by = ? AND locked_at = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final String nodeId;
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    // Outcome counters per lock name, registered on the lock's first run
+    private final Map<String, LockCounters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SchedulerLeaseLock(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${scheduler.lock.enabled:true}") boolean enabled,
+                              @Value("${scheduler.lock.node-id:}") String nodeId) {
+        this(jdbcTemplate, meterRegistry, enabled, nodeId.isBlank() ? defaultNodeId() : nodeId, Clock.systemUTC());
+    }
+
+    SchedulerLeaseLock(JdbcTemplate jdbcTemplate,
+                       MeterRegistry meterRegistry,
+                       boolean enabled,
+                       String nodeId,
+                       Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.clock = clock;
+
+        if (!enabled) {
+            logger.info("Scheduler lock is DISABLED, every replica runs every scheduled job");
+        }
+    }
+
+    private static String defaultNodeId() {
+        // pid@host from the JVM, plus a suffix so a restarted node never matches its old lease
+        return ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Runs the task if this node can take the named lease, then shortens the lease to
+     * lockAtLeastFor after the start
+     *
+     * @return true if the task ran here, false if another node holds the lease
+     */
+    public boolean runLocked(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return true;
+        }
+
+        // locked_at is matched again on release, so it must survive the column's precision;
+        // the system clock has nanoseconds while timestamp(6) keeps microseconds
+        Instant start = clock.instant().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime lockedAt = utc(start);
+        if (!tryAcquire(name, lockedAt, utc(start.plus(lockAtMostFor)))) {
+            counters(name).skipped().increment();
+            logger.debug("Skipping {}, the lease is held by another node", name);
+            return false;
+        }
+
+        counters(name).acquired().increment();
+        try {
+            task.run();
+        } finally {
+            release(name, lockedAt, start.plus(lockAtLeastFor));
+        }
+        return true;
+    }
+
+    private boolean tryAcquire(String name, LocalDateTime lockedAt, LocalDateTime lockedUntil) {
+        try {
+            // Existing row first: after the first run this is the only statement that executes
+            if (jdbcTemplate.update(ACQUIRE_SQL, lockedUntil, lockedAt, nodeId, name, lockedAt) == 1) {
+                return true;
+            }
+            jdbcTemplate.update(INSERT_SQL, name, lockedUntil, lockedAt, nodeId);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Another node created the row between our UPDATE and INSERT, so it holds the lease
+            return false;
+        } catch (DataAccessException e) {
+            // Without the database nobody can coordinate; skip this run rather than risk N copies
+            logger.warn("Could not take scheduler lock {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String name, LocalDateTime lockedAt, Instant lockAtLeastUntil) {
+        Instant now = clock.instant();
+        LocalDateTime until = utc(lockAtLeastUntil.isAfter(now) ? lockAtLeastUntil : now);
+        try {
+            // Matching on locked_at as well means an overrun past lockAtMostFor cannot cut
+            // short the lease another node has taken since
+            jdbcTemplate.update(RELEASE_SQL, until, name, nodeId, lockedAt);
+        } catch (DataAccessException e) {
+            // The lease still expires at lockAtMostFor
+            logger.warn("Could not release scheduler lock {}: {}", name, e.getMessage());
+        }
+    }
+
+    private LockCounters counters(String name) {
+        return counters.computeIfAbsent(name, lock -> new LockCounters(
+                outcomeCounter(lock, "acquired"), outcomeCounter(lock, "skipped")));
+    }
+
+    private Counter outcomeCounter(String name, String outcome) {
+        return Counter.builder("scheduler_lock_total")
+                .description("Scheduled job runs that took the lease or were skipped for another node")
+                .tag("lock", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private record LockCounters(Counter acquired, Counter skipped) {}
+}
@@ -67,6 +67,8 @@ public class WebSecurityConfig {
 
                         // Rating endpoints - public access for basic health check
                         .requestMatchers("/api/ratings/health").permitAll()
+                        // Service-to-service push, authenticated by RatingEventController's shared secret
+                        .requestMatchers(HttpMethod.POST, "/api/ratings/events").permitAll()
 
                         // MONITORING ENDPOINTS - Allow public access
                         .requestMatchers("/actuator/**").permitAll()
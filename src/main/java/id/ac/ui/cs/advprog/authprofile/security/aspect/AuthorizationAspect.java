@@ -7,7 +7,6 @@ import id.ac.ui.cs.advprog.authprofile.repository.UserRepository;
 import id.ac.ui.cs.advprog.authprofile.security.annotation.RequiresAuthorization;
 import id.ac.ui.cs.advprog.authprofile.security.strategy.AuthorizationContext;
 import io.micrometer.core.annotation.Timed;
-import io.micrometer.core.instrument.Tags;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
@@ -109,13 +108,9 @@ public class AuthorizationAspect {
         boolean authorized = authorizationContext.isAuthorized(user, resourceId, action);
 
         if (!authorized) {
-            // Increment authorization denied counter with tags - CORRECTED VERSION
-            monitoringConfig.meterRegistry.counter("auth_authorization_denied",
-                    Tags.of(
-                            "action", action,
-                            "userType", user.getClass().getSimpleName(),
-                            "method", joinPoint.getSignature().getName()
-                    )).increment();
+            // Increment authorization denied counter with tags
+            monitoringConfig.authorization(false, action,
+                    user.getClass().getSimpleName(), joinPoint.getSignature().getName()).increment();
 
             logger.warn("Authorization denied for user {} (ID: {}) attempting action: {} on resource: {}",
                     user.getEmail(), userId, action, resourceId);
@@ -126,12 +121,8 @@ public class AuthorizationAspect {
         logger.debug("Authorization successful for user {} (ID: {}) action: {} on resource: {}",
                 user.getEmail(), userId, action, resourceId);
 
-        // Increment successful authorization counter with tags - CORRECTED VERSION
-        monitoringConfig.meterRegistry.counter("auth_authorization_successful",
-                Tags.of(
-                        "action", action,
-                        "userType", user.getClass().getSimpleName(),
-                        "method", joinPoint.getSignature().getName()
-                )).increment();
+        // Increment successful authorization counter with tags
+        monitoringConfig.authorization(true, action,
+                user.getClass().getSimpleName(), joinPoint.getSignature().getName()).increment();
     }
 }
\ No newline at end of file
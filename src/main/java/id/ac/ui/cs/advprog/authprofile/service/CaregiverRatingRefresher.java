@@ -0,0 +1,280 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulk rating refresh pipeline.
+ * Caregiver ids are read in keyset pages, the rating summaries of a page are fetched on
+ * ratingServiceExecutor with at most {@code concurrency} calls in flight, and the
+ * aggregates are written back with one JDBC batch update per page. No caregiver
+ * entities are loaded, so memory stays flat regardless of how many caregivers exist.
+ * Each row's rating_version is read before its summary is fetched and the write only goes
+ * through if it is unchanged, so a delta from event ingestion or the incremental sync that
+ * lands meanwhile is not overwritten by a summary that may predate it. Such a caregiver is
+ * counted as failed and picked up again by the next refresh.
+ */
+@Component
+public class CaregiverRatingRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaregiverRatingRefresher.class);
+
+    // Star counts are left as they are when the summary does not carry them
+    static final String UPDATE_RATING_SQL = "UPDATE caregivers SET average_rating = ?, rating_count = ?, "
+            + "rating_stars_1 = COALESCE(?, rating_stars_1), rating_stars_2 = COALESCE(?, rating_stars_2), "
+            + "rating_stars_3 = COALESCE(?, rating_stars_3), rating_stars_4 = COALESCE(?, rating_stars_4), "
+            + "rating_stars_5 = COALESCE(?, rating_stars_5), rating_version = rating_version + 1 WHERE user_id = ?";
+
+    static final String UPDATE_RATING_IF_UNCHANGED_SQL = UPDATE_RATING_SQL + " AND rating_version = ?";
+
+    static final String RATING_VERSIONS_SQL = "SELECT user_id, rating_version FROM caregivers WHERE user_id IN (%s)";
+
+    private final RatingClientService ratingClientService;
+    private final CareGiverRepository careGiverRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor ratingServiceExecutor;
+    private final int pageSize;
+    private final int concurrency;
+
+    @Autowired
+    public CaregiverRatingRefresher(RatingClientService ratingClientService,
+                                    CareGiverRepository careGiverRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("ratingServiceExecutor") Executor ratingServiceExecutor,
+                                    @Value("${rating.refresh.page-size:500}") int pageSize,
+                                    @Value("${rating.refresh.concurrency:8}") int concurrency) {
+        this.ratingClientService = ratingClientService;
+        this.careGiverRepository = careGiverRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ratingServiceExecutor = ratingServiceExecutor;
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Refreshes the cached rating of every caregiver
+     *
+     * @return RefreshResult with the number of caregivers seen, updated and failed
+     */
+    public RefreshResult refreshAll() {
+        return refreshRange(0L, Long.MAX_VALUE, (lastId, page) -> { });
+    }
+
+    /**
+     * Refreshes the cached rating of caregivers with ids in (afterId, upToId], telling the
+     * listener about each page once it has been written
+     *
+     * @return RefreshResult with the number of caregivers seen, updated and failed
+     */
+    public RefreshResult refreshRange(long afterId, long upToId, PageListener listener) {
+        Semaphore permits = new Semaphore(concurrency);
+        int total = 0;
+        int successful = 0;
+        int failed = 0;
+
+        List<Long> ids;
+        do {
+            ids = careGiverRepository.findIdsInRange(afterId, upToId, PageRequest.of(0, pageSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            List<RatingUpdate> updates = fetchSummaries(ratingVersions(ids), permits);
+            int written = writeUpdates(updates).size();
+
+            total += ids.size();
+            successful += written;
+            failed += ids.size() - written;
+            afterId = ids.get(ids.size() - 1);
+            listener.pageWritten(afterId, new RefreshResult(ids.size(), written, ids.size() - written));
+
+            logger.debug("Refreshed rating page ending at caregiver {}: {} of {} updated",
+                    afterId, written, ids.size());
+        } while (ids.size() == pageSize);
+
+        return new RefreshResult(total, successful, failed);
+    }
+
+    /**
+     * Refreshes the cached rating of the given caregivers as a single page
+     *
+     * @return RefreshResult with the number of caregivers seen, updated and failed
+     */
+    public RefreshResult refreshIds(List<Long> ids) {
+        int written = refreshWrittenIds(ids).size();
+        return new RefreshResult(ids.size(), written, ids.size() - written);
+    }
+
+    /**
+     * Refreshes the cached rating of the given caregivers as a single page
+     *
+     * @return ids of the caregivers whose rows were actually written; the others failed to
+     *         fetch, no longer exist or had a delta land while their summary was in flight
+     */
+    public Set<Long> refreshWrittenIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+
+        return writeUpdates(fetchSummaries(ratingVersions(ids), new Semaphore(concurrency)));
+    }
+
+    /**
+     * rating_version of each of the given caregivers that still exists, in the order given
+     */
+    private Map<Long, Long> ratingVersions(List<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Map<Long, Long> found = new HashMap<>();
+        jdbcTemplate.query(String.format(RATING_VERSIONS_SQL, placeholders),
+                (RowCallbackHandler) rs -> found.put(rs.getLong(1), rs.getLong(2)), ids.toArray());
+
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (found.containsKey(id)) {
+                versions.put(id, found.get(id));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Fans the page out on the rating executor and waits for it; failed fetches are dropped
+     */
+    private List<RatingUpdate> fetchSummaries(Map<Long, Long> versions, Semaphore permits) {
+        List<CompletableFuture<RatingUpdate>> futures = new ArrayList<>(versions.size());
+
+        for (Map.Entry<Long, Long> version : versions.entrySet()) {
+            Long id = version.getKey();
+            permits.acquireUninterruptibly();
+            try {
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> fetchSummary(id, version.getValue()), ratingServiceExecutor)
+                        .whenComplete((update, error) -> permits.release()));
+            } catch (RuntimeException e) {
+                // Executor rejected the task before it could run
+                permits.release();
+                logger.warn("Could not schedule rating fetch for caregiver {}: {}", id, e.getMessage());
+            }
+        }
+
+        List<RatingUpdate> updates = new ArrayList<>(futures.size());
+        for (CompletableFuture<RatingUpdate> future : futures) {
+            RatingUpdate update = future.exceptionally(e -> null).join();
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+        return updates;
+    }
+
+    private RatingUpdate fetchSummary(Long caregiverId, long ratingVersion) {
+        try {
+            RatingClientService.RatingSummary summary = ratingClientService.fetchRatingSummary(caregiverId);
+            return new RatingUpdate(caregiverId, summary.getAverageRating(), summary.getTotalRatings(),
+                    summary.getStarCounts(), ratingVersion);
+        } catch (Exception e) {
+            logger.warn("Failed to fetch rating summary for caregiver {}: {}", caregiverId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes one page of aggregates in a single batch and transaction, skipping rows whose
+     * rating_version moved since it was read
+     *
+     * @return ids of the caregiver rows actually updated
+     */
+    private Set<Long> writeUpdates(List<RatingUpdate> updates) {
+        if (updates.isEmpty()) {
+            return Set.of();
+        }
+
+        int[][] results = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                UPDATE_RATING_IF_UNCHANGED_SQL, updates, updates.size(), (ps, update) -> {
+                    ps.setDouble(1, update.averageRating());
+                    ps.setInt(2, update.ratingCount());
+                    setStarCounts(ps, 3, update.starCounts());
+                    ps.setLong(8, update.caregiverId());
+                    ps.setLong(9, update.ratingVersion());
+                }));
+
+        // Batches of updates.size() rows, so the results line up with updates in order
+        Set<Long> written = new HashSet<>();
+        if (results != null) {
+            int i = 0;
+            for (int[] batch : results) {
+                for (int rows : batch) {
+                    if (rows > 0 || rows == Statement.SUCCESS_NO_INFO) {
+                        written.add(updates.get(i).caregiverId());
+                    }
+                    i++;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Binds the five star counts of UPDATE_RATING_SQL from parameterIndex on, as nulls if unknown
+     */
+    static void setStarCounts(PreparedStatement ps, int parameterIndex, int[] starCounts) throws SQLException {
+        for (int star = 0; star < 5; star++) {
+            if (starCounts == null) {
+                ps.setNull(parameterIndex + star, Types.INTEGER);
+            } else {
+                ps.setInt(parameterIndex + star, starCounts[star]);
+            }
+        }
+    }
+
+    private record RatingUpdate(Long caregiverId, double averageRating, int ratingCount, int[] starCounts,
+                                long ratingVersion) {}
+
+    /**
+     * Called after each page of a range refresh is written
+     */
+    @FunctionalInterface
+    public interface PageListener {
+        void pageWritten(long lastId, RefreshResult page);
+    }
+
+    /**
+     * Outcome of a refresh
+     */
+    public record RefreshResult(int total, int successful, int failed) {
+
+        public RefreshResult plus(RefreshResult other) {
+            return new RefreshResult(total + other.total, successful + other.successful, failed + other.failed);
+        }
+    }
+}
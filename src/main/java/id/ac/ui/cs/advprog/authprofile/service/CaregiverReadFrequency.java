@@ -0,0 +1,122 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * How often each caregiver's profile has been read on this node, recently.
+ * Reads are counted in a count-min sketch, so memory is fixed no matter how many caregivers
+ * exist and an estimate can only be too high, never too low. Every decay interval all
+ * counters are halved, so a caregiver who stops being viewed cools down within a few
+ * intervals. Caregivers whose estimate reaches the hot threshold are remembered (up to
+ * maxHotCaregivers) for PriorityRatingRefresher.
+ */
+@Component
+public class CaregiverReadFrequency {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final int mask;
+    private final int width;
+    private final AtomicIntegerArray counters;
+    private final int hotThreshold;
+    private final int maxHotCaregivers;
+    private final Set<Long> hotCaregivers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CaregiverReadFrequency(MeterRegistry meterRegistry,
+                                  @Value("${rating.refresh.priority.sketch-width:4096}") int width,
+                                  @Value("${rating.refresh.priority.hot-threshold:20}") int hotThreshold,
+                                  @Value("${rating.refresh.priority.max-hot-caregivers:1000}") int maxHotCaregivers) {
+        // Rounded up to a power of two so a column is a mask away from the hash
+        this.width = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+        this.hotThreshold = hotThreshold;
+        this.maxHotCaregivers = maxHotCaregivers;
+
+        Gauge.builder("rating_refresh_hot_caregivers", hotCaregivers, Set::size)
+                .description("Caregivers read often enough on this node to be refreshed as hot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts one profile read
+     */
+    public void recordRead(Long caregiverId) {
+        if (caregiverId == null) {
+            return;
+        }
+
+        // Plain increments rather than conservative updates: those lose reads when the same
+        // popular caregiver is viewed on several threads at once, which is exactly the case that matters
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, caregiverId)));
+        }
+
+        if (estimate >= hotThreshold && hotCaregivers.size() < maxHotCaregivers) {
+            hotCaregivers.add(caregiverId);
+        }
+    }
+
+    /**
+     * Recent reads of the caregiver; may overestimate, never underestimates
+     */
+    public int estimate(long caregiverId) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters.get(index(row, caregiverId)));
+        }
+        return min;
+    }
+
+    /**
+     * Caregivers at or above the hot threshold, most read first
+     */
+    public List<Long> getHotCaregivers() {
+        return hotCaregivers.stream()
+                .sorted(Comparator.comparingInt((Long id) -> estimate(id)).reversed())
+                .toList();
+    }
+
+    /**
+     * Halves every counter and forgets caregivers that are no longer hot
+     */
+    @Scheduled(fixedRateString = "${rating.refresh.priority.decay-ms:600000}",
+            initialDelayString = "${rating.refresh.priority.decay-ms:600000}")
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+        hotCaregivers.removeIf(id -> estimate(id) < hotThreshold);
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    private int index(int row, long caregiverId) {
+        // MurmurHash3 finalizer over the id mixed with a per-row seed
+        long h = caregiverId ^ SEEDS[row];
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return row * width + (int) (h & mask);
+    }
+}
@@ -1,9 +1,12 @@
 package id.ac.ui.cs.advprog.authprofile.service;
 
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IRatingService {
 
@@ -15,12 +18,21 @@ public interface IRatingService {
     List<RatingResponseDto> getRatingsByDoctorId(Long doctorId);
 
     /**
-     * Get rating summary (average and count) for a specific caregiver/doctor
+     * Get rating summary (average, count and star counts) for a specific caregiver/doctor
      * @param doctorId the caregiver/doctor ID
-     * @return rating summary with average and total count
+     * @return rating summary with average, total count and ratings per star
      */
     RatingSummaryResponse getRatingSummary(Long doctorId);
 
+    /**
+     * Get rating summaries for several caregivers at once, for list views
+     * Costs at most one bounded round of parallel loads; anything not loaded in time
+     * uses the caregiver's stored aggregate
+     * @param caregivers the caregivers to rate
+     * @return summaries keyed by caregiver ID
+     */
+    Map<Long, RatingSummaryResponse> getRatingSummaries(List<CareGiver> caregivers);
+
     /**
      * Get rating summary for the current authenticated user (if they are a caregiver)
      * @return rating summary for current user
@@ -28,11 +40,17 @@ public interface IRatingService {
     RatingSummaryResponse getCurrentUserRatingSummary();
 
     /**
-     * Check if the rating service is available and healthy
-     * @return true if rating service is healthy, false otherwise
+     * Check if the rating service is available, from the last background probe
+     * @return false only if the rating service is DOWN
      */
     boolean isRatingServiceHealthy();
 
+    /**
+     * Last probed state of the rating service; never calls the rating service
+     * @return UP, DEGRADED or DOWN
+     */
+    RatingServiceHealthMonitor.State getRatingServiceHealthState();
+
     /**
      * Update caregiver's cached rating data based on latest ratings
      * This method should be called periodically or when ratings are updated
@@ -45,4 +63,10 @@ public interface IRatingService {
      * This is useful for scheduled tasks to keep ratings up-to-date
      */
     void updateAllCaregiverRatingCaches();
+
+    /**
+     * Apply only the ratings created since the last sync to the caregivers' rating cache,
+     * falling back to a full rebuild when the cache is found to have drifted
+     */
+    void syncCaregiverRatingCaches();
 }
\ No newline at end of file
@@ -0,0 +1,376 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingFeedNotFoundException;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.model.RatingSyncWatermark;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.repository.RatingSyncWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps CareGiver.averageRating/ratingCount and the star counts in step with the rating
+ * service by reading only the ratings created since the persisted watermark and adding
+ * them to the stored aggregates in SQL. A full rebuild from the feed happens only when there is no
+ * watermark yet, the feed goes backwards, or a spot check against the authoritative
+ * per-doctor summary finds a caregiver that has drifted (edited or deleted ratings).
+ * A rating service without the feed (404) is refreshed per doctor instead, at most once per
+ * fallbackInterval, by starting the same sharded, checkpointed run as the scheduled full refresh.
+ */
+@Component
+public class IncrementalRatingSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalRatingSync.class);
+
+    static final String WATERMARK_NAME = "caregiver-ratings";
+    private static final double DRIFT_TOLERANCE = 1e-6;
+
+    private final RatingClientService ratingClientService;
+    private final ShardedRatingRefresh shardedRatingRefresh;
+    private final CareGiverRepository careGiverRepository;
+    private final RatingSyncWatermarkRepository watermarkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int driftSampleSize;
+    private final Duration fallbackInterval;
+    private final Clock clock;
+
+    // Round-robin position for drift checks when a sync touched too few caregivers
+    private long driftCursor = 0L;
+    // Until when the feed is known to be missing and the last per-doctor refresh still stands
+    private Instant feedMissingUntil = Instant.MIN;
+
+    @Autowired
+    public IncrementalRatingSync(RatingClientService ratingClientService,
+                                 ShardedRatingRefresh shardedRatingRefresh,
+                                 CareGiverRepository careGiverRepository,
+                                 RatingSyncWatermarkRepository watermarkRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${rating.sync.batch-size:500}") int batchSize,
+                                 @Value("${rating.sync.drift-sample-size:5}") int driftSampleSize,
+                                 @Value("${rating.sync.fallback-interval-ms:3600000}") long fallbackIntervalMillis) {
+        this(ratingClientService, shardedRatingRefresh, careGiverRepository, watermarkRepository, jdbcTemplate,
+                transactionManager, batchSize, driftSampleSize, fallbackIntervalMillis, Clock.systemUTC());
+    }
+
+    IncrementalRatingSync(RatingClientService ratingClientService,
+                          ShardedRatingRefresh shardedRatingRefresh,
+                          CareGiverRepository careGiverRepository,
+                          RatingSyncWatermarkRepository watermarkRepository,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          int batchSize,
+                          int driftSampleSize,
+                          long fallbackIntervalMillis,
+                          Clock clock) {
+        this.ratingClientService = ratingClientService;
+        this.shardedRatingRefresh = shardedRatingRefresh;
+        this.careGiverRepository = careGiverRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.driftSampleSize = driftSampleSize;
+        this.fallbackInterval = Duration.ofMillis(fallbackIntervalMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * Applies every rating created since the watermark, rebuilding instead when needed.
+     * Failures to read the feed propagate and leave the watermark where it was, except a
+     * missing feed, which falls back to the per-doctor refresh.
+     *
+     * @return SyncResult with the number of ratings applied and whether a rebuild ran
+     */
+    public synchronized SyncResult sync() {
+        Instant now = clock.instant();
+        if (now.isBefore(feedMissingUntil)) {
+            return new SyncResult(0, false);
+        }
+
+        try {
+            return syncFromFeed();
+        } catch (RatingFeedNotFoundException e) {
+            feedMissingUntil = now.plus(fallbackInterval);
+            logger.warn("Rating service has no rating feed, refreshing every caregiver per doctor instead "
+                    + "and checking for the feed again in {}s: {}", fallbackInterval.toSeconds(), e.getMessage());
+            // Drained on ratingRefreshExecutor, so a run longer than the sync lease cannot hold it
+            if (shardedRatingRefresh.startRun().isEmpty()) {
+                logger.info("A full rating refresh is already running on this node");
+            }
+            return new SyncResult(0, false);
+        }
+    }
+
+    private SyncResult syncFromFeed() {
+        RatingSyncWatermark watermark = watermarkRepository.findById(WATERMARK_NAME).orElse(null);
+        if (watermark == null) {
+            return rebuild("no watermark");
+        }
+
+        long lastRatingId = watermark.getLastRatingId();
+        int applied = 0;
+        Set<Long> touched = new LinkedHashSet<>();
+
+        List<RatingResponseDto> batch;
+        do {
+            batch = ratingClientService.getRatingsAfter(lastRatingId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            if (!isAscendingAfter(batch, lastRatingId)) {
+                return rebuild("feed returned ratings at or below watermark " + lastRatingId);
+            }
+
+            List<RatingResponseDto> page = batch;
+            Integer pageApplied = transactionTemplate.execute(status -> applyBatch(page, touched));
+            applied += pageApplied != null ? pageApplied : 0;
+            lastRatingId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == batchSize);
+
+        Long drifted = findDrift(touched, lastRatingId);
+        if (drifted != null) {
+            return rebuild("caregiver " + drifted + " drifted from the rating service");
+        }
+
+        logger.debug("Incremental rating sync applied {} ratings up to rating {}", applied, lastRatingId);
+        return new SyncResult(applied, false);
+    }
+
+    /**
+     * Folds one feed page into the caregiver rows and advances the watermark, atomically.
+     * The page is applied as increments in SQL, like RatingEventAggregator's flush, so an
+     * event flush or summary refresh that commits meanwhile is added to rather than overwritten
+     */
+    private int applyBatch(List<RatingResponseDto> batch, Set<Long> touched) {
+        // Score sum, count, then the five star counts
+        Map<Long, long[]> deltas = new LinkedHashMap<>();
+        for (RatingResponseDto rating : batch) {
+            if (rating.getDoctorId() != null && rating.getScore() != null) {
+                long[] delta = deltas.computeIfAbsent(rating.getDoctorId(), id -> new long[7]);
+                delta[0] += rating.getScore();
+                delta[1]++;
+                if (rating.getScore() >= 1 && rating.getScore() <= 5) {
+                    delta[1 + rating.getScore()]++;
+                }
+            }
+        }
+
+        List<Long> caregiverIds = new ArrayList<>(deltas.keySet());
+        List<Object[]> args = new ArrayList<>();
+        for (Long caregiverId : caregiverIds) {
+            long[] delta = deltas.get(caregiverId);
+            args.add(new Object[]{delta[1], delta[0], delta[1], delta[1],
+                    delta[2], delta[3], delta[4], delta[5], delta[6], caregiverId});
+        }
+        int[] rows = args.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(RatingEventAggregator.APPLY_DELTA_SQL, args);
+
+        int applied = 0;
+        for (int i = 0; i < rows.length; i++) {
+            // Ratings of doctors that are not caregivers here are skipped
+            if (rows[i] > 0 || rows[i] == Statement.SUCCESS_NO_INFO) {
+                Long caregiverId = caregiverIds.get(i);
+                applied += (int) deltas.get(caregiverId)[1];
+                touched.add(caregiverId);
+            }
+        }
+
+        RatingResponseDto last = batch.get(batch.size() - 1);
+        saveWatermark(last.getId(), last.getCreatedAt());
+        return applied;
+    }
+
+    /**
+     * Recomputes every caregiver's aggregate from the whole feed and resets the watermark
+     * to the last rating read, so later syncs continue exactly where the rebuild stopped
+     */
+    private SyncResult rebuild(String reason) {
+        logger.info("Rebuilding caregiver rating cache from the rating feed: {}", reason);
+
+        Map<Long, long[]> totals = new HashMap<>();
+        long lastRatingId = 0L;
+        LocalDateTime lastCreatedAt = null;
+        int ratings = 0;
+
+        List<RatingResponseDto> batch;
+        do {
+            batch = ratingClientService.getRatingsAfter(lastRatingId, batchSize);
+            for (RatingResponseDto rating : batch) {
+                if (rating.getDoctorId() != null && rating.getScore() != null) {
+                    // Score sum, count, then the five star counts
+                    long[] total = totals.computeIfAbsent(rating.getDoctorId(), id -> new long[7]);
+                    total[0] += rating.getScore();
+                    total[1]++;
+                    if (rating.getScore() >= 1 && rating.getScore() <= 5) {
+                        total[1 + rating.getScore()]++;
+                    }
+                    ratings++;
+                }
+                lastRatingId = Math.max(lastRatingId, rating.getId());
+                lastCreatedAt = rating.getCreatedAt();
+            }
+        } while (batch.size() == batchSize);
+
+        long watermarkId = lastRatingId;
+        LocalDateTime watermarkCreatedAt = lastCreatedAt;
+        transactionTemplate.executeWithoutResult(status -> {
+            writeTotals(totals);
+            saveWatermark(watermarkId, watermarkCreatedAt);
+        });
+        driftCursor = 0L;
+
+        logger.info("Rating cache rebuilt from {} ratings, watermark at rating {}", ratings, watermarkId);
+        return new SyncResult(ratings, true);
+    }
+
+    private void writeTotals(Map<Long, long[]> totals) {
+        long afterId = 0L;
+        List<Long> ids;
+        do {
+            ids = careGiverRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(CaregiverRatingRefresher.UPDATE_RATING_SQL, ids, ids.size(), (ps, id) -> {
+                long[] total = totals.get(id);
+                ps.setDouble(1, total == null ? 0.0 : (double) total[0] / total[1]);
+                ps.setInt(2, total == null ? 0 : (int) total[1]);
+                for (int star = 0; star < 5; star++) {
+                    ps.setInt(3 + star, total == null ? 0 : (int) total[2 + star]);
+                }
+                ps.setLong(8, id);
+            });
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize);
+    }
+
+    private void saveWatermark(Long lastRatingId, LocalDateTime lastRatingCreatedAt) {
+        watermarkRepository.save(new RatingSyncWatermark(
+                WATERMARK_NAME, lastRatingId, lastRatingCreatedAt, LocalDateTime.now()));
+    }
+
+    private static boolean isAscendingAfter(List<RatingResponseDto> batch, long watermark) {
+        long previous = watermark;
+        for (RatingResponseDto rating : batch) {
+            if (rating.getId() == null || rating.getId() <= previous) {
+                return false;
+            }
+            previous = rating.getId();
+        }
+        return true;
+    }
+
+    /**
+     * Compares a few caregivers against the authoritative summary: the ones this sync
+     * touched first, topped up round-robin so every caregiver is eventually checked.
+     * The summary is read after the feed, so a caregiver that does not match is compared
+     * again with the ratings created after the watermark added in; only a mismatch that
+     * those do not explain counts as drift
+     *
+     * @return id of the first drifted caregiver, or null if the sample matches
+     */
+    private Long findDrift(Set<Long> touched, long watermarkId) {
+        if (driftSampleSize <= 0) {
+            return null;
+        }
+
+        List<Long> sample = new ArrayList<>(touched).subList(0, Math.min(touched.size(), driftSampleSize));
+        if (sample.size() < driftSampleSize) {
+            sample = new ArrayList<>(sample);
+            List<Long> next = careGiverRepository.findIdsAfter(driftCursor,
+                    PageRequest.of(0, driftSampleSize - sample.size()));
+            driftCursor = next.isEmpty() || next.size() < driftSampleSize - sample.size()
+                    ? 0L : next.get(next.size() - 1);
+            for (Long id : next) {
+                if (!sample.contains(id)) {
+                    sample.add(id);
+                }
+            }
+        }
+
+        List<RatingResponseDto> newer = null;
+        for (Long caregiverId : sample) {
+            CareGiver local = careGiverRepository.findById(caregiverId).orElse(null);
+            if (local == null) {
+                continue;
+            }
+            RatingClientService.RatingSummary remote = ratingClientService.fetchRatingSummary(caregiverId);
+            if (matches(local, List.of(), remote)) {
+                continue;
+            }
+
+            if (newer == null) {
+                newer = ratingClientService.getRatingsAfter(watermarkId, batchSize);
+            }
+            if (newer.size() == batchSize) {
+                // Too many new ratings to account for; the next sync applies them and checks again
+                logger.debug("Skipping rating drift check, more than {} ratings arrived since the feed was read",
+                        batchSize);
+                return null;
+            }
+            if (!matches(local, newer, remote)) {
+                logger.warn("Rating drift for caregiver {}: local avg={} count={}, rating service avg={} count={}",
+                        caregiverId, local.getAverageRating(), local.getRatingCount(),
+                        remote.getAverageRating(), remote.getTotalRatings());
+                return caregiverId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the local aggregate plus the caregiver's ratings among {@code newer} equals the
+     * summary. Star counts are compared when the summary carries them; this also backfills
+     * rows written before the counts existed
+     */
+    private static boolean matches(CareGiver local, List<RatingResponseDto> newer,
+                                   RatingClientService.RatingSummary remote) {
+        int count = local.getRatingCount() != null ? local.getRatingCount() : 0;
+        double sum = (local.getAverageRating() != null ? local.getAverageRating() : 0.0) * count;
+        int[] stars = local.starCounts();
+        for (RatingResponseDto rating : newer) {
+            if (local.getId().equals(rating.getDoctorId()) && rating.getScore() != null) {
+                count++;
+                sum += rating.getScore();
+                if (rating.getScore() >= 1 && rating.getScore() <= 5) {
+                    stars[rating.getScore() - 1]++;
+                }
+            }
+        }
+
+        double average = count == 0 ? 0.0 : sum / count;
+        return count == remote.getTotalRatings()
+                && Math.abs(average - remote.getAverageRating()) <= DRIFT_TOLERANCE
+                && (remote.getStarCounts() == null || Arrays.equals(stars, remote.getStarCounts()));
+    }
+
+    /**
+     * Outcome of one sync
+     */
+    public record SyncResult(int ratingsApplied, boolean rebuilt) {}
+}
@@ -0,0 +1,291 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.scheduler.SchedulerLeaseLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refreshes caregiver ratings by how often they are read, within a fixed rating service budget.
+ * Every tick may spend callsPerMinute worth of calls. Hot caregivers (see
+ * CaregiverReadFrequency) come first, most read first, each at most once per hotInterval.
+ * Whatever is left goes to a sweep over all caregivers, paced so that it finishes once per
+ * coldInterval; its cursor lives in rating_refresh_cursor so the sweep carries on on whichever
+ * replica holds the tick's lease. The hot set is that replica's own read counts, which with
+ * round-robin load balancing is a fair sample of the whole service's traffic.
+ * Only caregivers whose rows were actually written count as refreshed: a hot caregiver that
+ * failed stays due, and the cursor stops before the first sweep caregiver that failed so the
+ * next tick retries it. A caregiver that fails two ticks in a row is passed over, so one bad
+ * caregiver cannot stall the sweep; the next sweep picks it up again.
+ */
+@Component
+public class PriorityRatingRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityRatingRefresher.class);
+
+    static final String TICK_LOCK = "rating-refresh-priority";
+    static final String COLD_SWEEP = "cold-sweep";
+
+    static final String CURSOR_SQL =
+            "SELECT last_caregiver_id, sweep_started_at FROM rating_refresh_cursor WHERE name = ?";
+    static final String INSERT_CURSOR_SQL = "INSERT INTO rating_refresh_cursor "
+            + "(name, last_caregiver_id, sweep_started_at, updated_at) VALUES (?, ?, ?, ?)";
+    static final String UPDATE_CURSOR_SQL = "UPDATE rating_refresh_cursor SET last_caregiver_id = ?, "
+            + "sweep_started_at = ?, updated_at = ? WHERE name = ?";
+    static final String REMAINING_SQL = "SELECT COUNT(*) FROM caregivers WHERE user_id > ?";
+
+    private static final TickResult NOTHING = new TickResult(0, 0, new CaregiverRatingRefresher.RefreshResult(0, 0, 0));
+
+    private final CaregiverRatingRefresher refresher;
+    private final CaregiverReadFrequency readFrequency;
+    private final CareGiverRepository careGiverRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLeaseLock leaseLock;
+    private final RatingServiceHealthMonitor healthMonitor;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration tick;
+    private final int callsPerTick;
+    private final Duration hotInterval;
+    private final Duration coldInterval;
+    private final Counter hotRefreshed;
+    private final Counter coldRefreshed;
+
+    // When this node last refreshed each hot caregiver
+    private final Map<Long, LocalDateTime> hotRefreshedAt = new ConcurrentHashMap<>();
+
+    // Sweep caregiver the cursor stopped before on the previous tick, if any
+    private volatile Long sweepRetryId;
+
+    @Autowired
+    public PriorityRatingRefresher(CaregiverRatingRefresher refresher,
+                                   CaregiverReadFrequency readFrequency,
+                                   CareGiverRepository careGiverRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   SchedulerLeaseLock leaseLock,
+                                   RatingServiceHealthMonitor healthMonitor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${rating.refresh.priority.enabled:true}") boolean enabled,
+                                   @Value("${rating.refresh.priority.tick-ms:60000}") long tickMillis,
+                                   @Value("${rating.refresh.priority.calls-per-minute:60}") int callsPerMinute,
+                                   @Value("${rating.refresh.priority.hot-interval-ms:300000}") long hotIntervalMillis,
+                                   @Value("${rating.refresh.priority.cold-interval-ms:86400000}") long coldIntervalMillis) {
+        this(refresher, readFrequency, careGiverRepository, jdbcTemplate, leaseLock, healthMonitor, meterRegistry,
+                enabled, tickMillis, callsPerMinute, hotIntervalMillis, coldIntervalMillis, Clock.systemUTC());
+    }
+
+    PriorityRatingRefresher(CaregiverRatingRefresher refresher,
+                            CaregiverReadFrequency readFrequency,
+                            CareGiverRepository careGiverRepository,
+                            JdbcTemplate jdbcTemplate,
+                            SchedulerLeaseLock leaseLock,
+                            RatingServiceHealthMonitor healthMonitor,
+                            MeterRegistry meterRegistry,
+                            boolean enabled,
+                            long tickMillis,
+                            int callsPerMinute,
+                            long hotIntervalMillis,
+                            long coldIntervalMillis,
+                            Clock clock) {
+        this.refresher = refresher;
+        this.readFrequency = readFrequency;
+        this.careGiverRepository = careGiverRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseLock = leaseLock;
+        this.healthMonitor = healthMonitor;
+        this.enabled = enabled;
+        this.tick = Duration.ofMillis(tickMillis);
+        this.callsPerTick = (int) Math.max(1, callsPerMinute * tickMillis / 60000);
+        this.hotInterval = Duration.ofMillis(hotIntervalMillis);
+        this.coldInterval = Duration.ofMillis(coldIntervalMillis);
+        this.clock = clock;
+
+        this.hotRefreshed = tierCounter(meterRegistry, "hot");
+        this.coldRefreshed = tierCounter(meterRegistry, "cold");
+
+        if (enabled) {
+            logger.info("Priority rating refresh enabled: {} calls per {}s, hot every {}s, everyone every {}h",
+                    callsPerTick, tick.toSeconds(), hotInterval.toSeconds(), coldInterval.toHours());
+        }
+    }
+
+    private static Counter tierCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("rating_refresh_priority_total")
+                .description("Caregiver ratings refreshed by the priority refresh, by tier")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${rating.refresh.priority.tick-ms:60000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            // Held for half a tick so a replica whose timer fires just after ours skips this one
+            leaseLock.runLocked(TICK_LOCK, tick.multipliedBy(5), tick.dividedBy(2), this::refreshDue);
+        } catch (Exception e) {
+            logger.error("Priority rating refresh failed", e);
+        }
+    }
+
+    /**
+     * Spends one tick's budget on the hot caregivers that are due, then on the sweep
+     */
+    TickResult refreshDue() {
+        if (!healthMonitor.isAvailable()) {
+            logger.debug("Rating service is not healthy, skipping priority rating refresh");
+            return NOTHING;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Long> hot = dueHotCaregivers(now);
+        SweepPage cold = nextSweepPage(callsPerTick - hot.size(), now);
+
+        Set<Long> ids = new LinkedHashSet<>(hot);
+        ids.addAll(cold.ids());
+        Set<Long> written = refresher.refreshWrittenIds(new ArrayList<>(ids));
+        CaregiverRatingRefresher.RefreshResult result =
+                new CaregiverRatingRefresher.RefreshResult(ids.size(), written.size(), ids.size() - written.size());
+
+        int hotWritten = 0;
+        for (Long id : hot) {
+            if (written.contains(id)) {
+                hotRefreshedAt.put(id, now);
+                hotWritten++;
+            }
+        }
+        int coldWritten = advanceCursor(cold, written, now);
+        hotRefreshed.increment(hotWritten);
+        coldRefreshed.increment(coldWritten);
+
+        logger.debug("Priority rating refresh: {} hot, {} cold, {} failed",
+                hot.size(), cold.ids().size(), result.failed());
+        return new TickResult(hot.size(), cold.ids().size(), result);
+    }
+
+    /**
+     * Moves the sweep cursor past the page's caregivers up to the first one that was not
+     * written, unless that one was already retried last tick
+     *
+     * @return number of sweep caregivers written
+     */
+    private int advanceCursor(SweepPage cold, Set<Long> written, LocalDateTime now) {
+        Long lastId = null;
+        Long stoppedAt = null;
+        int coldWritten = 0;
+        for (Long id : cold.ids()) {
+            if (written.contains(id)) {
+                coldWritten++;
+            } else if (stoppedAt == null && !id.equals(sweepRetryId)) {
+                stoppedAt = id;
+            } else if (stoppedAt == null) {
+                logger.warn("Rating refresh of caregiver {} failed twice, moving the sweep past it", id);
+            }
+            if (stoppedAt == null) {
+                lastId = id;
+            }
+        }
+        sweepRetryId = stoppedAt;
+
+        if (lastId != null) {
+            saveCursor(lastId, cold.sweepStartedAt(), now);
+        }
+        return coldWritten;
+    }
+
+    private List<Long> dueHotCaregivers(LocalDateTime now) {
+        List<Long> hot = readFrequency.getHotCaregivers();
+        // Forget caregivers that have cooled down so the map stays as small as the hot set
+        hotRefreshedAt.keySet().retainAll(hot);
+
+        List<Long> due = new ArrayList<>();
+        for (Long id : hot) {
+            if (due.size() >= callsPerTick) {
+                break;
+            }
+            LocalDateTime last = hotRefreshedAt.get(id);
+            if (last == null || !last.plus(hotInterval).isAfter(now)) {
+                due.add(id);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * The next caregivers of the sweep: enough to finish by the end of coldInterval at the
+     * current pace, but never more than the budget left. A finished sweep starts over only
+     * once its interval has passed
+     */
+    private SweepPage nextSweepPage(int budget, LocalDateTime now) {
+        List<SweepCursor> rows = jdbcTemplate.query(CURSOR_SQL, (rs, rowNum) -> new SweepCursor(
+                rs.getLong("last_caregiver_id"), rs.getObject("sweep_started_at", LocalDateTime.class)), COLD_SWEEP);
+        long lastId;
+        LocalDateTime sweepStartedAt;
+        if (rows.isEmpty()) {
+            jdbcTemplate.update(INSERT_CURSOR_SQL, COLD_SWEEP, 0L, now, now);
+            lastId = 0L;
+            sweepStartedAt = now;
+        } else {
+            lastId = rows.get(0).lastId();
+            sweepStartedAt = rows.get(0).sweepStartedAt();
+        }
+
+        Long remaining = jdbcTemplate.queryForObject(REMAINING_SQL, Long.class, lastId);
+        LocalDateTime sweepDue = sweepStartedAt.plus(coldInterval);
+        if (remaining == null || remaining == 0) {
+            if (now.isBefore(sweepDue)) {
+                return new SweepPage(List.of(), sweepStartedAt);
+            }
+            logger.info("Starting a new rating refresh sweep over all caregivers");
+            lastId = 0L;
+            sweepStartedAt = now;
+            sweepDue = now.plus(coldInterval);
+            remaining = jdbcTemplate.queryForObject(REMAINING_SQL, Long.class, lastId);
+        }
+
+        long ticksLeft = Math.max(1, Duration.between(now, sweepDue).dividedBy(tick));
+        long paced = (remaining == null ? 0 : remaining + ticksLeft - 1) / ticksLeft;
+        int size = (int) Math.min(paced, budget);
+        if (paced > budget) {
+            logger.debug("Rating refresh sweep is behind: {} caregivers due this tick, {} calls left", paced, budget);
+        }
+        if (size <= 0) {
+            return new SweepPage(List.of(), sweepStartedAt);
+        }
+        return new SweepPage(careGiverRepository.findIdsAfter(lastId, PageRequest.of(0, size)), sweepStartedAt);
+    }
+
+    private void saveCursor(long lastId, LocalDateTime sweepStartedAt, LocalDateTime now) {
+        jdbcTemplate.update(UPDATE_CURSOR_SQL, lastId, sweepStartedAt, now, COLD_SWEEP);
+    }
+
+    private record SweepCursor(long lastId, LocalDateTime sweepStartedAt) {}
+
+    private record SweepPage(List<Long> ids, LocalDateTime sweepStartedAt) {}
+
+    /**
+     * What one tick refreshed
+     */
+    record TickResult(int hot, int cold, CaregiverRatingRefresher.RefreshResult result) {}
+}
@@ -1,7 +1,5 @@
 package id.ac.ui.cs.advprog.authprofile.service;
 
-import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
-import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
 import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
 import id.ac.ui.cs.advprog.authprofile.dto.request.UpdateProfileRequest;
 import id.ac.ui.cs.advprog.authprofile.dto.response.ProfileResponse;
@@ -29,23 +27,22 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProfileServiceImpl implements IProfileService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProfileServiceImpl.class);
-    private static final String USER_TYPE_TAG = "userType";
-    private static final String EMAIL_CHANGED_TAG = "emailChanged";
-    private static final String REASON_TAG = "reason";
     private static final String USER_NOT_FOUND_MESSAGE = "User not found";
 
     private final UserRepository userRepository;
     private final PacillianRepository pacillianRepository;
     private final CareGiverRepository careGiverRepository;
     private final JwtUtils jwtUtils;
-    private final RatingClientService ratingClientService;
+    private final RatingReadModel ratingReadModel;
     private final MonitoringConfig monitoringConfig;
     private final IRatingService ratingService;
+    private final CaregiverReadFrequency readFrequency;
 
     @Autowired
     public ProfileServiceImpl(
@@ -53,16 +50,18 @@ public class ProfileServiceImpl implements IProfileService {
             PacillianRepository pacillianRepository,
             CareGiverRepository careGiverRepository,
             JwtUtils jwtUtils,
-            RatingClientService ratingClientService,
-            MonitoringConfig monitoringConfig, IRatingService ratingService) {
+            RatingReadModel ratingReadModel,
+            MonitoringConfig monitoringConfig, IRatingService ratingService,
+            CaregiverReadFrequency readFrequency) {
 
         this.userRepository = userRepository;
         this.pacillianRepository = pacillianRepository;
         this.careGiverRepository = careGiverRepository;
         this.jwtUtils = jwtUtils;
-        this.ratingClientService = ratingClientService;
+        this.ratingReadModel = ratingReadModel;
         this.monitoringConfig = monitoringConfig;
         this.ratingService = ratingService;
+        this.readFrequency = readFrequency;
     }
 
     @Override
@@ -91,22 +90,10 @@ public class ProfileServiceImpl implements IProfileService {
 
         ProfileResponse profile = ProfileResponse.fromUser(user);
 
-        // Enhanced rating integration for caregivers
         if (user instanceof CareGiver caregiver) {
-            try {
-                RatingSummaryResponse ratingSummary = ratingService.getRatingSummary(userId);
-                profile.setAverageRating(ratingSummary.getAverageRating());
-
-                // Also update the caregiver entity if ratings have changed significantly
-                if (Math.abs(caregiver.getAverageRating() - ratingSummary.getAverageRating()) > 0.1) {
-                    // Async update to avoid blocking the request
-                    ratingService.updateCaregiverRatingCache(userId);
-                }
-            } catch (Exception e) {
-                logger.warn("Failed to get rating summary for caregiver {}: {}", userId, e.getMessage());
-                // Fall back to cached rating from database
-                profile.setAverageRating(caregiver.getAverageRating());
-            }
+            readFrequency.recordRead(caregiver.getId());
+            // Cached summary, or the persisted aggregate if a cold load misses the read deadline
+            profile.setAverageRating(ratingReadModel.getSummary(caregiver).getAverageRating());
         }
 
         return profile;
@@ -118,8 +105,9 @@ public class ProfileServiceImpl implements IProfileService {
         logger.debug("Getting all caregivers");
 
         List<CareGiver> careGivers = careGiverRepository.findAll();
+        Map<Long, RatingSummaryResponse> ratings = ratingService.getRatingSummaries(careGivers);
         return careGivers.stream()
-                .map(this::enhanceProfileWithRating)
+                .map(careGiver -> enhanceProfileWithRating(careGiver, ratingOrPersisted(careGiver, ratings)))
                 .toList();
     }
 
@@ -132,9 +120,9 @@ public class ProfileServiceImpl implements IProfileService {
         monitoringConfig.getSearchRequests().increment();
 
         // Record search with tags
-        monitoringConfig.meterRegistry.counter("profile_search_caregivers",
-                "hasName", String.valueOf(name != null && !name.trim().isEmpty()),
-                "hasSpeciality", String.valueOf(speciality != null && !speciality.trim().isEmpty())
+        monitoringConfig.profileSearch(
+                name != null && !name.trim().isEmpty(),
+                speciality != null && !speciality.trim().isEmpty()
         ).increment();
 
         List<CareGiver> careGivers;
@@ -152,7 +140,7 @@ public class ProfileServiceImpl implements IProfileService {
         logger.debug("Found {} caregivers matching search criteria", careGivers.size());
 
         // Record search results
-        monitoringConfig.meterRegistry.counter("profile_search_results").increment(careGivers.size());
+        monitoringConfig.getProfileSearchResults().increment(careGivers.size());
 
         return careGivers.stream()
                 .map(ProfileResponse::fromUser)
@@ -160,7 +148,6 @@ public class ProfileServiceImpl implements IProfileService {
     }
 
     @Transactional
-    @Timed(value = "profile_update_duration", description = "Time taken to update user profile")
     public ProfileResponse updateCurrentUserProfile(UpdateProfileRequest updateRequest) {
         logger.info("Updating profile for current user");
 
@@ -202,27 +189,18 @@ public class ProfileServiceImpl implements IProfileService {
             logger.info("Profile update successful for user: {}", user.getEmail());
 
             // Record successful update
-            monitoringConfig.meterRegistry.counter("profile_update_successful",
-                    USER_TYPE_TAG, userType,
-                    EMAIL_CHANGED_TAG, String.valueOf(emailChanged)
-            ).increment();
+            monitoringConfig.profileUpdateSuccessful(userType, emailChanged).increment();
 
             return ProfileResponse.fromUser(user);
 
         } catch (Exception e) {
             // Record failed update
-            monitoringConfig.meterRegistry.counter("profile_update_failed",
-                    USER_TYPE_TAG, userType,
-                    REASON_TAG, e.getClass().getSimpleName()
-            ).increment();
+            monitoringConfig.profileUpdateFailed(userType, e).increment();
 
             logger.error("Profile update failed: {}", e.getMessage());
             throw e;
         } finally {
-            sample.stop(monitoringConfig.meterRegistry.timer("profile_update_duration",
-                    USER_TYPE_TAG, userType,
-                    EMAIL_CHANGED_TAG, String.valueOf(emailChanged)
-            ));
+            sample.stop(monitoringConfig.profileUpdateDuration(userType, emailChanged));
         }
     }
 
@@ -308,7 +286,6 @@ public class ProfileServiceImpl implements IProfileService {
 
     @Override
     @Transactional
-    @Timed(value = "profile_delete_duration", description = "Time taken to delete user account")
     public void deleteCurrentUserAccount() {
         logger.info("Deleting current user account");
 
@@ -333,23 +310,18 @@ public class ProfileServiceImpl implements IProfileService {
             monitoringConfig.getActiveSessions().decrementAndGet();
 
             // Record successful deletion
-            monitoringConfig.meterRegistry.counter("profile_delete_successful",
-                    USER_TYPE_TAG, userType).increment();
+            monitoringConfig.profileDeleteSuccessful(userType).increment();
 
             logger.info("Account deletion successful for user: {}", userEmail);
 
         } catch (Exception e) {
             // Record failed deletion
-            monitoringConfig.meterRegistry.counter("profile_delete_failed",
-                    USER_TYPE_TAG, userType,
-                    REASON_TAG, e.getClass().getSimpleName()
-            ).increment();
+            monitoringConfig.profileDeleteFailed(userType, e).increment();
 
             logger.error("Account deletion failed: {}", e.getMessage());
             throw e;
         } finally {
-            sample.stop(monitoringConfig.meterRegistry.timer("profile_delete_duration",
-                    USER_TYPE_TAG, userType));
+            sample.stop(monitoringConfig.profileDeleteDuration(userType));
         }
     }
 
@@ -359,8 +331,9 @@ public class ProfileServiceImpl implements IProfileService {
         logger.debug("Getting all caregivers (lite version)");
 
         List<CareGiver> careGivers = careGiverRepository.findAll();
+        Map<Long, RatingSummaryResponse> ratings = ratingService.getRatingSummaries(careGivers);
         return careGivers.stream()
-                .map(this::createLiteProfileResponseWithRating)
+                .map(careGiver -> createLiteProfileResponse(careGiver, ratingOrPersisted(careGiver, ratings)))
                 .toList();
     }
 
@@ -384,8 +357,9 @@ public class ProfileServiceImpl implements IProfileService {
             careGivers = careGiverRepository.findAll();
         }
 
+        Map<Long, RatingSummaryResponse> ratings = ratingService.getRatingSummaries(careGivers);
         return careGivers.stream()
-                .map(this::createLiteProfileResponseWithRating)
+                .map(careGiver -> createLiteProfileResponse(careGiver, ratingOrPersisted(careGiver, ratings)))
                 .toList();
     }
 
@@ -397,7 +371,8 @@ public class ProfileServiceImpl implements IProfileService {
         CareGiver careGiver = careGiverRepository.findById(caregiverId)
                 .orElseThrow(() -> new EntityNotFoundException("Caregiver not found with id: " + caregiverId));
 
-        return createLiteProfileResponseWithRating(careGiver);
+        readFrequency.recordRead(caregiverId);
+        return createLiteProfileResponse(careGiver, ratingReadModel.getSummary(careGiver));
     }
 
     @Timed(value = "profile_get_username_duration", description = "Time taken to get username by ID")
@@ -411,60 +386,35 @@ public class ProfileServiceImpl implements IProfileService {
 
     @Override
     public RatingSummaryResponse getRatingSummaryForCurrentUser() {
-        // Ambil ID user saat ini dari security context
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Long currentUserId = Long.parseLong(userDetails.getUsername());
-
-        // Panggil ratingClientService yang sudah kamu buat
-        List<RatingResponseDto> ratings = ratingClientService.getRatingsByDoctorId(currentUserId);
-
-        if (ratings == null || ratings.isEmpty()) {
-            return new RatingSummaryResponse(0, 0);
-        }
-
-        int total = ratings.size();
-        double sum = ratings.stream().mapToInt(RatingResponseDto::getScore).sum();
-        double avg = sum / total;
-
-        return new RatingSummaryResponse(avg, total);
+        return ratingService.getCurrentUserRatingSummary();
     }
 
     @Override
     public RatingSummaryResponse getRatingSummaryForCaregiver(Long caregiverId) {
-        List<RatingResponseDto> ratings = ratingClientService.getRatingsByDoctorId(caregiverId);
-
-        if (ratings == null || ratings.isEmpty()) {
-            return new RatingSummaryResponse(0, 0);
-        }
-
-        int total = ratings.size();
-        double sum = ratings.stream().mapToInt(RatingResponseDto::getScore).sum();
-        double avg = sum / total;
-
-        return new RatingSummaryResponse(avg, total);
+        return ratingReadModel.getSummary(caregiverId);
     }
 
     /**
-     * Enhanced profile creation with real-time rating data
+     * Profile for list views, rated from the batch-loaded summaries
      */
-    private ProfileResponse enhanceProfileWithRating(CareGiver careGiver) {
+    private ProfileResponse enhanceProfileWithRating(CareGiver careGiver, RatingSummaryResponse rating) {
         ProfileResponse response = ProfileResponse.fromUser(careGiver);
-
-        try {
-            RatingSummaryResponse ratingSummary = ratingService.getRatingSummary(careGiver.getId());
-            response.setAverageRating(ratingSummary.getAverageRating());
-        } catch (Exception e) {
-            logger.debug("Failed to get real-time rating for caregiver {}, using cached value", careGiver.getId());
-            response.setAverageRating(careGiver.getAverageRating());
-        }
-
+        response.setAverageRating(rating.getAverageRating());
         return response;
     }
 
+    /**
+     * The batch result for a caregiver, or its persisted aggregate if the batch left it out
+     */
+    private RatingSummaryResponse ratingOrPersisted(CareGiver careGiver, Map<Long, RatingSummaryResponse> ratings) {
+        RatingSummaryResponse rating = ratings.get(careGiver.getId());
+        return rating != null ? rating : ratingReadModel.getPersistedSummary(careGiver);
+    }
+
     /**
      * Creates a lite version of ProfileResponse with essential information and rating
      */
-    private ProfileResponse createLiteProfileResponseWithRating(CareGiver careGiver) {
+    private ProfileResponse createLiteProfileResponse(CareGiver careGiver, RatingSummaryResponse rating) {
         ProfileResponse response = new ProfileResponse();
         response.setId(careGiver.getId());
         response.setEmail(careGiver.getEmail());
@@ -477,14 +427,7 @@ public class ProfileServiceImpl implements IProfileService {
         response.setSpeciality(careGiver.getSpeciality());
         response.setWorkAddress(careGiver.getWorkAddress());
 
-        // Try to get real-time rating, fall back to cached if service is unavailable
-        try {
-            RatingSummaryResponse ratingSummary = ratingService.getRatingSummary(careGiver.getId());
-            response.setAverageRating(ratingSummary.getAverageRating());
-        } catch (Exception e) {
-            logger.debug("Using cached rating for caregiver {} due to service unavailability", careGiver.getId());
-            response.setAverageRating(careGiver.getAverageRating());
-        }
+        response.setAverageRating(rating.getAverageRating());
 
         return response;
     }
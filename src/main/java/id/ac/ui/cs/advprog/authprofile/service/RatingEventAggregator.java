@@ -0,0 +1,284 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.authprofile.dto.request.RatingEventRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind aggregation of pushed rating events.
+ * Each caregiver has one striped LongAdder holding its pending score-sum and count deltas
+ * packed into a single long, so an event is one uncontended add and a flush always sees
+ * both halves of it together, plus one LongAdder per star for the star count deltas.
+ * The totals and the star counts are reset one after the other, so an event racing with a
+ * flush can have its totals written in one flush and its stars in the next; each half is
+ * still applied exactly once and the row is consistent again a flush interval later.
+ * Flushes fold the deltas into caregivers.average_rating / rating_count / rating_stars_*
+ * with one JDBC batch and evict the affected ratingSummary entries.
+ */
+@Component
+public class RatingEventAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingEventAggregator.class);
+
+    // Score-sum delta in the high 32 bits, count delta in the low 32 bits (both signed)
+    private static final long COUNT_UNIT = 1L;
+    private static final long SCORE_UNIT = 1L << 32;
+
+    static final String APPLY_DELTA_SQL = "UPDATE caregivers SET "
+            + "average_rating = CASE WHEN COALESCE(rating_count, 0) + ? <= 0 THEN 0 "
+            + "ELSE (COALESCE(average_rating, 0) * COALESCE(rating_count, 0) + ?) / (COALESCE(rating_count, 0) + ?) END, "
+            + "rating_count = GREATEST(COALESCE(rating_count, 0) + ?, 0), "
+            + "rating_stars_1 = GREATEST(COALESCE(rating_stars_1, 0) + ?, 0), "
+            + "rating_stars_2 = GREATEST(COALESCE(rating_stars_2, 0) + ?, 0), "
+            + "rating_stars_3 = GREATEST(COALESCE(rating_stars_3, 0) + ?, 0), "
+            + "rating_stars_4 = GREATEST(COALESCE(rating_stars_4, 0) + ?, 0), "
+            + "rating_stars_5 = GREATEST(COALESCE(rating_stars_5, 0) + ?, 0), "
+            + "rating_version = rating_version + 1 "
+            + "WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, PendingDelta> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> recentEvents;
+    private final Counter eventsReceived;
+    private final Counter eventsDuplicate;
+    private final Counter caregiversFlushed;
+
+    @Autowired
+    public RatingEventAggregator(JdbcTemplate jdbcTemplate,
+                                 CacheManager cacheManager,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${rating.events.dedup-window-ms:600000}") long dedupWindowMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recentEvents = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(dedupWindowMillis))
+                .<String, Boolean>build()
+                .asMap();
+
+        this.eventsReceived = Counter.builder("rating_events_received_total")
+                .description("Rating events accepted by the ingestion endpoint")
+                .register(meterRegistry);
+        this.eventsDuplicate = Counter.builder("rating_events_duplicate_total")
+                .description("Redelivered rating events ignored within the dedup window")
+                .register(meterRegistry);
+        this.caregiversFlushed = Counter.builder("rating_events_caregivers_flushed_total")
+                .description("Caregiver rows updated by rating event flushes")
+                .register(meterRegistry);
+        Gauge.builder("rating_events_pending_caregivers", this, RatingEventAggregator::getPendingCaregivers)
+                .description("Caregivers with rating deltas waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the event's delta to its caregiver's accumulator.
+     * An event whose eventId was already seen within the dedup window (a redelivery) is
+     * ignored; distinct edits that happen to carry the same scores are all applied.
+     *
+     * @return false if the event was a duplicate
+     * @throws IllegalArgumentException if the event has no eventId, or an UPDATED event has no previousScore
+     */
+    public boolean record(RatingEventRequest event) {
+        if (event.getEventId() == null || event.getEventId().isBlank()) {
+            throw new IllegalArgumentException("Rating event requires eventId");
+        }
+        long delta = switch (event.getType()) {
+            case CREATED -> event.getScore() * SCORE_UNIT + COUNT_UNIT;
+            case UPDATED -> {
+                if (event.getPreviousScore() == null) {
+                    throw new IllegalArgumentException("UPDATED rating event requires previousScore");
+                }
+                yield (event.getScore() - event.getPreviousScore()) * SCORE_UNIT;
+            }
+            case DELETED -> -(event.getScore() * SCORE_UNIT + COUNT_UNIT);
+        };
+
+        if (recentEvents.putIfAbsent(event.getEventId(), Boolean.TRUE) != null) {
+            eventsDuplicate.increment();
+            return false;
+        }
+
+        PendingDelta caregiver = pending.computeIfAbsent(event.getDoctorId(), id -> new PendingDelta());
+        caregiver.totals.add(delta);
+        switch (event.getType()) {
+            case CREATED -> caregiver.addStar(event.getScore(), 1);
+            case UPDATED -> {
+                caregiver.addStar(event.getScore(), 1);
+                caregiver.addStar(event.getPreviousScore(), -1);
+            }
+            case DELETED -> caregiver.addStar(event.getScore(), -1);
+        }
+        eventsReceived.increment();
+        return true;
+    }
+
+    /**
+     * Writes all pending deltas and evicts the affected rating summaries
+     *
+     * @return number of caregiver rows updated
+     */
+    @Scheduled(fixedDelayString = "${rating.events.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        List<Long> caregiverIds = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        List<long[]> starDeltas = new ArrayList<>();
+
+        for (Map.Entry<Long, PendingDelta> entry : pending.entrySet()) {
+            // Atomic per cell: an add racing with the reset lands in this flush or the next,
+            // possibly with its totals and stars on different sides (see class doc)
+            long packed = entry.getValue().totals.sumThenReset();
+            long[] stars = entry.getValue().starsThenReset();
+            if (packed != 0 || Arrays.stream(stars).anyMatch(star -> star != 0)) {
+                caregiverIds.add(entry.getKey());
+                deltas.add(packed);
+                starDeltas.add(stars);
+            }
+        }
+        if (caregiverIds.isEmpty()) {
+            return 0;
+        }
+
+        int[] rows;
+        try {
+            // One transaction, so a failed flush leaves nothing half-applied
+            rows = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    long[] delta = unpack(deltas.get(i));
+                    long scoreDelta = delta[0];
+                    long countDelta = delta[1];
+                    ps.setLong(1, countDelta);
+                    ps.setLong(2, scoreDelta);
+                    ps.setLong(3, countDelta);
+                    ps.setLong(4, countDelta);
+                    long[] stars = starDeltas.get(i);
+                    for (int star = 0; star < 5; star++) {
+                        ps.setLong(5 + star, stars[star]);
+                    }
+                    ps.setLong(10, caregiverIds.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return caregiverIds.size();
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them
+            for (int i = 0; i < caregiverIds.size(); i++) {
+                PendingDelta caregiver = pending.computeIfAbsent(caregiverIds.get(i), id -> new PendingDelta());
+                caregiver.totals.add(deltas.get(i));
+                long[] stars = starDeltas.get(i);
+                for (int star = 0; star < 5; star++) {
+                    caregiver.stars[star].add(stars[star]);
+                }
+            }
+            throw e;
+        }
+
+        Cache ratingSummaryCache = cacheManager.getCache("ratingSummary");
+        int updated = 0;
+        for (int i = 0; rows != null && i < rows.length; i++) {
+            Long caregiverId = caregiverIds.get(i);
+            if (rows[i] > 0 || rows[i] == Statement.SUCCESS_NO_INFO) {
+                updated++;
+            } else {
+                // Unknown caregiver: drop the accumulator so stray ids cannot grow the map
+                pending.remove(caregiverId);
+            }
+            if (ratingSummaryCache != null) {
+                ratingSummaryCache.evict(caregiverId);
+            }
+        }
+
+        caregiversFlushed.increment(updated);
+        logger.debug("Flushed rating event deltas for {} caregivers", updated);
+        return updated;
+    }
+
+    public int getPendingCaregivers() {
+        int count = 0;
+        for (PendingDelta caregiver : pending.values()) {
+            if (caregiver.isPending()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pending deltas of one caregiver
+     */
+    private static final class PendingDelta {
+
+        private final LongAdder totals = new LongAdder();
+        private final LongAdder[] stars = {
+                new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()
+        };
+
+        void addStar(Integer score, int delta) {
+            if (score != null && score >= 1 && score <= 5) {
+                stars[score - 1].add(delta);
+            }
+        }
+
+        long[] starsThenReset() {
+            long[] deltas = new long[5];
+            for (int star = 0; star < 5; star++) {
+                deltas[star] = stars[star].sumThenReset();
+            }
+            return deltas;
+        }
+
+        boolean isPending() {
+            if (totals.sum() != 0) {
+                return true;
+            }
+            for (LongAdder star : stars) {
+                if (star.sum() != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Splits a packed accumulator into {scoreDelta, countDelta}
+     */
+    static long[] unpack(long packed) {
+        long countDelta = (int) packed;
+        long scoreDelta = (packed - countDelta) >> 32;
+        return new long[]{scoreDelta, countDelta};
+    }
+}
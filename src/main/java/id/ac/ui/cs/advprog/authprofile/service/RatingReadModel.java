@@ -0,0 +1,220 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The one place request paths read rating summaries from.
+ * Single-caregiver views go through RatingSummaryCache, waiting at most the read deadline
+ * on a cold load, and fall back to the persisted CareGiver aggregate if the rating service
+ * cannot answer in time. List views use
+ * getSummaries, which costs at most one bounded round of parallel loads with a deadline,
+ * never N sequential remote calls. Nothing here calls the rating service outside the cache.
+ */
+@Component
+public class RatingReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingReadModel.class);
+
+    private static final double DRIFT_THRESHOLD = 0.1;
+
+    private final RatingSummaryCache ratingSummaryCache;
+    private final CareGiverRepository careGiverRepository;
+    private final Counter cacheReads;
+    private final Counter persistedReads;
+    private final Counter fallbackReads;
+    private final Counter driftedReads;
+    private final long readDeadlineMillis;
+    private final int maxBatchFetches;
+    private final long batchDeadlineMillis;
+
+    @Autowired
+    public RatingReadModel(RatingSummaryCache ratingSummaryCache,
+                           CareGiverRepository careGiverRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${rating.summary.read-deadline-ms:500}") long readDeadlineMillis,
+                           @Value("${rating.summary.batch.max-fetches:32}") int maxBatchFetches,
+                           @Value("${rating.summary.batch.deadline-ms:1000}") long batchDeadlineMillis) {
+        this.ratingSummaryCache = ratingSummaryCache;
+        this.careGiverRepository = careGiverRepository;
+        this.readDeadlineMillis = readDeadlineMillis;
+        this.maxBatchFetches = maxBatchFetches;
+        this.batchDeadlineMillis = batchDeadlineMillis;
+        this.cacheReads = readCounter(meterRegistry, "cache");
+        this.persistedReads = readCounter(meterRegistry, "persisted");
+        this.fallbackReads = readCounter(meterRegistry, "fallback");
+        this.driftedReads = Counter.builder("rating_read_model_drift_total")
+                .description("Cached summaries whose average differs from the persisted aggregate by more than 0.1")
+                .register(meterRegistry);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("rating_read_model_reads_total")
+                .description("Rating summaries served, by where they came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Summary for a caregiver the caller has only the id of. The caregiver row is read
+     * only if the cache cannot produce a summary within the read deadline
+     */
+    public RatingSummaryResponse getSummary(Long caregiverId) {
+        if (caregiverId == null) {
+            return new RatingSummaryResponse(0.0, 0);
+        }
+        RatingSummaryResponse summary = cachedWithinDeadline(caregiverId);
+        if (summary != null) {
+            return summary;
+        }
+        return careGiverRepository.findById(caregiverId)
+                .map(RatingReadModel::persisted)
+                .orElseGet(() -> new RatingSummaryResponse(0.0, 0));
+    }
+
+    /**
+     * Summary for a caregiver that is already loaded, or its persisted aggregate if the
+     * cache cannot produce one within the read deadline
+     */
+    public RatingSummaryResponse getSummary(CareGiver caregiver) {
+        RatingSummaryResponse summary = cachedWithinDeadline(caregiver.getId());
+        if (summary == null) {
+            return persisted(caregiver);
+        }
+        if (Math.abs(summary.getAverageRating() - persisted(caregiver).getAverageRating()) > DRIFT_THRESHOLD) {
+            // Not written back here: absolute values from this path would race the sync's
+            // and event flush's deltas. The sync's drift check rebuilds instead
+            driftedReads.increment();
+        }
+        return summary;
+    }
+
+    /**
+     * Waits at most readDeadlineMillis for the cached summary. A cold load that misses the
+     * deadline keeps running on ratingServiceExecutor and fills the cache for the next read
+     *
+     * @return null if the summary is not available in time
+     */
+    private RatingSummaryResponse cachedWithinDeadline(Long caregiverId) {
+        try {
+            RatingSummaryResponse summary = ratingSummaryCache.getAsync(caregiverId)
+                    .get(readDeadlineMillis, TimeUnit.MILLISECONDS);
+            cacheReads.increment();
+            return summary;
+        } catch (TimeoutException e) {
+            logger.debug("Rating summary for caregiver {} not ready within {}ms, using persisted aggregate",
+                    caregiverId, readDeadlineMillis);
+        } catch (ExecutionException | RuntimeException e) {
+            logger.debug("Rating summary for caregiver {} unavailable, using persisted aggregate: {}",
+                    caregiverId, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fallbackReads.increment();
+        return null;
+    }
+
+    /**
+     * Summaries for a page of caregivers, keyed by caregiver id.
+     * Cache hits (stale ones included) are used as they are. Up to maxBatchFetches misses
+     * are loaded concurrently on ratingServiceExecutor and waited for until the deadline;
+     * misses past that limit, and loads that fail or are still running at the deadline,
+     * get the persisted aggregate. Loads left running still fill the cache for next time.
+     */
+    public Map<Long, RatingSummaryResponse> getSummaries(List<CareGiver> caregivers) {
+        Map<Long, RatingSummaryResponse> summaries = new HashMap<>();
+        Map<CareGiver, CompletableFuture<RatingSummaryResponse>> pending = new LinkedHashMap<>();
+        int fetches = 0;
+
+        for (CareGiver caregiver : caregivers) {
+            Long id = caregiver.getId();
+            CompletableFuture<RatingSummaryResponse> future = id != null ? ratingSummaryCache.getIfPresent(id) : null;
+            if (future == null && id != null && fetches < maxBatchFetches) {
+                future = ratingSummaryCache.getAsync(id);
+                fetches++;
+            }
+
+            if (future == null) {
+                persistedReads.increment();
+                summaries.put(id, persisted(caregiver));
+            } else {
+                pending.put(caregiver, future);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            awaitUntilDeadline(pending.values());
+            for (Map.Entry<CareGiver, CompletableFuture<RatingSummaryResponse>> entry : pending.entrySet()) {
+                CompletableFuture<RatingSummaryResponse> future = entry.getValue();
+                if (future.isDone() && !future.isCompletedExceptionally()) {
+                    cacheReads.increment();
+                    summaries.put(entry.getKey().getId(), future.join());
+                } else {
+                    fallbackReads.increment();
+                    summaries.put(entry.getKey().getId(), persisted(entry.getKey()));
+                }
+            }
+        }
+        return summaries;
+    }
+
+    private void awaitUntilDeadline(Collection<CompletableFuture<RatingSummaryResponse>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(batchDeadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whatever has not completed normally falls back below
+            logger.debug("Batch rating summary load incomplete: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The aggregate and star counts stored on the caregiver row, read without touching
+     * the cache or the rating service. Used for summary views
+     */
+    public RatingSummaryResponse getStoredSummary(Long caregiverId) {
+        if (caregiverId == null) {
+            return new RatingSummaryResponse(0.0, 0);
+        }
+        persistedReads.increment();
+        return careGiverRepository.findById(caregiverId)
+                .map(RatingReadModel::persisted)
+                .orElseGet(() -> new RatingSummaryResponse(0.0, 0));
+    }
+
+    /**
+     * The aggregate stored on the caregiver row, kept current by the rating sync and
+     * event ingestion. Used for lists and search results
+     */
+    public RatingSummaryResponse getPersistedSummary(CareGiver caregiver) {
+        persistedReads.increment();
+        return persisted(caregiver);
+    }
+
+    private static RatingSummaryResponse persisted(CareGiver caregiver) {
+        return new RatingSummaryResponse(
+                caregiver.getAverageRating() != null ? caregiver.getAverageRating() : 0.0,
+                caregiver.getRatingCount() != null ? caregiver.getRatingCount() : 0,
+                caregiver.starCounts());
+    }
+}
@@ -0,0 +1,82 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/ratingrefresh: progress of the latest bulk rating refresh across all replicas
+ * (shards, caregivers, checkpoints of the shards being worked on and an ETA) and the page
+ * latency seen on this node. Reads rating_refresh_shard only; nothing is started from here.
+ */
+@Component
+@Endpoint(id = "ratingrefresh")
+public class RatingRefreshEndpoint {
+
+    private final ShardedRatingRefresh shardedRatingRefresh;
+
+    public RatingRefreshEndpoint(ShardedRatingRefresh shardedRatingRefresh) {
+        this.shardedRatingRefresh = shardedRatingRefresh;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sharded", shardedRatingRefresh.isEnabled());
+
+        ShardedRatingRefresh.RunProgress run = shardedRatingRefresh.getProgress();
+        if (run == null) {
+            body.put("status", "NONE");
+        } else {
+            body.put("status", run.isActive() ? "RUNNING" : "FINISHED");
+            body.put("runId", run.runId());
+            body.put("startedAt", run.startedAt());
+            if (!run.isActive()) {
+                body.put("finishedAt", run.finishedAt());
+            }
+            body.put("percentComplete", Math.round(run.percentComplete() * 10) / 10.0);
+            body.put("elapsedSeconds", run.elapsed().toSeconds());
+            Duration eta = run.eta();
+            body.put("etaSeconds", eta == null ? null : eta.toSeconds());
+            body.put("shards", Map.of(
+                    "total", run.shards(),
+                    "pending", run.pendingShards(),
+                    "claimed", run.claimedShards(),
+                    "done", run.doneShards(),
+                    "failed", run.failedShards()));
+            body.put("caregivers", Map.of(
+                    "total", run.caregiversTotal(),
+                    "processed", run.caregiversProcessed(),
+                    "refreshed", run.caregiversRefreshed(),
+                    "failed", run.caregiversFailed()));
+            body.put("inProgress", run.inProgress());
+        }
+
+        body.put("chunkLatency", chunkLatency(shardedRatingRefresh.getChunkLatency()));
+        return body;
+    }
+
+    private static Map<String, Object> chunkLatency(HistogramSnapshot snapshot) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", snapshot.count());
+        latency.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        latency.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : List.of(snapshot.percentileValues())) {
+            latency.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                    round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return latency;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -1,71 +1,58 @@
 package id.ac.ui.cs.advprog.authprofile.service;
 
 import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
 import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
 import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.model.User;
-import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
 import id.ac.ui.cs.advprog.authprofile.repository.UserRepository;
 import io.micrometer.core.annotation.Timed;
-import io.micrometer.core.instrument.Tags;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RatingServiceImpl implements IRatingService {
 
     private static final Logger logger = LoggerFactory.getLogger(RatingServiceImpl.class);
 
-    // Constants for monitoring metrics to avoid duplication
-    private static final String OPERATION_TAG = "operation";
-    private static final String GET_RATINGS_OPERATION = "get_ratings";
-    private static final String REASON_TAG = "reason";
-    private static final String CLIENT_ERROR_REASON = "client_error";
-    private static final String STATUS_TAG = "status";
-    private static final String HEALTHY_STATUS = "healthy";
-    private static final String UNHEALTHY_STATUS = "unhealthy";
-
-    // Metric names
-    private static final String RATING_REQUESTS_TOTAL = "rating_requests_total";
-    private static final String RATING_REQUESTS_SUCCESSFUL = "rating_requests_successful";
-    private static final String RATING_REQUESTS_FAILED = "rating_requests_failed";
-    private static final String RATING_SUMMARY_REQUESTS_TOTAL = "rating_summary_requests_total";
-    private static final String RATING_SUMMARY_REQUESTS_SUCCESSFUL = "rating_summary_requests_successful";
-    private static final String RATING_SUMMARY_REQUESTS_FAILED = "rating_summary_requests_failed";
-    private static final String RATING_SERVICE_HEALTH_CHECKS = "rating_service_health_checks";
-    private static final String RATING_CACHE_UPDATES_SUCCESSFUL = "rating_cache_updates_successful";
-    private static final String RATING_CACHE_UPDATES_FAILED = "rating_cache_updates_failed";
-    private static final String RATING_BULK_CACHE_UPDATES_TOTAL = "rating_bulk_cache_updates_total";
-    private static final String RATING_BULK_CACHE_UPDATES_SUCCESSFUL = "rating_bulk_cache_updates_successful";
-    private static final String RATING_BULK_CACHE_UPDATES_FAILED = "rating_bulk_cache_updates_failed";
-    private static final String RATING_BULK_CACHE_UPDATES_ERRORS = "rating_bulk_cache_updates_errors";
-
     private final RatingClientService ratingClientService;
-    private final CareGiverRepository careGiverRepository;
     private final UserRepository userRepository;
     private final MonitoringConfig monitoringConfig;
+    private final CaregiverRatingRefresher caregiverRatingRefresher;
+    private final IncrementalRatingSync incrementalRatingSync;
+    private final RatingReadModel ratingReadModel;
+    private final RatingServiceHealthMonitor healthMonitor;
+    private final ShardedRatingRefresh shardedRatingRefresh;
 
     @Autowired
     public RatingServiceImpl(RatingClientService ratingClientService,
-                             CareGiverRepository careGiverRepository,
                              UserRepository userRepository,
-                             MonitoringConfig monitoringConfig) {
+                             MonitoringConfig monitoringConfig,
+                             CaregiverRatingRefresher caregiverRatingRefresher,
+                             IncrementalRatingSync incrementalRatingSync,
+                             RatingReadModel ratingReadModel,
+                             RatingServiceHealthMonitor healthMonitor,
+                             ShardedRatingRefresh shardedRatingRefresh) {
         this.ratingClientService = ratingClientService;
-        this.careGiverRepository = careGiverRepository;
         this.userRepository = userRepository;
         this.monitoringConfig = monitoringConfig;
+        this.caregiverRatingRefresher = caregiverRatingRefresher;
+        this.incrementalRatingSync = incrementalRatingSync;
+        this.ratingReadModel = ratingReadModel;
+        this.healthMonitor = healthMonitor;
+        this.shardedRatingRefresh = shardedRatingRefresh;
     }
 
     @Override
@@ -74,62 +61,47 @@ public class RatingServiceImpl implements IRatingService {
         logger.debug("Getting ratings for doctor ID: {}", doctorId);
 
         // Record rating request
-        monitoringConfig.meterRegistry.counter(RATING_REQUESTS_TOTAL,
-                Tags.of(OPERATION_TAG, GET_RATINGS_OPERATION)).increment();
+        monitoringConfig.getRatingRequests().increment();
 
         try {
             List<RatingResponseDto> ratings = ratingClientService.getRatingsByDoctorId(doctorId);
 
             // Record success
-            monitoringConfig.meterRegistry.counter(RATING_REQUESTS_SUCCESSFUL,
-                    Tags.of(OPERATION_TAG, GET_RATINGS_OPERATION)).increment();
+            monitoringConfig.getRatingRequestsSuccessful().increment();
 
             logger.debug("Retrieved {} ratings for doctor ID: {}", ratings.size(), doctorId);
             return ratings;
 
         } catch (Exception e) {
             // Record failure
-            monitoringConfig.meterRegistry.counter(RATING_REQUESTS_FAILED,
-                    Tags.of(OPERATION_TAG, GET_RATINGS_OPERATION, REASON_TAG, CLIENT_ERROR_REASON)).increment();
+            monitoringConfig.getRatingRequestsFailed().increment();
 
             logger.error("Failed to get ratings for doctor ID: {}", doctorId, e);
             throw e;
         }
     }
 
+    /**
+     * Served from the caregiver row by RatingReadModel, with no rating service call
+     */
     @Override
-    @Cacheable(value = "ratingSummary", key = "#doctorId")
     @Timed(value = "rating_service_get_summary_duration", description = "Time taken to get rating summary")
     public RatingSummaryResponse getRatingSummary(Long doctorId) {
         logger.debug("Getting rating summary for doctor ID: {}", doctorId);
 
-        // Record summary request
-        monitoringConfig.meterRegistry.counter(RATING_SUMMARY_REQUESTS_TOTAL).increment();
+        RatingSummaryResponse response = ratingReadModel.getStoredSummary(doctorId);
 
-        try {
-            RatingClientService.RatingSummary summary = ratingClientService.getRatingSummary(doctorId);
-
-            RatingSummaryResponse response = new RatingSummaryResponse(
-                    summary.getAverageRating(),
-                    summary.getTotalRatings()
-            );
-
-            // Record success
-            monitoringConfig.meterRegistry.counter(RATING_SUMMARY_REQUESTS_SUCCESSFUL).increment();
+        logger.debug("Rating summary for doctor {}: avg={}, total={}",
+                doctorId, response.getAverageRating(), response.getTotalRatings());
 
-            logger.debug("Rating summary for doctor {}: avg={}, total={}",
-                    doctorId, response.getAverageRating(), response.getTotalRatings());
-
-            return response;
-
-        } catch (Exception e) {
-            // Record failure
-            monitoringConfig.meterRegistry.counter(RATING_SUMMARY_REQUESTS_FAILED).increment();
+        return response;
+    }
 
-            logger.error("Failed to get rating summary for doctor ID: {}", doctorId, e);
-            // Return empty summary instead of throwing exception
-            return new RatingSummaryResponse(0.0, 0);
-        }
+    @Override
+    @Timed(value = "rating_service_get_summaries_duration", description = "Time taken to get rating summaries for a list of caregivers")
+    public Map<Long, RatingSummaryResponse> getRatingSummaries(List<CareGiver> caregivers) {
+        logger.debug("Getting rating summaries for {} caregivers", caregivers.size());
+        return ratingReadModel.getSummaries(caregivers);
     }
 
     @Override
@@ -147,12 +119,12 @@ public class RatingServiceImpl implements IRatingService {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
-            if (!(user instanceof CareGiver)) {
+            if (!(user instanceof CareGiver caregiver)) {
                 logger.warn("Current user {} is not a caregiver, returning empty rating summary", userId);
                 return new RatingSummaryResponse(0.0, 0);
             }
 
-            return getRatingSummary(userId);
+            return ratingReadModel.getSummary(caregiver);
 
         } catch (Exception e) {
             logger.error("Failed to get rating summary for current user", e);
@@ -161,100 +133,98 @@ public class RatingServiceImpl implements IRatingService {
     }
 
     @Override
-    @Timed(value = "rating_service_health_check_duration", description = "Time taken to check rating service health")
     public boolean isRatingServiceHealthy() {
-        boolean healthy = ratingClientService.isRatingServiceHealthy();
-
-        // Record health check result
-        monitoringConfig.meterRegistry.counter(RATING_SERVICE_HEALTH_CHECKS,
-                Tags.of(STATUS_TAG, healthy ? HEALTHY_STATUS : UNHEALTHY_STATUS)).increment();
+        // Cached probe result; the probe itself records rating_service_health_checks
+        return healthMonitor.isAvailable();
+    }
 
-        return healthy;
+    @Override
+    public RatingServiceHealthMonitor.State getRatingServiceHealthState() {
+        return healthMonitor.getState();
     }
 
+    /**
+     * Refreshes one caregiver through CaregiverRatingRefresher, so the write carries the star
+     * counts and only lands if no rating delta was applied while the summary was fetched
+     */
     @Override
-    @Transactional
     @Timed(value = "rating_service_update_cache_duration", description = "Time taken to update caregiver rating cache")
     public void updateCaregiverRatingCache(Long caregiverId) {
         logger.debug("Updating rating cache for caregiver: {}", caregiverId);
 
         try {
-            CareGiver caregiver = careGiverRepository.findById(caregiverId)
-                    .orElseThrow(() -> new EntityNotFoundException("Caregiver not found: " + caregiverId));
-
-            RatingClientService.RatingSummary summary = ratingClientService.getRatingSummary(caregiverId);
-
-            // Update caregiver's rating fields
-            caregiver.setAverageRating(summary.getAverageRating());
-            caregiver.setRatingCount(summary.getTotalRatings());
-
-            careGiverRepository.save(caregiver);
-
-            // Record cache update
-            monitoringConfig.meterRegistry.counter(RATING_CACHE_UPDATES_SUCCESSFUL).increment();
-
-            logger.info("Updated rating cache for caregiver {}: avg={}, count={}",
-                    caregiverId, summary.getAverageRating(), summary.getTotalRatings());
+            CaregiverRatingRefresher.RefreshResult result = caregiverRatingRefresher.refreshIds(List.of(caregiverId));
+            if (result.successful() == 1) {
+                monitoringConfig.getRatingCacheUpdatesSuccessful().increment();
+                logger.info("Updated rating cache for caregiver {}", caregiverId);
+            } else {
+                // Unknown caregiver, failed fetch or a delta that landed meanwhile
+                monitoringConfig.getRatingCacheUpdatesFailed().increment();
+                logger.warn("Rating cache for caregiver {} was not updated", caregiverId);
+            }
 
         } catch (Exception e) {
-            monitoringConfig.meterRegistry.counter(RATING_CACHE_UPDATES_FAILED).increment();
+            monitoringConfig.getRatingCacheUpdatesFailed().increment();
             logger.error("Failed to update rating cache for caregiver: {}", caregiverId, e);
         }
     }
 
+    /**
+     * Starts a full refresh through ShardedRatingRefresh and returns at once. The run is split
+     * into checkpointed id-range shards shared with the other replicas and drained on
+     * ratingRefreshExecutor; the counts recorded when it finishes cover only the shards
+     * refreshed here. A call made while a refresh is draining on this node is refused;
+     * across replicas, a refresh started while a run is active joins it
+     */
     @Override
-    @Async("searchTaskExecutor")
-    @Timed(value = "rating_service_bulk_update_duration", description = "Time taken to bulk update all caregiver rating caches")
     public void updateAllCaregiverRatingCaches() {
-        logger.info("Starting bulk update of all caregiver rating caches");
-
-        try {
-            List<CareGiver> allCaregivers = careGiverRepository.findAll();
-            int totalCaregivers = allCaregivers.size();
-
-            BulkUpdateResult result = processBulkCacheUpdate(allCaregivers);
-
-            logger.info("Bulk update completed: {} total, {} successful, {} failed",
-                    totalCaregivers, result.successCount(), result.failureCount());
-
-            // Record bulk update metrics
+        Optional<CompletableFuture<CaregiverRatingRefresher.RefreshResult>> run = shardedRatingRefresh.startRun();
+        if (run.isEmpty()) {
+            logger.warn("Bulk rating cache update is already running, not starting another");
+            monitoringConfig.getRatingBulkCacheUpdatesRefused().increment();
+            return;
+        }
 
-            monitoringConfig.meterRegistry.counter(RATING_BULK_CACHE_UPDATES_TOTAL).increment(totalCaregivers);
-            monitoringConfig.meterRegistry.counter(RATING_BULK_CACHE_UPDATES_SUCCESSFUL).increment(result.successCount());
-            monitoringConfig.meterRegistry.counter(RATING_BULK_CACHE_UPDATES_FAILED).increment(result.failureCount());
+        logger.info("Starting bulk update of all caregiver rating caches");
+        run.get().whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("Failed to perform bulk rating cache update", error);
+                monitoringConfig.getRatingBulkCacheUpdatesErrors().increment();
+            } else {
+                recordBulkResult(result);
+            }
+        });
+    }
 
+    private void recordBulkResult(CaregiverRatingRefresher.RefreshResult result) {
+        logger.info("Bulk update completed: {} total, {} successful, {} failed",
+                result.total(), result.successful(), result.failed());
 
-        } catch (Exception e) {
-            logger.error("Failed to perform bulk rating cache update", e);
-            monitoringConfig.meterRegistry.counter(RATING_BULK_CACHE_UPDATES_ERRORS).increment();
-        }
+        // Record bulk update metrics
+        monitoringConfig.getRatingBulkCacheUpdates().increment(result.total());
+        monitoringConfig.getRatingBulkCacheUpdatesSuccessful().increment(result.successful());
+        monitoringConfig.getRatingBulkCacheUpdatesFailed().increment(result.failed());
+        monitoringConfig.getRatingCacheUpdatesSuccessful().increment(result.successful());
+        monitoringConfig.getRatingCacheUpdatesFailed().increment(result.failed());
     }
 
-    /**
-     * Processes the bulk cache update for all caregivers
-     *
-     * @param caregivers List of caregivers to update
-     * @return BulkUpdateResult containing success and failure counts
-     */
-    private BulkUpdateResult processBulkCacheUpdate(List<CareGiver> caregivers) {
-        int successCount = 0;
-        int failureCount = 0;
-
-        for (CareGiver caregiver : caregivers) {
-            try {
-                updateCaregiverRatingCache(caregiver.getId());
-                successCount++;
-            } catch (Exception e) {
-                failureCount++;
-                logger.warn("Failed to update cache for caregiver {}: {}", caregiver.getId(), e.getMessage());
+    @Override
+    @Timed(value = "rating_service_sync_duration", description = "Time taken to sync new ratings into the caregiver rating cache")
+    public void syncCaregiverRatingCaches() {
+        try {
+            IncrementalRatingSync.SyncResult result = incrementalRatingSync.sync();
+
+            monitoringConfig.getRatingSyncRatingsApplied().increment(result.ratingsApplied());
+            if (result.rebuilt()) {
+                monitoringConfig.getRatingSyncRebuilds().increment();
+                logger.info("Rating cache rebuilt from {} ratings", result.ratingsApplied());
+            } else if (result.ratingsApplied() > 0) {
+                logger.info("Synced {} new ratings into the caregiver rating cache", result.ratingsApplied());
             }
-        }
 
-        return new BulkUpdateResult(successCount, failureCount);
+        } catch (Exception e) {
+            monitoringConfig.getRatingSyncErrors().increment();
+            logger.error("Failed to sync caregiver rating caches", e);
+        }
     }
-
-    /**
-     * Record to hold bulk update results
-     */
-    private record BulkUpdateResult(int successCount, int failureCount) {}
-}
\ No newline at end of file
+}
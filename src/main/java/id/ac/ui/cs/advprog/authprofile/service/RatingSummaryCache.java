@@ -0,0 +1,188 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Stale-while-revalidate cache of per-doctor rating summaries.
+ * Once an entry is older than refreshAfter, the next read still returns it immediately and
+ * a reload runs on ratingServiceExecutor; if that reload fails the old value is kept.
+ * Only a cold miss waits for the rating service. Failed loads are never stored, so an
+ * outage is not remembered as "no ratings". Entries older than expireAfter are dropped,
+ * which bounds how stale a summary can get while the rating service is down.
+ */
+@Component
+public class RatingSummaryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingSummaryCache.class);
+
+    public static final String CACHE_NAME = "ratingSummary";
+
+    private final RatingClientService ratingClientService;
+    private final MonitoringConfig monitoringConfig;
+    private final AsyncLoadingCache<Long, RatingSummaryResponse> cache;
+    private final Timer servedAge;
+    private final Timer loadSuccess;
+    private final Timer loadFailure;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+
+    @Autowired
+    public RatingSummaryCache(RatingClientService ratingClientService,
+                              MonitoringConfig monitoringConfig,
+                              MeterRegistry meterRegistry,
+                              @Qualifier("ratingServiceExecutor") Executor ratingServiceExecutor,
+                              @Value("${rating.summary.cache.refresh-after-ms:300000}") long refreshAfterMillis,
+                              @Value("${rating.summary.cache.expire-after-ms:3600000}") long expireAfterMillis,
+                              @Value("${rating.summary.cache.max-size:1000}") long maximumSize) {
+        this(ratingClientService, monitoringConfig, meterRegistry, ratingServiceExecutor,
+                refreshAfterMillis, expireAfterMillis, maximumSize, Ticker.systemTicker());
+    }
+
+    RatingSummaryCache(RatingClientService ratingClientService,
+                       MonitoringConfig monitoringConfig,
+                       MeterRegistry meterRegistry,
+                       Executor executor,
+                       long refreshAfterMillis,
+                       long expireAfterMillis,
+                       long maximumSize,
+                       Ticker ticker) {
+        this.ratingClientService = ratingClientService;
+        this.monitoringConfig = monitoringConfig;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterMillis))
+                .expireAfterWrite(Duration.ofMillis(expireAfterMillis))
+                .executor(executor)
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync(new SummaryLoader());
+
+        this.servedAge = Timer.builder("rating_summary_cache_age")
+                .description("Age of the rating summary served from the cache")
+                .register(meterRegistry);
+        this.loadSuccess = loadTimer(meterRegistry, "load", "success");
+        this.loadFailure = loadTimer(meterRegistry, "load", "failure");
+        this.refreshSuccess = loadTimer(meterRegistry, "refresh", "success");
+        this.refreshFailure = loadTimer(meterRegistry, "refresh", "failure");
+        Gauge.builder("rating_summary_cache_hit_ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of rating summary reads answered without waiting on a load")
+                .register(meterRegistry);
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, String type, String outcome) {
+        return Timer.builder("rating_summary_load_duration")
+                .description("Time taken to load a rating summary into the cache")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached summary, possibly stale, loading it only on a cold miss
+     *
+     * @throws java.util.concurrent.CompletionException if a cold load fails
+     */
+    public RatingSummaryResponse get(Long doctorId) {
+        if (doctorId == null) {
+            return new RatingSummaryResponse(0.0, 0);
+        }
+
+        RatingSummaryResponse summary = cache.get(doctorId).join();
+        recordServedAge(doctorId);
+        return summary;
+    }
+
+    /**
+     * The cached or in-flight summary, or null if there is neither. A stale entry is
+     * returned as is and queues a background reload
+     */
+    public CompletableFuture<RatingSummaryResponse> getIfPresent(Long doctorId) {
+        return cache.getIfPresent(doctorId);
+    }
+
+    /**
+     * Starts a load on ratingServiceExecutor (or joins one already running) without
+     * waiting for it
+     */
+    public CompletableFuture<RatingSummaryResponse> getAsync(Long doctorId) {
+        return cache.get(doctorId).thenApply(summary -> {
+            recordServedAge(doctorId);
+            return summary;
+        });
+    }
+
+    private void recordServedAge(Long doctorId) {
+        cache.synchronous().policy().refreshAfterWrite()
+                .flatMap(policy -> policy.ageOf(doctorId))
+                .ifPresent(servedAge::record);
+    }
+
+    public void invalidate(Long doctorId) {
+        cache.synchronous().invalidate(doctorId);
+    }
+
+    /**
+     * The underlying cache, for registration with the Spring CacheManager so that
+     * evictions by cache name reach it
+     */
+    @SuppressWarnings("unchecked")
+    public AsyncCache<Object, Object> nativeCache() {
+        return (AsyncCache<Object, Object>) (AsyncCache<?, ?>) cache;
+    }
+
+    private RatingSummaryResponse fetch(Long doctorId, Function<Long, RatingClientService.RatingSummary> read,
+                                        Timer success, Timer failure) {
+        monitoringConfig.getRatingSummaryRequests().increment();
+        long start = System.nanoTime();
+        try {
+            RatingClientService.RatingSummary summary = read.apply(doctorId);
+            success.record(Duration.ofNanos(System.nanoTime() - start));
+            monitoringConfig.getRatingSummaryRequestsSuccessful().increment();
+            return new RatingSummaryResponse(summary.getAverageRating(), summary.getTotalRatings(),
+                    summary.getStarCounts());
+        } catch (RuntimeException e) {
+            failure.record(Duration.ofNanos(System.nanoTime() - start));
+            monitoringConfig.getRatingSummaryRequestsFailed().increment();
+            logger.warn("Failed to load rating summary for doctor {}: {}", doctorId, e.getMessage());
+            throw e;
+        }
+    }
+
+    private class SummaryLoader implements CacheLoader<Long, RatingSummaryResponse> {
+
+        @Override
+        public RatingSummaryResponse load(Long doctorId) {
+            // A cold miss has a reader waiting, so it may be hedged
+            return fetch(doctorId, ratingClientService::loadRatingSummary, loadSuccess, loadFailure);
+        }
+
+        @Override
+        public RatingSummaryResponse reload(Long doctorId, RatingSummaryResponse oldValue) {
+            // A failed reload leaves the old entry and its write time untouched, so it keeps
+            // being served (and retried) until expireAfter
+            return fetch(doctorId, ratingClientService::fetchRatingSummary, refreshSuccess, refreshFailure);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package id.ac.ui.cs.advprog.authprofile.service;
 
 import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchPhase;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SuggestionType;
 import id.ac.ui.cs.advprog.authprofile.dto.response.ProfileResponse;
 import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
 import io.micrometer.core.annotation.Timed;
-import io.micrometer.core.instrument.Tags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,15 +18,14 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
 public class SearchCareGiverService {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchCareGiverService.class);
-    private static final String SEARCH_REQUESTS_TOTAL_METRIC = "search_requests_total";
-    private static final String SEARCH_CAREGIVERS_RESULTS_TOTAL_METRIC = "search_caregivers_results_total";
-    private static final String PAGINATED_TYPE = "paginated";
     private static final String AVERAGE_RATING_FIELD = "averageRating";
+    private static final String WEIGHTED_SCORE_FIELD = "weightedScore";
 
     private final CareGiverRepository careGiverRepository;
     private final MonitoringConfig monitoringConfig;
@@ -45,27 +46,27 @@ public class SearchCareGiverService {
         logger.debug("Starting async search - name: {}, speciality: {}", name, speciality);
 
         // Use the registered search requests counter with proper tags
-        monitoringConfig.meterRegistry.counter(SEARCH_REQUESTS_TOTAL_METRIC,
-                Tags.of(
-                        "type", "optimized",
-                        "hasName", String.valueOf(name != null && !name.trim().isEmpty()),
-                        "hasSpeciality", String.valueOf(speciality != null && !speciality.trim().isEmpty())
-                )).increment();
-
-        List<CareGiver> careGivers = careGiverRepository.findCareGiversWithFilters(
-                (name != null && !name.trim().isEmpty()) ? name.trim() : null,
-                (speciality != null && !speciality.trim().isEmpty()) ? speciality.trim() : null
-        );
-
-        List<ProfileResponse> results = careGivers.stream()
-                .map(this::createLiteProfileResponse)
-                .toList();
+        monitoringConfig.searchRequest(SearchType.OPTIMIZED,
+                name != null && !name.trim().isEmpty(),
+                speciality != null && !speciality.trim().isEmpty()
+        ).increment();
+
+        List<CareGiver> careGivers = timed(SearchType.OPTIMIZED, SearchPhase.DB,
+                () -> careGiverRepository.findCareGiversWithFilters(
+                        (name != null && !name.trim().isEmpty()) ? name.trim() : null,
+                        (speciality != null && !speciality.trim().isEmpty()) ? speciality.trim() : null
+                ));
+
+        List<ProfileResponse> results = timed(SearchType.OPTIMIZED, SearchPhase.MAPPING,
+                () -> careGivers.stream()
+                        .map(this::createLiteProfileResponse)
+                        .toList());
 
         logger.debug("Async search completed with {} results", results.size());
 
         // Record search result count using the registered counter
-        monitoringConfig.meterRegistry.counter(SEARCH_CAREGIVERS_RESULTS_TOTAL_METRIC,
-                Tags.of("type", "optimized")).increment(results.size());
+        monitoringConfig.searchResults(SearchType.OPTIMIZED).increment(results.size());
+        monitoringConfig.searchResultSize(SearchType.OPTIMIZED).record(results.size());
 
         return CompletableFuture.completedFuture(results);
     }
@@ -78,12 +79,10 @@ public class SearchCareGiverService {
         logger.debug("Starting async paginated search");
 
         // Use the registered search requests counter
-        monitoringConfig.meterRegistry.counter(SEARCH_REQUESTS_TOTAL_METRIC,
-                Tags.of(
-                        "type", PAGINATED_TYPE,
-                        "hasName", String.valueOf(name != null && !name.trim().isEmpty()),
-                        "hasSpeciality", String.valueOf(speciality != null && !speciality.trim().isEmpty())
-                )).increment();
+        monitoringConfig.searchRequest(SearchType.PAGINATED,
+                name != null && !name.trim().isEmpty(),
+                speciality != null && !speciality.trim().isEmpty()
+        ).increment();
 
         // Validate parameters
         int validPage = Math.max(0, page);
@@ -96,28 +95,17 @@ public class SearchCareGiverService {
         String cleanName = (name != null && !name.trim().isEmpty()) ? name.trim() : null;
         String cleanSpeciality = (speciality != null && !speciality.trim().isEmpty()) ? speciality.trim() : null;
 
-        Page<CareGiver> careGiversPage;
-        if (cleanName != null && cleanSpeciality != null) {
-            careGiversPage = careGiverRepository.findByNameContainingIgnoreCaseAndSpecialityContainingIgnoreCase(
-                    cleanName, cleanSpeciality, pageable);
-        } else if (cleanName != null) {
-            careGiversPage = careGiverRepository.findByNameContainingIgnoreCase(cleanName, pageable);
-        } else if (cleanSpeciality != null) {
-            careGiversPage = careGiverRepository.findBySpecialityContainingIgnoreCase(cleanSpeciality, pageable);
-        } else {
-            careGiversPage = careGiverRepository.findAll(pageable);
-        }
+        Page<CareGiver> careGiversPage = timed(SearchType.PAGINATED, SearchPhase.DB,
+                () -> executeFilteredSearch(cleanName, cleanSpeciality, pageable));
 
-        Page<ProfileResponse> results = careGiversPage.map(this::createLiteProfileResponse);
+        Page<ProfileResponse> results = timed(SearchType.PAGINATED, SearchPhase.MAPPING,
+                () -> careGiversPage.map(this::createLiteProfileResponse));
 
         logger.debug("Async paginated search completed - {} total elements", results.getTotalElements());
 
         // Record pagination metrics
-        monitoringConfig.meterRegistry.counter(SEARCH_CAREGIVERS_RESULTS_TOTAL_METRIC,
-                Tags.of("type", PAGINATED_TYPE)).increment(results.getNumberOfElements());
-
-        monitoringConfig.meterRegistry.gauge("search_caregivers_total_elements",
-                Tags.of("type", PAGINATED_TYPE), results.getTotalElements());
+        recordPageMetrics(SearchType.PAGINATED, results, validSize);
+        monitoringConfig.searchTotalElements(SearchType.PAGINATED).record(results.getTotalElements());
 
         return CompletableFuture.completedFuture(results);
     }
@@ -135,16 +123,13 @@ public class SearchCareGiverService {
         }
 
         // Use the registered search requests counter
-        monitoringConfig.meterRegistry.counter("search_suggestions_requests_total",
-                Tags.of("type", "name_suggestions")
-        ).increment();
+        monitoringConfig.suggestionRequests(SuggestionType.NAME).increment();
 
         List<String> results = careGiverRepository.findNameSuggestions(prefix.trim());
         logger.debug("Found {} name suggestions", results.size());
 
         // Record suggestion result count
-        monitoringConfig.meterRegistry.counter("search_suggestions_results_total",
-                Tags.of("type", "name")).increment(results.size());
+        monitoringConfig.suggestionResults(SuggestionType.NAME).increment(results.size());
 
         return results;
     }
@@ -159,16 +144,13 @@ public class SearchCareGiverService {
         }
 
         // Use the registered search requests counter
-        monitoringConfig.meterRegistry.counter("search_suggestions_requests_total",
-                Tags.of("type", "speciality_suggestions")
-        ).increment();
+        monitoringConfig.suggestionRequests(SuggestionType.SPECIALITY).increment();
 
         List<String> results = careGiverRepository.findSpecialitySuggestions(query.trim());
         logger.debug("Found {} speciality suggestions", results.size());
 
         // Record suggestion result count
-        monitoringConfig.meterRegistry.counter("search_suggestions_results_total",
-                Tags.of("type", "speciality")).increment(results.size());
+        monitoringConfig.suggestionResults(SuggestionType.SPECIALITY).increment(results.size());
 
         return results;
     }
@@ -183,12 +165,12 @@ public class SearchCareGiverService {
 
         logger.debug("Starting async advanced search with sorting");
 
-        // Record search request metrics
-        recordAdvancedSearchMetrics(sortBy, sortDirection);
-
         // Validate and process parameters
         SearchParameters params = validateAndProcessParameters(page, size, sortBy, sortDirection);
 
+        // Record search request metrics against the validated sort, which keeps the tags bounded
+        monitoringConfig.advancedSearchRequest(params.validSortBy(), params.direction().isDescending()).increment();
+
         // Create pageable with validated parameters
         Pageable pageable = PageRequest.of(params.validPage(), params.validSize(),
                 Sort.by(params.direction(), params.validSortBy()));
@@ -198,32 +180,21 @@ public class SearchCareGiverService {
         String cleanSpeciality = cleanString(speciality);
 
         // Execute search based on parameters
-        Page<CareGiver> careGiversPage = executeAdvancedSearch(cleanName, cleanSpeciality, pageable);
+        Page<CareGiver> careGiversPage = timed(SearchType.ADVANCED, SearchPhase.DB,
+                () -> executeFilteredSearch(cleanName, cleanSpeciality, pageable));
 
         // Map results and record metrics
-        Page<ProfileResponse> results = careGiversPage.map(this::createLiteProfileResponse);
+        Page<ProfileResponse> results = timed(SearchType.ADVANCED, SearchPhase.MAPPING,
+                () -> careGiversPage.map(this::createLiteProfileResponse));
 
         logger.debug("Async advanced search completed");
 
         // Record advanced search metrics
-        monitoringConfig.meterRegistry.counter(SEARCH_CAREGIVERS_RESULTS_TOTAL_METRIC,
-                Tags.of("type", "advanced")).increment(results.getNumberOfElements());
+        recordPageMetrics(SearchType.ADVANCED, results, params.validSize());
 
         return CompletableFuture.completedFuture(results);
     }
 
-    /**
-     * Records metrics for advanced search requests
-     */
-    private void recordAdvancedSearchMetrics(String sortBy, String sortDirection) {
-        monitoringConfig.meterRegistry.counter(SEARCH_REQUESTS_TOTAL_METRIC,
-                Tags.of(
-                        "type", "advanced",
-                        "sortBy", sortBy != null ? sortBy : "default",
-                        "sortDirection", sortDirection != null ? sortDirection : "default"
-                )).increment();
-    }
-
     /**
      * Validates and processes search parameters
      */
@@ -242,16 +213,16 @@ public class SearchCareGiverService {
      */
     private String validateSortField(String sortBy) {
         if (sortBy == null) {
-            return AVERAGE_RATING_FIELD;
+            return WEIGHTED_SCORE_FIELD;
         }
 
-        String[] allowedSortFields = {"name", "speciality", AVERAGE_RATING_FIELD, "ratingCount"};
+        String[] allowedSortFields = {"name", "speciality", AVERAGE_RATING_FIELD, "ratingCount", WEIGHTED_SCORE_FIELD};
         for (String field : allowedSortFields) {
             if (field.equalsIgnoreCase(sortBy)) {
                 return field;
             }
         }
-        return AVERAGE_RATING_FIELD;
+        return WEIGHTED_SCORE_FIELD;
     }
 
     /**
@@ -262,9 +233,9 @@ public class SearchCareGiverService {
     }
 
     /**
-     * Executes the advanced search based on cleaned parameters
+     * Executes a paginated search using whichever filters are present
      */
-    private Page<CareGiver> executeAdvancedSearch(String cleanName, String cleanSpeciality, Pageable pageable) {
+    private Page<CareGiver> executeFilteredSearch(String cleanName, String cleanSpeciality, Pageable pageable) {
         if (cleanName != null && cleanSpeciality != null) {
             return careGiverRepository.findByNameContainingIgnoreCaseAndSpecialityContainingIgnoreCase(
                     cleanName, cleanSpeciality, pageable);
@@ -286,29 +257,45 @@ public class SearchCareGiverService {
         logger.debug("Starting async top-rated caregivers search");
 
         // Use the registered search requests counter
-        monitoringConfig.meterRegistry.counter(SEARCH_REQUESTS_TOTAL_METRIC,
-                Tags.of("type", "toprated")
-        ).increment();
+        monitoringConfig.searchRequest(SearchType.TOPRATED, false, false).increment();
 
         int validPage = Math.max(0, page);
         int validSize = (size <= 0 || size > 50) ? 10 : size;
 
+        // Served in index order from idx_caregivers_weighted_score
         Pageable pageable = PageRequest.of(validPage, validSize,
-                Sort.by(Sort.Direction.DESC, AVERAGE_RATING_FIELD)
+                Sort.by(Sort.Direction.DESC, WEIGHTED_SCORE_FIELD)
                         .and(Sort.by(Sort.Direction.DESC, "ratingCount")));
 
-        Page<CareGiver> careGiversPage = careGiverRepository.findAll(pageable);
-        Page<ProfileResponse> results = careGiversPage.map(this::createLiteProfileResponse);
+        Page<CareGiver> careGiversPage = timed(SearchType.TOPRATED, SearchPhase.DB,
+                () -> careGiverRepository.findAll(pageable));
+        Page<ProfileResponse> results = timed(SearchType.TOPRATED, SearchPhase.MAPPING,
+                () -> careGiversPage.map(this::createLiteProfileResponse));
 
         logger.debug("Async top-rated search completed - {} total elements", results.getTotalElements());
 
         // Record top-rated search metrics
-        monitoringConfig.meterRegistry.counter(SEARCH_CAREGIVERS_RESULTS_TOTAL_METRIC,
-                Tags.of("type", "toprated")).increment(results.getNumberOfElements());
+        recordPageMetrics(SearchType.TOPRATED, results, validSize);
 
         return CompletableFuture.completedFuture(results);
     }
 
+    /**
+     * Runs one phase of a search under its phase timer
+     */
+    private <T> T timed(SearchType type, SearchPhase phase, Supplier<T> step) {
+        return monitoringConfig.searchPhase(type, phase).record(step);
+    }
+
+    /**
+     * Records result count and page size for a paginated search
+     */
+    private void recordPageMetrics(SearchType type, Page<ProfileResponse> results, int pageSize) {
+        monitoringConfig.searchResults(type).increment(results.getNumberOfElements());
+        monitoringConfig.searchResultSize(type).record(results.getNumberOfElements());
+        monitoringConfig.searchPageSize(type).record(pageSize);
+    }
+
     /**
      * Create a lite version of ProfileResponse with essential information only
      */
@@ -0,0 +1,128 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD concurrency limiter in front of the async search operations.
+ * The limit grows by one while searches finish within the target latency and shrinks
+ * multiplicatively when they are slower or fail, so an overloaded search pool sheds
+ * load quickly instead of queueing it onto the Tomcat threads.
+ */
+@Component
+public class SearchConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchConcurrencyLimiter.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final long retryAfterSeconds;
+    private final Counter rejections;
+
+    private double limit;
+    private int inFlight;
+
+    @Autowired
+    public SearchConcurrencyLimiter(
+            @Value("${search.limiter.initial-limit:20}") int initialLimit,
+            @Value("${search.limiter.min-limit:4}") int minLimit,
+            @Value("${search.limiter.max-limit:100}") int maxLimit,
+            @Value("${search.limiter.target-latency-ms:500}") long targetLatencyMillis,
+            @Value("${search.limiter.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${search.limiter.retry-after-seconds:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.backoffRatio = backoffRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+
+        Gauge.builder("search_limiter_limit", this, SearchConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for searches")
+                .register(meterRegistry);
+        Gauge.builder("search_limiter_inflight", this, SearchConcurrencyLimiter::getInFlight)
+                .description("Searches currently admitted by the limiter")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("search_limiter_rejections_total")
+                .description("Searches rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a search if the current limit allows it
+     * @return a permit that must be released when the search completes, or empty if rejected
+     */
+    public Optional<Permit> tryAcquire() {
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Optional.of(new Permit(System.nanoTime()));
+            }
+        }
+        rejections.increment();
+        logger.debug("Search rejected by concurrency limiter, limit={}", getLimit());
+        return Optional.empty();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private synchronized void onComplete(long latencyNanos, boolean success) {
+        int inFlightBefore = inFlight;
+        inFlight--;
+
+        if (!success || latencyNanos > targetLatencyNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlightBefore * 2 >= limit) {
+            // Only grow while the current limit is actually being used
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /**
+     * A single admitted search
+     */
+    public final class Permit {
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Releases the permit and feeds the observed latency back into the limit
+         * @param success false if the search failed or was dropped
+         */
+        public void release(boolean success) {
+            synchronized (SearchConcurrencyLimiter.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            onComplete(System.nanoTime() - startNanos, success);
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
+import id.ac.ui.cs.advprog.authprofile.scheduler.SchedulerLeaseLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk rating refresh split into caregiver id ranges that every replica works through.
+ * Whoever starts a refresh plans it as rating_refresh_shard rows; each replica then claims
+ * one shard at a time with a compare-and-set UPDATE on the shard's attempt count, so claims
+ * never wait on each other and only one node can win a given attempt, and refreshes it with
+ * CaregiverRatingRefresher. (SELECT ... FOR UPDATE SKIP LOCKED is not used: H2 applies the
+ * LIMIT before skipping locked rows, so a node there would see nothing while another claims.) A claim is a lease that every written
+ * page extends and checkpoints, so a shard whose node dies is picked up by another node once
+ * the lease runs out and resumes after the last page written. A shard that fails, or has a
+ * page where more than maxPageFailureRatio of the fetches failed, is retried from its last
+ * good page after retryDelay, up to maxAttempts claims. Drains, polled or started by
+ * startRun, run on ratingRefreshExecutor one at a time per node, never on a scheduler or
+ * request thread. With enabled off, replicas stop polling for shards, but a run started
+ * here is still planned as shards and checkpointed.
+ */
+@Component
+public class ShardedRatingRefresh {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedRatingRefresh.class);
+
+    static final String PLAN_LOCK = "rating-refresh-plan";
+
+    // Candidates read per claim round, so losing a race moves on without another query
+    private static final int CLAIM_CANDIDATES = 8;
+
+    private static final CaregiverRatingRefresher.RefreshResult NOTHING = new CaregiverRatingRefresher.RefreshResult(0, 0, 0);
+
+    // Every shardSize-th caregiver id closes a shard
+    static final String BOUNDARIES_SQL = "SELECT user_id FROM (SELECT user_id, ROW_NUMBER() OVER (ORDER BY user_id) AS rn "
+            + "FROM caregivers) ranked WHERE MOD(rn, ?) = 0 ORDER BY user_id";
+    static final String UNFINISHED_SQL =
+            "SELECT COUNT(*) FROM rating_refresh_shard WHERE status IN ('PENDING', 'CLAIMED')";
+    static final String PURGE_SQL = "DELETE FROM rating_refresh_shard WHERE status IN ('DONE', 'FAILED')";
+    static final String INSERT_SQL = "INSERT INTO rating_refresh_shard "
+            + "(run_id, from_id, to_id, checkpoint_id, status, attempts, refreshed, failed, created_at) "
+            + "VALUES (?, ?, ?, ?, 'PENDING', 0, 0, 0, ?)";
+    // claimed_until is the lease of a CLAIMED shard and the retry time of a PENDING one
+    private static final String CLAIMABLE = "status IN ('PENDING', 'CLAIMED') "
+            + "AND (claimed_until IS NULL OR claimed_until <= ?)";
+    static final String CLAIMABLE_SQL = "SELECT id, run_id, checkpoint_id, to_id, attempts FROM rating_refresh_shard "
+            + "WHERE " + CLAIMABLE + " ORDER BY id LIMIT ?";
+    // attempts grows with every claim, so matching it makes the claim a compare-and-set
+    static final String CLAIM_SQL = "UPDATE rating_refresh_shard SET status = 'CLAIMED', attempts = attempts + 1, "
+            + "claimed_by = ?, claimed_until = ? WHERE id = ? AND attempts = ? AND " + CLAIMABLE;
+    static final String GIVE_UP_SQL = "UPDATE rating_refresh_shard SET status = 'FAILED', claimed_until = NULL "
+            + "WHERE id = ? AND attempts = ? AND " + CLAIMABLE;
+    // Progress, completion and release only apply while this node still holds the same claim
+    static final String PROGRESS_SQL = "UPDATE rating_refresh_shard SET checkpoint_id = ?, "
+            + "refreshed = refreshed + ?, failed = failed + ?, claimed_until = ? "
+            + "WHERE id = ? AND claimed_by = ? AND attempts = ?";
+    static final String COMPLETE_SQL = "UPDATE rating_refresh_shard SET status = 'DONE', claimed_until = NULL, "
+            + "completed_at = ? WHERE id = ? AND claimed_by = ? AND attempts = ?";
+    static final String RELEASE_SQL = "UPDATE rating_refresh_shard SET "
+            + "status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END, "
+            + "claimed_until = ?, last_error = ? WHERE id = ? AND claimed_by = ? AND attempts = ?";
+    // Only the latest run is kept, planning purges the finished ones before it
+    static final String RUN_PROGRESS_SQL = "SELECT run_id, MIN(created_at) AS started_at, "
+            + "MAX(completed_at) AS finished_at, COUNT(*) AS shards, "
+            + "SUM(CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END) AS pending, "
+            + "SUM(CASE WHEN status = 'CLAIMED' THEN 1 ELSE 0 END) AS claimed, "
+            + "SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END) AS done, "
+            + "SUM(CASE WHEN status = 'FAILED' THEN 1 ELSE 0 END) AS failed_shards, "
+            + "SUM(refreshed) AS refreshed, SUM(failed) AS failed_caregivers "
+            + "FROM rating_refresh_shard GROUP BY run_id ORDER BY started_at DESC LIMIT 1";
+    static final String CLAIMED_SHARDS_SQL = "SELECT id, claimed_by, checkpoint_id, to_id FROM rating_refresh_shard "
+            + "WHERE run_id = ? AND status = 'CLAIMED' ORDER BY id";
+    static final String CAREGIVER_COUNT_SQL = "SELECT COUNT(*) FROM caregivers";
+
+    private final CaregiverRatingRefresher refresher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLeaseLock leaseLock;
+    private final RatingServiceHealthMonitor healthMonitor;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final boolean enabled;
+    private final boolean workerEnabled;
+    private final int shardSize;
+    private final Duration lease;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+    private final double maxPageFailureRatio;
+    // Set while a drain, polled or started, runs on refreshExecutor
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Counter shardsDone;
+    private final Counter shardsRetried;
+    private final Counter shardsFailed;
+    private final Counter shardsLost;
+    private final Timer chunkLatency;
+
+    @Autowired
+    public ShardedRatingRefresh(CaregiverRatingRefresher refresher,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                SchedulerLeaseLock leaseLock,
+                                RatingServiceHealthMonitor healthMonitor,
+                                MeterRegistry meterRegistry,
+                                @Qualifier("ratingRefreshExecutor") Executor refreshExecutor,
+                                @Value("${rating.refresh.shard.enabled:true}") boolean enabled,
+                                @Value("${rating.refresh.shard.worker.enabled:true}") boolean workerEnabled,
+                                @Value("${rating.refresh.shard.size:5000}") int shardSize,
+                                @Value("${rating.refresh.shard.lease-ms:120000}") long leaseMillis,
+                                @Value("${rating.refresh.shard.retry-delay-ms:30000}") long retryDelayMillis,
+                                @Value("${rating.refresh.shard.max-attempts:3}") int maxAttempts,
+                                @Value("${rating.refresh.shard.max-page-failure-ratio:0.5}") double maxPageFailureRatio) {
+        this(refresher, jdbcTemplate, transactionManager, leaseLock, healthMonitor, meterRegistry, refreshExecutor,
+                enabled, workerEnabled, shardSize, leaseMillis, retryDelayMillis, maxAttempts, maxPageFailureRatio,
+                Clock.systemUTC());
+    }
+
+    ShardedRatingRefresh(CaregiverRatingRefresher refresher,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         SchedulerLeaseLock leaseLock,
+                         RatingServiceHealthMonitor healthMonitor,
+                         MeterRegistry meterRegistry,
+                         Executor refreshExecutor,
+                         boolean enabled,
+                         boolean workerEnabled,
+                         int shardSize,
+                         long leaseMillis,
+                         long retryDelayMillis,
+                         int maxAttempts,
+                         double maxPageFailureRatio,
+                         Clock clock) {
+        this.refresher = refresher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseLock = leaseLock;
+        this.healthMonitor = healthMonitor;
+        this.refreshExecutor = refreshExecutor;
+        this.enabled = enabled;
+        this.workerEnabled = workerEnabled;
+        this.shardSize = shardSize;
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.retryDelay = Duration.ofMillis(retryDelayMillis);
+        this.maxAttempts = maxAttempts;
+        this.maxPageFailureRatio = maxPageFailureRatio;
+        this.clock = clock;
+
+        this.shardsDone = shardCounter(meterRegistry, "done");
+        this.shardsRetried = shardCounter(meterRegistry, "retried");
+        this.shardsFailed = shardCounter(meterRegistry, "failed");
+        this.shardsLost = shardCounter(meterRegistry, "lost");
+        this.chunkLatency = Timer.builder("rating_refresh_chunk_duration")
+                .description("Time to fetch and write one page of a rating refresh shard")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+    }
+
+    private static Counter shardCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("rating_refresh_shards_total")
+                .description("Rating refresh shards processed on this node, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Plans a refresh of every caregiver unless one is already under way, then works on its
+     * shards alongside the other replicas until none is left to claim
+     *
+     * @return what this node refreshed; other replicas report their own shards
+     */
+    public CaregiverRatingRefresher.RefreshResult refreshAll() {
+        leaseLock.runLocked(PLAN_LOCK, Duration.ofMinutes(1), Duration.ZERO, this::planRun);
+        return drain();
+    }
+
+    /**
+     * Starts refreshAll on refreshExecutor and returns at once. Refused while a drain is
+     * already running on this node; across replicas, a start while a run is active joins it
+     * instead of planning another, since planning happens under PLAN_LOCK
+     *
+     * @return what this node refreshed once the drain finishes, or empty if it was refused
+     */
+    public Optional<CompletableFuture<CaregiverRatingRefresher.RefreshResult>> startRun() {
+        if (!draining.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(CompletableFuture.supplyAsync(this::refreshAll, refreshExecutor)
+                    .whenComplete((result, error) -> draining.set(false)));
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            logger.warn("Could not start a full rating refresh: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Picks up shards left by a refresh started elsewhere. The drain is handed to
+     * refreshExecutor and the scheduler thread returns at once; a poll while the previous
+     * drain is still running does nothing
+     */
+    @Scheduled(fixedDelayString = "${rating.refresh.shard.poll-ms:5000}")
+    public void pollShards() {
+        if (!enabled || !workerEnabled || !draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    drainPolled();
+                } finally {
+                    draining.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            logger.warn("Could not start a rating refresh shard drain: {}", e.getMessage());
+        }
+    }
+
+    private void drainPolled() {
+        try {
+            CaregiverRatingRefresher.RefreshResult result = drain();
+            if (result.total() > 0) {
+                logger.info("Refreshed {} caregivers from rating refresh shards: {} successful, {} failed",
+                        result.total(), result.successful(), result.failed());
+            }
+        } catch (Exception e) {
+            logger.error("Rating refresh shard poll failed", e);
+        }
+    }
+
+    void planRun() {
+        Integer unfinished = jdbcTemplate.queryForObject(UNFINISHED_SQL, Integer.class);
+        if (unfinished != null && unfinished > 0) {
+            logger.info("Joining the rating refresh already in progress, {} shards left", unfinished);
+            return;
+        }
+
+        String runId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Object[]> shards = new ArrayList<>();
+        long fromId = 0L;
+        for (Long boundary : jdbcTemplate.queryForList(BOUNDARIES_SQL, Long.class, shardSize)) {
+            shards.add(new Object[]{runId, fromId, boundary, fromId, now});
+            fromId = boundary;
+        }
+        // Open-ended, so caregivers who register while the run is planned are not missed
+        shards.add(new Object[]{runId, fromId, Long.MAX_VALUE, fromId, now});
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(PURGE_SQL);
+            jdbcTemplate.batchUpdate(INSERT_SQL, shards);
+        });
+        logger.info("Planned rating refresh {} as {} shards of up to {} caregivers", runId, shards.size(), shardSize);
+    }
+
+    /**
+     * Claims and refreshes shards until none is claimable
+     */
+    public CaregiverRatingRefresher.RefreshResult drain() {
+        if (!healthMonitor.isAvailable()) {
+            logger.debug("Rating service is not healthy, leaving rating refresh shards for later");
+            return NOTHING;
+        }
+
+        CaregiverRatingRefresher.RefreshResult total = NOTHING;
+        Optional<CaregiverRatingRefresher.RefreshResult> shard;
+        while ((shard = processNextShard()).isPresent()) {
+            total = total.plus(shard.get());
+        }
+        return total;
+    }
+
+    /**
+     * Claims one shard and refreshes it from its checkpoint
+     *
+     * @return what was written for the shard, or empty if there was nothing to claim
+     */
+    Optional<CaregiverRatingRefresher.RefreshResult> processNextShard() {
+        ClaimedShard shard = claim();
+        if (shard == null) {
+            return Optional.empty();
+        }
+
+        CaregiverRatingRefresher.RefreshResult[] written = {NOTHING};
+        long[] chunkStart = {System.nanoTime()};
+        try {
+            refresher.refreshRange(shard.checkpointId(), shard.toId(), (lastId, page) -> {
+                checkFailureRatio(lastId, page);
+                recordProgress(shard, lastId, page);
+                written[0] = written[0].plus(page);
+                long now = System.nanoTime();
+                chunkLatency.record(now - chunkStart[0], TimeUnit.NANOSECONDS);
+                chunkStart[0] = now;
+            });
+            if (update(COMPLETE_SQL, LocalDateTime.now(clock), shard.id(), leaseLock.getNodeId(), shard.attempt())) {
+                shardsDone.increment();
+                logger.debug("Rating refresh shard {} of run {} done", shard.id(), shard.runId());
+            } else {
+                shardsLost.increment();
+            }
+        } catch (ShardLostException e) {
+            shardsLost.increment();
+            logger.warn("Lost rating refresh shard {} to another node after its lease expired", shard.id());
+        } catch (RuntimeException e) {
+            release(shard, e);
+        }
+        return Optional.of(written[0]);
+    }
+
+    private ClaimedShard claim() {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            List<ClaimedShard> claimable = jdbcTemplate.query(CLAIMABLE_SQL, (rs, row) -> new ClaimedShard(
+                    rs.getLong("id"), rs.getString("run_id"), rs.getLong("checkpoint_id"),
+                    rs.getLong("to_id"), rs.getInt("attempts") + 1), now, CLAIM_CANDIDATES);
+            if (claimable.isEmpty()) {
+                return null;
+            }
+
+            for (ClaimedShard shard : claimable) {
+                int previousAttempt = shard.attempt() - 1;
+                if (shard.attempt() > maxAttempts) {
+                    // Its last claim expired without finishing
+                    if (update(GIVE_UP_SQL, shard.id(), previousAttempt, now)) {
+                        shardsFailed.increment();
+                        logger.error("Giving up on rating refresh shard {} after {} attempts", shard.id(), maxAttempts);
+                    }
+                } else if (update(CLAIM_SQL, leaseLock.getNodeId(), now.plus(lease), shard.id(), previousAttempt, now)) {
+                    return shard;
+                }
+                // Otherwise another node claimed it first; try the next one
+            }
+        }
+    }
+
+    /**
+     * Fetch failures are swallowed per caregiver, so without this a shard refreshed during an
+     * outage would be marked done with nothing written. The page is not checkpointed, so the
+     * retry starts with it
+     */
+    private void checkFailureRatio(long lastId, CaregiverRatingRefresher.RefreshResult page) {
+        if (page.total() > 0 && (double) page.failed() / page.total() > maxPageFailureRatio) {
+            throw new IllegalStateException(page.failed() + " of " + page.total()
+                    + " rating fetches failed in the page ending at caregiver " + lastId);
+        }
+    }
+
+    private void recordProgress(ClaimedShard shard, long lastId, CaregiverRatingRefresher.RefreshResult page) {
+        if (!update(PROGRESS_SQL, lastId, page.successful(), page.failed(), LocalDateTime.now(clock).plus(lease),
+                shard.id(), leaseLock.getNodeId(), shard.attempt())) {
+            // Another node has reclaimed the shard and will redo it from the last checkpoint
+            throw new ShardLostException();
+        }
+    }
+
+    private void release(ClaimedShard shard, RuntimeException cause) {
+        String error = String.valueOf(cause.getMessage());
+        boolean released = update(RELEASE_SQL, maxAttempts, LocalDateTime.now(clock).plus(retryDelay),
+                error.length() > 500 ? error.substring(0, 500) : error,
+                shard.id(), leaseLock.getNodeId(), shard.attempt());
+        if (!released) {
+            shardsLost.increment();
+        } else if (shard.attempt() >= maxAttempts) {
+            shardsFailed.increment();
+            logger.error("Rating refresh shard {} failed on its last attempt", shard.id(), cause);
+        } else {
+            shardsRetried.increment();
+            logger.warn("Rating refresh shard {} failed on attempt {}, retrying in {}s: {}",
+                    shard.id(), shard.attempt(), retryDelay.toSeconds(), cause.getMessage());
+        }
+    }
+
+    /**
+     * Progress of the latest run across all replicas, or null if none has been planned
+     */
+    public RunProgress getProgress() {
+        List<RunProgress> runs = jdbcTemplate.query(RUN_PROGRESS_SQL, (rs, row) -> {
+            String runId = rs.getString("run_id");
+            return new RunProgress(runId,
+                    rs.getObject("started_at", LocalDateTime.class),
+                    rs.getObject("finished_at", LocalDateTime.class),
+                    LocalDateTime.now(clock),
+                    rs.getInt("shards"), rs.getInt("pending"), rs.getInt("claimed"),
+                    rs.getInt("done"), rs.getInt("failed_shards"),
+                    rs.getLong("refreshed"), rs.getLong("failed_caregivers"),
+                    0L, List.of());
+        });
+        if (runs.isEmpty()) {
+            return null;
+        }
+
+        RunProgress run = runs.get(0);
+        Long caregivers = jdbcTemplate.queryForObject(CAREGIVER_COUNT_SQL, Long.class);
+        List<ShardCheckpoint> claimed = jdbcTemplate.query(CLAIMED_SHARDS_SQL, (rs, row) -> new ShardCheckpoint(
+                rs.getLong("id"), rs.getString("claimed_by"), rs.getLong("checkpoint_id"), rs.getLong("to_id")),
+                run.runId());
+        return run.with(caregivers == null ? 0L : caregivers, claimed);
+    }
+
+    /**
+     * Latency of the shard pages refreshed on this node
+     */
+    public HistogramSnapshot getChunkLatency() {
+        return chunkLatency.takeSnapshot();
+    }
+
+    private boolean update(String sql, Object... args) {
+        return jdbcTemplate.update(sql, args) == 1;
+    }
+
+    private record ClaimedShard(long id, String runId, long checkpointId, long toId, int attempt) {}
+
+    /**
+     * A shard being refreshed right now and the last caregiver id it has written
+     */
+    public record ShardCheckpoint(long shardId, String claimedBy, long checkpointId, long toId) {}
+
+    /**
+     * Cluster-wide state of a sharded refresh run as of asOf. caregiversTotal is the current
+     * caregiver count, so the ETA is an estimate that assumes the remaining caregivers take
+     * as long each as the ones done so far
+     */
+    public record RunProgress(String runId, LocalDateTime startedAt, LocalDateTime finishedAt, LocalDateTime asOf,
+                              int shards, int pendingShards, int claimedShards, int doneShards, int failedShards,
+                              long caregiversRefreshed, long caregiversFailed, long caregiversTotal,
+                              List<ShardCheckpoint> inProgress) {
+
+        RunProgress with(long caregiversTotal, List<ShardCheckpoint> inProgress) {
+            return new RunProgress(runId, startedAt, finishedAt, asOf, shards, pendingShards, claimedShards,
+                    doneShards, failedShards, caregiversRefreshed, caregiversFailed, caregiversTotal, inProgress);
+        }
+
+        public boolean isActive() {
+            return pendingShards + claimedShards > 0;
+        }
+
+        public long caregiversProcessed() {
+            return caregiversRefreshed + caregiversFailed;
+        }
+
+        public double percentComplete() {
+            if (!isActive()) {
+                return 100.0;
+            }
+            return caregiversTotal == 0 ? 0.0 : Math.min(100.0, caregiversProcessed() * 100.0 / caregiversTotal);
+        }
+
+        public Duration elapsed() {
+            LocalDateTime end = isActive() || finishedAt == null ? asOf : finishedAt;
+            return Duration.between(startedAt, end);
+        }
+
+        /**
+         * Estimated time left, or null once the run is over or before anything was processed
+         */
+        public Duration eta() {
+            long processed = caregiversProcessed();
+            if (!isActive() || processed == 0) {
+                return null;
+            }
+            long remaining = Math.max(caregiversTotal - processed, 0);
+            return Duration.ofMillis(elapsed().toMillis() * remaining / processed);
+        }
+    }
+
+    private static class ShardLostException extends RuntimeException {
+    }
+}
@@ -0,0 +1,125 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.scheduler.SchedulerLeaseLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Maintains caregivers.weighted_score, the column top-rated lists are ordered by.
+ * The score is the caregiver's average pulled towards the mean of all ratings by a prior
+ * worth priorWeight ratings: (priorWeight * globalMean + average * count) / (priorWeight + count).
+ * A caregiver with a handful of ratings therefore sits near the global mean, and only moves
+ * towards their own average as ratings accumulate. The score is precomputed here rather than
+ * at query time so the ordering can be served from idx_caregivers_weighted_score.
+ * It is recomputed on its own schedule under a SchedulerLeaseLock rather than by one of the
+ * writers of the averages, since the sync, event ingestion and the refreshers all change them
+ * and any of them may be switched off or failing. The first run happens at startup, which also
+ * scores the rows given the column default of 0 when the column is added to an existing table.
+ */
+@Component
+public class WeightedRatingScore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeightedRatingScore.class);
+
+    static final String RECOMPUTE_LOCK = "rating-weighted-score";
+
+    static final String GLOBAL_TOTALS_SQL = "SELECT COALESCE(SUM(average_rating * rating_count), 0), "
+            + "COALESCE(SUM(rating_count), 0) FROM caregivers WHERE rating_count > 0";
+
+    // The prior mean is rounded to MEAN_STEP and every score to SCORE_SCALE decimals, and a row is
+    // only written when its rounded score differs. Every new rating nudges the raw global mean,
+    // which would otherwise rewrite the whole table on each run; with the rounding a run only
+    // touches the caregivers whose own ratings changed, plus every row on the rare run where the
+    // mean crosses a MEAN_STEP boundary.
+    static final double MEAN_STEP = 0.01;
+    static final int SCORE_SCALE = 4;
+
+    // The cast rounds to SCORE_SCALE decimals on both PostgreSQL and H2
+    static final String SCORE_EXPR = "CAST((? + COALESCE(average_rating, 0) * COALESCE(rating_count, 0)) "
+            + "/ (? + COALESCE(rating_count, 0)) AS NUMERIC(12, " + SCORE_SCALE + "))";
+
+    static final String UPDATE_SCORE_SQL = "UPDATE caregivers SET weighted_score = " + SCORE_EXPR + " "
+            + "WHERE weighted_score IS NULL OR ABS(weighted_score - " + SCORE_EXPR + ") > "
+            + (0.5 / Math.pow(10, SCORE_SCALE));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLeaseLock leaseLock;
+    private final double priorWeight;
+    private final boolean enabled;
+    private final Duration interval;
+
+    @Autowired
+    public WeightedRatingScore(JdbcTemplate jdbcTemplate,
+                               SchedulerLeaseLock leaseLock,
+                               @Value("${rating.weighted-score.prior-weight:10}") double priorWeight,
+                               @Value("${rating.weighted-score.enabled:true}") boolean enabled,
+                               @Value("${rating.weighted-score.interval-ms:300000}") long intervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseLock = leaseLock;
+        // A zero weight would divide by zero for caregivers without ratings
+        this.priorWeight = Math.max(priorWeight, 1e-3);
+        this.enabled = enabled;
+        this.interval = Duration.ofMillis(intervalMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${rating.weighted-score.interval-ms:300000}")
+    public void scheduledRecompute() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            // Held for half an interval so a replica whose timer fires just after ours skips this one
+            leaseLock.runLocked(RECOMPUTE_LOCK, interval.multipliedBy(2), interval.dividedBy(2), this::recompute);
+        } catch (Exception e) {
+            logger.error("Weighted rating score recompute failed", e);
+        }
+    }
+
+    /**
+     * Recomputes the score of every caregiver against the current global mean
+     *
+     * @return number of caregiver rows whose score changed
+     */
+    public int recompute() {
+        double priorMean = priorMean();
+        double priorTotal = priorWeight * priorMean;
+
+        int updated = jdbcTemplate.update(UPDATE_SCORE_SQL, priorTotal, priorWeight, priorTotal, priorWeight);
+
+        logger.debug("Recomputed weighted rating scores against prior mean {}: {} rows changed",
+                priorMean, updated);
+        return updated;
+    }
+
+    /**
+     * Score of a caregiver without ratings, which is the prior alone, used to seed new caregivers
+     * so they rank with the rest of the unrated rather than below every rated caregiver
+     */
+    public double unratedScore() {
+        return priorMean();
+    }
+
+    /**
+     * Global mean rounded to MEAN_STEP, so small drifts leave the prior, and every score, unchanged
+     */
+    double priorMean() {
+        return Math.round(globalMean() / MEAN_STEP) * MEAN_STEP;
+    }
+
+    /**
+     * Mean of every rating given to any caregiver, or 0 when there are none yet
+     */
+    double globalMean() {
+        double[] totals = jdbcTemplate.queryForObject(GLOBAL_TOTALS_SQL,
+                (rs, rowNum) -> new double[]{rs.getDouble(1), rs.getDouble(2)});
+        return totals == null || totals[1] == 0 ? 0.0 : totals[0] / totals[1];
+    }
+}
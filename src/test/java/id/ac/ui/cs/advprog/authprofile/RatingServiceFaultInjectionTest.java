@@ -0,0 +1,387 @@
+package id.ac.ui.cs.advprog.authprofile;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
+import id.ac.ui.cs.advprog.authprofile.client.StubRatingHttpServer;
+import id.ac.ui.cs.advprog.authprofile.client.StubRatingHttpServer.FaultProfile;
+import id.ac.ui.cs.advprog.authprofile.client.StubRatingHttpServer.LatencyDistribution;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.repository.RatingSyncWatermarkRepository;
+import id.ac.ui.cs.advprog.authprofile.scheduler.RatingCacheScheduler;
+import id.ac.ui.cs.advprog.authprofile.security.strategy.AuthorizationContext;
+import id.ac.ui.cs.advprog.authprofile.service.IRatingService;
+import id.ac.ui.cs.advprog.authprofile.service.RatingSummaryCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The rating integration end to end against StubRatingHttpServer under a set of fault
+ * profiles: RatingServiceImpl, the scheduled sync and the caregiver profile endpoint are
+ * driven through the real client, resilience and cache wiring, and each profile has to stay
+ * within its latency and throughput budget. Budgets are loose enough for a busy CI machine;
+ * they exist to catch a missing deadline or breaker, not small regressions.
+ */
+@SpringBootTest(properties = {
+        "rating.cache.scheduler.enabled=true",
+        "rating.cache.update.interval=3600000",
+        "rating.health.check.interval=3600000",
+        "rating.health.probe.enabled=true",
+        "rating.health.probe.interval-ms=3600000",
+        "scheduler.lock.rating-sync.at-least-ms=0",
+        "scheduler.lock.rating-health.at-least-ms=0",
+        "rating.sync.batch-size=100",
+        "rating.sync.drift-sample-size=0"
+})
+@ActiveProfiles("test")
+class RatingServiceFaultInjectionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingServiceFaultInjectionTest.class);
+
+    private static final int CAREGIVERS = 24;
+    private static final int RATINGS_PER_DOCTOR = 20;
+    private static final int THREADS = 8;
+    // rating.summary.read-deadline-ms
+    private static final long READ_DEADLINE_MILLIS = 500;
+    // The read deadline plus room for the request itself
+    private static final long PROFILE_BUDGET_MILLIS = READ_DEADLINE_MILLIS + 500;
+
+    private static final StubRatingHttpServer STUB = startStub();
+
+    @TestConfiguration
+    static class FaultInjectionConfig {
+        @Bean
+        @Primary
+        public AuthorizationContext authorizationContext() {
+            AuthorizationContext authorizationContext = mock(AuthorizationContext.class);
+            when(authorizationContext.isAuthorized(any(), any(), anyString())).thenReturn(true);
+            return authorizationContext;
+        }
+    }
+
+    @DynamicPropertySource
+    static void ratingServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("service.rating.url", STUB::getBaseUrl);
+    }
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private IRatingService ratingService;
+
+    @Autowired
+    private RatingCacheScheduler ratingCacheScheduler;
+
+    @Autowired
+    private RatingServiceHealthMonitor healthMonitor;
+
+    @Autowired
+    private RatingSummaryCache ratingSummaryCache;
+
+    @Autowired
+    private CircuitBreaker ratingServiceCircuitBreaker;
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private RatingSyncWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+    private List<Long> caregiverIds;
+    private ExecutorService clients;
+
+    private static StubRatingHttpServer startStub() {
+        try {
+            return new StubRatingHttpServer(RATINGS_PER_DOCTOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        clients = Executors.newFixedThreadPool(THREADS);
+
+        cleanUp();
+        caregiverIds = new ArrayList<>();
+        for (int i = 0; i < CAREGIVERS; i++) {
+            caregiverIds.add(persistCaregiver(i));
+        }
+
+        // A fresh dataset per test, so no response is a 304 left over from the previous one
+        STUB.setFaultProfile(FaultProfile.healthy());
+        STUB.setHealthy(true);
+        STUB.setRatingsPerDoctor(RATINGS_PER_DOCTOR);
+        STUB.setDoctorIds(caregiverIds);
+        ratingServiceCircuitBreaker.reset();
+        ratingSummaryCache.nativeCache().synchronous().invalidateAll();
+        probe(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+        STUB.setFaultProfile(FaultProfile.healthy());
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        watermarkRepository.deleteAll();
+        careGiverRepository.deleteAll();
+    }
+
+    @Test
+    void healthyProfile_ShouldMeetLatencyAndThroughputBudgets() throws Exception {
+        // Given
+        STUB.setFaultProfile(FaultProfile.healthy().withLatency(LatencyDistribution.uniform(2, 10)));
+        // This is usually the first traffic in the JVM; keep class loading and JIT out of the numbers
+        runLoad(THREADS, i -> ratingService.getRatingsByDoctorId(caregiverIds.get(i)));
+        runLoad(THREADS, i -> getCaregiverProfile(caregiverIds.get(i)));
+        ratingSummaryCache.nativeCache().synchronous().invalidateAll();
+
+        // When
+        LoadResult ratings = runLoad(200, i -> assertEquals(RATINGS_PER_DOCTOR,
+                ratingService.getRatingsByDoctorId(caregiverIds.get(i % CAREGIVERS)).size()));
+        long syncMillis = timeMillis(ratingCacheScheduler::updateCaregiverRatingCaches);
+        LoadResult profiles = runLoad(CAREGIVERS, i -> getCaregiverProfile(caregiverIds.get(i)));
+
+        // Then
+        log("healthy ratings", ratings);
+        log("healthy profiles", profiles);
+        assertTrue(ratings.throughput() >= 50, "ratings throughput " + ratings.throughput() + "/s");
+        assertTrue(ratings.p95Millis() <= 250, "ratings p95 " + ratings.p95Millis() + "ms");
+        assertTrue(syncMillis <= 5000, "sync took " + syncMillis + "ms");
+        assertTrue(profiles.maxMillis() <= PROFILE_BUDGET_MILLIS, "profile max " + profiles.maxMillis() + "ms");
+        assertEquals((long) CAREGIVERS * RATINGS_PER_DOCTOR, watermarkRepository.findAll().get(0).getLastRatingId());
+        for (Long id : caregiverIds) {
+            assertEquals(3.0, averageRating(id), 0.0001);
+            assertEquals(RATINGS_PER_DOCTOR, ratingCount(id));
+        }
+    }
+
+    @Test
+    void longTailLatency_ProfileEndpointShouldAnswerWithinReadDeadline() throws Exception {
+        // Given - one response in four takes 1.5s, well past the read deadline but under the
+        // breaker's slow-call threshold so stragglers do not trip it for the next test
+        STUB.setFaultProfile(FaultProfile.healthy()
+                .withLatency(LatencyDistribution.withTail(5, 1500, 0.25)));
+        double fallbacksBefore = fallbackReads();
+
+        // When
+        LoadResult profiles = runLoad(CAREGIVERS, i -> getCaregiverProfile(caregiverIds.get(i)));
+
+        // Then
+        log("long tail profiles", profiles);
+        assertTrue(profiles.maxMillis() <= PROFILE_BUDGET_MILLIS, "profile max " + profiles.maxMillis() + "ms");
+        // Three in four loads are fast, so the median request must not be one that sat out the deadline
+        assertTrue(profiles.p50Millis() < READ_DEADLINE_MILLIS, "profile p50 " + profiles.p50Millis() + "ms");
+        assertTrue(fallbackReads() > fallbacksBefore, "slow loads should fall back to the stored rating");
+    }
+
+    @Test
+    void errorRateProfile_ShouldOpenBreakerAndShedCallsQuickly() throws Exception {
+        // Given - three responses in five fail, more than the breaker's 50% threshold
+        STUB.setFaultProfile(FaultProfile.healthy()
+                .withLatency(LatencyDistribution.fixed(20))
+                .withErrorRate(0.6));
+        long requestsBefore = STUB.getRequestCount();
+
+        // When
+        long elapsed = timeMillis(() -> {
+            for (int i = 0; i < 100; i++) {
+                ratingService.getRatingsByDoctorId(caregiverIds.get(i % CAREGIVERS));
+            }
+        });
+        long syncMillis = timeMillis(ratingCacheScheduler::updateCaregiverRatingCaches);
+        LoadResult profiles = runLoad(CAREGIVERS, i -> getCaregiverProfile(caregiverIds.get(i)));
+
+        // Then - the breaker stops calling after a window's worth of failures
+        log("error rate profiles", profiles);
+        assertEquals(CircuitBreaker.State.OPEN, ratingServiceCircuitBreaker.getState());
+        assertTrue(STUB.getRequestCount() - requestsBefore <= 30,
+                (STUB.getRequestCount() - requestsBefore) + " requests reached the rating service");
+        assertTrue(elapsed <= 2000, "100 calls took " + elapsed + "ms");
+        assertTrue(syncMillis <= 500, "sync took " + syncMillis + "ms with the breaker open");
+        assertTrue(watermarkRepository.findAll().isEmpty(), "a failed sync must not move the watermark");
+        assertTrue(profiles.maxMillis() <= PROFILE_BUDGET_MILLIS, "profile max " + profiles.maxMillis() + "ms");
+    }
+
+    @Test
+    void slowDripProfile_ShouldNotHoldProfileRequestsOrStallRefreshes() throws Exception {
+        // Given - a ~3KB body in 128 byte chunks every 40ms takes about a second to arrive
+        STUB.setFaultProfile(FaultProfile.healthy().withSlowDrip(128, 40));
+        double fallbacksBefore = fallbackReads();
+
+        // When
+        LoadResult profiles = runLoad(THREADS, i -> getCaregiverProfile(caregiverIds.get(i)));
+        LoadResult refreshes = runLoad(CAREGIVERS, i -> ratingService.updateCaregiverRatingCache(caregiverIds.get(i)));
+
+        // Then - profiles fall back at the read deadline; refreshes are slow but run in parallel
+        log("slow drip profiles", profiles);
+        log("slow drip refreshes", refreshes);
+        assertTrue(profiles.maxMillis() <= PROFILE_BUDGET_MILLIS, "profile max " + profiles.maxMillis() + "ms");
+        assertTrue(fallbackReads() >= fallbacksBefore + THREADS);
+        assertTrue(refreshes.elapsedMillis() <= 10_000, "refreshes took " + refreshes.elapsedMillis() + "ms");
+        for (Long id : caregiverIds) {
+            assertEquals(3.0, averageRating(id), 0.0001);
+        }
+    }
+
+    @Test
+    void serviceDown_SchedulerShouldStopCallingUntilHealthRecovers() {
+        // Given
+        STUB.setHealthy(false);
+        probe(3);
+        long requestsBefore = STUB.getRequestCount();
+
+        // When
+        long downSyncMillis = timeMillis(ratingCacheScheduler::updateCaregiverRatingCaches);
+        long requestsWhileDown = STUB.getRequestCount() - requestsBefore;
+        STUB.setHealthy(true);
+        probe(2);
+        ratingCacheScheduler.updateCaregiverRatingCaches();
+
+        // Then
+        assertEquals(RatingServiceHealthMonitor.State.UP, healthMonitor.getState());
+        assertEquals(0, requestsWhileDown);
+        assertTrue(downSyncMillis <= 200, "skipped sync took " + downSyncMillis + "ms");
+        assertEquals(3.0, averageRating(caregiverIds.get(0)), 0.0001);
+    }
+
+    private void getCaregiverProfile(Long caregiverId) {
+        try {
+            mockMvc.perform(get("/api/caregiver/{id}", caregiverId).with(user(String.valueOf(caregiverId))))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void probe(int times) {
+        for (int i = 0; i < times; i++) {
+            healthMonitor.probe();
+        }
+    }
+
+    private double fallbackReads() {
+        return meterRegistry.get("rating_read_model_reads_total").tag("source", "fallback").counter().count();
+    }
+
+    /**
+     * Runs calls 0..calls-1 on THREADS client threads and measures each one
+     */
+    private LoadResult runLoad(int calls, IntConsumer call) throws Exception {
+        long[] latencies = new long[calls];
+        List<Future<?>> futures = new ArrayList<>(calls);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            int index = i;
+            futures.add(clients.submit(() -> {
+                long started = System.nanoTime();
+                call.accept(index);
+                latencies[index] = System.nanoTime() - started;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new LoadResult(
+                calls * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(calls - 1) / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(calls * 0.95) - 1]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[calls - 1]),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static long timeMillis(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void log(String name, LoadResult result) {
+        logger.info("{}: {} calls/s, p50 {} ms, p95 {} ms, max {} ms", name,
+                result.throughput(), result.p50Millis(), result.p95Millis(), result.maxMillis());
+    }
+
+    private Long persistCaregiver(int index) {
+        CareGiver careGiver = new CareGiver();
+        careGiver.setEmail("fault" + index + "@example.com");
+        careGiver.setPassword("password");
+        careGiver.setName("Dr. Fault " + index);
+        careGiver.setNik(String.format("99%014d", index));
+        careGiver.setAddress("Address " + index);
+        careGiver.setPhoneNumber("0813000000" + index);
+        careGiver.setSpeciality("Cardiology");
+        careGiver.setWorkAddress("Hospital " + index);
+        return careGiverRepository.save(careGiver).getId();
+    }
+
+    private double averageRating(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT average_rating FROM caregivers WHERE user_id = ?", Double.class, id);
+    }
+
+    private int ratingCount(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT rating_count FROM caregivers WHERE user_id = ?", Integer.class, id);
+    }
+
+    private record LoadResult(long throughput, long p50Millis, long p95Millis, long maxMillis, long elapsedMillis) {}
+}
@@ -0,0 +1,85 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RatingClientService against a local stub that honours ETag / Last-Modified validators
+ */
+class RatingClientConditionalGetTest {
+
+    private StubRatingHttpServer server;
+    private RatingClientService ratingClientService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubRatingHttpServer(200);
+        ratingClientService = new RatingClientService(new RestTemplate(), server.getBaseUrl(),
+                CircuitBreaker.ofDefaults("ratingService"), Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void fetchRatingSummary_WhenDatasetUnchanged_ShouldRevalidateWithoutBody() {
+        // Given
+        RatingClientService.RatingSummary first = ratingClientService.fetchRatingSummary(1L);
+        long bytesAfterFirst = server.getBodyBytesSent();
+
+        // When - nine more refreshes of an unchanged dataset
+        RatingClientService.RatingSummary last = null;
+        for (int i = 0; i < 9; i++) {
+            last = ratingClientService.fetchRatingSummary(1L);
+        }
+
+        // Then
+        assertTrue(bytesAfterFirst > 20_000, "first response should carry the full list");
+        assertEquals(bytesAfterFirst, server.getBodyBytesSent(), "304s should transfer no body");
+        assertEquals(9, server.getNotModifiedCount());
+        assertEquals(first.getAverageRating(), last.getAverageRating());
+        assertEquals(200, last.getTotalRatings());
+    }
+
+    @Test
+    void fetchRatingSummary_WhenDatasetChanges_ShouldDownloadAndParseAgain() {
+        // Given
+        ratingClientService.fetchRatingSummary(1L);
+        long bytesAfterFirst = server.getBodyBytesSent();
+
+        // When
+        server.setRatingsPerDoctor(3);
+        RatingClientService.RatingSummary changed = ratingClientService.fetchRatingSummary(1L);
+
+        // Then
+        assertEquals(3, changed.getTotalRatings());
+        assertEquals(2.0, changed.getAverageRating(), 0.001);
+        assertTrue(server.getBodyBytesSent() > bytesAfterFirst);
+        assertEquals(0, server.getNotModifiedCount());
+    }
+
+    @Test
+    void fetchRatingSummary_ShouldKeepValidatorsPerDoctor() {
+        // Given
+        ratingClientService.fetchRatingSummary(1L);
+
+        // When - a different doctor has nothing remembered yet
+        ratingClientService.fetchRatingSummary(2L);
+        ratingClientService.fetchRatingSummary(2L);
+
+        // Then
+        assertEquals(1, server.getNotModifiedCount());
+        assertEquals(3, server.getRequestCount());
+    }
+}
@@ -2,16 +2,30 @@ package id.ac.ui.cs.advprog.authprofile.client;
 
 import id.ac.ui.cs.advprog.authprofile.dto.response.ApiResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingFeedNotFoundException;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -32,13 +46,17 @@ class RatingClientServiceTest {
 
     @BeforeEach
     void setUp() {
-        ratingClientService = new RatingClientService(restTemplate, ratingServiceUrl);
+        ratingClientService = new RatingClientService(restTemplate, ratingServiceUrl,
+                CircuitBreaker.ofDefaults("ratingService"), Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
     }
 
     @Test
     void constructor_ShouldInitializeCorrectly() {
         // When creating a new instance
-        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl);
+        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl,
+                CircuitBreaker.ofDefaults("ratingService"), Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
 
         // Then it should be initialized without throwing exceptions
         assertNotNull(service);
@@ -47,7 +65,9 @@ class RatingClientServiceTest {
     @Test
     void constructor_WithDefaultUrl_ShouldUseDefaultValue() {
         // When creating with null URL (testing default value behavior)
-        RatingClientService service = new RatingClientService(restTemplate, null);
+        RatingClientService service = new RatingClientService(restTemplate, null,
+                CircuitBreaker.ofDefaults("ratingService"), Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
 
         // Then it should be created successfully
         assertNotNull(service);
@@ -209,22 +229,9 @@ class RatingClientServiceTest {
     void getRatingSummary_WithValidRatings_ShouldCalculateCorrectly() {
         // Given
         Long doctorId = 1L;
-        List<RatingResponseDto> ratings = Arrays.asList(
-                createRatingDto(1L, 5),
-                createRatingDto(2L, 4),
-                createRatingDto(3L, 3)
-        );
-
-        ApiResponseDto<RatingResponseDto> apiResponse = createSuccessfulApiResponse(ratings);
-        ResponseEntity<ApiResponseDto<RatingResponseDto>> responseEntity =
-                new ResponseEntity<>(apiResponse, HttpStatus.OK);
-
-        when(restTemplate.exchange(
-                anyString(),
-                eq(HttpMethod.GET),
-                any(HttpEntity.class),
-                any(ParameterizedTypeReference.class)
-        )).thenReturn(responseEntity);
+        stubSummaryResponse(ratingServiceUrl + "/api/rating/doctor/" + doctorId,
+                "{\"success\":1,\"message\":\"Success\",\"data\":["
+                        + ratingJson(1L, 5) + "," + ratingJson(2L, 4) + "," + ratingJson(3L, 3) + "]}");
 
         // When
         RatingClientService.RatingSummary result = ratingClientService.getRatingSummary(doctorId);
@@ -240,11 +247,11 @@ class RatingClientServiceTest {
         // Given
         Long doctorId = 1L;
 
-        when(restTemplate.exchange(
+        when(restTemplate.execute(
                 anyString(),
                 eq(HttpMethod.GET),
-                any(HttpEntity.class),
-                any(ParameterizedTypeReference.class)
+                any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<RatingClientService.RatingSummary>>any()
         )).thenThrow(new RestClientException("Service unavailable"));
 
         // When
@@ -260,26 +267,263 @@ class RatingClientServiceTest {
     void getRatingSummary_WithSingleRating_ShouldReturnCorrectAverage() {
         // Given
         Long doctorId = 1L;
-        List<RatingResponseDto> ratings = Collections.singletonList(createRatingDto(1L, 5));
+        stubSummaryResponse(ratingServiceUrl + "/api/rating/doctor/" + doctorId,
+                "{\"success\":1,\"message\":\"Success\",\"data\":[" + ratingJson(1L, 5) + "]}");
+
+        // When
+        RatingClientService.RatingSummary result = ratingClientService.getRatingSummary(doctorId);
+
+        // Then
+        assertNotNull(result);
+        assertEquals(5.0, result.getAverageRating());
+        assertEquals(1, result.getTotalRatings());
+    }
+
+    @Test
+    void getRatingSummary_WithUnsuccessfulApiResponse_ShouldReturnZeroValues() {
+        // Given
+        Long doctorId = 1L;
+        stubSummaryResponse(ratingServiceUrl + "/api/rating/doctor/" + doctorId,
+                "{\"success\":0,\"message\":\"Failed to get ratings\",\"data\":null}");
+
+        // When
+        RatingClientService.RatingSummary result = ratingClientService.getRatingSummary(doctorId);
+
+        // Then
+        assertEquals(0.0, result.getAverageRating());
+        assertEquals(0, result.getTotalRatings());
+    }
+
+    @Test
+    void getRatingSummary_ShouldNotMaterializeRatingList() {
+        // Given
+        Long doctorId = 1L;
+        stubSummaryResponse(ratingServiceUrl + "/api/rating/doctor/" + doctorId,
+                "{\"success\":1,\"data\":[" + ratingJson(1L, 4) + "]}");
+
+        // When
+        ratingClientService.getRatingSummary(doctorId);
 
-        ApiResponseDto<RatingResponseDto> apiResponse = createSuccessfulApiResponse(ratings);
+        // Then
+        verify(restTemplate, never()).exchange(
+                anyString(),
+                any(HttpMethod.class),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        );
+    }
+
+    @Test
+    void getRatingSummary_WithNullDoctorId_ShouldReturnZeroValues() {
+        // When
+        RatingClientService.RatingSummary result = ratingClientService.getRatingSummary(null);
+
+        // Then
+        assertEquals(0, result.getTotalRatings());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void fetchRatingSummary_WithRestClientException_ShouldThrow() {
+        // Given
+        Long doctorId = 1L;
+        when(restTemplate.execute(
+                eq(ratingServiceUrl + "/api/rating/doctor/" + doctorId),
+                eq(HttpMethod.GET),
+                any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<RatingClientService.RatingSummary>>any()
+        )).thenThrow(new RestClientException("Connection failed"));
+
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class,
+                () -> ratingClientService.fetchRatingSummary(doctorId));
+    }
+
+    @Test
+    void fetchRatingSummary_WithValidRatings_ShouldReturnSummary() {
+        // Given
+        Long doctorId = 1L;
+        stubSummaryResponse(ratingServiceUrl + "/api/rating/doctor/" + doctorId,
+                "{\"success\":1,\"data\":[" + ratingJson(1L, 4) + "," + ratingJson(2L, 2) + "]}");
+
+        // When
+        RatingClientService.RatingSummary result = ratingClientService.fetchRatingSummary(doctorId);
+
+        // Then
+        assertEquals(3.0, result.getAverageRating(), 0.001);
+        assertEquals(2, result.getTotalRatings());
+    }
+
+    @Test
+    void fetchRatingSummary_WithUnsuccessfulApiResponse_ShouldThrow() {
+        // Given - a 200 whose envelope reports a failure is not a doctor without ratings
+        Long doctorId = 1L;
+        stubSummaryResponse(ratingServiceUrl + "/api/rating/doctor/" + doctorId,
+                "{\"success\":0,\"message\":\"Failed to get ratings\",\"data\":null}");
+
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class,
+                () -> ratingClientService.fetchRatingSummary(doctorId));
+    }
+
+    @Test
+    void fetchRatingSummary_WhenCircuitOpen_ShouldFailFastWithoutCallingService() {
+        // Given
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("ratingService");
+        circuitBreaker.transitionToOpenState();
+        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl,
+                circuitBreaker, Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class, () -> service.fetchRatingSummary(1L));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void fetchRatingSummary_WhenFailuresExceedThreshold_ShouldOpenCircuit() {
+        // Given
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("ratingService", CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .build());
+        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl,
+                circuitBreaker, Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<RatingClientService.RatingSummary>>any()))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // When
+        assertThrows(RatingServiceUnavailableException.class, () -> service.fetchRatingSummary(1L));
+        assertThrows(RatingServiceUnavailableException.class, () -> service.fetchRatingSummary(2L));
+        assertThrows(RatingServiceUnavailableException.class, () -> service.fetchRatingSummary(3L));
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        verify(restTemplate, times(2)).execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<RatingClientService.RatingSummary>>any());
+    }
+
+    @Test
+    void fetchRatingSummary_WithClientError_ShouldNotCountAsCircuitFailure() {
+        // Given
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("ratingService", CircuitBreakerConfig.custom()
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build());
+        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl,
+                circuitBreaker, Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<RatingClientService.RatingSummary>>any()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // When
+        assertThrows(RatingServiceUnavailableException.class, () -> service.fetchRatingSummary(1L));
+
+        // Then
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void fetchRatingSummary_WhenBulkheadFull_ShouldFailFastWithoutCallingService() {
+        // Given
+        Bulkhead bulkhead = Bulkhead.of("ratingService", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        assertTrue(bulkhead.tryAcquirePermission());
+        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl,
+                CircuitBreaker.ofDefaults("ratingService"), bulkhead,
+                RatingRequestHedgers.disabled());
+
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class, () -> service.fetchRatingSummary(1L));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void getRatingsByDoctorId_WhenCircuitOpen_ShouldReturnEmptyList() {
+        // Given
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("ratingService");
+        circuitBreaker.transitionToOpenState();
+        RatingClientService service = new RatingClientService(restTemplate, ratingServiceUrl,
+                circuitBreaker, Bulkhead.ofDefaults("ratingService"),
+                RatingRequestHedgers.disabled());
+
+        // When
+        List<RatingResponseDto> result = service.getRatingsByDoctorId(1L);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void getRatingsAfter_WithValidResponse_ShouldReturnFeedPage() {
+        // Given
+        List<RatingResponseDto> expectedRatings = createMockRatings();
         ResponseEntity<ApiResponseDto<RatingResponseDto>> responseEntity =
-                new ResponseEntity<>(apiResponse, HttpStatus.OK);
+                new ResponseEntity<>(createSuccessfulApiResponse(expectedRatings), HttpStatus.OK);
 
         when(restTemplate.exchange(
-                anyString(),
+                eq(ratingServiceUrl + "/api/rating/feed?afterId=41&limit=500"),
                 eq(HttpMethod.GET),
                 any(HttpEntity.class),
                 any(ParameterizedTypeReference.class)
         )).thenReturn(responseEntity);
 
         // When
-        RatingClientService.RatingSummary result = ratingClientService.getRatingSummary(doctorId);
+        List<RatingResponseDto> result = ratingClientService.getRatingsAfter(41L, 500);
 
         // Then
-        assertNotNull(result);
-        assertEquals(5.0, result.getAverageRating());
-        assertEquals(1, result.getTotalRatings());
+        assertEquals(expectedRatings, result);
+    }
+
+    @Test
+    void getRatingsAfter_WithUnsuccessfulApiResponse_ShouldThrow() {
+        // Given
+        ResponseEntity<ApiResponseDto<RatingResponseDto>> responseEntity =
+                new ResponseEntity<>(createUnsuccessfulApiResponse(), HttpStatus.OK);
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(responseEntity);
+
+        // When & Then
+        assertThrows(RatingServiceUnavailableException.class, () -> ratingClientService.getRatingsAfter(0L, 500));
+    }
+
+    @Test
+    void getRatingsAfter_WithRestClientException_ShouldThrow() {
+        // Given
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenThrow(new RestClientException("Connection failed"));
+
+        // When & Then
+        assertThrows(RatingServiceUnavailableException.class, () -> ratingClientService.getRatingsAfter(0L, 500));
+    }
+
+    @Test
+    void getRatingsAfter_WhenFeedIsNotFound_ShouldThrowFeedNotFound() {
+        // Given
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null));
+
+        // When & Then
+        assertThrows(RatingFeedNotFoundException.class, () -> ratingClientService.getRatingsAfter(0L, 500));
     }
 
     @Test
@@ -372,6 +616,23 @@ class RatingClientServiceTest {
     }
 
     // Helper methods for creating test data
+    private void stubSummaryResponse(String url, String json) {
+        when(restTemplate.execute(
+                eq(url),
+                eq(HttpMethod.GET),
+                any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<RatingClientService.RatingSummary>>any()
+        )).thenAnswer(invocation -> {
+            ResponseExtractor<RatingClientService.RatingSummary> extractor = invocation.getArgument(3);
+            return extractor.extractData(new MockClientHttpResponse(json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+        });
+    }
+
+    private String ratingJson(Long id, int score) {
+        return "{\"id\":" + id + ",\"consultationId\":" + id + ",\"doctorId\":1,\"score\":" + score
+                + ",\"comment\":\"Test comment " + id + "\",\"createdAt\":\"2025-05-01T10:15:30\"}";
+    }
+
     private List<RatingResponseDto> createMockRatings() {
         return Arrays.asList(
                 createRatingDto(1L, 5),
@@ -0,0 +1,179 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingRequestHedgerTest {
+
+    private static final String CALL = "ratings";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RatingRequestHedger hedger;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hedger = new RatingRequestHedger(meterRegistry, true, 0.5, 20, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hedger.shutdown();
+    }
+
+    @Test
+    void execute_WhenDisabled_ShouldRunCallOnceOnCallingThread() {
+        // Given
+        RatingRequestHedger disabled = RatingRequestHedgers.disabled();
+        Thread caller = Thread.currentThread();
+
+        // When
+        Thread ran = disabled.execute(CALL, Thread::currentThread);
+
+        // Then
+        assertSame(caller, ran);
+    }
+
+    @Test
+    void execute_BeforeEnoughLatencySamples_ShouldNotHedge() {
+        // When
+        String result = hedger.execute(CALL, () -> "ok");
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(0.0, hedgeEvents("hedge_sent"));
+        assertEquals(0.0, hedger.getHedgeDelaySeconds(CALL));
+    }
+
+    @Test
+    void execute_ShouldTrackLatencyPerCall() {
+        // Given
+        warmUp();
+
+        // When - a different call has no samples of its own yet
+        String result = hedger.execute("summary", () -> {
+            sleep(100);
+            return "summary";
+        });
+
+        // Then
+        assertEquals("summary", result);
+        assertEquals(0.0, hedgeEvents("hedge_sent"));
+        assertEquals(0.0, hedger.getHedgeDelaySeconds("summary"));
+        assertEquals(0.02, meterRegistry.get("rating_client_hedge_delay_seconds").tag("call", CALL).gauge().value(),
+                0.001);
+    }
+
+    @Test
+    void execute_WhenFirstAttemptIsSlow_ShouldHedgeAndTakeFasterAnswer() {
+        // Given
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When - the first attempt blocks until the test ends, the hedge answers at once
+        String result = hedger.execute(CALL, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                awaitRelease();
+                return "slow";
+            }
+            return "hedge";
+        });
+
+        // Then
+        assertEquals("hedge", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, hedgeEvents("hedge_sent"));
+        assertEquals(1.0, hedgeEvents("hedge_won"));
+        assertEquals(1.0, meterRegistry.get("rating_client_hedge_win_rate").gauge().value());
+    }
+
+    @Test
+    void execute_WhenBudgetIsSpent_ShouldWaitForFirstAttemptWithoutHedging() {
+        // Given - no extra load allowed at all
+        hedger.shutdown();
+        hedger = new RatingRequestHedger(meterRegistry = new SimpleMeterRegistry(), true, 0.5, 20, 0);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = hedger.execute(CALL, () -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return "primary";
+        });
+
+        // Then
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, hedgeEvents("hedge_sent"));
+        assertEquals(1.0, hedgeEvents("hedge_throttled"));
+    }
+
+    @Test
+    void execute_WhenFirstAttemptFailsAfterHedge_ShouldReturnHedgeResult() {
+        // Given
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = hedger.execute(CALL, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(200);
+                throw new IllegalStateException("primary failed");
+            }
+            return "hedge";
+        });
+
+        // Then
+        assertEquals("hedge", result);
+    }
+
+    @Test
+    void execute_WhenEveryAttemptFails_ShouldThrowOriginalException() {
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> hedger.execute(CALL, () -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals("down", e.getMessage());
+    }
+
+    /**
+     * Fills the latency window with fast calls so the hedge delay settles at the 20ms floor
+     */
+    private void warmUp() {
+        for (int i = 0; i < 32; i++) {
+            hedger.execute(CALL, () -> "warm");
+        }
+        assertEquals(0.02, hedger.getHedgeDelaySeconds(CALL), 0.001);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double hedgeEvents(String event) {
+        return meterRegistry.get("rating_client_hedge_events_total").tag("event", event).counter().count();
+    }
+}
@@ -0,0 +1,19 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * RatingRequestHedger instances for wiring RatingClientService outside Spring
+ */
+public final class RatingRequestHedgers {
+
+    private RatingRequestHedgers() {
+    }
+
+    /**
+     * A hedger that runs every call once, on the calling thread
+     */
+    public static RatingRequestHedger disabled() {
+        return new RatingRequestHedger(new SimpleMeterRegistry(), false, 0.95, 20, 10);
+    }
+}
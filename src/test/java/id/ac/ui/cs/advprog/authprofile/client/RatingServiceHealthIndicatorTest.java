@@ -0,0 +1,83 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RatingServiceHealthIndicatorTest {
+
+    private RatingServiceHealthMonitor healthMonitor;
+    private CircuitBreaker circuitBreaker;
+    private RatingServiceHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        healthMonitor = new RatingServiceHealthMonitor(mock(RatingClientService.class),
+                new MonitoringConfig(meterRegistry), meterRegistry, false, 1, 1);
+        circuitBreaker = CircuitBreaker.ofDefaults("ratingService");
+        healthIndicator = new RatingServiceHealthIndicator(healthMonitor, circuitBreaker,
+                Bulkhead.ofDefaults("ratingService"));
+    }
+
+    @Test
+    void health_WhenCircuitClosed_ShouldBeUp() {
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("UP", health.getDetails().get("state"));
+        assertEquals("CLOSED", health.getDetails().get("circuitBreakerState"));
+        assertEquals(25, health.getDetails().get("bulkheadAvailableCalls"));
+    }
+
+    @Test
+    void health_WhenCircuitOpen_ShouldBeUnknownRatherThanDown() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertEquals(Status.UNKNOWN, health.getStatus());
+        assertEquals("OPEN", health.getDetails().get("circuitBreakerState"));
+    }
+
+    @Test
+    void health_WhenCircuitHalfOpen_ShouldBeUp() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("HALF_OPEN", health.getDetails().get("circuitBreakerState"));
+    }
+
+    @Test
+    void health_WhenProbedDown_ShouldBeUnknownWithState() {
+        // Given
+        healthMonitor.record(false);
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertEquals(Status.UNKNOWN, health.getStatus());
+        assertEquals("DOWN", health.getDetails().get("state"));
+        assertTrue(health.getDetails().containsKey("lastProbe"));
+    }
+}
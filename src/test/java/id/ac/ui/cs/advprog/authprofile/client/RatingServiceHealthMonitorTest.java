@@ -0,0 +1,137 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingServiceHealthMonitorTest {
+
+    @Mock
+    private RatingClientService ratingClientService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RatingServiceHealthMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new RatingServiceHealthMonitor(ratingClientService, new MonitoringConfig(meterRegistry),
+                meterRegistry, true, 3, 2);
+    }
+
+    @Test
+    void initialState_ShouldBeUp() {
+        // Then
+        assertEquals(RatingServiceHealthMonitor.State.UP, monitor.getState());
+        assertTrue(monitor.isAvailable());
+        assertNull(monitor.getLastProbe());
+    }
+
+    @Test
+    void probe_ShouldCallServiceOnceAndRecordMetric() {
+        // Given
+        when(ratingClientService.isRatingServiceHealthy()).thenReturn(true);
+
+        // When
+        monitor.probe();
+
+        // Then
+        verify(ratingClientService).isRatingServiceHealthy();
+        assertNotNull(monitor.getLastProbe());
+        assertEquals(1.0, meterRegistry.get("rating_service_health_checks").tag("status", "healthy").counter().count());
+    }
+
+    @Test
+    void probe_WhenDisabled_ShouldNotCallService() {
+        // Given
+        monitor = new RatingServiceHealthMonitor(ratingClientService, new MonitoringConfig(new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(), false, 3, 2);
+
+        // When
+        monitor.probe();
+
+        // Then
+        verifyNoInteractions(ratingClientService);
+    }
+
+    @Test
+    void record_SingleFailure_ShouldDegradeButStayAvailable() {
+        // When
+        monitor.record(false);
+
+        // Then
+        assertEquals(RatingServiceHealthMonitor.State.DEGRADED, monitor.getState());
+        assertTrue(monitor.isAvailable());
+        assertEquals(1.0, meterRegistry.get("rating_service_health_state").gauge().value());
+    }
+
+    @Test
+    void record_ConsecutiveFailuresReachingThreshold_ShouldGoDown() {
+        // When
+        monitor.record(false);
+        monitor.record(false);
+        monitor.record(false);
+
+        // Then
+        assertEquals(RatingServiceHealthMonitor.State.DOWN, monitor.getState());
+        assertFalse(monitor.isAvailable());
+        assertEquals(0.0, meterRegistry.get("rating_service_health_state").gauge().value());
+    }
+
+    @Test
+    void record_FailuresInterruptedBySuccess_ShouldNotGoDown() {
+        // When
+        monitor.record(false);
+        monitor.record(false);
+        monitor.record(true);
+        monitor.record(false);
+        monitor.record(false);
+
+        // Then
+        assertEquals(RatingServiceHealthMonitor.State.DEGRADED, monitor.getState());
+    }
+
+    @Test
+    void record_WhenDown_ShouldNeedConsecutiveSuccessesToRecover() {
+        // Given
+        monitor.record(false);
+        monitor.record(false);
+        monitor.record(false);
+
+        // When
+        monitor.record(true);
+
+        // Then - one success is not enough
+        assertEquals(RatingServiceHealthMonitor.State.DOWN, monitor.getState());
+
+        // When
+        monitor.record(true);
+
+        // Then
+        assertEquals(RatingServiceHealthMonitor.State.UP, monitor.getState());
+        assertEquals(2.0, meterRegistry.get("rating_service_health_state").gauge().value());
+    }
+
+    @Test
+    void record_Transition_ShouldUpdateLastTransition() {
+        // Given
+        var before = monitor.getLastTransition();
+
+        // When
+        monitor.record(true);
+        var unchanged = monitor.getLastTransition();
+        monitor.record(false);
+
+        // Then
+        assertSame(before, unchanged);
+        assertEquals(monitor.getLastProbe(), monitor.getLastTransition());
+    }
+}
@@ -0,0 +1,91 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingSummaryExtractorTest {
+
+    @Test
+    void parse_ShouldSumScoresAndSkipOtherFields() throws IOException {
+        // Given
+        String json = "{\"message\":\"ok\",\"data\":["
+                + "{\"id\":1,\"score\":5,\"comment\":\"great\",\"meta\":{\"score\":1,\"tags\":[1,2]}},"
+                + "{\"score\":2,\"createdAt\":\"2025-05-01T10:15:30\"}"
+                + "],\"success\":1}";
+
+        // When
+        RatingClientService.RatingSummary summary = parse(json);
+
+        // Then
+        assertEquals(3.5, summary.getAverageRating(), 0.001);
+        assertEquals(2, summary.getTotalRatings());
+    }
+
+    @Test
+    void parse_WithNullScoresAndNonObjectElements_ShouldOnlyCountIntegerScores() throws IOException {
+        // Given
+        String json = "{\"success\":1,\"data\":[null,{\"score\":null},[{\"score\":9}],{\"score\":4}]}";
+
+        // When
+        RatingClientService.RatingSummary summary = parse(json);
+
+        // Then
+        assertEquals(4.0, summary.getAverageRating(), 0.001);
+        assertEquals(1, summary.getTotalRatings());
+    }
+
+    @Test
+    void parse_ShouldCountRatingsPerStar() throws IOException {
+        // Given
+        String json = "{\"success\":1,\"data\":[{\"score\":5},{\"score\":1},{\"score\":5},{\"score\":3},{\"score\":7}]}";
+
+        // When
+        RatingClientService.RatingSummary summary = parse(json);
+
+        // Then - scores outside 1 to 5 count towards the average only
+        assertArrayEquals(new int[]{1, 0, 1, 0, 2}, summary.getStarCounts());
+        assertEquals(5, summary.getTotalRatings());
+    }
+
+    @Test
+    void parse_WithUnsuccessfulEnvelope_ShouldThrow() {
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class,
+                () -> parse("{\"success\":0,\"data\":[{\"score\":5}]}"));
+        assertThrows(RatingServiceUnavailableException.class, () -> parse("{\"data\":[]}"));
+    }
+
+    @Test
+    void parse_WithEmptyData_ShouldReturnEmptySummary() throws IOException {
+        // Then
+        assertEquals(0, parse("{\"success\":1,\"data\":[]}").getTotalRatings());
+    }
+
+    @Test
+    void parse_WithNonObjectBody_ShouldThrow() {
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class, () -> parse("[]"));
+    }
+
+    @Test
+    void extractData_WithNonSuccessStatus_ShouldThrow() {
+        // Given
+        MockClientHttpResponse response = new MockClientHttpResponse(
+                "{\"success\":1,\"data\":[{\"score\":5}]}".getBytes(StandardCharsets.UTF_8), HttpStatus.NOT_FOUND);
+
+        // When / Then
+        assertThrows(RatingServiceUnavailableException.class, () -> new RatingSummaryExtractor().extractData(response));
+    }
+
+    private RatingClientService.RatingSummary parse(String json) throws IOException {
+        return RatingSummaryExtractor.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
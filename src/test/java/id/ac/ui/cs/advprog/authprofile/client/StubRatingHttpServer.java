@@ -0,0 +1,376 @@
+package id.ac.ui.cs.advprog.authprofile.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the rating service: answers /api/rating/doctor/{id} with a fixed
+ * number of ratings in the same ApiResponseDto envelope the real service uses.
+ * Responses carry an ETag and Last-Modified, and a matching If-None-Match or
+ * If-Modified-Since is answered with 304 and no body. Used by tests and the benchmarks.
+ * <p>
+ * It also serves the rating feed (/api/rating/feed) over the doctors given to
+ * setDoctorIds, and /actuator/health. A FaultProfile adds latency, failed responses
+ * and slow-drip bodies to the rating endpoints; health answers with the profile's
+ * latency only, and reports DOWN after setHealthy(false).
+ */
+public class StubRatingHttpServer implements AutoCloseable {
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY every
+        // response stalls on Nagle + delayed ACK (~40ms) and hides the client cost.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final byte[] FAULT_BODY =
+            "{\"success\":0,\"message\":\"Injected fault\",\"data\":null}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong bodyBytesSent = new AtomicLong();
+    private final AtomicLong faulted = new AtomicLong();
+    private final AtomicLong healthRequests = new AtomicLong();
+
+    private volatile Dataset dataset;
+    private volatile FaultProfile faultProfile;
+    private volatile List<Long> doctorIds = List.of();
+    private volatile boolean healthy = true;
+
+    public StubRatingHttpServer(int ratingsPerDoctor) throws IOException {
+        this(ratingsPerDoctor, 0);
+    }
+
+    /**
+     * @param latencyMillis delay added to every response to stand in for network and service time
+     */
+    public StubRatingHttpServer(int ratingsPerDoctor, long latencyMillis) throws IOException {
+        this(ratingsPerDoctor, FaultProfile.healthy().withLatency(LatencyDistribution.fixed(latencyMillis)));
+    }
+
+    public StubRatingHttpServer(int ratingsPerDoctor, FaultProfile faultProfile) throws IOException {
+        this.faultProfile = faultProfile;
+        setRatingsPerDoctor(ratingsPerDoctor);
+
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.setExecutor(executor);
+        server.createContext("/api/rating/doctor/", this::handleRatings);
+        server.createContext("/api/rating/feed", this::handleFeed);
+        server.createContext("/actuator/health", this::handleHealth);
+        server.start();
+    }
+
+    private void handleRatings(HttpExchange exchange) throws IOException {
+        long request = requests.incrementAndGet();
+        FaultProfile profile = faultProfile;
+        pause(profile.latency().nextMillis());
+        if (profile.fails(request)) {
+            sendFault(exchange);
+            return;
+        }
+
+        Dataset current = dataset;
+        exchange.getResponseHeaders().add("ETag", current.etag());
+        exchange.getResponseHeaders().add("Last-Modified", current.lastModifiedHeader());
+
+        if (current.matches(exchange.getRequestHeaders().getFirst("If-None-Match"),
+                exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        sendJson(exchange, 200, current.body(), profile);
+    }
+
+    private void handleFeed(HttpExchange exchange) throws IOException {
+        long request = requests.incrementAndGet();
+        FaultProfile profile = faultProfile;
+        pause(profile.latency().nextMillis());
+        if (profile.fails(request)) {
+            sendFault(exchange);
+            return;
+        }
+
+        long afterId = queryParameter(exchange, "afterId", 0L);
+        int limit = (int) queryParameter(exchange, "limit", 100L);
+        sendJson(exchange, 200, feedJson(afterId, limit).getBytes(StandardCharsets.UTF_8), profile);
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        healthRequests.incrementAndGet();
+        pause(faultProfile.latency().nextMillis());
+        byte[] body = (healthy ? "{\"status\":\"UP\"}" : "{\"status\":\"DOWN\"}").getBytes(StandardCharsets.UTF_8);
+        sendJson(exchange, healthy ? 200 : 503, body, FaultProfile.healthy());
+    }
+
+    private void sendFault(HttpExchange exchange) throws IOException {
+        faulted.incrementAndGet();
+        sendJson(exchange, 503, FAULT_BODY, FaultProfile.healthy());
+    }
+
+    /**
+     * Writes the body at once, or in chunks with a pause before each when the profile drips
+     */
+    private void sendJson(HttpExchange exchange, int status, byte[] body, FaultProfile profile) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (profile.dripChunkBytes() <= 0) {
+                countBodyBytes(status, body.length);
+                out.write(body);
+            } else {
+                for (int offset = 0; offset < body.length; offset += profile.dripChunkBytes()) {
+                    pause(profile.dripIntervalMillis());
+                    int length = Math.min(profile.dripChunkBytes(), body.length - offset);
+                    countBodyBytes(status, length);
+                    out.write(body, offset, length);
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client gave up mid-body
+        }
+    }
+
+    /**
+     * Counted before the write, since the client can return as soon as the bytes arrive
+     */
+    private void countBodyBytes(int status, int length) {
+        if (status == 200) {
+            bodyBytesSent.addAndGet(length);
+        }
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long queryParameter(HttpExchange exchange, String name, long defaultValue) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return Long.parseLong(pair.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Replaces the dataset served for every doctor; the new one gets a new ETag and a
+     * later Last-Modified
+     */
+    public void setRatingsPerDoctor(int ratingsPerDoctor) {
+        Dataset previous = dataset;
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        if (previous != null && !lastModified.isAfter(previous.lastModified())) {
+            lastModified = previous.lastModified().plusSeconds(1);
+        }
+        byte[] body = ratingsJson(ratingsPerDoctor).getBytes(StandardCharsets.UTF_8);
+        String etag = "\"" + ratingsPerDoctor + "-" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+        this.dataset = new Dataset(ratingsPerDoctor, body, etag, lastModified);
+    }
+
+    /**
+     * Doctors the feed has ratings for, each with the current ratings per doctor.
+     * Feed rating k (from 1) belongs to doctor (k - 1) / ratingsPerDoctor and has the same
+     * score as the matching rating in that doctor's own list
+     */
+    public void setDoctorIds(List<Long> doctorIds) {
+        this.doctorIds = List.copyOf(doctorIds);
+    }
+
+    public void setFaultProfile(FaultProfile faultProfile) {
+        this.faultProfile = faultProfile;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Requests to the rating endpoints (per-doctor lists and the feed); health checks are
+     * counted separately
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    public long getFaultedCount() {
+        return faulted.get();
+    }
+
+    public long getHealthRequestCount() {
+        return healthRequests.get();
+    }
+
+    /**
+     * Response body bytes handed to the socket so far; 304s and injected faults add nothing
+     */
+    public long getBodyBytesSent() {
+        return bodyBytesSent.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    public static String ratingsJson(int ratings) {
+        StringBuilder json = new StringBuilder(ratings * 140 + 64);
+        json.append("{\"success\":1,\"message\":\"ok\",\"data\":[");
+        for (int i = 0; i < ratings; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendRating(json, i, 1L, i);
+        }
+        return json.append("]}").toString();
+    }
+
+    private String feedJson(long afterId, int limit) {
+        int ratingsPerDoctor = dataset.ratingsPerDoctor();
+        List<Long> doctors = doctorIds;
+        long total = (long) doctors.size() * ratingsPerDoctor;
+
+        StringBuilder json = new StringBuilder(limit * 140 + 64);
+        json.append("{\"success\":1,\"message\":\"ok\",\"data\":[");
+        for (long k = afterId; k < Math.min(total, afterId + limit); k++) {
+            if (k > afterId) {
+                json.append(',');
+            }
+            appendRating(json, k + 1, doctors.get((int) (k / ratingsPerDoctor)), (int) (k % ratingsPerDoctor));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendRating(StringBuilder json, long id, long doctorId, int position) {
+        json.append("{\"id\":").append(id)
+                .append(",\"consultationId\":").append(10_000 + id)
+                .append(",\"doctorId\":").append(doctorId)
+                .append(",\"score\":").append(1 + position % 5)
+                .append(",\"comment\":\"Very attentive doctor, explained the diagnosis clearly\"")
+                .append(",\"createdAt\":\"2025-05-0").append(1 + position % 9).append("T10:15:30\"}");
+    }
+
+    /**
+     * Delay before a response, in milliseconds
+     */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+
+        long nextMillis();
+
+        static LatencyDistribution fixed(long millis) {
+            return () -> millis;
+        }
+
+        static LatencyDistribution uniform(long minMillis, long maxMillis) {
+            return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+        }
+
+        /**
+         * typicalMillis for most responses and tailMillis for tailFraction of them, spread
+         * evenly so a short run still sees its share of slow responses
+         */
+        static LatencyDistribution withTail(long typicalMillis, long tailMillis, double tailFraction) {
+            AtomicLong samples = new AtomicLong();
+            return () -> {
+                long sample = samples.incrementAndGet();
+                return (long) (sample * tailFraction) > (long) ((sample - 1) * tailFraction) ? tailMillis : typicalMillis;
+            };
+        }
+    }
+
+    /**
+     * How the rating endpoints misbehave.
+     * errorRate is applied deterministically, so any run of requests fails that exact
+     * fraction (give or take one) and tests do not depend on luck. A positive dripChunkBytes
+     * sends bodies that many bytes at a time, dripIntervalMillis apart.
+     */
+    public record FaultProfile(LatencyDistribution latency, double errorRate,
+                               int dripChunkBytes, long dripIntervalMillis) {
+
+        public static FaultProfile healthy() {
+            return new FaultProfile(LatencyDistribution.fixed(0), 0.0, 0, 0);
+        }
+
+        public FaultProfile withLatency(LatencyDistribution latency) {
+            return new FaultProfile(latency, errorRate, dripChunkBytes, dripIntervalMillis);
+        }
+
+        public FaultProfile withErrorRate(double errorRate) {
+            return new FaultProfile(latency, errorRate, dripChunkBytes, dripIntervalMillis);
+        }
+
+        public FaultProfile withSlowDrip(int chunkBytes, long intervalMillis) {
+            return new FaultProfile(latency, errorRate, chunkBytes, intervalMillis);
+        }
+
+        boolean fails(long request) {
+            return (long) (request * errorRate) > (long) ((request - 1) * errorRate);
+        }
+    }
+
+    private record Dataset(int ratingsPerDoctor, byte[] body, String etag, Instant lastModified) {
+
+        String lastModifiedHeader() {
+            return DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified.atOffset(ZoneOffset.UTC));
+        }
+
+        /**
+         * If-None-Match wins over If-Modified-Since when both are sent (RFC 9110 13.2.2)
+         */
+        boolean matches(String ifNoneMatch, String ifModifiedSince) {
+            if (ifNoneMatch != null) {
+                return ifNoneMatch.equals(etag) || ifNoneMatch.equals("W/" + etag);
+            }
+            if (ifModifiedSince != null) {
+                try {
+                    Instant since = Instant.from(DateTimeFormatter.RFC_1123_DATE_TIME.parse(ifModifiedSince));
+                    return !lastModified.isAfter(since);
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppConfigTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private HttpServer server;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AppConfig appConfig = new AppConfig();
+        ReflectionTestUtils.setField(appConfig, "connectionTimeout", 1000);
+        ReflectionTestUtils.setField(appConfig, "readTimeout", 1000);
+        ReflectionTestUtils.setField(appConfig, "poolMaxTotal", 30);
+        ReflectionTestUtils.setField(appConfig, "poolMaxPerRoute", 7);
+        ReflectionTestUtils.setField(appConfig, "connectionTtlMillis", 60000L);
+        ReflectionTestUtils.setField(appConfig, "idleEvictMillis", 30000L);
+        ReflectionTestUtils.setField(appConfig, "acquireTimeoutMillis", 500L);
+
+        meterRegistry = new SimpleMeterRegistry();
+        connectionManager = appConfig.ratingConnectionManager(meterRegistry);
+        httpClient = appConfig.ratingHttpClient(connectionManager);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/rating/doctor/1", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{\"success\":1,\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void ratingConnectionManager_ShouldApplyPoolLimits() {
+        // Then
+        assertEquals(30, connectionManager.getMaxTotal());
+        assertEquals(7, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    void ratingConnectionManager_ShouldBindPoolMetrics() {
+        // Then
+        assertEquals(30.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "rating-service").gauge().value());
+        assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.pending").gauge());
+    }
+
+    @Test
+    void clientHttpRequestFactory_ShouldReuseKeepAliveConnections() {
+        // Given
+        AppConfig appConfig = new AppConfig();
+        RestTemplate restTemplate = appConfig.restTemplate(appConfig.clientHttpRequestFactory(httpClient));
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/rating/doctor/1";
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            restTemplate.getForObject(url, String.class);
+        }
+
+        // Then
+        assertInstanceOf(HttpComponentsClientHttpRequestFactory.class, restTemplate.getRequestFactory());
+        assertEquals(1, clientPorts.size());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+    }
+}
@@ -0,0 +1,143 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Small load test comparing the platform-thread and virtual-thread modes of the
+ * search executor on a blocking workload that holds a simulated JDBC connection.
+ * The timing comparison is tagged {@code load} and runs with {@code ./gradlew loadTest}, not {@code test}.
+ */
+class AsyncConfigLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfigLoadTest.class);
+
+    private static final int HIKARI_POOL_SIZE = 20;
+    private static final AsyncConfig.VirtualConcurrency LIMITS = new AsyncConfig.VirtualConcurrency(10, 4, 8, 1);
+    private static final int TASKS = 400;
+    private static final long QUERY_MILLIS = 10;
+
+    @Test
+    @Tag("load")
+    void searchTaskExecutor_VirtualMode_ShouldOutperformPlatformModeOnBlockingWork() throws Exception {
+        // Given
+        Executor platform = config(false).searchTaskExecutor();
+        Executor virtual = config(true).searchTaskExecutor();
+
+        try {
+            // When
+            LoadResult platformResult = runLoad(platform);
+            LoadResult virtualResult = runLoad(virtual);
+
+            logger.info("platform mode: {} tasks/s, p99 {} ms, peak concurrency {}",
+                    platformResult.throughput(), platformResult.p99Millis(), platformResult.peakConcurrency());
+            logger.info("virtual mode: {} tasks/s, p99 {} ms, peak concurrency {}",
+                    virtualResult.throughput(), virtualResult.p99Millis(), virtualResult.peakConcurrency());
+
+            // Then
+            assertTrue(virtualResult.peakConcurrency() <= LIMITS.search());
+            assertTrue(virtualResult.throughput() > platformResult.throughput());
+            assertTrue(virtualResult.p99Millis() < platformResult.p99Millis());
+        } finally {
+            ((ThreadPoolTaskExecutor) platform).shutdown();
+            ((BoundedVirtualThreadExecutor) virtual).close();
+        }
+    }
+
+    @Test
+    void searchTaskExecutor_VirtualMode_ShouldReturnBoundedVirtualThreadExecutor() {
+        // When
+        Executor executor = config(true).searchTaskExecutor();
+
+        // Then
+        BoundedVirtualThreadExecutor virtual = assertInstanceOf(BoundedVirtualThreadExecutor.class, executor);
+        assertEquals(LIMITS.search(), virtual.getMaxConcurrency());
+        virtual.close();
+    }
+
+    @Test
+    void virtualMode_ShouldGiveEachExecutorItsOwnLimitWithinTheConnectionPool() {
+        // Given
+        AsyncConfig config = config(true);
+
+        // When
+        List<BoundedVirtualThreadExecutor> jdbcBound = List.of(
+                (BoundedVirtualThreadExecutor) config.searchTaskExecutor(),
+                (BoundedVirtualThreadExecutor) config.autocompleteTaskExecutor(),
+                (BoundedVirtualThreadExecutor) config.ratingRefreshExecutor());
+        BoundedVirtualThreadExecutor rating = (BoundedVirtualThreadExecutor) config.ratingServiceExecutor();
+
+        // Then
+        assertEquals(List.of(10, 4, 1), jdbcBound.stream().map(BoundedVirtualThreadExecutor::getMaxConcurrency).toList());
+        assertTrue(jdbcBound.stream().mapToInt(BoundedVirtualThreadExecutor::getMaxConcurrency).sum() <= HIKARI_POOL_SIZE);
+        assertEquals(8, rating.getMaxConcurrency());
+        jdbcBound.forEach(BoundedVirtualThreadExecutor::close);
+        rating.close();
+    }
+
+    @Test
+    void ratingServiceExecutor_PlatformMode_ShouldReturnThreadPool() {
+        // When
+        Executor executor = config(false).ratingServiceExecutor();
+
+        // Then
+        ThreadPoolTaskExecutor pool = assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        assertEquals(8, pool.getMaxPoolSize());
+        pool.shutdown();
+    }
+
+    private AsyncConfig config(boolean virtualThreadsEnabled) {
+        return new AsyncConfig(virtualThreadsEnabled, HIKARI_POOL_SIZE, LIMITS, new SimpleMeterRegistry());
+    }
+
+    private LoadResult runLoad(Executor executor) throws InterruptedException {
+        Semaphore connections = new Semaphore(HIKARI_POOL_SIZE);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        long[] latencies = new long[TASKS];
+        CountDownLatch done = new CountDownLatch(TASKS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                connections.acquireUninterruptibly();
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(QUERY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    connections.release();
+                    latencies[index] = System.nanoTime() - submitted;
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        long p99 = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(TASKS * 0.99) - 1]);
+        long throughput = TASKS * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        return new LoadResult(throughput, p99, peak.get());
+    }
+
+    private record LoadResult(long throughput, long p99Millis, int peakConcurrency) {}
+}
@@ -0,0 +1,95 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardinalityGuardMeterFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardinalityGuardMeterFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new CardinalityGuardMeterFilter(3, Set.of("http.server.requests"));
+        meterRegistry.config().meterFilter(filter);
+    }
+
+    @Test
+    void accept_BelowLimit_ShouldRegisterEverySeries() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            meterRegistry.counter("guarded_total", "reason", "r" + i).increment();
+        }
+
+        // Then
+        assertEquals(3, meterRegistry.find("guarded_total").counters().size());
+        assertEquals(3, filter.getSeriesCount("guarded_total"));
+    }
+
+    @Test
+    void accept_AboveLimit_ShouldDenyNewTagCombinations() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            meterRegistry.counter("guarded_total", "reason", "r" + i);
+        }
+
+        // When
+        Counter overflow = meterRegistry.counter("guarded_total", "reason", "r3");
+        overflow.increment();
+
+        // Then
+        assertEquals(3, meterRegistry.find("guarded_total").counters().size());
+        assertNull(meterRegistry.find("guarded_total").tag("reason", "r3").counter());
+        assertEquals(0.0, overflow.count());
+    }
+
+    @Test
+    void accept_ExistingSeriesAfterLimit_ShouldStillRecord() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            meterRegistry.counter("guarded_total", "reason", "r" + i);
+        }
+
+        // When
+        meterRegistry.counter("guarded_total", "reason", "r0").increment();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("guarded_total").tag("reason", "r0").counter().count());
+    }
+
+    @Test
+    void accept_ExemptMeter_ShouldNotBeCapped() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            meterRegistry.counter("http.server.requests", "uri", "/api/" + i);
+        }
+
+        // Then
+        assertEquals(5, meterRegistry.find("http.server.requests").counters().size());
+    }
+
+    @Test
+    void accept_LimitIsPerMeterName() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            meterRegistry.counter("first_total", "reason", "r" + i);
+            meterRegistry.counter("second_total", "reason", "r" + i);
+        }
+
+        // Then
+        assertEquals(3, meterRegistry.find("first_total").counters().size());
+        assertEquals(3, meterRegistry.find("second_total").counters().size());
+    }
+
+    @Test
+    void constructor_NonPositiveLimit_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new CardinalityGuardMeterFilter(0, Set.of()));
+    }
+}
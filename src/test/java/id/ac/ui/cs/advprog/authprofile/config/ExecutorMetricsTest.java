@@ -0,0 +1,150 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncConfig asyncConfig;
+    private Executor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        asyncConfig = new AsyncConfig(false, 10, new AsyncConfig.VirtualConcurrency(5, 2, 8, 1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof BoundedVirtualThreadExecutor virtual) {
+            virtual.close();
+        }
+    }
+
+    @Test
+    void createExecutor_ShouldRecordQueueWaitAndExecutionPerTask() throws InterruptedException {
+        // Given
+        executor = asyncConfig.searchTaskExecutor();
+        CountDownLatch done = new CountDownLatch(3);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            executor.execute(done::countDown);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+        ((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(3, meterRegistry.get("async_executor_queue_wait").tag("executor", "search").timer().count());
+        assertEquals(3, meterRegistry.get("async_executor_execution").tag("executor", "search").timer().count());
+    }
+
+    @Test
+    void createExecutor_ShouldExposeSaturationGauges() {
+        // When
+        executor = asyncConfig.ratingServiceExecutor();
+
+        // Then
+        assertEquals(8.0, meterRegistry.get("async_executor_pool_max").tag("executor", "rating").gauge().value());
+        assertEquals(0.0, meterRegistry.get("async_executor_active").tag("executor", "rating").gauge().value());
+        assertEquals(0.0, meterRegistry.get("async_executor_queued").tag("executor", "rating").gauge().value());
+        assertNotNull(meterRegistry.get("async_executor_pool_size").tag("executor", "rating").gauge());
+    }
+
+    @Test
+    void countingRejections_AbortPolicy_ShouldCountRejection() throws InterruptedException {
+        // Given
+        executor = asyncConfig.autocompleteTaskExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // When: 6 threads + 100 queue slots are filled, the next task is rejected
+        for (int i = 0; i < 106; i++) {
+            executor.execute(blocker);
+        }
+        assertThrows(TaskRejectedException.class, () -> executor.execute(blocker));
+        release.countDown();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("async_executor_rejected_total")
+                .tag("executor", "autocomplete").counter().count());
+        assertEquals(0.0, meterRegistry.get("async_executor_caller_runs_total")
+                .tag("executor", "autocomplete").counter().count());
+    }
+
+    @Test
+    void countingRejections_CallerRunsPolicy_ShouldCountCallerRuns() throws InterruptedException {
+        // Given
+        executor = asyncConfig.ratingServiceExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        for (int i = 0; i < 208; i++) {
+            executor.execute(blocker);
+        }
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        // When
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+        release.countDown();
+
+        // Then
+        assertEquals(Thread.currentThread(), ranOn.get());
+        assertEquals(1.0, meterRegistry.get("async_executor_caller_runs_total")
+                .tag("executor", "rating").counter().count());
+    }
+
+    @Test
+    void virtualExecutor_ShouldRecordPermitWaitAsQueueWait() throws InterruptedException {
+        // Given
+        asyncConfig = new AsyncConfig(true, 10, new AsyncConfig.VirtualConcurrency(1, 1, 1, 1), meterRegistry);
+        executor = asyncConfig.searchTaskExecutor();
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable slow = () -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        };
+
+        // When
+        executor.execute(slow);
+        executor.execute(slow);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        ((BoundedVirtualThreadExecutor) executor).close();
+
+        // Then
+        assertEquals(2, meterRegistry.get("async_executor_queue_wait").tag("executor", "search").timer().count());
+        assertTrue(meterRegistry.get("async_executor_queue_wait").tag("executor", "search").timer()
+                .max(TimeUnit.MILLISECONDS) >= 40);
+        assertEquals(1.0, meterRegistry.get("async_executor_pool_max").tag("executor", "search").gauge().value());
+    }
+}
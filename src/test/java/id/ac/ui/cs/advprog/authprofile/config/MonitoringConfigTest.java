@@ -0,0 +1,113 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitoringConfigTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MonitoringConfig monitoringConfig;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitoringConfig = new MonitoringConfig(meterRegistry);
+    }
+
+    @Test
+    void searchRequest_ShouldReturnPreRegisteredHandle() {
+        // When
+        monitoringConfig.searchRequest(SearchType.OPTIMIZED, true, false).increment();
+
+        // Then
+        assertSame(monitoringConfig.searchRequest(SearchType.OPTIMIZED, true, false),
+                monitoringConfig.searchRequest(SearchType.OPTIMIZED, true, false));
+        assertEquals(1.0, meterRegistry.get("search_requests_total")
+                .tag("type", "optimized").tag("hasName", "true").tag("hasSpeciality", "false")
+                .counter().count());
+    }
+
+    @Test
+    void searchRequestsTotal_AllSeriesShouldShareTagKeys() {
+        // When
+        List<Meter> meters = meterRegistry.find("search_requests_total").meters().stream().toList();
+        Set<Set<String>> tagKeySets = meters.stream()
+                .map(meter -> meter.getId().getTags().stream()
+                        .map(tag -> tag.getKey())
+                        .collect(Collectors.toSet()))
+                .collect(Collectors.toSet());
+
+        // Then
+        assertFalse(meters.isEmpty());
+        assertEquals(1, tagKeySets.size());
+    }
+
+    @Test
+    void advancedSearchRequest_UnknownSortField_ShouldFallBackToAverageRating() {
+        // When
+        monitoringConfig.advancedSearchRequest("password", true).increment();
+
+        // Then
+        assertSame(monitoringConfig.advancedSearchRequest("averageRating", true),
+                monitoringConfig.advancedSearchRequest("password", true));
+        assertNull(meterRegistry.find("search_requests_total").tag("sortBy", "password").counter());
+    }
+
+    @Test
+    void profileUpdateSuccessful_UnknownUserType_ShouldMapToUnknown() {
+        // When
+        monitoringConfig.profileUpdateSuccessful("admin", false).increment();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("profile_update_successful")
+                .tag("userType", "unknown").tag("emailChanged", "false")
+                .counter().count());
+    }
+
+    @Test
+    void profileUpdateFailed_ShouldMemoizeHandlePerReason() {
+        // When
+        monitoringConfig.profileUpdateFailed("caregiver", new IllegalStateException()).increment();
+        monitoringConfig.profileUpdateFailed("caregiver", new IllegalStateException()).increment();
+
+        // Then
+        assertSame(monitoringConfig.profileUpdateFailed("caregiver", new IllegalStateException()),
+                monitoringConfig.profileUpdateFailed("caregiver", new IllegalStateException()));
+        assertEquals(2.0, meterRegistry.get("profile_update_failed")
+                .tag("reason", "IllegalStateException").counter().count());
+    }
+
+    @Test
+    void authorization_ShouldSeparateGrantedAndDenied() {
+        // When
+        monitoringConfig.authorization(true, "VIEW_OWN_PROFILE", "Pacillian", "getProfile").increment();
+        monitoringConfig.authorization(false, "VIEW_OWN_PROFILE", "Pacillian", "getProfile").increment();
+        monitoringConfig.authorization(false, "VIEW_OWN_PROFILE", "Pacillian", "getProfile").increment();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("auth_authorization_successful").counter().count());
+        assertEquals(2.0, meterRegistry.get("auth_authorization_denied").counter().count());
+    }
+
+    @Test
+    void searchTotalElements_ShouldRecordDistributionInsteadOfGauge() {
+        // When
+        monitoringConfig.searchTotalElements(SearchType.PAGINATED).record(42);
+        monitoringConfig.searchTotalElements(SearchType.PAGINATED).record(8);
+
+        // Then
+        assertEquals(2, meterRegistry.get("search_caregivers_total_elements")
+                .tag("type", "paginated").summary().count());
+        assertEquals(50.0, meterRegistry.get("search_caregivers_total_elements")
+                .tag("type", "paginated").summary().totalAmount());
+    }
+}
@@ -0,0 +1,72 @@
+package id.ac.ui.cs.advprog.authprofile.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchPhase;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTimingJsonHttpMessageConverterTest {
+
+    private MonitoringConfig monitoringConfig;
+    private SearchTimingJsonHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        monitoringConfig = new MonitoringConfig(new SimpleMeterRegistry());
+        converter = new SearchTimingJsonHttpMessageConverter(new ObjectMapper(), monitoringConfig);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void write_MarkedSearchRequest_ShouldRecordSerializationPhase() throws IOException {
+        // Given
+        SearchTimingJsonHttpMessageConverter.markSearchRequest(SearchType.ADVANCED);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(List.of(Map.of("name", "Dr. Smith")), MediaType.APPLICATION_JSON, output);
+
+        // Then
+        assertEquals("[{\"name\":\"Dr. Smith\"}]", output.getBodyAsString());
+        assertEquals(1, monitoringConfig.searchPhase(SearchType.ADVANCED, SearchPhase.SERIALIZATION).count());
+    }
+
+    @Test
+    void write_UnmarkedRequest_ShouldNotRecord() throws IOException {
+        // When
+        converter.write(Map.of("message", "ok"), MediaType.APPLICATION_JSON, new MockHttpOutputMessage());
+
+        // Then
+        for (SearchType type : SearchType.values()) {
+            assertEquals(0, monitoringConfig.searchPhase(type, SearchPhase.SERIALIZATION).count());
+        }
+    }
+
+    @Test
+    void markSearchRequest_WithoutRequestContext_ShouldBeNoOp() {
+        // Given
+        RequestContextHolder.resetRequestAttributes();
+
+        // When / Then
+        assertDoesNotThrow(() -> SearchTimingJsonHttpMessageConverter.markSearchRequest(SearchType.OPTIMIZED));
+    }
+}
@@ -1,6 +1,7 @@
 package id.ac.ui.cs.advprog.authprofile.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
 import id.ac.ui.cs.advprog.authprofile.service.IRatingService;
@@ -200,6 +201,21 @@ class RatingControllerTest {
         verify(ratingService).getRatingSummary(doctorId);
     }
 
+    @Test
+    void getRatingSummary_WithMockMvc_ShouldIncludeStarCounts() throws Exception {
+        // Given
+        Long doctorId = 1L;
+        when(ratingService.getRatingSummary(doctorId))
+                .thenReturn(new RatingSummaryResponse(4.0, 3, new int[]{0, 0, 1, 1, 1}));
+
+        // When & Then
+        mockMvc.perform(get("/api/ratings/doctor/{doctorId}/summary", doctorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.starCounts.length()").value(5))
+                .andExpect(jsonPath("$.starCounts[2]").value(1))
+                .andExpect(jsonPath("$.starCounts[0]").value(0));
+    }
+
     @Test
     void getCurrentUserRatingSummary_WithValidUser_ShouldReturnSummary() {
         // Given
@@ -259,7 +275,7 @@ class RatingControllerTest {
     @Test
     void checkRatingServiceHealth_WhenHealthy_ShouldReturnOkWithHealthyStatus() {
         // Given
-        when(ratingService.isRatingServiceHealthy()).thenReturn(true);
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.UP);
 
         // When
         ResponseEntity<Map<String, Object>> response = ratingController.checkRatingServiceHealth();
@@ -275,13 +291,13 @@ class RatingControllerTest {
         assertTrue(body.containsKey("timestamp"));
         assertTrue(body.get("timestamp") instanceof Long);
 
-        verify(ratingService).isRatingServiceHealthy();
+        verify(ratingService).getRatingServiceHealthState();
     }
 
     @Test
     void checkRatingServiceHealth_WhenUnhealthy_ShouldReturnServiceUnavailableWithDownStatus() {
         // Given
-        when(ratingService.isRatingServiceHealthy()).thenReturn(false);
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.DOWN);
 
         // When
         ResponseEntity<Map<String, Object>> response = ratingController.checkRatingServiceHealth();
@@ -297,13 +313,13 @@ class RatingControllerTest {
         assertTrue(body.containsKey("timestamp"));
         assertTrue(body.get("timestamp") instanceof Long);
 
-        verify(ratingService).isRatingServiceHealthy();
+        verify(ratingService).getRatingServiceHealthState();
     }
 
     @Test
     void checkRatingServiceHealth_WithMockMvc_WhenHealthy_ShouldReturnHealthyResponse() throws Exception {
         // Given
-        when(ratingService.isRatingServiceHealthy()).thenReturn(true);
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.UP);
 
         // When & Then
         mockMvc.perform(get("/api/ratings/health"))
@@ -313,13 +329,13 @@ class RatingControllerTest {
                 .andExpect(jsonPath("$.status").value("UP"))
                 .andExpect(jsonPath("$.timestamp").isNumber());
 
-        verify(ratingService).isRatingServiceHealthy();
+        verify(ratingService).getRatingServiceHealthState();
     }
 
     @Test
     void checkRatingServiceHealth_WithMockMvc_WhenUnhealthy_ShouldReturnUnhealthyResponse() throws Exception {
         // Given
-        when(ratingService.isRatingServiceHealthy()).thenReturn(false);
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.DOWN);
 
         // When & Then
         mockMvc.perform(get("/api/ratings/health"))
@@ -329,13 +345,29 @@ class RatingControllerTest {
                 .andExpect(jsonPath("$.status").value("DOWN"))
                 .andExpect(jsonPath("$.timestamp").isNumber());
 
-        verify(ratingService).isRatingServiceHealthy();
+        verify(ratingService).getRatingServiceHealthState();
+    }
+
+    @Test
+    void checkRatingServiceHealth_WhenDegraded_ShouldReturnOkWithDegradedStatus() {
+        // Given
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.DEGRADED);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = ratingController.checkRatingServiceHealth();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(true, response.getBody().get("ratingServiceHealthy"));
+        assertEquals("DEGRADED", response.getBody().get("status"));
+        verify(ratingService, never()).isRatingServiceHealthy();
     }
 
     @Test
     void checkRatingServiceHealth_WithServiceException_ShouldPropagateException() {
         // Given
-        when(ratingService.isRatingServiceHealthy())
+        when(ratingService.getRatingServiceHealthState())
                 .thenThrow(new RuntimeException("Health check failed"));
 
         // When & Then
@@ -344,13 +376,13 @@ class RatingControllerTest {
         });
 
         assertEquals("Health check failed", exception.getMessage());
-        verify(ratingService).isRatingServiceHealthy();
+        verify(ratingService).getRatingServiceHealthState();
     }
 
     @Test
     void checkRatingServiceHealth_ShouldIncludeCurrentTimestamp() {
         // Given
-        when(ratingService.isRatingServiceHealthy()).thenReturn(true);
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.UP);
         long beforeCall = System.currentTimeMillis();
 
         // When
@@ -376,7 +408,7 @@ class RatingControllerTest {
         when(ratingService.getRatingsByDoctorId(doctorId)).thenReturn(Collections.emptyList());
         when(ratingService.getRatingSummary(doctorId)).thenReturn(new RatingSummaryResponse(0.0, 0));
         when(ratingService.getCurrentUserRatingSummary()).thenReturn(new RatingSummaryResponse(0.0, 0));
-        when(ratingService.isRatingServiceHealthy()).thenReturn(true);
+        when(ratingService.getRatingServiceHealthState()).thenReturn(RatingServiceHealthMonitor.State.UP);
 
         // When - calling all endpoints
         ratingController.getRatingsByDoctorId(doctorId);
@@ -388,7 +420,7 @@ class RatingControllerTest {
         verify(ratingService).getRatingsByDoctorId(doctorId);
         verify(ratingService).getRatingSummary(doctorId);
         verify(ratingService).getCurrentUserRatingSummary();
-        verify(ratingService).isRatingServiceHealthy();
+        verify(ratingService).getRatingServiceHealthState();
     }
 
     @Test
@@ -0,0 +1,130 @@
+package id.ac.ui.cs.advprog.authprofile.controller;
+
+import id.ac.ui.cs.advprog.authprofile.dto.request.RatingEventRequest;
+import id.ac.ui.cs.advprog.authprofile.service.RatingEventAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RatingEventControllerTest {
+
+    private static final String SECRET = "rating-events-secret";
+    private static final String TWO_EVENTS = "{\"events\":["
+            + "{\"eventId\":\"evt-1\",\"type\":\"CREATED\",\"ratingId\":1,\"doctorId\":10,\"score\":5},"
+            + "{\"eventId\":\"evt-1\",\"type\":\"CREATED\",\"ratingId\":1,\"doctorId\":10,\"score\":5}]}";
+
+    @Mock
+    private RatingEventAggregator ratingEventAggregator;
+
+    private MockMvc mockMvc(boolean enabled, String secret) {
+        return MockMvcBuilders
+                .standaloneSetup(new RatingEventController(ratingEventAggregator, enabled, secret))
+                .build();
+    }
+
+    @Test
+    void ingestEvents_WithValidToken_ShouldRecordAndCountDuplicates() throws Exception {
+        // Given
+        when(ratingEventAggregator.record(any(RatingEventRequest.class))).thenReturn(true, false);
+
+        // When / Then
+        mockMvc(true, SECRET).perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_EVENTS))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1));
+        verify(ratingEventAggregator, times(2)).record(any(RatingEventRequest.class));
+    }
+
+    @Test
+    void ingestEvents_WithWrongToken_ShouldReturnUnauthorized() throws Exception {
+        // When / Then
+        mockMvc(true, SECRET).perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, "wrong")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_EVENTS))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(ratingEventAggregator);
+    }
+
+    @Test
+    void ingestEvents_WithEmptySecret_ShouldRejectEverything() throws Exception {
+        // When / Then
+        mockMvc(true, "").perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, "")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_EVENTS))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(ratingEventAggregator);
+    }
+
+    @Test
+    void ingestEvents_WhenDisabled_ShouldReturnNotFound() throws Exception {
+        // When / Then
+        mockMvc(false, SECRET).perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TWO_EVENTS))
+                .andExpect(status().isNotFound());
+        verifyNoInteractions(ratingEventAggregator);
+    }
+
+    @Test
+    void ingestEvents_WithUpdateMissingPreviousScore_ShouldRejectWholeBatch() throws Exception {
+        // Given
+        String body = "{\"events\":["
+                + "{\"eventId\":\"evt-1\",\"type\":\"CREATED\",\"ratingId\":1,\"doctorId\":10,\"score\":5},"
+                + "{\"eventId\":\"evt-2\",\"type\":\"UPDATED\",\"ratingId\":2,\"doctorId\":10,\"score\":3}]}";
+
+        // When / Then
+        mockMvc(true, SECRET).perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(ratingEventAggregator);
+    }
+
+    @Test
+    void ingestEvents_WithOutOfRangeScore_ShouldReturnBadRequest() throws Exception {
+        // Given
+        String body = "{\"events\":[{\"eventId\":\"evt-1\",\"type\":\"CREATED\",\"ratingId\":1,\"doctorId\":10,\"score\":9}]}";
+
+        // When / Then
+        mockMvc(true, SECRET).perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(ratingEventAggregator);
+    }
+
+    @Test
+    void ingestEvents_WithoutEventId_ShouldReturnBadRequest() throws Exception {
+        // Given
+        String body = "{\"events\":[{\"type\":\"CREATED\",\"ratingId\":1,\"doctorId\":10,\"score\":5}]}";
+
+        // When / Then
+        mockMvc(true, SECRET).perform(post("/api/ratings/events")
+                        .header(RatingEventController.TOKEN_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(ratingEventAggregator);
+    }
+}
@@ -1,13 +1,16 @@
 package id.ac.ui.cs.advprog.authprofile.controller;
 
 import id.ac.ui.cs.advprog.authprofile.dto.response.ProfileResponse;
+import id.ac.ui.cs.advprog.authprofile.exception.SearchOverloadedException;
 import id.ac.ui.cs.advprog.authprofile.service.SearchCareGiverService;
+import id.ac.ui.cs.advprog.authprofile.service.SearchConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,7 +33,8 @@ class SearchCareGiverControllerTest {
     @Mock
     private SearchCareGiverService searchCareGiverService;
 
-    @InjectMocks
+    private SearchConcurrencyLimiter searchConcurrencyLimiter;
+
     private SearchCareGiverController controller;
 
     private ProfileResponse profileResponse1;
@@ -40,6 +44,9 @@ class SearchCareGiverControllerTest {
 
     @BeforeEach
     void setUp() {
+        searchConcurrencyLimiter = new SearchConcurrencyLimiter(20, 4, 100, 500, 0.9, 1, new SimpleMeterRegistry());
+        controller = new SearchCareGiverController(searchCareGiverService, searchConcurrencyLimiter);
+
         profileResponse1 = new ProfileResponse();
         profileResponse1.setId(1L);
         profileResponse1.setName("Dr. John Smith");
@@ -347,7 +354,7 @@ class SearchCareGiverControllerTest {
     @Test
     void testSearchCareGiversAdvanced_WithAllValidSortFields() throws ExecutionException, InterruptedException {
         // Test all valid sort fields
-        String[] validSortFields = {"name", "speciality", "averageRating", "ratingCount"};
+        String[] validSortFields = {"name", "speciality", "averageRating", "ratingCount", "weightedScore"};
 
         for (String sortField : validSortFields) {
             // Given
@@ -530,7 +537,7 @@ class SearchCareGiverControllerTest {
                 .getDeclaredMethod("isValidSortField", String.class);
         method.setAccessible(true);
 
-        String[] validFields = {"name", "speciality", "averageRating", "ratingCount"};
+        String[] validFields = {"name", "speciality", "averageRating", "ratingCount", "weightedScore"};
 
         // When & Then
         for (String field : validFields) {
@@ -656,4 +663,48 @@ class SearchCareGiverControllerTest {
 
         verify(searchCareGiverService).getSpecialitySuggestions("Ca");
     }
-}
\ No newline at end of file
+
+    // ========== LOAD SHEDDING TESTS ==========
+
+    @Test
+    void testSearch_WhenConcurrencyLimitReached_ShouldFailFastWithRetryAfter() {
+        // Given
+        searchConcurrencyLimiter = new SearchConcurrencyLimiter(1, 1, 1, 500, 0.9, 3, new SimpleMeterRegistry());
+        controller = new SearchCareGiverController(searchCareGiverService, searchConcurrencyLimiter);
+        when(searchCareGiverService.searchCareGiversOptimized("John", null))
+                .thenReturn(new CompletableFuture<>());
+        controller.searchCareGiversOptimized("John", null);
+
+        // When
+        SearchOverloadedException ex = assertThrows(SearchOverloadedException.class,
+                () -> controller.getTopRatedCareGivers(0, 10));
+
+        // Then
+        assertEquals(3, ex.getRetryAfterSeconds());
+        verify(searchCareGiverService, never()).getTopRatedCareGivers(anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearch_WhenSearchPoolRejectsTask_ShouldReleasePermitAndFailFast() {
+        // Given
+        when(searchCareGiverService.getTopRatedCareGivers(0, 10))
+                .thenThrow(new TaskRejectedException("queue full"));
+
+        // When / Then
+        assertThrows(SearchOverloadedException.class, () -> controller.getTopRatedCareGivers(0, 10));
+        assertEquals(0, searchConcurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    void testSearch_WhenSearchCompletes_ShouldReleasePermit() throws ExecutionException, InterruptedException {
+        // Given
+        when(searchCareGiverService.getTopRatedCareGivers(0, 10))
+                .thenReturn(CompletableFuture.completedFuture(profilePage));
+
+        // When
+        controller.getTopRatedCareGivers(0, 10).get();
+
+        // Then
+        assertEquals(0, searchConcurrencyLimiter.getInFlight());
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -169,4 +170,19 @@ class GlobalExceptionHandlerTest {
         assertEquals(errorMessage, response.getBody().getMessage(), "Error message should match");
         assertFalse(response.getBody().isSuccess(), "Success flag should be false");
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleSearchOverloadedException() {
+        // Arrange
+        SearchOverloadedException exception = new SearchOverloadedException("Search overloaded", 2);
+
+        // Act
+        ResponseEntity<MessageResponse> response = exceptionHandler.handleSearchOverloadedException(exception);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Search overloaded", response.getBody().getMessage());
+        assertFalse(response.getBody().isSuccess());
+    }
+}
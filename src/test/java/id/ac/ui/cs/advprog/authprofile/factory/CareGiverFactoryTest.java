@@ -6,6 +6,7 @@ import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.model.Role;
 import id.ac.ui.cs.advprog.authprofile.model.User;
 import id.ac.ui.cs.advprog.authprofile.repository.RoleRepository;
+import id.ac.ui.cs.advprog.authprofile.service.WeightedRatingScore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +29,9 @@ class CareGiverFactoryTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private WeightedRatingScore weightedRatingScore;
+
     private CareGiverFactory careGiverFactory;
     private RegisterCareGiverRequest careGiverRequest;
     private RegisterPacillianRequest pacillianRequest;
@@ -35,7 +39,7 @@ class CareGiverFactoryTest {
 
     @BeforeEach
     void setUp() {
-        careGiverFactory = new CareGiverFactory(roleRepository);
+        careGiverFactory = new CareGiverFactory(roleRepository, weightedRatingScore);
 
         // Set up roles
         careGiverRole = new Role();
@@ -70,6 +74,7 @@ class CareGiverFactoryTest {
     void createUser_WithValidRequest_ShouldCreateCareGiver() {
         // given
         when(roleRepository.findByName(Role.ERole.ROLE_CAREGIVER)).thenReturn(Optional.of(careGiverRole));
+        when(weightedRatingScore.unratedScore()).thenReturn(3.8);
         String encodedPassword = "encoded_password";
 
         // when
@@ -90,6 +95,7 @@ class CareGiverFactoryTest {
         // Verify CareGiver-specific properties
         assertThat(careGiver.getSpeciality()).isEqualTo(careGiverRequest.getSpeciality());
         assertThat(careGiver.getWorkAddress()).isEqualTo(careGiverRequest.getWorkAddress());
+        assertThat(careGiver.getWeightedScore()).isEqualTo(3.8);
 
         // Verify role assignment
         assertThat(careGiver.getRoles()).hasSize(1);
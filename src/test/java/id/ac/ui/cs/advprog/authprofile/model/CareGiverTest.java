@@ -58,5 +58,32 @@ class CareGiverTest {
         // then - average should be (4.0 + 5.0) / 2 = 4.5
         assertThat(careGiver.getAverageRating()).isEqualTo(4.5);
         assertThat(careGiver.getRatingCount()).isEqualTo(2);
+        assertThat(careGiver.getRatingVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void addRating_ShouldUpdateAverageAndStarCounts() {
+        // given
+        CareGiver careGiver = new CareGiver();
+
+        // when
+        careGiver.addRating(5);
+        careGiver.addRating(2);
+        careGiver.addRating(5);
+
+        // then
+        assertThat(careGiver.getAverageRating()).isEqualTo(4.0);
+        assertThat(careGiver.getRatingCount()).isEqualTo(3);
+        assertThat(careGiver.starCounts()).containsExactly(0, 1, 0, 0, 2);
+    }
+
+    @Test
+    void starCounts_WithUnsetColumns_ShouldTreatThemAsZero() {
+        // given - a row loaded from before the star columns existed
+        CareGiver careGiver = new CareGiver();
+        careGiver.setRatingStars3(null);
+
+        // then
+        assertThat(careGiver.starCounts()).containsExactly(0, 0, 0, 0, 0);
     }
 }
\ No newline at end of file
@@ -405,6 +405,60 @@ class CareGiverRepositoryTest {
     }
 
     // Helper methods
+    @Test
+    void findIdsAfter_ShouldReturnOrderedKeysetPage() {
+        // given
+        Long id1 = entityManager.persistAndFlush(createCareGiver("a@example.com", "Dr. A", "1111111111111111", "Cardiology", "Hospital 1")).getId();
+        Long id2 = entityManager.persistAndFlush(createCareGiver("b@example.com", "Dr. B", "2222222222222222", "Neurology", "Hospital 2")).getId();
+        Long id3 = entityManager.persistAndFlush(createCareGiver("c@example.com", "Dr. C", "3333333333333333", "Dermatology", "Hospital 3")).getId();
+
+        // when
+        List<Long> firstPage = careGiverRepository.findIdsAfter(0L, PageRequest.of(0, 2));
+        List<Long> secondPage = careGiverRepository.findIdsAfter(firstPage.get(1), PageRequest.of(0, 2));
+
+        // then
+        assertThat(firstPage).containsExactly(id1, id2);
+        assertThat(secondPage).containsExactly(id3);
+    }
+
+    @Test
+    void findIdsInRange_ShouldStayWithinUpperBound() {
+        // given
+        Long id1 = entityManager.persistAndFlush(createCareGiver("a@example.com", "Dr. A", "1111111111111111", "Cardiology", "Hospital 1")).getId();
+        Long id2 = entityManager.persistAndFlush(createCareGiver("b@example.com", "Dr. B", "2222222222222222", "Neurology", "Hospital 2")).getId();
+        entityManager.persistAndFlush(createCareGiver("c@example.com", "Dr. C", "3333333333333333", "Dermatology", "Hospital 3"));
+
+        // when
+        List<Long> range = careGiverRepository.findIdsInRange(id1 - 1, id2, PageRequest.of(0, 10));
+
+        // then
+        assertThat(range).containsExactly(id1, id2);
+    }
+
+    @Test
+    void save_ShouldNotWriteBackRatingAggregates() {
+        // given - the entity is loaded, then a rating delta lands in SQL
+        CareGiver careGiver = entityManager.persistAndFlush(
+                createCareGiverWithRating("a@example.com", "Dr. A", "1111111111111111", "Cardiology", "Hospital 1", 4.0));
+        entityManager.getEntityManager().createNativeQuery("UPDATE caregivers SET rating_count = rating_count + 1, "
+                + "rating_stars_5 = rating_stars_5 + 1, rating_version = rating_version + 1 WHERE user_id = ?1")
+                .setParameter(1, careGiver.getId())
+                .executeUpdate();
+
+        // when - a profile edit saves the entity it loaded before the delta
+        careGiver.setWorkAddress("Hospital 2");
+        careGiver.setRatingCount(0);
+        careGiverRepository.saveAndFlush(careGiver);
+        entityManager.clear();
+
+        // then
+        CareGiver stored = careGiverRepository.findById(careGiver.getId()).orElseThrow();
+        assertThat(stored.getWorkAddress()).isEqualTo("Hospital 2");
+        assertThat(stored.getRatingCount()).isEqualTo(11);
+        assertThat(stored.getRatingStars5()).isEqualTo(1);
+        assertThat(stored.getRatingVersion()).isEqualTo(1L);
+    }
+
     private CareGiver createCareGiver(String email, String name, String nik, String speciality, String workAddress) {
         CareGiver careGiver = new CareGiver();
         careGiver.setEmail(email);
@@ -10,6 +10,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -20,17 +22,51 @@ class RatingCacheSchedulerTest {
     @Mock
     private IRatingService ratingService;
 
+    @Mock
+    private SchedulerLeaseLock leaseLock;
+
     private RatingCacheScheduler scheduler;
 
     @BeforeEach
     void setUp() {
         // We don't use @InjectMocks because we need to test different constructor scenarios
+        // The lease is free unless a test says otherwise
+        when(leaseLock.runLocked(anyString(), any(Duration.class), any(Duration.class), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(3).run();
+                    return true;
+                });
+    }
+
+    private RatingCacheScheduler scheduler(IRatingService service, boolean enabled, boolean eventsEnabled) {
+        return new RatingCacheScheduler(service, leaseLock, enabled, eventsEnabled, 600000, 30000, 300000, 150000);
+    }
+
+    @Test
+    void constructor_WhenLeaseAtLeastExceedsAtMost_ShouldThrow() {
+        // When / Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new RatingCacheScheduler(ratingService, leaseLock, true, false, 600000, 30000, 60000, 150000));
+        assertTrue(exception.getMessage().contains(RatingCacheScheduler.HEALTH_LOCK));
+    }
+
+    @Test
+    void checkRatingServiceHealth_ShouldPassConfiguredLeaseLengths() {
+        // Given
+        scheduler = scheduler(ratingService, true, false);
+
+        // When
+        scheduler.checkRatingServiceHealth();
+
+        // Then
+        verify(leaseLock).runLocked(eq(RatingCacheScheduler.HEALTH_LOCK), eq(Duration.ofMillis(300000)),
+                eq(Duration.ofMillis(150000)), any(Runnable.class));
     }
 
     @Test
     void constructor_WithSchedulerEnabled_ShouldInitializeCorrectly() {
         // When
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
 
         // Then
         assertNotNull(scheduler);
@@ -40,7 +76,7 @@ class RatingCacheSchedulerTest {
     @Test
     void constructor_WithSchedulerDisabled_ShouldInitializeCorrectly() {
         // When
-        scheduler = new RatingCacheScheduler(ratingService, false);
+        scheduler = scheduler(ratingService, false, false);
 
         // Then
         assertNotNull(scheduler);
@@ -51,22 +87,62 @@ class RatingCacheSchedulerTest {
     @Test
     void updateCaregiverRatingCaches_WhenEnabledAndHealthy_ShouldUpdateCaches() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doNothing().when(ratingService).updateAllCaregiverRatingCaches();
+        doNothing().when(ratingService).syncCaregiverRatingCaches();
 
         // When
         scheduler.updateCaregiverRatingCaches();
 
         // Then
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService).updateAllCaregiverRatingCaches();
+        verify(ratingService).syncCaregiverRatingCaches();
+    }
+
+    @Test
+    void updateCaregiverRatingCaches_WhenRatingEventsEnabled_ShouldSkipPolling() {
+        // Given
+        scheduler = scheduler(ratingService, true, true);
+
+        // When
+        scheduler.updateCaregiverRatingCaches();
+
+        // Then
+        verifyNoInteractions(ratingService);
+    }
+
+    @Test
+    void updateCaregiverRatingCaches_WhenLeaseHeldElsewhere_ShouldNotSync() {
+        // Given
+        scheduler = scheduler(ratingService, true, false);
+        when(leaseLock.runLocked(eq(RatingCacheScheduler.SYNC_LOCK), any(Duration.class), any(Duration.class),
+                any(Runnable.class))).thenReturn(false);
+
+        // When
+        scheduler.updateCaregiverRatingCaches();
+
+        // Then
+        verify(leaseLock).runLocked(eq(RatingCacheScheduler.SYNC_LOCK), any(Duration.class), any(Duration.class),
+                any(Runnable.class));
+        verifyNoInteractions(ratingService);
+    }
+
+    @Test
+    void updateCaregiverRatingCaches_WhenRatingEventsEnabled_ShouldNotTakeLease() {
+        // Given
+        scheduler = scheduler(ratingService, true, true);
+
+        // When
+        scheduler.updateCaregiverRatingCaches();
+
+        // Then
+        verifyNoInteractions(leaseLock);
     }
 
     @Test
     void updateCaregiverRatingCaches_WhenEnabledButUnhealthy_ShouldSkipUpdate() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(false);
 
         // When
@@ -74,13 +150,13 @@ class RatingCacheSchedulerTest {
 
         // Then
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService, never()).updateAllCaregiverRatingCaches();
+        verify(ratingService, never()).syncCaregiverRatingCaches();
     }
 
     @Test
     void updateCaregiverRatingCaches_WhenDisabled_ShouldNotExecute() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, false);
+        scheduler = scheduler(ratingService, false, false);
 
         // When
         scheduler.updateCaregiverRatingCaches();
@@ -92,7 +168,7 @@ class RatingCacheSchedulerTest {
     @Test
     void updateCaregiverRatingCaches_WhenHealthCheckThrowsException_ShouldHandleGracefully() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenThrow(new RuntimeException("Health check failed"));
 
         // When
@@ -100,43 +176,43 @@ class RatingCacheSchedulerTest {
 
         // Then
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService, never()).updateAllCaregiverRatingCaches();
+        verify(ratingService, never()).syncCaregiverRatingCaches();
     }
 
     @Test
     void updateCaregiverRatingCaches_WhenUpdateThrowsException_ShouldHandleGracefully() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doThrow(new RuntimeException("Update failed")).when(ratingService).updateAllCaregiverRatingCaches();
+        doThrow(new RuntimeException("Update failed")).when(ratingService).syncCaregiverRatingCaches();
 
         // When
         assertDoesNotThrow(() -> scheduler.updateCaregiverRatingCaches());
 
         // Then
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService).updateAllCaregiverRatingCaches();
+        verify(ratingService).syncCaregiverRatingCaches();
     }
 
     @Test
     void updateCaregiverRatingCaches_WhenHealthyAndUpdateSucceeds_ShouldCompleteNormally() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doNothing().when(ratingService).updateAllCaregiverRatingCaches();
+        doNothing().when(ratingService).syncCaregiverRatingCaches();
 
         // When
         assertDoesNotThrow(() -> scheduler.updateCaregiverRatingCaches());
 
         // Then
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService).updateAllCaregiverRatingCaches();
+        verify(ratingService).syncCaregiverRatingCaches();
     }
 
     @Test
     void checkRatingServiceHealth_WhenEnabledAndHealthy_ShouldPerformHealthCheck() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
 
         // When
@@ -149,7 +225,7 @@ class RatingCacheSchedulerTest {
     @Test
     void checkRatingServiceHealth_WhenEnabledAndUnhealthy_ShouldLogWarning() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(false);
 
         // When
@@ -162,7 +238,7 @@ class RatingCacheSchedulerTest {
     @Test
     void checkRatingServiceHealth_WhenDisabled_ShouldNotExecute() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, false);
+        scheduler = scheduler(ratingService, false, false);
 
         // When
         scheduler.checkRatingServiceHealth();
@@ -174,7 +250,7 @@ class RatingCacheSchedulerTest {
     @Test
     void checkRatingServiceHealth_WhenThrowsException_ShouldHandleGracefully() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenThrow(new RuntimeException("Network error"));
 
         // When
@@ -187,9 +263,9 @@ class RatingCacheSchedulerTest {
     @Test
     void scheduledMethods_WhenEnabled_ShouldExecuteBasedOnSchedulerFlag() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doNothing().when(ratingService).updateAllCaregiverRatingCaches();
+        doNothing().when(ratingService).syncCaregiverRatingCaches();
 
         // When - simulate scheduled execution
         scheduler.updateCaregiverRatingCaches();
@@ -197,13 +273,13 @@ class RatingCacheSchedulerTest {
 
         // Then
         verify(ratingService, times(2)).isRatingServiceHealthy(); // Called in both methods
-        verify(ratingService).updateAllCaregiverRatingCaches();
+        verify(ratingService).syncCaregiverRatingCaches();
     }
 
     @Test
     void scheduledMethods_WhenDisabled_ShouldNotExecuteAnyServiceCalls() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, false);
+        scheduler = scheduler(ratingService, false, false);
 
         // When - simulate scheduled execution
         scheduler.updateCaregiverRatingCaches();
@@ -216,9 +292,9 @@ class RatingCacheSchedulerTest {
     @Test
     void updateCacheMethod_ShouldFollowCorrectExecutionFlow() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doNothing().when(ratingService).updateAllCaregiverRatingCaches();
+        doNothing().when(ratingService).syncCaregiverRatingCaches();
 
         // When
         scheduler.updateCaregiverRatingCaches();
@@ -226,13 +302,13 @@ class RatingCacheSchedulerTest {
         // Then - verify execution order
         var inOrder = inOrder(ratingService);
         inOrder.verify(ratingService).isRatingServiceHealthy();
-        inOrder.verify(ratingService).updateAllCaregiverRatingCaches();
+        inOrder.verify(ratingService).syncCaregiverRatingCaches();
     }
 
     @Test
     void healthCheckMethod_ShouldOnlyCallHealthService() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
 
         // When
@@ -240,7 +316,7 @@ class RatingCacheSchedulerTest {
 
         // Then
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService, never()).updateAllCaregiverRatingCaches();
+        verify(ratingService, never()).syncCaregiverRatingCaches();
     }
 
     @Test
@@ -249,8 +325,8 @@ class RatingCacheSchedulerTest {
         IRatingService mockService = mock(IRatingService.class);
 
         // When - test both enabled and disabled scenarios
-        RatingCacheScheduler enabledScheduler = new RatingCacheScheduler(mockService, true);
-        RatingCacheScheduler disabledScheduler = new RatingCacheScheduler(mockService, false);
+        RatingCacheScheduler enabledScheduler = scheduler(mockService, true, false);
+        RatingCacheScheduler disabledScheduler = scheduler(mockService, false, false);
 
         // Then
         assertNotNull(enabledScheduler);
@@ -262,9 +338,9 @@ class RatingCacheSchedulerTest {
         // Test that both scheduled methods respect the enabled flag consistently
 
         // Given - enabled scheduler
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doNothing().when(ratingService).updateAllCaregiverRatingCaches();
+        doNothing().when(ratingService).syncCaregiverRatingCaches();
 
         // When
         scheduler.updateCaregiverRatingCaches();
@@ -272,13 +348,13 @@ class RatingCacheSchedulerTest {
 
         // Then
         verify(ratingService, times(2)).isRatingServiceHealthy();
-        verify(ratingService).updateAllCaregiverRatingCaches();
+        verify(ratingService).syncCaregiverRatingCaches();
 
         // Reset mocks
         reset(ratingService);
 
         // Given - disabled scheduler
-        scheduler = new RatingCacheScheduler(ratingService, false);
+        scheduler = scheduler(ratingService, false, false);
 
         // When
         scheduler.updateCaregiverRatingCaches();
@@ -291,7 +367,7 @@ class RatingCacheSchedulerTest {
     @Test
     void updateMethod_WhenMultipleExceptionsOccur_ShouldHandleEachGracefully() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
 
         // Test health check exception
         when(ratingService.isRatingServiceHealthy()).thenThrow(new RuntimeException("Health check error"));
@@ -300,18 +376,18 @@ class RatingCacheSchedulerTest {
         // Reset and test update exception
         reset(ratingService);
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
-        doThrow(new RuntimeException("Update error")).when(ratingService).updateAllCaregiverRatingCaches();
+        doThrow(new RuntimeException("Update error")).when(ratingService).syncCaregiverRatingCaches();
         assertDoesNotThrow(() -> scheduler.updateCaregiverRatingCaches());
 
         // Then - both scenarios should be handled gracefully
         verify(ratingService).isRatingServiceHealthy();
-        verify(ratingService).updateAllCaregiverRatingCaches();
+        verify(ratingService).syncCaregiverRatingCaches();
     }
 
     @Test
     void healthCheckMethod_WithDifferentHealthStates_ShouldHandleBothCorrectly() {
         // Given
-        scheduler = new RatingCacheScheduler(ratingService, true);
+        scheduler = scheduler(ratingService, true, false);
 
         // When - healthy service
         when(ratingService.isRatingServiceHealthy()).thenReturn(true);
@@ -324,4 +400,43 @@ class RatingCacheSchedulerTest {
         // Then
         verify(ratingService, times(2)).isRatingServiceHealthy();
     }
-}
\ No newline at end of file
+
+    @Test
+    void refreshAllCaregiverRatingCaches_WhenEnabledAndHealthy_ShouldStartFullRefresh() {
+        // Given
+        scheduler = scheduler(ratingService, true, true);
+        when(ratingService.isRatingServiceHealthy()).thenReturn(true);
+
+        // When
+        scheduler.refreshAllCaregiverRatingCaches();
+
+        // Then
+        verify(ratingService).updateAllCaregiverRatingCaches();
+        verifyNoInteractions(leaseLock);
+    }
+
+    @Test
+    void refreshAllCaregiverRatingCaches_WhenUnhealthy_ShouldSkip() {
+        // Given
+        scheduler = scheduler(ratingService, true, false);
+        when(ratingService.isRatingServiceHealthy()).thenReturn(false);
+
+        // When
+        scheduler.refreshAllCaregiverRatingCaches();
+
+        // Then
+        verify(ratingService, never()).updateAllCaregiverRatingCaches();
+    }
+
+    @Test
+    void refreshAllCaregiverRatingCaches_WhenDisabled_ShouldDoNothing() {
+        // Given
+        scheduler = scheduler(ratingService, false, false);
+
+        // When
+        scheduler.refreshAllCaregiverRatingCaches();
+
+        // Then
+        verifyNoInteractions(ratingService);
+    }
+}
@@ -0,0 +1,270 @@
+package id.ac.ui.cs.advprog.authprofile.scheduler;
+
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several SchedulerLeaseLock instances, one per simulated replica, sharing the embedded
+ * H2 database the way real replicas share PostgreSQL
+ */
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+// Each node must commit its own lease, as it would on a separate replica
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchedulerLeaseLockTest {
+
+    private static final String JOB = "rating-cache-sync";
+    private static final Duration AT_MOST = Duration.ofMinutes(10);
+    private static final Duration AT_LEAST = Duration.ofSeconds(30);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MutableClock clock;
+    private SchedulerLeaseLock nodeA;
+    private SchedulerLeaseLock nodeB;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM scheduler_lock");
+        clock = new MutableClock(Instant.parse("2025-05-01T10:00:00Z"));
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    private SchedulerLeaseLock node(String nodeId) {
+        return new SchedulerLeaseLock(jdbcTemplate, new SimpleMeterRegistry(), true, nodeId, clock);
+    }
+
+    @Test
+    void runLocked_WhenAnotherNodeIsRunning_ShouldSkip() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+
+        // When - B's timer fires while A is still inside the job
+        boolean ranOnA = nodeA.runLocked(JOB, AT_MOST, AT_LEAST, () -> {
+            runs.incrementAndGet();
+            assertFalse(nodeB.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet));
+        });
+
+        // Then
+        assertTrue(ranOnA);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void runLocked_SameInterval_ShouldRunOnlyOnce() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        nodeA.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+
+        // When - B fires a few seconds later, after A has already finished
+        clock.advance(Duration.ofSeconds(5));
+        boolean ranOnB = nodeB.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+
+        // Then
+        assertFalse(ranOnB);
+        assertEquals(1, runs.get());
+        assertEquals("node-a", lockedBy());
+    }
+
+    @Test
+    void runLocked_NextInterval_ShouldLetAnyNodeRun() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        nodeA.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+
+        // When
+        clock.advance(Duration.ofMinutes(1));
+        boolean ranOnB = nodeB.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+
+        // Then
+        assertTrue(ranOnB);
+        assertEquals(2, runs.get());
+        assertEquals("node-b", lockedBy());
+    }
+
+    @Test
+    void runLocked_WhenHolderDiesMidJob_ShouldExpireAfterAtMost() {
+        // Given - A takes the lease and never releases it
+        assertThrows(IllegalStateException.class, () -> nodeA.runLocked(JOB, AT_MOST, AT_LEAST, () -> {
+            jdbcTemplate.update("UPDATE scheduler_lock SET locked_by = 'node-a-crashed'");
+            throw new IllegalStateException("killed");
+        }));
+        AtomicInteger runs = new AtomicInteger();
+
+        // When
+        clock.advance(AT_MOST.minusSeconds(1));
+        boolean beforeExpiry = nodeB.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+        clock.advance(Duration.ofSeconds(1));
+        boolean afterExpiry = nodeB.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+
+        // Then
+        assertFalse(beforeExpiry);
+        assertTrue(afterExpiry);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void runLocked_WhenTaskThrows_ShouldStillRelease() {
+        // Given
+        assertThrows(IllegalStateException.class, () -> nodeA.runLocked(JOB, AT_MOST, AT_LEAST, () -> {
+            throw new IllegalStateException("sync failed");
+        }));
+
+        // When
+        clock.advance(AT_LEAST);
+        boolean ranOnB = nodeB.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+
+        // Then
+        assertTrue(ranOnB);
+    }
+
+    @Test
+    void runLocked_WithSubMicrosecondClock_ShouldStillRelease() {
+        // Given - the system clock reports nanoseconds the locked_at column cannot hold
+        clock.advance(Duration.ofNanos(123_456_789));
+        nodeA.runLocked(JOB, AT_MOST, Duration.ZERO, () -> { });
+
+        // When
+        clock.advance(Duration.ofMillis(1));
+        boolean ranOnB = nodeB.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+
+        // Then
+        assertTrue(ranOnB);
+    }
+
+    @Test
+    void runLocked_ShouldCountOutcomesPerLock() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SchedulerLeaseLock counted = new SchedulerLeaseLock(jdbcTemplate, registry, true, "node-c", clock);
+
+        // When
+        counted.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+        counted.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+        counted.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+
+        // Then
+        assertEquals(1.0, registry.get("scheduler_lock_total").tag("lock", JOB).tag("outcome", "acquired")
+                .counter().count());
+        assertEquals(2.0, registry.get("scheduler_lock_total").tag("lock", JOB).tag("outcome", "skipped")
+                .counter().count());
+    }
+
+    @Test
+    void runLocked_DifferentJobs_ShouldNotBlockEachOther() {
+        // When
+        boolean sync = nodeA.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+        boolean health = nodeB.runLocked("rating-health-check", AT_MOST, AT_LEAST, () -> { });
+
+        // Then
+        assertTrue(sync);
+        assertTrue(health);
+    }
+
+    @Test
+    void runLocked_ManyNodesFiringTogether_ShouldRunExactlyOnce() throws Exception {
+        // Given
+        int nodes = 8;
+        List<SchedulerLeaseLock> replicas = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            replicas.add(node("node-" + i));
+        }
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(nodes);
+
+        // When - every replica fires in the same instant, first run on an empty table
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (SchedulerLeaseLock replica : replicas) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return replica.runLocked(JOB, AT_MOST, AT_LEAST, runs::incrementAndGet);
+            }));
+        }
+        start.countDown();
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(1, winners);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void runLocked_WhenDisabled_ShouldAlwaysRun() {
+        // Given
+        SchedulerLeaseLock unlocked = new SchedulerLeaseLock(jdbcTemplate, new SimpleMeterRegistry(), false, "x", clock);
+        nodeA.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+
+        // When
+        boolean ran = unlocked.runLocked(JOB, AT_MOST, AT_LEAST, () -> { });
+
+        // Then
+        assertTrue(ran);
+    }
+
+    private String lockedBy() {
+        return jdbcTemplate.queryForObject("SELECT locked_by FROM scheduler_lock WHERE name = ?", String.class, JOB);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
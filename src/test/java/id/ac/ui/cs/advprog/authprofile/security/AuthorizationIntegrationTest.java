@@ -10,8 +10,6 @@ import id.ac.ui.cs.advprog.authprofile.security.aspect.AuthorizationAspect;
 import id.ac.ui.cs.advprog.authprofile.security.strategy.AuthorizationContext;
 import id.ac.ui.cs.advprog.authprofile.service.IProfileService;
 import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tags;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -35,6 +33,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -56,9 +55,6 @@ public class AuthorizationIntegrationTest {
     @Mock
     private MonitoringConfig monitoringConfig;
 
-    @Mock
-    private MeterRegistry meterRegistry;
-
     @Mock
     private Counter counter;
 
@@ -75,8 +71,7 @@ public class AuthorizationIntegrationTest {
         MockitoAnnotations.openMocks(this);
 
         // Set up monitoring config mocks
-        monitoringConfig.meterRegistry = meterRegistry;
-        when(meterRegistry.counter(anyString(), any(Tags.class))).thenReturn(counter);
+        when(monitoringConfig.authorization(anyBoolean(), anyString(), anyString(), anyString())).thenReturn(counter);
 
         // Create the authorization aspect with all required dependencies
         authorizationAspect = new AuthorizationAspect(authorizationContext, userRepository, monitoringConfig);
@@ -7,8 +7,6 @@ import id.ac.ui.cs.advprog.authprofile.repository.UserRepository;
 import id.ac.ui.cs.advprog.authprofile.security.annotation.RequiresAuthorization;
 import id.ac.ui.cs.advprog.authprofile.security.strategy.AuthorizationContext;
 import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tags;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.BeforeEach;
@@ -46,9 +44,6 @@ class AuthorizationAspectTest {
     @Mock
     private MonitoringConfig monitoringConfig;
 
-    @Mock
-    private MeterRegistry meterRegistry;
-
     @Mock
     private Counter counter;
 
@@ -80,11 +75,8 @@ class AuthorizationAspectTest {
         // Create the aspect with mocked dependencies
         authorizationAspect = new AuthorizationAspect(authorizationContext, userRepository, monitoringConfig);
 
-        // Set up monitoring config mocks - set the public field directly
-        monitoringConfig.meterRegistry = meterRegistry;
-
-        // Mock counter methods - these will be used by successful/failed authorization
-        when(meterRegistry.counter(anyString(), any(Tags.class))).thenReturn(counter);
+        // Mock counter handles - these will be used by successful/failed authorization
+        when(monitoringConfig.authorization(anyBoolean(), anyString(), anyString(), anyString())).thenReturn(counter);
 
         // Set up user
         testUser = new User();
@@ -223,7 +215,7 @@ class AuthorizationAspectTest {
         verify(authorizationContext, times(1)).isAuthorized(eq(testUser), eq(1L), eq("TEST_ACTION"));
 
         // Verify successful authorization metric was recorded
-        verify(meterRegistry, times(1)).counter(eq("auth_authorization_successful"), any(Tags.class));
+        verify(monitoringConfig, times(1)).authorization(eq(true), eq("TEST_ACTION"), anyString(), anyString());
         verify(counter, times(1)).increment();
     }
 
@@ -258,7 +250,7 @@ class AuthorizationAspectTest {
         verify(authorizationContext, times(1)).isAuthorized(eq(testUser), eq(1L), eq("TEST_ACTION"));
 
         // Verify denied authorization metric was recorded
-        verify(meterRegistry, times(1)).counter(eq("auth_authorization_denied"), any(Tags.class));
+        verify(monitoringConfig, times(1)).authorization(eq(false), eq("TEST_ACTION"), anyString(), anyString());
         verify(counter, times(1)).increment();
     }
 
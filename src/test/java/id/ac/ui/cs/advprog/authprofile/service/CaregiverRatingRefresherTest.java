@@ -0,0 +1,247 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class CaregiverRatingRefresherTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RatingClientService ratingClientService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        careGiverRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        ratingClientService = mock(RatingClientService.class);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void refreshAll_ShouldUpdateEveryCaregiverAcrossPages() {
+        // Given
+        List<Long> ids = persistCaregivers(5);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenAnswer(invocation -> new RatingClientService.RatingSummary(
+                        ((Long) invocation.getArgument(0)) % 5 + 0.5, 7));
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = refresher(2, 2).refreshAll();
+
+        // Then
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(5, 5, 0), result);
+        for (Long id : ids) {
+            verify(ratingClientService).fetchRatingSummary(id);
+            assertEquals(id % 5 + 0.5, averageRating(id), 0.001);
+            assertEquals(7, ratingCount(id));
+        }
+    }
+
+    @Test
+    void refreshAll_WithFailedFetch_ShouldSkipWriteAndCountFailure() {
+        // Given
+        List<Long> ids = persistCaregivers(3);
+        Long failing = ids.get(1);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 3));
+        when(ratingClientService.fetchRatingSummary(failing)).thenThrow(new RuntimeException("Rating service down"));
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = refresher(10, 4).refreshAll();
+
+        // Then
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(3, 2, 1), result);
+        assertEquals(4.0, averageRating(ids.get(0)), 0.001);
+        assertEquals(0.0, averageRating(failing), 0.001);
+        assertEquals(0, ratingCount(failing));
+        assertEquals(4.0, averageRating(ids.get(2)), 0.001);
+    }
+
+    @Test
+    void refreshAll_ShouldNotExceedConcurrencyLimit() {
+        // Given
+        persistCaregivers(8);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(ratingClientService.fetchRatingSummary(anyLong())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new RatingClientService.RatingSummary(5.0, 1);
+        });
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = refresher(8, 2).refreshAll();
+
+        // Then
+        assertEquals(8, result.successful());
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    void refreshAll_WithNoCaregivers_ShouldDoNothing() {
+        // When
+        CaregiverRatingRefresher.RefreshResult result = refresher(10, 4).refreshAll();
+
+        // Then
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(0, 0, 0), result);
+        verifyNoInteractions(ratingClientService);
+    }
+
+    @Test
+    void refreshIds_ShouldUpdateOnlyTheGivenCaregivers() {
+        // Given
+        List<Long> ids = persistCaregivers(3);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenReturn(new RatingClientService.RatingSummary(3.5, 4));
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = refresher(10, 4).refreshIds(List.of(ids.get(0), ids.get(2)));
+
+        // Then
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(2, 2, 0), result);
+        assertEquals(3.5, averageRating(ids.get(0)), 0.001);
+        assertEquals(0.0, averageRating(ids.get(1)), 0.001);
+        assertEquals(3.5, averageRating(ids.get(2)), 0.001);
+        verify(ratingClientService, never()).fetchRatingSummary(ids.get(1));
+    }
+
+    @Test
+    void refreshIds_ShouldWriteStarCountsOnlyWhenTheSummaryHasThem() {
+        // Given
+        List<Long> ids = persistCaregivers(2);
+        jdbcTemplate.update("UPDATE caregivers SET rating_stars_5 = 3 WHERE user_id = ?", ids.get(1));
+        when(ratingClientService.fetchRatingSummary(ids.get(0)))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 2, new int[]{0, 0, 1, 0, 1}));
+        when(ratingClientService.fetchRatingSummary(ids.get(1)))
+                .thenReturn(new RatingClientService.RatingSummary(5.0, 3));
+
+        // When
+        refresher(10, 2).refreshIds(ids);
+
+        // Then
+        assertEquals(List.of(0, 0, 1, 0, 1), starCounts(ids.get(0)));
+        assertEquals(List.of(0, 0, 0, 0, 3), starCounts(ids.get(1)));
+    }
+
+    @Test
+    void refreshIds_WhenADeltaLandsWhileTheSummaryIsInFlight_ShouldKeepTheDelta() {
+        // Given - a rating event is flushed after the version was read but before the write,
+        // and the summary was taken before that rating existed
+        List<Long> ids = persistCaregivers(2);
+        Long raced = ids.get(0);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenReturn(new RatingClientService.RatingSummary(3.0, 2));
+        when(ratingClientService.fetchRatingSummary(raced)).thenAnswer(invocation -> {
+            jdbcTemplate.update(RatingEventAggregator.APPLY_DELTA_SQL, 1, 5, 1, 1, 0, 0, 0, 0, 1, raced);
+            return new RatingClientService.RatingSummary(3.0, 2);
+        });
+
+        // When - fetched on the calling thread so the delta joins the test transaction
+        CaregiverRatingRefresher.RefreshResult result = new CaregiverRatingRefresher(ratingClientService,
+                careGiverRepository, jdbcTemplate, transactionManager, Runnable::run, 10, 1).refreshIds(ids);
+
+        // Then
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(2, 1, 1), result);
+        assertEquals(5.0, averageRating(raced), 0.001);
+        assertEquals(1, ratingCount(raced));
+        assertEquals(3.0, averageRating(ids.get(1)), 0.001);
+        assertEquals(2, ratingCount(ids.get(1)));
+    }
+
+    @Test
+    void refreshIds_ShouldBumpTheRatingVersion() {
+        // Given
+        List<Long> ids = persistCaregivers(1);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 1));
+
+        // When
+        refresher(10, 1).refreshIds(ids);
+
+        // Then
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT rating_version FROM caregivers WHERE user_id = ?", Long.class, ids.get(0)));
+    }
+
+    private List<Integer> starCounts(Long id) {
+        return jdbcTemplate.queryForObject("SELECT rating_stars_1, rating_stars_2, rating_stars_3, rating_stars_4, "
+                + "rating_stars_5 FROM caregivers WHERE user_id = ?", (rs, rowNum) -> List.of(
+                rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)), id);
+    }
+
+    private CaregiverRatingRefresher refresher(int pageSize, int concurrency) {
+        return new CaregiverRatingRefresher(ratingClientService, careGiverRepository, jdbcTemplate,
+                transactionManager, executor, pageSize, concurrency);
+    }
+
+    private List<Long> persistCaregivers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CareGiver careGiver = new CareGiver();
+            careGiver.setEmail("doctor" + i + "@example.com");
+            careGiver.setPassword("password");
+            careGiver.setName("Dr. " + i);
+            careGiver.setNik(String.format("%016d", i));
+            careGiver.setAddress("Address " + i);
+            careGiver.setPhoneNumber("0812345678" + i);
+            careGiver.setSpeciality("Cardiology");
+            careGiver.setWorkAddress("Hospital " + i);
+            ids.add(entityManager.persistAndFlush(careGiver).getId());
+        }
+        return ids;
+    }
+
+    private double averageRating(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT average_rating FROM caregivers WHERE user_id = ?", Double.class, id);
+    }
+
+    private int ratingCount(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT rating_count FROM caregivers WHERE user_id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,139 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaregiverReadFrequencyTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CaregiverReadFrequency readFrequency;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readFrequency = new CaregiverReadFrequency(meterRegistry, 1024, 10, 100);
+    }
+
+    @Test
+    void estimate_ShouldCountReadsPerCaregiver() {
+        // Given
+        record(1L, 7);
+        record(2L, 3);
+
+        // Then
+        assertEquals(7, readFrequency.estimate(1L));
+        assertEquals(3, readFrequency.estimate(2L));
+        assertEquals(0, readFrequency.estimate(3L));
+    }
+
+    @Test
+    void estimate_WithManyCaregivers_ShouldNeverUnderestimateAndRarelyOverestimate() {
+        // Given - a few popular caregivers and a long tail read once each
+        for (long id = 1; id <= 5; id++) {
+            record(id, 200);
+        }
+        for (long id = 100; id < 1100; id++) {
+            readFrequency.recordRead(id);
+        }
+
+        // Then
+        for (long id = 1; id <= 5; id++) {
+            assertTrue(readFrequency.estimate(id) >= 200);
+        }
+        int overestimated = 0;
+        for (long id = 100; id < 1100; id++) {
+            int estimate = readFrequency.estimate(id);
+            assertTrue(estimate >= 1);
+            if (estimate > 2) {
+                overestimated++;
+            }
+        }
+        assertTrue(overestimated < 50, overestimated + " of 1000 tail caregivers overestimated by more than one");
+    }
+
+    @Test
+    void getHotCaregivers_ShouldListCaregiversAtThresholdMostReadFirst() {
+        // Given
+        record(1L, 12);
+        record(2L, 30);
+        record(3L, 9);
+
+        // When
+        List<Long> hot = readFrequency.getHotCaregivers();
+
+        // Then
+        assertEquals(List.of(2L, 1L), hot);
+        assertEquals(2.0, meterRegistry.get("rating_refresh_hot_caregivers").gauge().value());
+    }
+
+    @Test
+    void getHotCaregivers_ShouldStopAtMaxHotCaregivers() {
+        // Given
+        readFrequency = new CaregiverReadFrequency(meterRegistry, 1024, 2, 3);
+        for (long id = 1; id <= 5; id++) {
+            record(id, 2);
+        }
+
+        // Then
+        assertEquals(3, readFrequency.getHotCaregivers().size());
+    }
+
+    @Test
+    void decay_ShouldHalveCountsAndDropCaregiversThatCooledDown() {
+        // Given
+        record(1L, 40);
+        record(2L, 12);
+
+        // When
+        readFrequency.decay();
+
+        // Then
+        assertEquals(20, readFrequency.estimate(1L));
+        assertEquals(6, readFrequency.estimate(2L));
+        assertEquals(List.of(1L), readFrequency.getHotCaregivers());
+    }
+
+    @Test
+    void recordRead_FromManyThreads_ShouldNotLoseReadsOfOneCaregiver() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                record(42L, 1000);
+                return null;
+            });
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(8000, readFrequency.estimate(42L));
+    }
+
+    @Test
+    void constructor_ShouldRoundWidthUpToPowerOfTwo() {
+        // Then
+        assertEquals(1024, readFrequency.getWidth());
+        assertEquals(2048, new CaregiverReadFrequency(meterRegistry, 1500, 10, 100).getWidth());
+    }
+
+    private void record(long caregiverId, int reads) {
+        for (int i = 0; i < reads; i++) {
+            readFrequency.recordRead(caregiverId);
+        }
+    }
+}
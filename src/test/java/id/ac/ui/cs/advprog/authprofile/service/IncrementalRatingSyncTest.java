@@ -0,0 +1,412 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingFeedNotFoundException;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.model.RatingSyncWatermark;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.repository.RatingSyncWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class IncrementalRatingSyncTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private RatingSyncWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RatingClientService ratingClientService;
+    private ShardedRatingRefresh shardedRatingRefresh;
+    private MutableClock clock;
+    private Long doctorA;
+    private Long doctorB;
+
+    @BeforeEach
+    void setUp() {
+        careGiverRepository.deleteAll();
+        watermarkRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        ratingClientService = mock(RatingClientService.class);
+        shardedRatingRefresh = mock(ShardedRatingRefresh.class);
+        clock = new MutableClock(Instant.parse("2025-05-01T00:00:00Z"));
+        doctorA = persistCaregiver(1, 4.0, 2);
+        doctorB = persistCaregiver(2, 0.0, 0);
+    }
+
+    @Test
+    void sync_WithoutWatermark_ShouldRebuildFromFeedAndSaveWatermark() {
+        // Given
+        when(ratingClientService.getRatingsAfter(0L, 2)).thenReturn(List.of(rating(1, doctorA, 5), rating(2, doctorA, 2)));
+        when(ratingClientService.getRatingsAfter(2L, 2)).thenReturn(List.of(rating(3, doctorB, 4)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(2, 0);
+
+        // Then
+        assertEquals(new IncrementalRatingSync.SyncResult(3, true), result);
+        assertRating(doctorA, 3.5, 2);
+        assertRating(doctorB, 4.0, 1);
+        assertEquals(3L, watermark().getLastRatingId());
+    }
+
+    @Test
+    void sync_WithWatermark_ShouldApplyOnlyNewRatings() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenReturn(List.of(rating(4, doctorA, 1), rating(5, doctorB, 5)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 0);
+
+        // Then
+        assertEquals(new IncrementalRatingSync.SyncResult(2, false), result);
+        assertRating(doctorA, 3.0, 3); // (4.0 * 2 + 1) / 3
+        assertRating(doctorB, 5.0, 1);
+        assertEquals(5L, watermark().getLastRatingId());
+        verify(ratingClientService, never()).getRatingsAfter(eq(0L), anyInt());
+    }
+
+    @Test
+    void sync_WhenEventFlushLandsDuringSync_ShouldAddToItInsteadOfOverwriting() {
+        // Given - the caregiver is already loaded, then an event flush adds a 5-star rating
+        saveWatermark(3L);
+        careGiverRepository.findById(doctorA).orElseThrow();
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenAnswer(invocation -> {
+            jdbcTemplate.update(RatingEventAggregator.APPLY_DELTA_SQL, 1, 5, 1, 1, 0, 0, 0, 0, 1, doctorA);
+            return List.of(rating(4, doctorA, 1));
+        });
+
+        // When
+        sync(500, 0);
+
+        // Then
+        assertRating(doctorA, 3.5, 4); // (4.0 * 2 + 5 + 1) / 4
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT rating_version FROM caregivers WHERE user_id = ?", Long.class, doctorA));
+    }
+
+    @Test
+    void sync_ShouldKeepStarCountsInStepWithNewRatings() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500))
+                .thenReturn(List.of(rating(4, doctorB, 5), rating(5, doctorB, 5), rating(6, doctorB, 2)));
+
+        // When
+        sync(500, 0);
+
+        // Then
+        assertArrayEquals(new int[]{0, 1, 0, 0, 2}, starCounts(doctorB));
+    }
+
+    @Test
+    void sync_WithoutWatermark_ShouldRebuildStarCounts() {
+        // Given
+        when(ratingClientService.getRatingsAfter(0L, 500))
+                .thenReturn(List.of(rating(1, doctorA, 5), rating(2, doctorA, 3), rating(3, doctorA, 5)));
+
+        // When
+        sync(500, 0);
+
+        // Then
+        assertArrayEquals(new int[]{0, 0, 1, 0, 2}, starCounts(doctorA));
+        assertArrayEquals(new int[5], starCounts(doctorB));
+    }
+
+    @Test
+    void sync_WithStarCountsDifferingFromRatingService_ShouldRebuildThem() {
+        // Given - average and count agree, but the row predates the star counts
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenReturn(Collections.emptyList());
+        when(ratingClientService.fetchRatingSummary(doctorA))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 2, new int[]{0, 0, 1, 0, 1}));
+        when(ratingClientService.getRatingsAfter(0L, 500)).thenReturn(List.of(rating(1, doctorA, 3), rating(2, doctorA, 5)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 1);
+
+        // Then
+        assertTrue(result.rebuilt());
+        assertRating(doctorA, 4.0, 2);
+        assertArrayEquals(new int[]{0, 0, 1, 0, 1}, starCounts(doctorA));
+    }
+
+    @Test
+    void sync_WithRatingForUnknownCaregiver_ShouldSkipItAndAdvanceWatermark() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenReturn(List.of(rating(4, 999_999L, 5)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 0);
+
+        // Then
+        assertEquals(0, result.ratingsApplied());
+        assertEquals(4L, watermark().getLastRatingId());
+    }
+
+    @Test
+    void sync_WithNoNewRatings_ShouldLeaveCacheUntouched() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenReturn(Collections.emptyList());
+        when(ratingClientService.fetchRatingSummary(doctorA)).thenReturn(new RatingClientService.RatingSummary(4.0, 2));
+        when(ratingClientService.fetchRatingSummary(doctorB)).thenReturn(new RatingClientService.RatingSummary(0.0, 0));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 2);
+
+        // Then
+        assertEquals(new IncrementalRatingSync.SyncResult(0, false), result);
+        assertRating(doctorA, 4.0, 2);
+        verify(ratingClientService, times(1)).getRatingsAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void sync_WithDriftedCaregiver_ShouldFallBackToFullRebuild() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenReturn(Collections.emptyList());
+        // A rating was deleted in the rating service
+        when(ratingClientService.fetchRatingSummary(doctorA)).thenReturn(new RatingClientService.RatingSummary(5.0, 1));
+        when(ratingClientService.getRatingsAfter(0L, 500)).thenReturn(List.of(rating(1, doctorA, 5)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 1);
+
+        // Then
+        assertTrue(result.rebuilt());
+        assertRating(doctorA, 5.0, 1);
+        assertRating(doctorB, 0.0, 0);
+        assertEquals(1L, watermark().getLastRatingId());
+    }
+
+    @Test
+    void sync_WhenARatingArrivesAfterTheFeedRead_ShouldNotMistakeItForDrift() {
+        // Given - rating 5 is created between the feed read and the summary read
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500)).thenReturn(List.of(rating(4, doctorA, 5)));
+        when(ratingClientService.getRatingsAfter(4L, 500)).thenReturn(List.of(rating(5, doctorA, 1)));
+        when(ratingClientService.fetchRatingSummary(doctorA))
+                .thenReturn(new RatingClientService.RatingSummary((4.0 * 2 + 5 + 1) / 4, 4));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 1);
+
+        // Then - rating 5 is left for the next sync
+        assertEquals(new IncrementalRatingSync.SyncResult(1, false), result);
+        assertRating(doctorA, 13.0 / 3, 3);
+        assertEquals(4L, watermark().getLastRatingId());
+        verify(ratingClientService, never()).getRatingsAfter(eq(0L), anyInt());
+    }
+
+    @Test
+    void sync_WhenNewerRatingsDoNotExplainTheMismatch_ShouldStillRebuild() {
+        // Given - one rating is newer than the feed read, but another was deleted upstream
+        saveWatermark(3L);
+        when(ratingClientService.fetchRatingSummary(doctorA)).thenReturn(new RatingClientService.RatingSummary(4.5, 2));
+        when(ratingClientService.getRatingsAfter(3L, 500))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(List.of(rating(4, doctorA, 5)));
+        when(ratingClientService.getRatingsAfter(0L, 500)).thenReturn(List.of(rating(1, doctorA, 4), rating(4, doctorA, 5)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 1);
+
+        // Then
+        assertTrue(result.rebuilt());
+        assertRating(doctorA, 4.5, 2);
+    }
+
+    @Test
+    void sync_WhenFeedIsNotFound_ShouldRefreshPerDoctorOncePerFallbackInterval() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(anyLong(), anyInt()))
+                .thenThrow(new RatingFeedNotFoundException("No feed", null));
+        when(shardedRatingRefresh.startRun()).thenReturn(Optional.of(
+                CompletableFuture.completedFuture(new CaregiverRatingRefresher.RefreshResult(2, 2, 0))));
+        IncrementalRatingSync incrementalRatingSync = incrementalRatingSync(500, 1);
+
+        // When
+        IncrementalRatingSync.SyncResult first = sync(incrementalRatingSync);
+        clock.advance(Duration.ofMinutes(59));
+        sync(incrementalRatingSync);
+
+        // Then
+        assertEquals(new IncrementalRatingSync.SyncResult(0, false), first);
+        verify(shardedRatingRefresh, times(1)).startRun();
+        verify(ratingClientService, times(1)).getRatingsAfter(anyLong(), anyInt());
+        assertEquals(3L, watermark().getLastRatingId());
+
+        // When - the interval has passed and the feed is still missing
+        clock.advance(Duration.ofMinutes(1));
+        sync(incrementalRatingSync);
+
+        // Then
+        verify(shardedRatingRefresh, times(2)).startRun();
+    }
+
+    @Test
+    void sync_WhenFeedGoesBackwards_ShouldFallBackToFullRebuild() {
+        // Given
+        saveWatermark(10L);
+        when(ratingClientService.getRatingsAfter(10L, 500)).thenReturn(List.of(rating(2, doctorA, 1)));
+        when(ratingClientService.getRatingsAfter(0L, 500)).thenReturn(List.of(rating(1, doctorA, 4), rating(2, doctorA, 1)));
+
+        // When
+        IncrementalRatingSync.SyncResult result = sync(500, 0);
+
+        // Then
+        assertEquals(new IncrementalRatingSync.SyncResult(2, true), result);
+        assertRating(doctorA, 2.5, 2);
+        assertEquals(2L, watermark().getLastRatingId());
+    }
+
+    @Test
+    void sync_WhenFeedFails_ShouldPropagateAndKeepWatermark() {
+        // Given
+        saveWatermark(3L);
+        when(ratingClientService.getRatingsAfter(3L, 500))
+                .thenThrow(new RatingServiceUnavailableException("Rating feed unavailable"));
+
+        // When & Then
+        assertThrows(RatingServiceUnavailableException.class, () -> sync(500, 0));
+        assertEquals(3L, watermark().getLastRatingId());
+        assertRating(doctorA, 4.0, 2);
+    }
+
+    private IncrementalRatingSync.SyncResult sync(int batchSize, int driftSampleSize) {
+        return sync(incrementalRatingSync(batchSize, driftSampleSize));
+    }
+
+    private IncrementalRatingSync.SyncResult sync(IncrementalRatingSync incrementalRatingSync) {
+        IncrementalRatingSync.SyncResult result = incrementalRatingSync.sync();
+        entityManager.flush();
+        entityManager.clear();
+        return result;
+    }
+
+    private IncrementalRatingSync incrementalRatingSync(int batchSize, int driftSampleSize) {
+        return new IncrementalRatingSync(ratingClientService, shardedRatingRefresh, careGiverRepository,
+                watermarkRepository, jdbcTemplate, transactionManager, batchSize, driftSampleSize, 3600000L, clock);
+    }
+
+    private Long persistCaregiver(int index, double averageRating, int ratingCount) {
+        CareGiver careGiver = new CareGiver();
+        careGiver.setEmail("doctor" + index + "@example.com");
+        careGiver.setPassword("password");
+        careGiver.setName("Dr. " + index);
+        careGiver.setNik(String.format("%016d", index));
+        careGiver.setAddress("Address " + index);
+        careGiver.setPhoneNumber("0812345678" + index);
+        careGiver.setSpeciality("Cardiology");
+        careGiver.setWorkAddress("Hospital " + index);
+        careGiver.setAverageRating(averageRating);
+        careGiver.setRatingCount(ratingCount);
+        return entityManager.persistAndFlush(careGiver).getId();
+    }
+
+    private void saveWatermark(Long lastRatingId) {
+        entityManager.persistAndFlush(new RatingSyncWatermark(
+                IncrementalRatingSync.WATERMARK_NAME, lastRatingId, null, LocalDateTime.now()));
+        entityManager.clear();
+    }
+
+    private RatingSyncWatermark watermark() {
+        return watermarkRepository.findById(IncrementalRatingSync.WATERMARK_NAME).orElseThrow();
+    }
+
+    private RatingResponseDto rating(long id, Long doctorId, int score) {
+        return RatingResponseDto.builder()
+                .id(id)
+                .consultationId(id)
+                .doctorId(doctorId)
+                .score(score)
+                .comment("Comment " + id)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private int[] starCounts(Long caregiverId) {
+        return careGiverRepository.findById(caregiverId).orElseThrow().starCounts();
+    }
+
+    private void assertRating(Long caregiverId, double averageRating, int ratingCount) {
+        assertEquals(averageRating, jdbcTemplate.queryForObject(
+                "SELECT average_rating FROM caregivers WHERE user_id = ?", Double.class, caregiverId), 0.0001);
+        assertEquals(ratingCount, jdbcTemplate.queryForObject(
+                "SELECT rating_count FROM caregivers WHERE user_id = ?", Integer.class, caregiverId));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
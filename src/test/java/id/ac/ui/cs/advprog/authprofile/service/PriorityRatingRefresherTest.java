@@ -0,0 +1,281 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.scheduler.SchedulerLeaseLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+// The sweep cursor must commit to be seen by the next replica
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriorityRatingRefresherTest {
+
+    private static final long MINUTE = 60000L;
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RatingClientService ratingClientService;
+    private RatingServiceHealthMonitor healthMonitor;
+    private CaregiverReadFrequency readFrequency;
+    private MutableClock clock;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        ratingClientService = mock(RatingClientService.class);
+        healthMonitor = mock(RatingServiceHealthMonitor.class);
+        readFrequency = mock(CaregiverReadFrequency.class);
+        when(healthMonitor.isAvailable()).thenReturn(true);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 3));
+        clock = new MutableClock(Instant.parse("2025-05-01T00:00:00Z"));
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM rating_refresh_cursor");
+        careGiverRepository.deleteAll();
+    }
+
+    @Test
+    void refreshDue_ShouldRefreshHotCaregiversFirstAndSpendTheRestOnTheSweep() {
+        // Given - a sweep due within one tick wants everyone, the budget allows four calls
+        List<Long> ids = persistCaregivers(10);
+        when(readFrequency.getHotCaregivers()).thenReturn(List.of(ids.get(5), ids.get(3)));
+        PriorityRatingRefresher refresher = refresher(4, 5 * MINUTE, MINUTE);
+
+        // When
+        PriorityRatingRefresher.TickResult result = refresher.refreshDue();
+
+        // Then
+        assertEquals(2, result.hot());
+        assertEquals(2, result.cold());
+        assertEquals(List.of(ids.get(5), ids.get(3), ids.get(0), ids.get(1)), fetchedIds());
+        assertEquals(4.0, averageRating(ids.get(5)), 0.001);
+        assertEquals(0.0, averageRating(ids.get(2)), 0.001);
+    }
+
+    @Test
+    void refreshDue_ShouldRefreshHotCaregiverAgainOnlyAfterHotInterval() {
+        // Given - no sweep budget left: the sweep is paced over a very long interval
+        List<Long> ids = persistCaregivers(1);
+        when(readFrequency.getHotCaregivers()).thenReturn(List.of(ids.get(0)));
+        PriorityRatingRefresher refresher = refresher(10, 5 * MINUTE, 1000 * 24 * 60 * MINUTE);
+        refresher.refreshDue();
+
+        // When
+        clock.advance(Duration.ofMinutes(1));
+        PriorityRatingRefresher.TickResult tooSoon = refresher.refreshDue();
+        clock.advance(Duration.ofMinutes(4));
+        PriorityRatingRefresher.TickResult due = refresher.refreshDue();
+
+        // Then
+        assertEquals(0, tooSoon.hot());
+        assertEquals(1, due.hot());
+    }
+
+    @Test
+    void refreshDue_ShouldPaceSweepToFinishOncePerColdInterval() {
+        // Given - ten caregivers to sweep over five ticks
+        List<Long> ids = persistCaregivers(10);
+        when(readFrequency.getHotCaregivers()).thenReturn(List.of());
+        PriorityRatingRefresher refresher = refresher(100, 5 * MINUTE, 5 * MINUTE);
+
+        // When
+        List<Integer> perTick = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            perTick.add(refresher.refreshDue().cold());
+            clock.advance(Duration.ofSeconds(50));
+        }
+        int beforeIntervalEnds = refresher.refreshDue().cold();
+        clock.advance(Duration.ofSeconds(60));
+        int nextSweep = refresher.refreshDue().cold();
+
+        // Then
+        assertEquals(List.of(2, 2, 2, 2, 2), perTick);
+        assertEquals(0, beforeIntervalEnds);
+        assertEquals(ids, fetchedIds().subList(0, 10));
+        assertTrue(nextSweep > 0);
+        assertEquals(ids.get(0), fetchedIds().get(10));
+    }
+
+    @Test
+    void refreshDue_OnAnotherReplica_ShouldContinueTheSweepFromTheSharedCursor() {
+        // Given
+        List<Long> ids = persistCaregivers(6);
+        when(readFrequency.getHotCaregivers()).thenReturn(List.of());
+        refresher(2, 5 * MINUTE, 3 * MINUTE).refreshDue();
+
+        // When
+        clock.advance(Duration.ofMinutes(1));
+        refresher(2, 5 * MINUTE, 3 * MINUTE).refreshDue();
+
+        // Then
+        assertEquals(ids.subList(0, 4), fetchedIds());
+    }
+
+    @Test
+    void refreshDue_WhenAHotCaregiverFails_ShouldRetryItOnTheNextTick() {
+        // Given - no sweep budget left: the sweep is paced over a very long interval
+        List<Long> ids = persistCaregivers(1);
+        when(readFrequency.getHotCaregivers()).thenReturn(List.of(ids.get(0)));
+        when(ratingClientService.fetchRatingSummary(ids.get(0)))
+                .thenThrow(new RatingServiceUnavailableException("timeout"))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 3));
+        PriorityRatingRefresher refresher = refresher(10, 5 * MINUTE, 1000 * 24 * 60 * MINUTE);
+        refresher.refreshDue();
+
+        // When
+        clock.advance(Duration.ofMinutes(1));
+        PriorityRatingRefresher.TickResult retry = refresher.refreshDue();
+
+        // Then
+        assertEquals(1, retry.hot());
+        assertEquals(0, retry.result().failed());
+        assertEquals(4.0, averageRating(ids.get(0)), 0.001);
+    }
+
+    @Test
+    void refreshDue_WhenASweepCaregiverFails_ShouldRetryItOnceBeforeMovingPast() {
+        // Given - two sweep caregivers per tick, the second one always fails
+        List<Long> ids = persistCaregivers(6);
+        when(readFrequency.getHotCaregivers()).thenReturn(List.of());
+        when(ratingClientService.fetchRatingSummary(ids.get(1)))
+                .thenThrow(new RatingServiceUnavailableException("timeout"));
+        PriorityRatingRefresher refresher = refresher(2, 5 * MINUTE, 3 * MINUTE);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            refresher.refreshDue();
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        // Then
+        assertEquals(List.of(ids.get(0), ids.get(1), ids.get(1), ids.get(2), ids.get(3), ids.get(4)), fetchedIds());
+    }
+
+    @Test
+    void refreshDue_WhenRatingServiceDown_ShouldNotCallIt() {
+        // Given
+        persistCaregivers(2);
+        when(healthMonitor.isAvailable()).thenReturn(false);
+
+        // When
+        PriorityRatingRefresher.TickResult result = refresher(10, 5 * MINUTE, MINUTE).refreshDue();
+
+        // Then
+        assertEquals(0, result.hot() + result.cold());
+        verifyNoInteractions(ratingClientService);
+    }
+
+    private PriorityRatingRefresher refresher(int callsPerMinute, long hotIntervalMillis, long coldIntervalMillis) {
+        CaregiverRatingRefresher caregiverRatingRefresher = new CaregiverRatingRefresher(ratingClientService,
+                careGiverRepository, jdbcTemplate, transactionManager, executor, 100, 1);
+        SchedulerLeaseLock leaseLock = mock(SchedulerLeaseLock.class);
+        return new PriorityRatingRefresher(caregiverRatingRefresher, readFrequency, careGiverRepository, jdbcTemplate,
+                leaseLock, healthMonitor, new SimpleMeterRegistry(), true, MINUTE, callsPerMinute,
+                hotIntervalMillis, coldIntervalMillis, clock);
+    }
+
+    private List<Long> fetchedIds() {
+        ArgumentCaptor<Long> ids = ArgumentCaptor.forClass(Long.class);
+        verify(ratingClientService, atLeast(0)).fetchRatingSummary(ids.capture());
+        return ids.getAllValues();
+    }
+
+    private List<Long> persistCaregivers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CareGiver careGiver = new CareGiver();
+            careGiver.setEmail("priority" + i + "@example.com");
+            careGiver.setPassword("password");
+            careGiver.setName("Dr. " + i);
+            careGiver.setNik(String.format("%016d", i));
+            careGiver.setAddress("Address " + i);
+            careGiver.setPhoneNumber("0812345678" + i);
+            careGiver.setSpeciality("Cardiology");
+            careGiver.setWorkAddress("Hospital " + i);
+            ids.add(careGiverRepository.save(careGiver).getId());
+        }
+        return ids;
+    }
+
+    private double averageRating(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT average_rating FROM caregivers WHERE user_id = ?", Double.class, id);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
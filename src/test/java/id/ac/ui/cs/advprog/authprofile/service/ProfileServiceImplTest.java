@@ -3,6 +3,7 @@ package id.ac.ui.cs.advprog.authprofile.service;
 import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
 import id.ac.ui.cs.advprog.authprofile.dto.request.UpdateProfileRequest;
 import id.ac.ui.cs.advprog.authprofile.dto.response.ProfileResponse;
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
 import id.ac.ui.cs.advprog.authprofile.exception.EmailAlreadyExistsException;
 import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.model.Pacillian;
@@ -68,6 +69,15 @@ class ProfileServiceImplTest {
     @Mock
     private MeterRegistry meterRegistry;
 
+    @Mock
+    private RatingReadModel ratingReadModel;
+
+    @Mock
+    private IRatingService ratingService;
+
+    @Mock
+    private CaregiverReadFrequency readFrequency;
+
     @Mock
     private Counter searchRequests;
 
@@ -106,6 +116,7 @@ class ProfileServiceImplTest {
     void setUp() {
         // Setup monitoring mocks first
         setupMonitoringMocks();
+        setupRatingReadModelMocks();
 
         // Setup test data
         Set<Role> roles = new HashSet<>();
@@ -177,6 +188,26 @@ class ProfileServiceImplTest {
         SecurityContextHolder.clearContext();
     }
 
+    private void setupRatingReadModelMocks() {
+        // Both read paths answer with the caregiver's persisted aggregate
+        lenient().when(ratingReadModel.getPersistedSummary(any(CareGiver.class)))
+                .thenAnswer(invocation -> persistedSummary(invocation.getArgument(0)));
+        lenient().when(ratingReadModel.getSummary(any(CareGiver.class)))
+                .thenAnswer(invocation -> persistedSummary(invocation.getArgument(0)));
+        lenient().when(ratingService.getRatingSummaries(anyList()))
+                .thenAnswer(invocation -> {
+                    List<CareGiver> batch = invocation.getArgument(0);
+                    Map<Long, RatingSummaryResponse> summaries = new HashMap<>();
+                    batch.forEach(caregiver -> summaries.put(caregiver.getId(), persistedSummary(caregiver)));
+                    return summaries;
+                });
+    }
+
+    private RatingSummaryResponse persistedSummary(CareGiver caregiver) {
+        return new RatingSummaryResponse(caregiver.getAverageRating(),
+                caregiver.getRatingCount() != null ? caregiver.getRatingCount() : 0);
+    }
+
     private void setupMonitoringMocks() {
         // Setup MonitoringConfig method returns
         lenient().when(monitoringConfig.getSearchRequests()).thenReturn(searchRequests);
@@ -186,11 +217,15 @@ class ProfileServiceImplTest {
         // Use ReflectionTestUtils to set the meterRegistry field
         ReflectionTestUtils.setField(monitoringConfig, "meterRegistry", meterRegistry);
 
-        // Setup MeterRegistry behavior
-        lenient().when(meterRegistry.timer(anyString(), anyString(), anyString())).thenReturn(timer);
-        lenient().when(meterRegistry.timer(anyString())).thenReturn(timer);
-        lenient().when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(searchRequests);
-        lenient().when(meterRegistry.counter(anyString())).thenReturn(searchRequests);
+        // Setup metric handle behavior
+        lenient().when(monitoringConfig.profileSearch(anyBoolean(), anyBoolean())).thenReturn(searchRequests);
+        lenient().when(monitoringConfig.getProfileSearchResults()).thenReturn(searchRequests);
+        lenient().when(monitoringConfig.profileUpdateSuccessful(anyString(), anyBoolean())).thenReturn(searchRequests);
+        lenient().when(monitoringConfig.profileUpdateFailed(anyString(), any(Exception.class))).thenReturn(searchRequests);
+        lenient().when(monitoringConfig.profileUpdateDuration(anyString(), anyBoolean())).thenReturn(timer);
+        lenient().when(monitoringConfig.profileDeleteSuccessful(anyString())).thenReturn(searchRequests);
+        lenient().when(monitoringConfig.profileDeleteFailed(anyString(), any(Exception.class))).thenReturn(searchRequests);
+        lenient().when(monitoringConfig.profileDeleteDuration(anyString())).thenReturn(timer);
 
         // Setup Counter behavior
         lenient().doNothing().when(searchRequests).increment();
@@ -276,6 +311,22 @@ class ProfileServiceImplTest {
         verify(userRepository).findById(1L);
     }
 
+    @Test
+    void getUserProfile_ForCareGiver_ShouldUseRatingReadModelWithoutWriting() {
+        // given
+        when(userRepository.findById(3L)).thenReturn(Optional.of(careGiver));
+        when(ratingReadModel.getSummary(careGiver)).thenReturn(new RatingSummaryResponse(3.0, 4));
+
+        // when
+        ProfileResponse response = profileServiceImpl.getUserProfile(3L);
+
+        // then
+        assertThat(response.getAverageRating()).isEqualTo(3.0);
+        verify(ratingReadModel).getSummary(careGiver);
+        verify(readFrequency).recordRead(3L);
+        verifyNoInteractions(ratingService);
+    }
+
     @Test
     void getUserProfile_WithNonExistentUser_ShouldThrowException() {
         // given
@@ -558,6 +609,61 @@ class ProfileServiceImplTest {
         verify(careGiverRepository).findAll();
     }
 
+    @Test
+    void getAllCareGiversLite_ShouldLoadRatingsInOneBatch() {
+        // given
+        when(careGiverRepository.findAll()).thenReturn(careGivers);
+
+        // when
+        profileServiceImpl.getAllCareGiversLite();
+
+        // then
+        verify(ratingService).getRatingSummaries(careGivers);
+        verify(ratingReadModel, never()).getSummary(any(CareGiver.class));
+        verify(ratingReadModel, never()).getSummary(anyLong());
+    }
+
+    @Test
+    void getAllCareGivers_WhenBatchOmitsCaregiver_ShouldUsePersistedRating() {
+        // given
+        when(careGiverRepository.findAll()).thenReturn(careGivers);
+        when(ratingService.getRatingSummaries(careGivers))
+                .thenReturn(Map.of(careGivers.get(0).getId(), new RatingSummaryResponse(1.5, 2)));
+
+        // when
+        List<ProfileResponse> responses = profileServiceImpl.getAllCareGivers();
+
+        // then
+        assertThat(responses.get(0).getAverageRating()).isEqualTo(1.5);
+        assertThat(responses.get(1).getAverageRating()).isEqualTo(careGivers.get(1).getAverageRating());
+        verify(ratingReadModel).getPersistedSummary(careGivers.get(1));
+    }
+
+    @Test
+    void getRatingSummaryForCaregiver_ShouldDelegateToRatingReadModel() {
+        // given
+        when(ratingReadModel.getSummary(3L)).thenReturn(new RatingSummaryResponse(4.0, 2));
+
+        // when
+        RatingSummaryResponse summary = profileServiceImpl.getRatingSummaryForCaregiver(3L);
+
+        // then
+        assertThat(summary.getTotalRatings()).isEqualTo(2);
+    }
+
+    @Test
+    void getRatingSummaryForCurrentUser_ShouldDelegateToRatingService() {
+        // given
+        RatingSummaryResponse expected = new RatingSummaryResponse(4.0, 2);
+        when(ratingService.getCurrentUserRatingSummary()).thenReturn(expected);
+
+        // when
+        RatingSummaryResponse summary = profileServiceImpl.getRatingSummaryForCurrentUser();
+
+        // then
+        assertThat(summary).isSameAs(expected);
+    }
+
     // New tests for all searchCareGiversLite method cases
     @Test
     void searchCareGiversLite_ByNameAndSpeciality_ShouldReturnLiteProfiles() {
@@ -687,6 +793,7 @@ class ProfileServiceImplTest {
         assertThat(response.getAddress()).isNull();
 
         verify(careGiverRepository).findById(caregiverId);
+        verify(readFrequency).recordRead(caregiverId);
     }
 
     @Test
@@ -0,0 +1,277 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import id.ac.ui.cs.advprog.authprofile.dto.request.RatingEventRequest;
+import id.ac.ui.cs.advprog.authprofile.dto.request.RatingEventRequest.EventType;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class RatingEventAggregatorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private RatingEventAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        careGiverRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        cacheManager = new ConcurrentMapCacheManager("ratingSummary");
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new RatingEventAggregator(jdbcTemplate, cacheManager, transactionManager, meterRegistry, 60000L);
+    }
+
+    @Test
+    void flush_WithCreatedEvents_ShouldFoldIntoExistingAggregate() {
+        // Given
+        Long id = persistCaregiver(0, 4.0, 2);
+        aggregator.record(event(EventType.CREATED, 1L, id, 5, null));
+        aggregator.record(event(EventType.CREATED, 2L, id, 1, null));
+
+        // When
+        int flushed = aggregator.flush();
+
+        // Then
+        assertEquals(1, flushed);
+        assertEquals(3.5, averageRating(id), 0.001);
+        assertEquals(4, ratingCount(id));
+        assertEquals(0, aggregator.getPendingCaregivers());
+    }
+
+    @Test
+    void flush_WithUpdatedAndDeletedEvents_ShouldAdjustScoreAndCount() {
+        // Given
+        Long id = persistCaregiver(0, 4.0, 3);
+        aggregator.record(event(EventType.UPDATED, 1L, id, 5, 2));
+        aggregator.record(event(EventType.DELETED, 2L, id, 5, null));
+
+        // When
+        aggregator.flush();
+
+        // Then: (12 + 3 - 5) / 2
+        assertEquals(5.0, averageRating(id), 0.001);
+        assertEquals(2, ratingCount(id));
+    }
+
+    @Test
+    void flush_ShouldApplyStarCountDeltas() {
+        // Given - two 4-star and one 2-star rating already counted
+        Long id = persistCaregiver(0, 3.33, 3);
+        jdbcTemplate.update("UPDATE caregivers SET rating_stars_2 = 1, rating_stars_4 = 2 WHERE user_id = ?", id);
+        aggregator.record(event(EventType.CREATED, 1L, id, 5, null));
+        aggregator.record(event(EventType.UPDATED, 2L, id, 1, 4));
+        aggregator.record(event(EventType.DELETED, 3L, id, 2, null));
+
+        // When
+        aggregator.flush();
+
+        // Then
+        assertArrayEquals(new int[]{1, 0, 0, 1, 1}, starCounts(id));
+    }
+
+    @Test
+    void flush_WithUpdateToSameScore_ShouldWriteNothing() {
+        // Given
+        Long id = persistCaregiver(0, 4.0, 1);
+        aggregator.record(event(EventType.UPDATED, 1L, id, 4, 4));
+
+        // When
+        int flushed = aggregator.flush();
+
+        // Then
+        assertEquals(0, flushed);
+        assertEquals(0, aggregator.getPendingCaregivers());
+    }
+
+    @Test
+    void flush_WhenLastRatingDeleted_ShouldResetToZero() {
+        // Given
+        Long id = persistCaregiver(0, 3.0, 1);
+        aggregator.record(event(EventType.DELETED, 1L, id, 3, null));
+
+        // When
+        aggregator.flush();
+
+        // Then
+        assertEquals(0.0, averageRating(id), 0.001);
+        assertEquals(0, ratingCount(id));
+    }
+
+    @Test
+    void record_WithRedeliveredEvent_ShouldIgnoreDuplicate() {
+        // Given
+        Long id = persistCaregiver(0, 0.0, 0);
+
+        // When
+        boolean first = aggregator.record(event("evt-7", EventType.CREATED, 7L, id, 4, null));
+        boolean second = aggregator.record(event("evt-7", EventType.CREATED, 7L, id, 4, null));
+        aggregator.flush();
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, ratingCount(id));
+        assertEquals(1.0, meterRegistry.get("rating_events_duplicate_total").counter().count());
+    }
+
+    @Test
+    void record_WithRepeatedEditsOfSameRating_ShouldApplyEachDistinctEvent() {
+        // Given - one 3-star rating, edited 3 -> 4 -> 3 -> 4, with the last edit redelivered
+        Long id = persistCaregiver(0, 3.0, 1);
+        jdbcTemplate.update("UPDATE caregivers SET rating_stars_3 = 1 WHERE user_id = ?", id);
+
+        // When
+        aggregator.record(event("evt-1", EventType.UPDATED, 5L, id, 4, 3));
+        aggregator.record(event("evt-2", EventType.UPDATED, 5L, id, 3, 4));
+        aggregator.record(event("evt-3", EventType.UPDATED, 5L, id, 4, 3));
+        boolean redelivered = aggregator.record(event("evt-3", EventType.UPDATED, 5L, id, 4, 3));
+        aggregator.flush();
+
+        // Then
+        assertFalse(redelivered);
+        assertEquals(4.0, averageRating(id), 0.001);
+        assertEquals(1, ratingCount(id));
+        assertArrayEquals(new int[]{0, 0, 0, 1, 0}, starCounts(id));
+    }
+
+    @Test
+    void record_WithoutEventId_ShouldThrow() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> aggregator.record(event(null, EventType.CREATED, 1L, 1L, 4, null)));
+        assertEquals(0, aggregator.getPendingCaregivers());
+    }
+
+    @Test
+    void record_UpdatedWithoutPreviousScore_ShouldThrow() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> aggregator.record(event(EventType.UPDATED, 1L, 1L, 4, null)));
+        assertEquals(0, aggregator.getPendingCaregivers());
+    }
+
+    @Test
+    void flush_ShouldEvictRatingSummaryOfFlushedCaregivers() {
+        // Given
+        Long flushedId = persistCaregiver(0, 0.0, 0);
+        Long otherId = persistCaregiver(1, 0.0, 0);
+        Cache cache = cacheManager.getCache("ratingSummary");
+        cache.put(flushedId, "stale");
+        cache.put(otherId, "fresh");
+        aggregator.record(event(EventType.CREATED, 1L, flushedId, 5, null));
+
+        // When
+        aggregator.flush();
+
+        // Then
+        assertNull(cache.get(flushedId));
+        assertNotNull(cache.get(otherId));
+    }
+
+    @Test
+    void flush_WithUnknownCaregiver_ShouldDropAccumulator() {
+        // Given
+        aggregator.record(event(EventType.CREATED, 1L, 999_999L, 5, null));
+
+        // When
+        int flushed = aggregator.flush();
+
+        // Then
+        assertEquals(0, flushed);
+        assertEquals(0, aggregator.getPendingCaregivers());
+        assertEquals(0, aggregator.flush());
+    }
+
+    @Test
+    void unpack_ShouldRecoverNegativeDeltas() {
+        // Given: score -7, count -2
+        long packed = -7L * (1L << 32) - 2L;
+
+        // When
+        long[] delta = RatingEventAggregator.unpack(packed);
+
+        // Then
+        assertArrayEquals(new long[]{-7L, -2L}, delta);
+        assertArrayEquals(new long[]{3L, 0L}, RatingEventAggregator.unpack(3L << 32));
+    }
+
+    private RatingEventRequest event(EventType type, Long ratingId, Long doctorId, int score, Integer previousScore) {
+        return event(UUID.randomUUID().toString(), type, ratingId, doctorId, score, previousScore);
+    }
+
+    private RatingEventRequest event(String eventId, EventType type, Long ratingId, Long doctorId,
+                                     int score, Integer previousScore) {
+        return RatingEventRequest.builder()
+                .eventId(eventId)
+                .type(type)
+                .ratingId(ratingId)
+                .doctorId(doctorId)
+                .score(score)
+                .previousScore(previousScore)
+                .build();
+    }
+
+    private Long persistCaregiver(int i, double averageRating, int ratingCount) {
+        CareGiver careGiver = new CareGiver();
+        careGiver.setEmail("doctor" + i + "@example.com");
+        careGiver.setPassword("password");
+        careGiver.setName("Dr. " + i);
+        careGiver.setNik(String.format("%016d", i));
+        careGiver.setAddress("Address " + i);
+        careGiver.setPhoneNumber("0812345678" + i);
+        careGiver.setSpeciality("Cardiology");
+        careGiver.setWorkAddress("Hospital " + i);
+        careGiver.setAverageRating(averageRating);
+        careGiver.setRatingCount(ratingCount);
+        return entityManager.persistAndFlush(careGiver).getId();
+    }
+
+    private double averageRating(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT average_rating FROM caregivers WHERE user_id = ?", Double.class, id);
+    }
+
+    private int[] starCounts(Long id) {
+        return jdbcTemplate.queryForObject("SELECT rating_stars_1, rating_stars_2, rating_stars_3, rating_stars_4, "
+                + "rating_stars_5 FROM caregivers WHERE user_id = ?", (rs, rowNum) -> new int[]{
+                rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)}, id);
+    }
+
+    private int ratingCount(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT rating_count FROM caregivers WHERE user_id = ?", Integer.class, id);
+    }
+}
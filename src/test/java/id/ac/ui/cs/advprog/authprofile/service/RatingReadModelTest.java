@@ -0,0 +1,241 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingReadModelTest {
+
+    @Mock
+    private RatingSummaryCache ratingSummaryCache;
+
+    @Mock
+    private CareGiverRepository careGiverRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RatingReadModel ratingReadModel;
+    private CareGiver caregiver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ratingReadModel = new RatingReadModel(ratingSummaryCache, careGiverRepository, meterRegistry, 500L, 32, 1000L);
+
+        caregiver = new CareGiver();
+        caregiver.setId(7L);
+        caregiver.setAverageRating(3.5);
+        caregiver.setRatingCount(4);
+    }
+
+    @Test
+    void getSummary_WhenCached_ShouldReturnCachedSummary() {
+        // Given
+        RatingSummaryResponse cached = new RatingSummaryResponse(4.0, 5);
+        when(ratingSummaryCache.getAsync(7L)).thenReturn(CompletableFuture.completedFuture(cached));
+
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getSummary(caregiver);
+
+        // Then
+        assertSame(cached, summary);
+        assertEquals(1.0, reads("cache"));
+    }
+
+    @Test
+    void getSummary_WhenCacheLoadFails_ShouldFallBackToPersistedAggregate() {
+        // Given
+        when(ratingSummaryCache.getAsync(7L)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("down")));
+
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getSummary(caregiver);
+
+        // Then
+        assertEquals(3.5, summary.getAverageRating());
+        assertEquals(4, summary.getTotalRatings());
+        assertEquals(1.0, reads("fallback"));
+        verifyNoInteractions(careGiverRepository);
+    }
+
+    @Test
+    void getSummary_WhenColdLoadMissesReadDeadline_ShouldReturnPersistedWithoutWaiting() {
+        // Given
+        ratingReadModel = new RatingReadModel(ratingSummaryCache, careGiverRepository, meterRegistry, 50L, 32, 1000L);
+        when(ratingSummaryCache.getAsync(7L)).thenReturn(new CompletableFuture<>());
+
+        // When
+        long start = System.nanoTime();
+        RatingSummaryResponse summary = ratingReadModel.getSummary(caregiver);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(3.5, summary.getAverageRating());
+        assertTrue(elapsedMillis < 1000, "waited " + elapsedMillis + "ms");
+        assertEquals(1.0, reads("fallback"));
+    }
+
+    @Test
+    void getSummary_WhenCachedDiffersFromPersisted_ShouldCountDriftWithoutWriting() {
+        // Given
+        when(ratingSummaryCache.getAsync(7L))
+                .thenReturn(CompletableFuture.completedFuture(new RatingSummaryResponse(4.5, 6)));
+
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getSummary(caregiver);
+
+        // Then
+        assertEquals(4.5, summary.getAverageRating());
+        assertEquals(1.0, meterRegistry.get("rating_read_model_drift_total").counter().count());
+        verifyNoInteractions(careGiverRepository);
+    }
+
+    @Test
+    void getSummaryById_WithNullId_ShouldReturnEmptySummary() {
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getSummary((Long) null);
+
+        // Then
+        assertEquals(0, summary.getTotalRatings());
+        verifyNoInteractions(ratingSummaryCache, careGiverRepository);
+    }
+
+    @Test
+    void getSummaryById_WhenCacheLoadFails_ShouldLoadPersistedAggregate() {
+        // Given
+        when(ratingSummaryCache.getAsync(7L)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("down")));
+        when(careGiverRepository.findById(7L)).thenReturn(Optional.of(caregiver));
+
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getSummary(7L);
+
+        // Then
+        assertEquals(3.5, summary.getAverageRating());
+        assertEquals(4, summary.getTotalRatings());
+    }
+
+    @Test
+    void getSummaryById_WhenCacheLoadFailsForUnknownCaregiver_ShouldReturnEmptySummary() {
+        // Given
+        when(ratingSummaryCache.getAsync(99L)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("down")));
+        when(careGiverRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getSummary(99L);
+
+        // Then
+        assertEquals(0, summary.getTotalRatings());
+    }
+
+    @Test
+    void getPersistedSummary_ShouldNotTouchCache() {
+        // Given
+        caregiver.setRatingCount(null);
+
+        // When
+        RatingSummaryResponse summary = ratingReadModel.getPersistedSummary(caregiver);
+
+        // Then
+        assertEquals(3.5, summary.getAverageRating());
+        assertEquals(0, summary.getTotalRatings());
+        assertEquals(1.0, reads("persisted"));
+        verifyNoInteractions(ratingSummaryCache);
+    }
+
+    @Test
+    void getSummaries_ShouldUseCacheHitsAndLoadMissesConcurrently() {
+        // Given
+        CareGiver other = caregiver(8L, 2.0, 1);
+        RatingSummaryResponse hit = new RatingSummaryResponse(4.0, 5);
+        RatingSummaryResponse loaded = new RatingSummaryResponse(1.0, 1);
+        when(ratingSummaryCache.getIfPresent(7L)).thenReturn(CompletableFuture.completedFuture(hit));
+        when(ratingSummaryCache.getIfPresent(8L)).thenReturn(null);
+        when(ratingSummaryCache.getAsync(8L)).thenReturn(CompletableFuture.completedFuture(loaded));
+
+        // When
+        Map<Long, RatingSummaryResponse> summaries = ratingReadModel.getSummaries(List.of(caregiver, other));
+
+        // Then
+        assertSame(hit, summaries.get(7L));
+        assertSame(loaded, summaries.get(8L));
+        verify(ratingSummaryCache, never()).getAsync(7L);
+        assertEquals(2.0, reads("cache"));
+    }
+
+    @Test
+    void getSummaries_WhenLoadFails_ShouldFallBackToPersistedAggregate() {
+        // Given
+        when(ratingSummaryCache.getIfPresent(7L)).thenReturn(null);
+        when(ratingSummaryCache.getAsync(7L))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("down")));
+
+        // When
+        Map<Long, RatingSummaryResponse> summaries = ratingReadModel.getSummaries(List.of(caregiver));
+
+        // Then
+        assertEquals(3.5, summaries.get(7L).getAverageRating());
+        assertEquals(1.0, reads("fallback"));
+    }
+
+    @Test
+    void getSummaries_WhenMissesExceedBatchLimit_ShouldUsePersistedForTheRest() {
+        // Given
+        ratingReadModel = new RatingReadModel(ratingSummaryCache, careGiverRepository, meterRegistry, 500L, 1, 1000L);
+        CareGiver other = caregiver(8L, 2.0, 1);
+        when(ratingSummaryCache.getIfPresent(anyLong())).thenReturn(null);
+        when(ratingSummaryCache.getAsync(7L))
+                .thenReturn(CompletableFuture.completedFuture(new RatingSummaryResponse(4.0, 5)));
+
+        // When
+        Map<Long, RatingSummaryResponse> summaries = ratingReadModel.getSummaries(List.of(caregiver, other));
+
+        // Then
+        assertEquals(4.0, summaries.get(7L).getAverageRating());
+        assertEquals(2.0, summaries.get(8L).getAverageRating());
+        verify(ratingSummaryCache, never()).getAsync(8L);
+        assertEquals(1.0, reads("persisted"));
+    }
+
+    @Test
+    void getSummaries_WhenLoadMissesDeadline_ShouldNotWaitForIt() {
+        // Given
+        ratingReadModel = new RatingReadModel(ratingSummaryCache, careGiverRepository, meterRegistry, 500L, 32, 50L);
+        when(ratingSummaryCache.getIfPresent(7L)).thenReturn(null);
+        when(ratingSummaryCache.getAsync(7L)).thenReturn(new CompletableFuture<>());
+
+        // When
+        long start = System.nanoTime();
+        Map<Long, RatingSummaryResponse> summaries = ratingReadModel.getSummaries(List.of(caregiver));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals(3.5, summaries.get(7L).getAverageRating());
+        assertTrue(elapsedMillis < 1000, "waited " + elapsedMillis + "ms");
+        assertEquals(1.0, reads("fallback"));
+    }
+
+    private CareGiver caregiver(Long id, double averageRating, int ratingCount) {
+        CareGiver other = new CareGiver();
+        other.setId(id);
+        other.setAverageRating(averageRating);
+        other.setRatingCount(ratingCount);
+        return other;
+    }
+
+    private double reads(String source) {
+        return meterRegistry.get("rating_read_model_reads_total").tag("source", source).counter().count();
+    }
+}
@@ -0,0 +1,96 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingRefreshEndpointTest {
+
+    @Mock
+    private ShardedRatingRefresh shardedRatingRefresh;
+
+    private RatingRefreshEndpoint endpoint;
+    private Timer chunkLatency;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new RatingRefreshEndpoint(shardedRatingRefresh);
+        chunkLatency = Timer.builder("chunk").publishPercentiles(0.5, 0.95).register(new SimpleMeterRegistry());
+        when(shardedRatingRefresh.isEnabled()).thenReturn(true);
+        when(shardedRatingRefresh.getChunkLatency()).thenAnswer(invocation -> chunkLatency.takeSnapshot());
+    }
+
+    @Test
+    void progress_BeforeAnyRun_ShouldReportNone() {
+        // Given
+        when(shardedRatingRefresh.getProgress()).thenReturn(null);
+
+        // When
+        Map<String, Object> body = endpoint.progress();
+
+        // Then
+        assertEquals("NONE", body.get("status"));
+        assertEquals(true, body.get("sharded"));
+        assertFalse(body.containsKey("runId"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void progress_WhileRunning_ShouldReportShardsCaregiversEtaAndLatency() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        ShardedRatingRefresh.ShardCheckpoint claimed = new ShardedRatingRefresh.ShardCheckpoint(2L, "node-b", 450L, 500L);
+        when(shardedRatingRefresh.getProgress()).thenReturn(new ShardedRatingRefresh.RunProgress(
+                "run-1", start, null, start.plusSeconds(60), 4, 2, 1, 1, 0, 250, 0, 1000, List.of(claimed)));
+        chunkLatency.record(Duration.ofMillis(40));
+        chunkLatency.record(Duration.ofMillis(60));
+
+        // When
+        Map<String, Object> body = endpoint.progress();
+
+        // Then
+        assertEquals("RUNNING", body.get("status"));
+        assertEquals("run-1", body.get("runId"));
+        assertEquals(25.0, body.get("percentComplete"));
+        assertEquals(60L, body.get("elapsedSeconds"));
+        assertEquals(180L, body.get("etaSeconds"));
+        assertEquals(2, ((Map<String, Object>) body.get("shards")).get("pending"));
+        assertEquals(250L, ((Map<String, Object>) body.get("caregivers")).get("processed"));
+        assertEquals(List.of(claimed), body.get("inProgress"));
+        Map<String, Object> latency = (Map<String, Object>) body.get("chunkLatency");
+        assertEquals(2L, latency.get("count"));
+        assertEquals(50.0, latency.get("meanMs"));
+        assertTrue(latency.containsKey("p95Ms"));
+    }
+
+    @Test
+    void progress_AfterRun_ShouldReportFinishedWithoutEta() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        when(shardedRatingRefresh.getProgress()).thenReturn(new ShardedRatingRefresh.RunProgress(
+                "run-1", start, start.plusSeconds(90), start.plusHours(1), 4, 0, 0, 4, 0, 990, 10, 1000, List.of()));
+
+        // When
+        Map<String, Object> body = endpoint.progress();
+
+        // Then
+        assertEquals("FINISHED", body.get("status"));
+        assertEquals(start.plusSeconds(90), body.get("finishedAt"));
+        assertEquals(90L, body.get("elapsedSeconds"));
+        assertNull(body.get("etaSeconds"));
+        assertEquals(100.0, body.get("percentComplete"));
+    }
+}
@@ -1,6 +1,7 @@
 package id.ac.ui.cs.advprog.authprofile.service;
 
 import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
 import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingResponseDto;
 import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
@@ -8,9 +9,7 @@ import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.model.Pacillian;
 import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
 import id.ac.ui.cs.advprog.authprofile.repository.UserRepository;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +27,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -47,13 +47,16 @@ class RatingServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private MonitoringConfig monitoringConfig;
+    private CaregiverRatingRefresher caregiverRatingRefresher;
+
+    @Mock
+    private IncrementalRatingSync incrementalRatingSync;
 
     @Mock
-    private MeterRegistry meterRegistry;
+    private RatingServiceHealthMonitor healthMonitor;
 
     @Mock
-    private Counter counter;
+    private ShardedRatingRefresh shardedRatingRefresh;
 
     @Mock
     private SecurityContext securityContext;
@@ -64,24 +67,29 @@ class RatingServiceImplTest {
     @Mock
     private UserDetails userDetails;
 
+    private SimpleMeterRegistry meterRegistry;
+    private MonitoringConfig monitoringConfig;
+    private RatingReadModel ratingReadModel;
     private RatingServiceImpl ratingService;
 
     @BeforeEach
     void setUp() {
-        // Set up the monitoring config mock properly
-        monitoringConfig.meterRegistry = meterRegistry;
-
-        // Use lenient stubbing for monitoring methods that may not be called in all tests
-        lenient().when(meterRegistry.counter(anyString(), any(Tags.class))).thenReturn(counter);
-        lenient().when(meterRegistry.counter(anyString())).thenReturn(counter);
-        lenient().doNothing().when(counter).increment();
-        lenient().doNothing().when(counter).increment(anyDouble());
+        // Real metrics facade over an in-memory registry so counts can be asserted
+        meterRegistry = new SimpleMeterRegistry();
+        monitoringConfig = new MonitoringConfig(meterRegistry);
+        // Real cache over the mocked client, loading on the calling thread
+        ratingReadModel = new RatingReadModel(new RatingSummaryCache(ratingClientService, monitoringConfig,
+                meterRegistry, Runnable::run, 300000L, 3600000L, 1000L), careGiverRepository, meterRegistry, 500L, 32, 1000L);
 
         ratingService = new RatingServiceImpl(
                 ratingClientService,
-                careGiverRepository,
                 userRepository,
-                monitoringConfig
+                monitoringConfig,
+                caregiverRatingRefresher,
+                incrementalRatingSync,
+                ratingReadModel,
+                healthMonitor,
+                shardedRatingRefresh
         );
     }
 
@@ -90,9 +98,13 @@ class RatingServiceImplTest {
         // When creating a new instance
         RatingServiceImpl service = new RatingServiceImpl(
                 ratingClientService,
-                careGiverRepository,
                 userRepository,
-                monitoringConfig
+                monitoringConfig,
+                caregiverRatingRefresher,
+                incrementalRatingSync,
+                ratingReadModel,
+                healthMonitor,
+                shardedRatingRefresh
         );
 
         // Then it should be initialized without throwing exceptions
@@ -116,8 +128,8 @@ class RatingServiceImplTest {
         assertEquals(expectedRatings, result);
 
         // Verify monitoring calls
-        verify(meterRegistry, times(2)).counter(anyString(), any(Tags.class));
-        verify(counter, times(2)).increment();
+        assertEquals(1.0, count("rating_requests_total"));
+        assertEquals(1.0, count("rating_requests_successful"));
         verify(ratingClientService).getRatingsByDoctorId(doctorId);
     }
 
@@ -137,18 +149,21 @@ class RatingServiceImplTest {
         assertEquals("Client error", thrown.getMessage());
 
         // Verify monitoring calls (request counter + failure counter)
-        verify(meterRegistry, times(2)).counter(anyString(), any(Tags.class));
-        verify(counter, times(2)).increment();
+        assertEquals(1.0, count("rating_requests_total"));
+        assertEquals(1.0, count("rating_requests_failed"));
+        assertEquals(0.0, count("rating_requests_successful"));
     }
 
     @Test
-    void getRatingSummary_WithValidDoctorId_ShouldReturnSummary() {
+    void getRatingSummary_WithValidDoctorId_ShouldReturnStoredSummaryAndStarCounts() {
         // Given
         Long doctorId = 1L;
-        RatingClientService.RatingSummary clientSummary =
-                new RatingClientService.RatingSummary(4.5, 10);
-
-        when(ratingClientService.getRatingSummary(doctorId)).thenReturn(clientSummary);
+        CareGiver caregiver = createMockCaregiver(doctorId);
+        caregiver.setAverageRating(4.5);
+        caregiver.setRatingCount(4);
+        caregiver.setRatingStars4(2);
+        caregiver.setRatingStars5(2);
+        when(careGiverRepository.findById(doctorId)).thenReturn(Optional.of(caregiver));
 
         // When
         RatingSummaryResponse result = ratingService.getRatingSummary(doctorId);
@@ -156,33 +171,38 @@ class RatingServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(4.5, result.getAverageRating());
-        assertEquals(10, result.getTotalRatings());
-
-        // Verify monitoring calls
-        verify(meterRegistry, times(2)).counter(anyString());
-        verify(counter, times(2)).increment();
-        verify(ratingClientService).getRatingSummary(doctorId);
+        assertEquals(4, result.getTotalRatings());
+        assertArrayEquals(new int[]{0, 0, 0, 2, 2}, result.getStarCounts());
     }
 
     @Test
-    void getRatingSummary_WithClientException_ShouldReturnEmptySummary() {
+    void getRatingSummary_ShouldNotCallRatingService() {
         // Given
         Long doctorId = 1L;
+        when(careGiverRepository.findById(doctorId)).thenReturn(Optional.of(createMockCaregiver(doctorId)));
 
-        when(ratingClientService.getRatingSummary(doctorId))
-                .thenThrow(new RuntimeException("Client error"));
+        // When
+        ratingService.getRatingSummary(doctorId);
+        ratingService.getRatingSummary(doctorId);
+
+        // Then
+        verifyNoInteractions(ratingClientService);
+        assertEquals(0.0, count("rating_summary_requests_total"));
+    }
+
+    @Test
+    void getRatingSummary_WithUnknownDoctorId_ShouldReturnEmptySummary() {
+        // Given
+        Long doctorId = 1L;
+        when(careGiverRepository.findById(doctorId)).thenReturn(Optional.empty());
 
         // When
         RatingSummaryResponse result = ratingService.getRatingSummary(doctorId);
 
         // Then
-        assertNotNull(result);
         assertEquals(0.0, result.getAverageRating());
         assertEquals(0, result.getTotalRatings());
-
-        // Verify monitoring calls (request counter + failure counter)
-        verify(meterRegistry, times(2)).counter(anyString());
-        verify(counter, times(2)).increment();
+        assertArrayEquals(new int[5], result.getStarCounts());
     }
 
     @Test
@@ -202,7 +222,7 @@ class RatingServiceImplTest {
                     .thenReturn(securityContext);
 
             when(userRepository.findById(userId)).thenReturn(Optional.of(caregiver));
-            when(ratingClientService.getRatingSummary(userId)).thenReturn(clientSummary);
+            when(ratingClientService.loadRatingSummary(userId)).thenReturn(clientSummary);
 
             // When
             RatingSummaryResponse result = ratingService.getCurrentUserRatingSummary();
@@ -213,7 +233,7 @@ class RatingServiceImplTest {
             assertEquals(5, result.getTotalRatings());
 
             verify(userRepository).findById(userId);
-            verify(ratingClientService).getRatingSummary(userId);
+            verify(ratingClientService).loadRatingSummary(userId);
         }
     }
 
@@ -291,182 +311,216 @@ class RatingServiceImplTest {
     }
 
     @Test
-    void isRatingServiceHealthy_WhenHealthy_ShouldReturnTrueAndRecordMetric() {
+    void isRatingServiceHealthy_WhenMonitorAvailable_ShouldReturnTrueWithoutCallingService() {
         // Given
-        when(ratingClientService.isRatingServiceHealthy()).thenReturn(true);
+        when(healthMonitor.isAvailable()).thenReturn(true);
 
         // When
         boolean result = ratingService.isRatingServiceHealthy();
 
         // Then
         assertTrue(result);
-        verify(ratingClientService).isRatingServiceHealthy();
-        verify(meterRegistry).counter("rating_service_health_checks",
-                Tags.of("status", "healthy"));
-        verify(counter).increment();
+        verify(ratingClientService, never()).isRatingServiceHealthy();
     }
 
     @Test
-    void isRatingServiceHealthy_WhenUnhealthy_ShouldReturnFalseAndRecordMetric() {
+    void isRatingServiceHealthy_WhenMonitorDown_ShouldReturnFalse() {
         // Given
-        when(ratingClientService.isRatingServiceHealthy()).thenReturn(false);
+        when(healthMonitor.isAvailable()).thenReturn(false);
 
         // When
         boolean result = ratingService.isRatingServiceHealthy();
 
         // Then
         assertFalse(result);
-        verify(ratingClientService).isRatingServiceHealthy();
-        verify(meterRegistry).counter("rating_service_health_checks",
-                Tags.of("status", "unhealthy"));
-        verify(counter).increment();
+        verify(ratingClientService, never()).isRatingServiceHealthy();
     }
 
     @Test
-    void updateCaregiverRatingCache_WithValidCaregiver_ShouldUpdateSuccessfully() {
+    void getRatingServiceHealthState_ShouldReturnMonitorState() {
         // Given
-        Long caregiverId = 1L;
-        CareGiver caregiver = createMockCaregiver(caregiverId);
-        RatingClientService.RatingSummary summary =
-                new RatingClientService.RatingSummary(4.7, 15);
+        when(healthMonitor.getState()).thenReturn(RatingServiceHealthMonitor.State.DEGRADED);
+
+        // When / Then
+        assertEquals(RatingServiceHealthMonitor.State.DEGRADED, ratingService.getRatingServiceHealthState());
+    }
 
-        when(careGiverRepository.findById(caregiverId)).thenReturn(Optional.of(caregiver));
-        when(ratingClientService.getRatingSummary(caregiverId)).thenReturn(summary);
+    @Test
+    void updateCaregiverRatingCache_WhenWritten_ShouldRecordSuccess() {
+        // Given
+        Long caregiverId = 1L;
+        when(caregiverRatingRefresher.refreshIds(List.of(caregiverId)))
+                .thenReturn(new CaregiverRatingRefresher.RefreshResult(1, 1, 0));
 
         // When
         ratingService.updateCaregiverRatingCache(caregiverId);
 
         // Then
-        assertEquals(4.7, caregiver.getAverageRating());
-        assertEquals(15, caregiver.getRatingCount());
-
-        verify(careGiverRepository).findById(caregiverId);
-        verify(ratingClientService).getRatingSummary(caregiverId);
-        verify(careGiverRepository).save(caregiver);
-        verify(meterRegistry).counter("rating_cache_updates_successful");
-        verify(counter).increment();
+        verify(caregiverRatingRefresher).refreshIds(List.of(caregiverId));
+        verifyNoInteractions(ratingClientService);
+        verify(careGiverRepository, never()).save(any());
+        assertEquals(1.0, count("rating_cache_updates_successful"));
     }
 
     @Test
-    void updateCaregiverRatingCache_WithNonExistentCaregiver_ShouldRecordFailure() {
-        // Given
+    void updateCaregiverRatingCache_WhenNotWritten_ShouldRecordFailure() {
+        // Given - unknown caregiver, failed fetch or a delta that landed meanwhile
         Long caregiverId = 1L;
-
-        when(careGiverRepository.findById(caregiverId)).thenReturn(Optional.empty());
+        when(caregiverRatingRefresher.refreshIds(List.of(caregiverId)))
+                .thenReturn(new CaregiverRatingRefresher.RefreshResult(1, 0, 1));
 
         // When
         ratingService.updateCaregiverRatingCache(caregiverId);
 
         // Then
-        verify(careGiverRepository).findById(caregiverId);
-        verifyNoInteractions(ratingClientService);
-        verify(careGiverRepository, never()).save(any());
-        verify(meterRegistry).counter("rating_cache_updates_failed");
-        verify(counter).increment();
+        assertEquals(1.0, count("rating_cache_updates_failed"));
+        assertEquals(0.0, count("rating_cache_updates_successful"));
     }
 
     @Test
-    void updateCaregiverRatingCache_WithClientException_ShouldRecordFailure() {
+    void updateCaregiverRatingCache_WithRefresherException_ShouldRecordFailure() {
         // Given
         Long caregiverId = 1L;
-        CareGiver caregiver = createMockCaregiver(caregiverId);
-
-        when(careGiverRepository.findById(caregiverId)).thenReturn(Optional.of(caregiver));
-        when(ratingClientService.getRatingSummary(caregiverId))
-                .thenThrow(new RuntimeException("Client error"));
+        when(caregiverRatingRefresher.refreshIds(List.of(caregiverId)))
+                .thenThrow(new RuntimeException("Database error"));
 
         // When
         ratingService.updateCaregiverRatingCache(caregiverId);
 
         // Then
-        verify(careGiverRepository).findById(caregiverId);
-        verify(ratingClientService).getRatingSummary(caregiverId);
-        verify(careGiverRepository, never()).save(any());
-        verify(meterRegistry).counter("rating_cache_updates_failed");
-        verify(counter).increment();
+        assertEquals(1.0, count("rating_cache_updates_failed"));
     }
 
     @Test
-    void updateAllCaregiverRatingCaches_WithMultipleCaregivers_ShouldUpdateAll() {
+    void updateAllCaregiverRatingCaches_ShouldStartShardedRunAndRecordShardsRefreshedHere() {
         // Given
-        CareGiver caregiver1 = createMockCaregiver(1L);
-        CareGiver caregiver2 = createMockCaregiver(2L);
-        List<CareGiver> caregivers = Arrays.asList(caregiver1, caregiver2);
+        when(shardedRatingRefresh.startRun()).thenReturn(Optional.of(
+                CompletableFuture.completedFuture(new CaregiverRatingRefresher.RefreshResult(3, 3, 0))));
 
-        RatingClientService.RatingSummary summary1 =
-                new RatingClientService.RatingSummary(4.0, 10);
-        RatingClientService.RatingSummary summary2 =
-                new RatingClientService.RatingSummary(4.5, 12);
+        // When
+        ratingService.updateAllCaregiverRatingCaches();
 
-        when(careGiverRepository.findAll()).thenReturn(caregivers);
-        when(careGiverRepository.findById(1L)).thenReturn(Optional.of(caregiver1));
-        when(careGiverRepository.findById(2L)).thenReturn(Optional.of(caregiver2));
-        when(ratingClientService.getRatingSummary(1L)).thenReturn(summary1);
-        when(ratingClientService.getRatingSummary(2L)).thenReturn(summary2);
+        // Then
+        verify(shardedRatingRefresh).startRun();
+        verify(caregiverRatingRefresher, never()).refreshAll();
+        verify(careGiverRepository, never()).findAll();
+        assertEquals(3.0, count("rating_bulk_cache_updates_total"));
+        assertEquals(3.0, count("rating_bulk_cache_updates_successful"));
+        assertEquals(0.0, count("rating_bulk_cache_updates_failed"));
+    }
+
+    @Test
+    void updateAllCaregiverRatingCaches_ShouldReturnBeforeTheRunFinishes() {
+        // Given
+        CompletableFuture<CaregiverRatingRefresher.RefreshResult> run = new CompletableFuture<>();
+        when(shardedRatingRefresh.startRun()).thenReturn(Optional.of(run));
 
         // When
         ratingService.updateAllCaregiverRatingCaches();
 
         // Then
-        verify(careGiverRepository).findAll();
-        verify(careGiverRepository).findById(1L);
-        verify(careGiverRepository).findById(2L);
-        verify(ratingClientService).getRatingSummary(1L);
-        verify(ratingClientService).getRatingSummary(2L);
-        verify(careGiverRepository, times(2)).save(any(CareGiver.class));
-
-        // Verify bulk update metrics
-        verify(meterRegistry).counter("rating_bulk_cache_updates_total");
-        verify(meterRegistry).counter("rating_bulk_cache_updates_successful");
-        verify(meterRegistry).counter("rating_bulk_cache_updates_failed");
+        assertEquals(0.0, count("rating_bulk_cache_updates_total"));
+
+        // When
+        run.complete(new CaregiverRatingRefresher.RefreshResult(2, 2, 0));
+
+        // Then
+        assertEquals(2.0, count("rating_bulk_cache_updates_total"));
     }
 
     @Test
-    void updateAllCaregiverRatingCaches_WithSomeFailures_ShouldContinueAndRecordMetrics() {
+    void updateAllCaregiverRatingCaches_WhileAlreadyRunning_ShouldRecordRefusal() {
         // Given
-        CareGiver caregiver1 = createMockCaregiver(1L);
-        CareGiver caregiver2 = createMockCaregiver(2L);
-        List<CareGiver> caregivers = Arrays.asList(caregiver1, caregiver2);
+        when(shardedRatingRefresh.startRun()).thenReturn(Optional.empty());
 
-        RatingClientService.RatingSummary summary1 =
-                new RatingClientService.RatingSummary(4.0, 10);
+        // When
+        ratingService.updateAllCaregiverRatingCaches();
+
+        // Then
+        assertEquals(1.0, count("rating_bulk_cache_updates_refused"));
+        assertEquals(0.0, count("rating_bulk_cache_updates_total"));
+    }
 
-        when(careGiverRepository.findAll()).thenReturn(caregivers);
-        when(careGiverRepository.findById(1L)).thenReturn(Optional.of(caregiver1));
-        when(careGiverRepository.findById(2L)).thenReturn(Optional.empty()); // This will fail
-        when(ratingClientService.getRatingSummary(1L)).thenReturn(summary1);
+    @Test
+    void updateAllCaregiverRatingCaches_WithSomeFailures_ShouldContinueAndRecordMetrics() {
+        // Given
+        when(shardedRatingRefresh.startRun()).thenReturn(Optional.of(
+                CompletableFuture.completedFuture(new CaregiverRatingRefresher.RefreshResult(2, 1, 1))));
 
         // When
         ratingService.updateAllCaregiverRatingCaches();
 
         // Then
-        verify(careGiverRepository).findAll();
-        verify(careGiverRepository).findById(1L);
-        verify(careGiverRepository).findById(2L);
-        verify(ratingClientService).getRatingSummary(1L);
-        verify(careGiverRepository).save(caregiver1);
+        verify(shardedRatingRefresh).startRun();
 
         // Verify metrics recorded both successes and failures
-        verify(meterRegistry).counter("rating_bulk_cache_updates_total");
-        verify(meterRegistry).counter("rating_bulk_cache_updates_successful");
-        verify(meterRegistry).counter("rating_bulk_cache_updates_failed");
+        assertEquals(2.0, count("rating_bulk_cache_updates_total"));
+        assertEquals(1.0, count("rating_bulk_cache_updates_successful"));
+        assertEquals(1.0, count("rating_bulk_cache_updates_failed"));
+        assertEquals(1.0, count("rating_cache_updates_successful"));
+        assertEquals(1.0, count("rating_cache_updates_failed"));
     }
 
     @Test
-    void updateAllCaregiverRatingCaches_WithRepositoryException_ShouldRecordError() {
+    void updateAllCaregiverRatingCaches_WhenRunFails_ShouldRecordError() {
         // Given
-        when(careGiverRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(shardedRatingRefresh.startRun()).thenReturn(Optional.of(
+                CompletableFuture.failedFuture(new RuntimeException("Database error"))));
 
         // When
         ratingService.updateAllCaregiverRatingCaches();
 
         // Then
-        verify(careGiverRepository).findAll();
-        verify(meterRegistry).counter("rating_bulk_cache_updates_errors");
-        verify(counter).increment();
+        verify(shardedRatingRefresh).startRun();
+        assertEquals(1.0, count("rating_bulk_cache_updates_errors"));
+    }
+
+    @Test
+    void syncCaregiverRatingCaches_WithNewRatings_ShouldRecordAppliedRatings() {
+        // Given
+        when(incrementalRatingSync.sync()).thenReturn(new IncrementalRatingSync.SyncResult(3, false));
+
+        // When
+        ratingService.syncCaregiverRatingCaches();
+
+        // Then
+        verify(incrementalRatingSync).sync();
+        verify(caregiverRatingRefresher, never()).refreshAll();
+        assertEquals(3.0, count("rating_sync_ratings_applied_total"));
+        assertEquals(0.0, count("rating_sync_rebuilds_total"));
+    }
+
+    @Test
+    void syncCaregiverRatingCaches_WithRebuild_ShouldRecordRebuild() {
+        // Given
+        when(incrementalRatingSync.sync()).thenReturn(new IncrementalRatingSync.SyncResult(120, true));
+
+        // When
+        ratingService.syncCaregiverRatingCaches();
+
+        // Then
+        assertEquals(120.0, count("rating_sync_ratings_applied_total"));
+        assertEquals(1.0, count("rating_sync_rebuilds_total"));
+    }
+
+    @Test
+    void syncCaregiverRatingCaches_WithException_ShouldRecordError() {
+        // Given
+        when(incrementalRatingSync.sync()).thenThrow(new RuntimeException("Feed unavailable"));
+
+        // When
+        ratingService.syncCaregiverRatingCaches();
+
+        // Then
+        assertEquals(1.0, count("rating_sync_errors_total"));
+        assertEquals(0.0, count("rating_sync_ratings_applied_total"));
     }
 
     // Helper methods
+    private double count(String meterName) {
+        return meterRegistry.get(meterName).counter().count();
+    }
+
     private void mockSecurityContext(String userId) {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
@@ -0,0 +1,158 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import id.ac.ui.cs.advprog.authprofile.dto.response.RatingSummaryResponse;
+import id.ac.ui.cs.advprog.authprofile.exception.RatingServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingSummaryCacheTest {
+
+    private static final long REFRESH_AFTER_MS = 1000L;
+    private static final long EXPIRE_AFTER_MS = 10000L;
+
+    @Mock
+    private RatingClientService ratingClientService;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Queue<Runnable> pendingTasks = new ArrayDeque<>();
+    private boolean deferTasks;
+    private SimpleMeterRegistry meterRegistry;
+    private RatingSummaryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Loads run inline; with deferTasks set they wait for the test, so an in-flight refresh can be observed
+        cache = new RatingSummaryCache(ratingClientService, new MonitoringConfig(meterRegistry), meterRegistry,
+                task -> {
+                    if (deferTasks) {
+                        pendingTasks.add(task);
+                    } else {
+                        task.run();
+                    }
+                }, REFRESH_AFTER_MS, EXPIRE_AFTER_MS, 100L, nanos::get);
+    }
+
+    @Test
+    void get_WhenEntryIsStale_ShouldServeOldValueWhileRefreshing() {
+        // Given
+        when(ratingClientService.loadRatingSummary(1L)).thenReturn(new RatingClientService.RatingSummary(4.0, 2));
+        when(ratingClientService.fetchRatingSummary(1L)).thenReturn(new RatingClientService.RatingSummary(5.0, 3));
+        cache.get(1L);
+        advance(REFRESH_AFTER_MS + 1);
+        deferTasks = true;
+
+        // When
+        RatingSummaryResponse stale = cache.get(1L);
+
+        // Then
+        assertEquals(2, stale.getTotalRatings());
+        assertEquals(1, pendingTasks.size());
+        runPendingTasks();
+        assertEquals(3, cache.get(1L).getTotalRatings());
+        assertEquals(1L, meterRegistry.get("rating_summary_load_duration")
+                .tag("type", "refresh").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void get_WhenRefreshFails_ShouldKeepServingOldValueUntilExpiry() {
+        // Given
+        when(ratingClientService.loadRatingSummary(1L))
+                .thenReturn(new RatingClientService.RatingSummary(4.0, 2))
+                .thenThrow(new RatingServiceUnavailableException("down"));
+        when(ratingClientService.fetchRatingSummary(1L)).thenThrow(new RatingServiceUnavailableException("down"));
+        cache.get(1L);
+        advance(REFRESH_AFTER_MS + 1);
+
+        // When
+        RatingSummaryResponse afterFailedRefresh = cache.get(1L);
+
+        // Then
+        assertEquals(2, afterFailedRefresh.getTotalRatings());
+        assertEquals(1L, meterRegistry.get("rating_summary_load_duration")
+                .tag("type", "refresh").tag("outcome", "failure").timer().count());
+        // Still stale, so every read keeps serving it and retries the refresh
+        assertEquals(2, cache.get(1L).getTotalRatings());
+
+        advance(EXPIRE_AFTER_MS);
+        assertThrows(CompletionException.class, () -> cache.get(1L));
+    }
+
+    @Test
+    void get_WhenColdLoadFails_ShouldNotCacheFailure() {
+        // Given
+        when(ratingClientService.loadRatingSummary(1L))
+                .thenThrow(new RatingServiceUnavailableException("down"))
+                .thenReturn(new RatingClientService.RatingSummary(3.0, 1));
+
+        // When / Then
+        assertThrows(CompletionException.class, () -> cache.get(1L));
+        assertEquals(1, cache.get(1L).getTotalRatings());
+        assertEquals(1.0, meterRegistry.get("rating_summary_requests_failed").counter().count());
+    }
+
+    @Test
+    void get_ShouldRecordAgeOfServedValue() {
+        // Given
+        when(ratingClientService.loadRatingSummary(1L)).thenReturn(new RatingClientService.RatingSummary(4.0, 2));
+        cache.get(1L);
+        advance(500);
+
+        // When
+        cache.get(1L);
+
+        // Then
+        assertEquals(500.0, meterRegistry.get("rating_summary_cache_age").timer().max(TimeUnit.MILLISECONDS), 1.0);
+    }
+
+    @Test
+    void get_WithNullDoctorId_ShouldReturnEmptySummaryWithoutLoading() {
+        // When
+        RatingSummaryResponse summary = cache.get(null);
+
+        // Then
+        assertEquals(0, summary.getTotalRatings());
+        verifyNoInteractions(ratingClientService);
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Given
+        when(ratingClientService.loadRatingSummary(1L)).thenReturn(new RatingClientService.RatingSummary(4.0, 2));
+        cache.get(1L);
+
+        // When
+        cache.invalidate(1L);
+        cache.get(1L);
+
+        // Then
+        verify(ratingClientService, times(2)).loadRatingSummary(1L);
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void advance(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -1,13 +1,16 @@
 package id.ac.ui.cs.advprog.authprofile.service;
 
 import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchPhase;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SearchType;
+import id.ac.ui.cs.advprog.authprofile.config.MonitoringConfig.SuggestionType;
 import id.ac.ui.cs.advprog.authprofile.dto.response.ProfileResponse;
 import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
 import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
 import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Gauge;
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,14 +40,14 @@ class SearchCareGiverServiceTest {
     @Mock
     private MonitoringConfig monitoringConfig;
 
-    @Mock
-    private MeterRegistry meterRegistry;
-
     @Mock
     private Counter mockCounter;
 
     @Mock
-    private Gauge mockGauge;
+    private DistributionSummary mockSummary;
+
+    // Real timer so Timer.record(Supplier) passes the phase result through
+    private final Timer phaseTimer = new SimpleMeterRegistry().timer("search_caregivers_phase_duration");
 
     @InjectMocks
     private SearchCareGiverService searchCareGiverService;
@@ -76,9 +79,15 @@ class SearchCareGiverServiceTest {
         careGivers = Arrays.asList(careGiver1, careGiver2);
 
         // Setup monitoring config mocks with lenient stubbing
-        monitoringConfig.meterRegistry = meterRegistry;
-        lenient().when(meterRegistry.counter(anyString(), any(Tags.class))).thenReturn(mockCounter);
-        lenient().when(meterRegistry.gauge(anyString(), any(Tags.class), any(), any())).thenReturn(mockGauge);
+        lenient().when(monitoringConfig.searchRequest(any(SearchType.class), anyBoolean(), anyBoolean())).thenReturn(mockCounter);
+        lenient().when(monitoringConfig.advancedSearchRequest(anyString(), anyBoolean())).thenReturn(mockCounter);
+        lenient().when(monitoringConfig.searchResults(any(SearchType.class))).thenReturn(mockCounter);
+        lenient().when(monitoringConfig.searchTotalElements(any(SearchType.class))).thenReturn(mockSummary);
+        lenient().when(monitoringConfig.suggestionRequests(any(SuggestionType.class))).thenReturn(mockCounter);
+        lenient().when(monitoringConfig.suggestionResults(any(SuggestionType.class))).thenReturn(mockCounter);
+        lenient().when(monitoringConfig.searchResultSize(any(SearchType.class))).thenReturn(mockSummary);
+        lenient().when(monitoringConfig.searchPageSize(any(SearchType.class))).thenReturn(mockSummary);
+        lenient().when(monitoringConfig.searchPhase(any(SearchType.class), any(SearchPhase.class))).thenReturn(phaseTimer);
     }
 
     // EXISTING TESTS (keeping all your current tests)
@@ -349,7 +358,7 @@ class SearchCareGiverServiceTest {
     @Test
     void testSearchCareGiversPaginatedWithSort_AllSortFields() throws ExecutionException, InterruptedException {
         // Test all valid sort fields
-        String[] sortFields = {"name", "speciality", "averageRating", "ratingCount"};
+        String[] sortFields = {"name", "speciality", "averageRating", "ratingCount", "weightedScore"};
         String[] directions = {"asc", "desc"};
 
         for (String field : sortFields) {
@@ -379,8 +388,8 @@ class SearchCareGiverServiceTest {
 
     @Test
     void testSearchCareGiversPaginatedWithSort_InvalidSortField() throws ExecutionException, InterruptedException {
-        // Given - invalid sort field should default to "averageRating"
-        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "averageRating"));
+        // Given - invalid sort field should default to "weightedScore"
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "weightedScore"));
         Page<CareGiver> page = new PageImpl<>(careGivers, pageable, 2);
 
         when(careGiverRepository.findAll(any(Pageable.class))).thenReturn(page);
@@ -394,13 +403,13 @@ class SearchCareGiverServiceTest {
         Page<ProfileResponse> responses = result.get();
         assertEquals(2, responses.getTotalElements());
         verify(careGiverRepository).findAll(argThat((Pageable pageable1) ->
-                pageable1.getSort().getOrderFor("averageRating") != null));
+                pageable1.getSort().getOrderFor("weightedScore") != null));
         verify(mockCounter, atLeastOnce()).increment();
     }
 
     @Test
     void testSearchCareGiversPaginatedWithSort_NullSortBy() throws ExecutionException, InterruptedException {
-        // Given - null sortBy should default to "averageRating"
+        // Given - null sortBy should default to "weightedScore"
         Page<CareGiver> page = new PageImpl<>(careGivers, PageRequest.of(0, 10), 2);
         when(careGiverRepository.findAll(any(Pageable.class))).thenReturn(page);
 
@@ -413,7 +422,7 @@ class SearchCareGiverServiceTest {
         Page<ProfileResponse> responses = result.get();
         assertEquals(2, responses.getTotalElements());
         verify(careGiverRepository).findAll(argThat((Pageable pageable1) ->
-                pageable1.getSort().getOrderFor("averageRating") != null));
+                pageable1.getSort().getOrderFor("weightedScore") != null));
         verify(mockCounter, atLeastOnce()).increment();
     }
 
@@ -499,7 +508,7 @@ class SearchCareGiverServiceTest {
     void testGetTopRatedCareGivers() throws ExecutionException, InterruptedException {
         // Given
         Pageable pageable = PageRequest.of(0, 10,
-                Sort.by(Sort.Direction.DESC, "averageRating")
+                Sort.by(Sort.Direction.DESC, "weightedScore")
                         .and(Sort.by(Sort.Direction.DESC, "ratingCount")));
         Page<CareGiver> page = new PageImpl<>(careGivers, pageable, 2);
 
@@ -513,7 +522,7 @@ class SearchCareGiverServiceTest {
         Page<ProfileResponse> responses = result.get();
         assertEquals(2, responses.getTotalElements());
         verify(careGiverRepository).findAll(argThat((Pageable pageable1) ->
-                pageable1.getSort().getOrderFor("averageRating") != null &&
+                pageable1.getSort().getOrderFor("weightedScore") != null &&
                         pageable1.getSort().getOrderFor("ratingCount") != null));
         verify(mockCounter, atLeastOnce()).increment();
     }
@@ -522,7 +531,7 @@ class SearchCareGiverServiceTest {
     void testGetTopRatedCareGivers_InvalidParameters() throws ExecutionException, InterruptedException {
         // Given - invalid parameters should be corrected
         Pageable pageable = PageRequest.of(0, 10,
-                Sort.by(Sort.Direction.DESC, "averageRating")
+                Sort.by(Sort.Direction.DESC, "weightedScore")
                         .and(Sort.by(Sort.Direction.DESC, "ratingCount")));
         Page<CareGiver> page = new PageImpl<>(careGivers, pageable, 2);
 
@@ -876,6 +885,37 @@ class SearchCareGiverServiceTest {
         verify(mockCounter, atLeastOnce()).increment();
     }
 
+    @Test
+    void testSearchCareGiversOptimized_ShouldTimeDbAndMappingPhasesAndRecordResultSize()
+            throws ExecutionException, InterruptedException {
+        // Given
+        when(careGiverRepository.findCareGiversWithFilters(null, null)).thenReturn(careGivers);
+
+        // When
+        searchCareGiverService.searchCareGiversOptimized(null, null).get();
+
+        // Then
+        verify(monitoringConfig).searchPhase(SearchType.OPTIMIZED, SearchPhase.DB);
+        verify(monitoringConfig).searchPhase(SearchType.OPTIMIZED, SearchPhase.MAPPING);
+        assertEquals(2, phaseTimer.count());
+        verify(mockSummary).record(2.0);
+    }
+
+    @Test
+    void testSearchCareGiversPaginated_ShouldRecordValidatedPageSize() throws ExecutionException, InterruptedException {
+        // Given
+        Page<CareGiver> page = new PageImpl<>(careGivers, PageRequest.of(0, 10), 2);
+        when(careGiverRepository.findAll(any(Pageable.class))).thenReturn(page);
+
+        // When
+        searchCareGiverService.searchCareGiversPaginated(null, null, 0, 500).get();
+
+        // Then
+        verify(monitoringConfig).searchPageSize(SearchType.PAGINATED);
+        verify(mockSummary).record(10.0);
+        assertEquals(2, phaseTimer.count());
+    }
+
     // Test constructor for complete coverage
     @Test
     void testConstructor() {
@@ -1006,7 +1046,7 @@ class SearchCareGiverServiceTest {
 
     @Test
     void testSearchCareGiversPaginatedWithSort_ForLoopNoMatch() throws ExecutionException, InterruptedException {
-        // Given - test when sortBy doesn't match any allowed field (should use default "averageRating")
+        // Given - test when sortBy doesn't match any allowed field (should use default "weightedScore")
         Page<CareGiver> page = new PageImpl<>(careGivers, PageRequest.of(0, 10), 2);
         when(careGiverRepository.findAll(any(Pageable.class))).thenReturn(page);
 
@@ -1018,9 +1058,9 @@ class SearchCareGiverServiceTest {
         // Then
         Page<ProfileResponse> responses = result.get();
         assertEquals(2, responses.getTotalElements());
-        // Should use default "averageRating" since no match was found
+        // Should use default "weightedScore" since no match was found
         verify(careGiverRepository).findAll(argThat((Pageable pageable1) ->
-                pageable1.getSort().getOrderFor("averageRating") != null));
+                pageable1.getSort().getOrderFor("weightedScore") != null));
         verify(mockCounter, atLeastOnce()).increment();
     }
 
@@ -0,0 +1,115 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void tryAcquire_BelowLimit_ShouldAdmit() {
+        // Given
+        SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(2, 1, 10, 500, 0.5, 1, meterRegistry);
+
+        // When
+        Optional<SearchConcurrencyLimiter.Permit> first = limiter.tryAcquire();
+        Optional<SearchConcurrencyLimiter.Permit> second = limiter.tryAcquire();
+
+        // Then
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void tryAcquire_AtLimit_ShouldRejectAndCount() {
+        // Given
+        SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(1, 1, 10, 500, 0.5, 1, meterRegistry);
+        limiter.tryAcquire();
+
+        // When
+        Optional<SearchConcurrencyLimiter.Permit> rejected = limiter.tryAcquire();
+
+        // Then
+        assertTrue(rejected.isEmpty());
+        assertEquals(1.0, meterRegistry.get("search_limiter_rejections_total").counter().count());
+    }
+
+    @Test
+    void release_FastAndUtilized_ShouldIncreaseLimitAdditively() {
+        // Given
+        SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(2, 1, 10, 500, 0.5, 1, meterRegistry);
+        SearchConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+        limiter.tryAcquire();
+
+        // When
+        permit.release(true);
+
+        // Then
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void release_Failure_ShouldDecreaseLimitMultiplicatively() {
+        // Given
+        SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(8, 1, 10, 500, 0.5, 1, meterRegistry);
+        SearchConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+
+        // When
+        permit.release(false);
+
+        // Then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void release_SlowerThanTarget_ShouldDecreaseLimitButNotBelowMinimum() throws InterruptedException {
+        // Given
+        SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(2, 2, 10, 1, 0.5, 1, meterRegistry);
+        SearchConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+        Thread.sleep(5);
+
+        // When
+        permit.release(true);
+
+        // Then
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void release_Twice_ShouldOnlyCountOnce() {
+        // Given
+        SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(4, 1, 10, 500, 0.5, 1, meterRegistry);
+        SearchConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+        limiter.tryAcquire();
+
+        // When
+        permit.release(true);
+        permit.release(true);
+
+        // Then
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void constructor_ShouldRegisterGauges() {
+        // When
+        new SearchConcurrencyLimiter(5, 1, 10, 500, 0.5, 1, meterRegistry);
+
+        // Then
+        assertEquals(5.0, meterRegistry.get("search_limiter_limit").gauge().value());
+        assertEquals(0.0, meterRegistry.get("search_limiter_inflight").gauge().value());
+    }
+}
@@ -0,0 +1,526 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.client.RatingClientService;
+import id.ac.ui.cs.advprog.authprofile.client.RatingServiceHealthMonitor;
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.scheduler.SchedulerLeaseLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Replicas are simulated as ShardedRatingRefresh instances with their own node id, all
+ * sharing the embedded H2 database
+ */
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+// Claims must commit to be seen by the other nodes
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedRatingRefreshTest {
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RatingClientService ratingClientService;
+    private RatingServiceHealthMonitor healthMonitor;
+    private ExecutorService executor;
+    private Queue<Runnable> polledDrains;
+    private Executor refreshExecutor;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        ratingClientService = mock(RatingClientService.class);
+        healthMonitor = mock(RatingServiceHealthMonitor.class);
+        when(healthMonitor.isAvailable()).thenReturn(true);
+        when(ratingClientService.fetchRatingSummary(anyLong()))
+                .thenReturn(new RatingClientService.RatingSummary(4.5, 2));
+        executor = Executors.newFixedThreadPool(4);
+        polledDrains = new ConcurrentLinkedQueue<>();
+        refreshExecutor = polledDrains::add;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM rating_refresh_shard");
+        jdbcTemplate.update("DELETE FROM scheduler_lock");
+        careGiverRepository.deleteAll();
+    }
+
+    @Test
+    void refreshAll_ShouldPlanShardsAndRefreshEveryCaregiver() {
+        // Given
+        List<Long> ids = persistCaregivers(10);
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = node("node-a", 3, 3).refreshAll();
+
+        // Then - boundaries after the 3rd, 6th and 9th id, plus the open-ended tail
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(10, 10, 0), result);
+        assertEquals(List.of("DONE", "DONE", "DONE", "DONE"), statuses());
+        assertEquals(10, sum("refreshed"));
+        for (Long id : ids) {
+            verify(ratingClientService).fetchRatingSummary(id);
+            assertEquals(4.5, averageRating(id), 0.001);
+        }
+    }
+
+    @Test
+    void getProgress_WhileRunning_ShouldReportShardsCheckpointsAndEta() {
+        // Given - one of three shards done, one claimed and part way through
+        List<Long> ids = persistCaregivers(9);
+        ShardedRatingRefresh node = node("node-a", 3, 3);
+        node.planRun();
+        jdbcTemplate.update("UPDATE rating_refresh_shard SET status = 'DONE', refreshed = 3, created_at = ? "
+                + "WHERE from_id = 0", LocalDateTime.now(Clock.systemUTC()).minusSeconds(30));
+        jdbcTemplate.update("UPDATE rating_refresh_shard SET status = 'CLAIMED', claimed_by = 'node-b', "
+                + "checkpoint_id = ?, refreshed = 1, failed = 1 WHERE from_id = ?", ids.get(4), ids.get(2));
+
+        // When
+        ShardedRatingRefresh.RunProgress progress = node.getProgress();
+
+        // Then
+        assertTrue(progress.isActive());
+        assertEquals(4, progress.shards());
+        assertEquals(1, progress.doneShards());
+        assertEquals(1, progress.claimedShards());
+        assertEquals(2, progress.pendingShards());
+        assertEquals(5, progress.caregiversProcessed());
+        assertEquals(9, progress.caregiversTotal());
+        assertEquals(55.6, progress.percentComplete(), 0.1);
+        assertEquals(List.of(new ShardedRatingRefresh.ShardCheckpoint(
+                jdbcTemplate.queryForObject("SELECT id FROM rating_refresh_shard WHERE claimed_by = 'node-b'", Long.class),
+                "node-b", ids.get(4), ids.get(5))), progress.inProgress());
+        // 5 caregivers in ~30s leaves 4 for ~24s
+        assertEquals(24, progress.eta().toSeconds(), 2);
+    }
+
+    @Test
+    void getProgress_AfterRun_ShouldBeFinishedAndRecordChunkLatency() {
+        // Given
+        persistCaregivers(5);
+        ShardedRatingRefresh node = node("node-a", 100, 3);
+
+        // When
+        node.refreshAll();
+        ShardedRatingRefresh.RunProgress progress = node.getProgress();
+
+        // Then
+        assertFalse(progress.isActive());
+        assertEquals(100.0, progress.percentComplete());
+        assertNull(progress.eta());
+        assertNotNull(progress.finishedAt());
+        assertEquals(5, progress.caregiversRefreshed());
+        // Pages of 2: ids 1-2, 3-4, 5
+        assertEquals(3, node.getChunkLatency().count());
+    }
+
+    @Test
+    void getProgress_BeforeAnyRun_ShouldBeNull() {
+        assertNull(node("node-a", 100, 3).getProgress());
+    }
+
+    @Test
+    void drain_WithTwoNodes_ShouldSplitShardsAndRefreshEachCaregiverOnce() throws Exception {
+        // Given - each node holds its first shard until the other has claimed one too, so
+        // neither can drain the whole run before the other starts
+        List<Long> ids = persistCaregivers(24);
+        CountDownLatch aInShard = new CountDownLatch(1);
+        CountDownLatch bInShard = new CountDownLatch(1);
+        Queue<Long> fetched = new ConcurrentLinkedQueue<>();
+        ShardedRatingRefresh nodeA = node("node-a", rendezvousClient(aInShard, bInShard, fetched), 4, 3);
+        ShardedRatingRefresh nodeB = node("node-b", rendezvousClient(bInShard, aInShard, fetched), 4, 3);
+        nodeA.planRun();
+
+        // When - each node drains on its own thread, as it would on its own replica
+        ExecutorService replicas = Executors.newFixedThreadPool(2);
+        CompletableFuture<CaregiverRatingRefresher.RefreshResult> onA = CompletableFuture.supplyAsync(nodeA::drain, replicas);
+        CompletableFuture<CaregiverRatingRefresher.RefreshResult> onB = CompletableFuture.supplyAsync(nodeB::drain, replicas);
+        CaregiverRatingRefresher.RefreshResult a = onA.get(30, TimeUnit.SECONDS);
+        CaregiverRatingRefresher.RefreshResult b = onB.get(30, TimeUnit.SECONDS);
+        replicas.shutdown();
+
+        // Then
+        assertEquals(24, a.successful() + b.successful());
+        assertTrue(a.total() > 0 && b.total() > 0, "A refreshed " + a.total() + ", B refreshed " + b.total());
+        assertEquals(Set.of("node-a", "node-b"), Set.copyOf(jdbcTemplate.queryForList(
+                "SELECT claimed_by FROM rating_refresh_shard", String.class)));
+        assertTrue(statuses().stream().allMatch("DONE"::equals));
+        assertEquals(ids, fetched.stream().sorted().toList());
+    }
+
+    @Test
+    void claim_WhenAnotherNodeWonTheSameAttempt_ShouldNotClaimAgain() {
+        // Given - both nodes read the shard at attempt 0
+        persistCaregivers(2);
+        node("node-a", 100, 3).planRun();
+        Long shardId = jdbcTemplate.queryForObject("SELECT id FROM rating_refresh_shard", Long.class);
+        LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+        LocalDateTime until = now.plusMinutes(1);
+
+        // When
+        int wonByA = jdbcTemplate.update(ShardedRatingRefresh.CLAIM_SQL, "node-a", until, shardId, 0, now);
+        int wonByB = jdbcTemplate.update(ShardedRatingRefresh.CLAIM_SQL, "node-b", until, shardId, 0, now);
+
+        // Then
+        assertEquals(1, wonByA);
+        assertEquals(0, wonByB);
+        assertEquals("node-a", jdbcTemplate.queryForObject("SELECT claimed_by FROM rating_refresh_shard", String.class));
+        assertEquals(1, sum("attempts"));
+    }
+
+    @Test
+    void processNextShard_WhenShardFails_ShouldRetryFromItsCheckpoint() {
+        // Given - the first attempt writes one page up to id 50 and then fails
+        CaregiverRatingRefresher refresher = mock(CaregiverRatingRefresher.class);
+        AtomicInteger calls = new AtomicInteger();
+        when(refresher.refreshRange(anyLong(), eq(Long.MAX_VALUE), any())).thenAnswer(invocation -> {
+            CaregiverRatingRefresher.PageListener listener = invocation.getArgument(2);
+            if (calls.incrementAndGet() == 1) {
+                listener.pageWritten(50L, new CaregiverRatingRefresher.RefreshResult(5, 5, 0));
+                throw new IllegalStateException("connection reset");
+            }
+            listener.pageWritten(80L, new CaregiverRatingRefresher.RefreshResult(3, 3, 0));
+            return new CaregiverRatingRefresher.RefreshResult(3, 3, 0);
+        });
+        ShardedRatingRefresh node = node("node-a", refresher, 100, 0L, 3);
+        node.planRun();
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = node.drain();
+
+        // Then
+        verify(refresher).refreshRange(eq(0L), eq(Long.MAX_VALUE), any());
+        verify(refresher).refreshRange(eq(50L), eq(Long.MAX_VALUE), any());
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(8, 8, 0), result);
+        assertEquals(List.of("DONE"), statuses());
+        assertEquals(2, sum("attempts"));
+        assertEquals("connection reset", jdbcTemplate.queryForObject(
+                "SELECT last_error FROM rating_refresh_shard", String.class));
+    }
+
+    @Test
+    void processNextShard_WhenMostFetchesOfAPageFail_ShouldRetryShardFromThatPage() {
+        // Given - the second page's fetches fail once, as they would during an outage
+        List<Long> ids = persistCaregivers(4);
+        Set<Long> failedOnce = ConcurrentHashMap.newKeySet();
+        when(ratingClientService.fetchRatingSummary(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            if (id >= ids.get(2) && failedOnce.add(id)) {
+                throw new IllegalStateException("Rating service down");
+            }
+            return new RatingClientService.RatingSummary(4.0, 1);
+        });
+        ShardedRatingRefresh node = node("node-a", 100, 3);
+        node.planRun();
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = node.drain();
+
+        // Then - the first page is not fetched again, the failed one is
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(4, 4, 0), result);
+        assertEquals(List.of("DONE"), statuses());
+        assertEquals(2, sum("attempts"));
+        assertEquals(4, sum("refreshed"));
+        verify(ratingClientService, times(1)).fetchRatingSummary(ids.get(0));
+        verify(ratingClientService, times(2)).fetchRatingSummary(ids.get(3));
+        assertEquals(4.0, averageRating(ids.get(3)), 0.001);
+    }
+
+    @Test
+    void pollShards_ShouldDrainOnTheRefreshExecutorWithoutOverlapping() {
+        // Given
+        List<Long> ids = persistCaregivers(2);
+        ShardedRatingRefresh node = node("node-a", 100, 3);
+        node.planRun();
+
+        // When - the scheduler fires again before the first drain has started
+        node.pollShards();
+        node.pollShards();
+
+        // Then
+        assertEquals(1, polledDrains.size());
+        verifyNoInteractions(ratingClientService);
+
+        // When
+        polledDrains.poll().run();
+        node.pollShards();
+
+        // Then
+        assertEquals(List.of("DONE"), statuses());
+        verify(ratingClientService).fetchRatingSummary(ids.get(1));
+        assertEquals(1, polledDrains.size());
+    }
+
+    @Test
+    void startRun_ShouldPlanAndDrainOnTheRefreshExecutor() {
+        // Given
+        List<Long> ids = persistCaregivers(2);
+        ShardedRatingRefresh node = node("node-a", 100, 3);
+
+        // When
+        CompletableFuture<CaregiverRatingRefresher.RefreshResult> run = node.startRun().orElseThrow();
+
+        // Then - nothing happens on the calling thread
+        assertFalse(run.isDone());
+        assertTrue(statuses().isEmpty());
+
+        // When
+        polledDrains.poll().run();
+
+        // Then
+        assertEquals(new CaregiverRatingRefresher.RefreshResult(2, 2, 0), run.join());
+        assertEquals(List.of("DONE"), statuses());
+        verify(ratingClientService).fetchRatingSummary(ids.get(1));
+    }
+
+    @Test
+    void startRun_WhileADrainRunsOnThisNode_ShouldBeRefused() {
+        // Given
+        persistCaregivers(2);
+        ShardedRatingRefresh node = node("node-a", 100, 3);
+        node.planRun();
+        node.pollShards();
+
+        // When
+        boolean refusedDuringPoll = node.startRun().isEmpty();
+        polledDrains.poll().run();
+        Optional<CompletableFuture<CaregiverRatingRefresher.RefreshResult>> started = node.startRun();
+        boolean refusedDuringRun = node.startRun().isEmpty();
+
+        // Then
+        assertTrue(refusedDuringPoll);
+        assertTrue(started.isPresent());
+        assertTrue(refusedDuringRun);
+        assertEquals(1, polledDrains.size());
+
+        // When - once the started run finishes, the next one may start
+        polledDrains.poll().run();
+
+        // Then
+        assertTrue(started.get().isDone());
+        assertTrue(node.startRun().isPresent());
+    }
+
+    @Test
+    void processNextShard_WhenEveryAttemptFails_ShouldMarkShardFailed() {
+        // Given
+        CaregiverRatingRefresher refresher = mock(CaregiverRatingRefresher.class);
+        when(refresher.refreshRange(anyLong(), anyLong(), any())).thenThrow(new IllegalStateException("down"));
+        ShardedRatingRefresh node = node("node-a", refresher, 100, 0L, 2);
+        node.planRun();
+
+        // When
+        node.drain();
+
+        // Then
+        verify(refresher, times(2)).refreshRange(anyLong(), anyLong(), any());
+        assertEquals(List.of("FAILED"), statuses());
+        assertEquals(0, unfinished());
+    }
+
+    @Test
+    void processNextShard_WhenRetryDelayHasNotPassed_ShouldLeaveShardPending() {
+        // Given
+        CaregiverRatingRefresher refresher = mock(CaregiverRatingRefresher.class);
+        when(refresher.refreshRange(anyLong(), anyLong(), any())).thenThrow(new IllegalStateException("down"));
+        ShardedRatingRefresh node = node("node-a", refresher, 100, 60000L, 3);
+        node.planRun();
+
+        // When
+        node.drain();
+
+        // Then
+        verify(refresher, times(1)).refreshRange(anyLong(), anyLong(), any());
+        assertEquals(List.of("PENDING"), statuses());
+    }
+
+    @Test
+    void drain_WhenClaimOfDeadNodeExpired_ShouldTakeOverFromCheckpoint() {
+        // Given - node-a claimed the shard, wrote up to a checkpoint and vanished
+        List<Long> ids = persistCaregivers(6);
+        ShardedRatingRefresh nodeB = node("node-b", 100, 3);
+        nodeB.planRun();
+        jdbcTemplate.update("UPDATE rating_refresh_shard SET status = 'CLAIMED', attempts = 1, claimed_by = 'node-a', "
+                + "checkpoint_id = ?, claimed_until = ?", ids.get(2), LocalDateTime.now(Clock.systemUTC()).minusSeconds(1));
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = nodeB.drain();
+
+        // Then
+        assertEquals(3, result.total());
+        verify(ratingClientService, never()).fetchRatingSummary(ids.get(0));
+        verify(ratingClientService).fetchRatingSummary(ids.get(5));
+        assertEquals(List.of("DONE"), statuses());
+        assertEquals("node-b", jdbcTemplate.queryForObject("SELECT claimed_by FROM rating_refresh_shard", String.class));
+    }
+
+    @Test
+    void drain_WhileAnotherNodeHoldsLiveClaim_ShouldNotTouchIt() {
+        // Given
+        persistCaregivers(2);
+        ShardedRatingRefresh nodeB = node("node-b", 100, 3);
+        nodeB.planRun();
+        jdbcTemplate.update("UPDATE rating_refresh_shard SET status = 'CLAIMED', attempts = 1, claimed_by = 'node-a', "
+                + "claimed_until = ?", LocalDateTime.now(Clock.systemUTC()).plusMinutes(1));
+
+        // When
+        CaregiverRatingRefresher.RefreshResult result = nodeB.drain();
+
+        // Then
+        assertEquals(0, result.total());
+        verifyNoInteractions(ratingClientService);
+    }
+
+    @Test
+    void refreshAll_WhenRunAlreadyInProgress_ShouldJoinInsteadOfPlanning() {
+        // Given
+        persistCaregivers(4);
+        node("node-a", 2, 3).planRun();
+        int planned = statuses().size();
+
+        // When
+        node("node-b", 2, 3).planRun();
+
+        // Then
+        assertEquals(planned, statuses().size());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT run_id) FROM rating_refresh_shard", Integer.class));
+    }
+
+    @Test
+    void drain_WhenRatingServiceDown_ShouldNotClaim() {
+        // Given
+        persistCaregivers(2);
+        ShardedRatingRefresh node = node("node-a", 100, 3);
+        node.planRun();
+        when(healthMonitor.isAvailable()).thenReturn(false);
+
+        // When
+        node.drain();
+
+        // Then
+        verifyNoInteractions(ratingClientService);
+        assertEquals(List.of("PENDING"), statuses());
+    }
+
+    private ShardedRatingRefresh node(String nodeId, int shardSize, int maxAttempts) {
+        return node(nodeId, ratingClientService, shardSize, maxAttempts);
+    }
+
+    private ShardedRatingRefresh node(String nodeId, RatingClientService client, int shardSize, int maxAttempts) {
+        CaregiverRatingRefresher refresher = new CaregiverRatingRefresher(client, careGiverRepository,
+                jdbcTemplate, transactionManager, executor, 2, 2);
+        return node(nodeId, refresher, shardSize, 0L, maxAttempts);
+    }
+
+    /**
+     * A client whose first fetch signals that its node is inside a shard and waits until the
+     * other node is inside one as well
+     */
+    private RatingClientService rendezvousClient(CountDownLatch ownShard, CountDownLatch otherShard,
+                                                 Queue<Long> fetched) {
+        RatingClientService client = mock(RatingClientService.class);
+        when(client.fetchRatingSummary(anyLong())).thenAnswer(invocation -> {
+            ownShard.countDown();
+            assertTrue(otherShard.await(10, TimeUnit.SECONDS), "the other node never claimed a shard");
+            fetched.add(invocation.getArgument(0));
+            return new RatingClientService.RatingSummary(3.0, 1);
+        });
+        return client;
+    }
+
+    private ShardedRatingRefresh node(String nodeId, CaregiverRatingRefresher refresher, int shardSize,
+                                      long retryDelayMillis, int maxAttempts) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SchedulerLeaseLock leaseLock = mock(SchedulerLeaseLock.class);
+        when(leaseLock.getNodeId()).thenReturn(nodeId);
+        when(leaseLock.runLocked(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(3).run();
+            return true;
+        });
+        return new ShardedRatingRefresh(refresher, jdbcTemplate, transactionManager, leaseLock, healthMonitor,
+                meterRegistry, refreshExecutor, true, true, shardSize, 60000L, retryDelayMillis, maxAttempts, 0.5,
+                Clock.systemUTC());
+    }
+
+    private List<Long> persistCaregivers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CareGiver careGiver = new CareGiver();
+            careGiver.setEmail("shard" + i + "@example.com");
+            careGiver.setPassword("password");
+            careGiver.setName("Dr. " + i);
+            careGiver.setNik(String.format("%016d", i));
+            careGiver.setAddress("Address " + i);
+            careGiver.setPhoneNumber("0812345678" + i);
+            careGiver.setSpeciality("Cardiology");
+            careGiver.setWorkAddress("Hospital " + i);
+            ids.add(careGiverRepository.save(careGiver).getId());
+        }
+        return ids;
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList("SELECT status FROM rating_refresh_shard ORDER BY id", String.class);
+    }
+
+    private int sum(String column) {
+        return jdbcTemplate.queryForObject("SELECT SUM(" + column + ") FROM rating_refresh_shard", Integer.class);
+    }
+
+    private int unfinished() {
+        return jdbcTemplate.queryForObject(ShardedRatingRefresh.UNFINISHED_SQL, Integer.class);
+    }
+
+    private double averageRating(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT average_rating FROM caregivers WHERE user_id = ?", Double.class, id);
+    }
+}
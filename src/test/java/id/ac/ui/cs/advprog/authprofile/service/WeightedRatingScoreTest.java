@@ -0,0 +1,230 @@
+package id.ac.ui.cs.advprog.authprofile.service;
+
+import id.ac.ui.cs.advprog.authprofile.config.TestConfig;
+import id.ac.ui.cs.advprog.authprofile.model.CareGiver;
+import id.ac.ui.cs.advprog.authprofile.repository.CareGiverRepository;
+import id.ac.ui.cs.advprog.authprofile.scheduler.SchedulerLeaseLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class WeightedRatingScoreTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CareGiverRepository careGiverRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulerLeaseLock leaseLock;
+    private WeightedRatingScore weightedRatingScore;
+
+    @BeforeEach
+    void setUp() {
+        careGiverRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        leaseLock = mock(SchedulerLeaseLock.class);
+        when(leaseLock.runLocked(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(3).run();
+            return true;
+        });
+        weightedRatingScore = new WeightedRatingScore(jdbcTemplate, leaseLock, 10, true, 300000L);
+    }
+
+    @Test
+    void recompute_ShouldRankManyGoodRatingsAboveOnePerfectRating() {
+        // Given - global mean (5.0 + 4.9 * 500 + 3.0 * 500) / 1001, about 3.95
+        Long oneFiveStar = persistCaregiver(1, 5.0, 1);
+        Long manyRatings = persistCaregiver(2, 4.9, 500);
+        Long unrated = persistCaregiver(3, 0.0, 0);
+        Long manyPoorRatings = persistCaregiver(4, 3.0, 500);
+
+        // When
+        weightedRatingScore.recompute();
+        entityManager.clear();
+
+        // Then
+        List<Long> ranked = careGiverRepository.findAll(PageRequest.of(0, 10,
+                        Sort.by(Sort.Direction.DESC, "weightedScore").and(Sort.by(Sort.Direction.DESC, "ratingCount"))))
+                .map(CareGiver::getId)
+                .getContent();
+        assertEquals(List.of(manyRatings, oneFiveStar, unrated, manyPoorRatings), ranked);
+    }
+
+    @Test
+    void weightedScoreColumn_ShouldRejectNull() {
+        // Given - a NULL would sort first in PostgreSQL's descending top-rated order
+        Long caregiver = persistCaregiver(1, 4.0, 3);
+
+        // When / Then
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "UPDATE caregivers SET weighted_score = NULL WHERE user_id = ?", caregiver));
+    }
+
+    @Test
+    void unratedScore_ShouldBeTheGlobalMean() {
+        // Given
+        persistCaregiver(1, 4.0, 3);
+        persistCaregiver(2, 2.0, 1);
+
+        // When
+        double seed = weightedRatingScore.unratedScore();
+
+        // Then
+        assertEquals(3.5, seed, 0.0001);
+    }
+
+    @Test
+    void recompute_ShouldPullAveragesTowardsTheGlobalMean() {
+        // Given - global mean (4.0 * 3 + 2.0 * 1) / 4 = 3.5
+        Long caregiver = persistCaregiver(1, 4.0, 3);
+        Long other = persistCaregiver(2, 2.0, 1);
+        Long unrated = persistCaregiver(3, 0.0, 0);
+
+        // When
+        weightedRatingScore.recompute();
+
+        // Then
+        assertEquals(3.5, weightedRatingScore.globalMean(), 0.0001);
+        assertEquals((10 * 3.5 + 12.0) / 13, weightedScore(caregiver), 0.0001);
+        assertEquals((10 * 3.5 + 2.0) / 11, weightedScore(other), 0.0001);
+        assertEquals(3.5, weightedScore(unrated), 0.0001);
+    }
+
+    @Test
+    void recompute_WhenNothingChanged_ShouldNotRewriteRows() {
+        // Given
+        persistCaregiver(1, 4.0, 3);
+        persistCaregiver(2, 2.0, 1);
+        weightedRatingScore.recompute();
+
+        // When
+        int updated = weightedRatingScore.recompute();
+
+        // Then
+        assertEquals(0, updated);
+    }
+
+    @Test
+    void recompute_WhenANewRatingNudgesTheGlobalMean_ShouldRewriteOnlyThatCaregiver() {
+        // Given - global mean 3.0
+        Long rated = persistCaregiver(1, 4.0, 1000);
+        persistCaregiver(2, 2.0, 1000);
+        persistCaregiver(3, 0.0, 0);
+        weightedRatingScore.recompute();
+
+        // When - one more 5-star rating moves the global mean to about 3.001
+        jdbcTemplate.update("UPDATE caregivers SET average_rating = ?, rating_count = 1001 WHERE user_id = ?",
+                4005.0 / 1001, rated);
+        int updated = weightedRatingScore.recompute();
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(3.0, weightedRatingScore.priorMean(), 0.0001);
+        assertEquals((10 * 3.0 + 4005.0) / 1011, weightedScore(rated), 0.0001);
+    }
+
+    @Test
+    void recompute_WhenTheGlobalMeanMovesNoticeably_ShouldRewriteEveryRow() {
+        // Given - global mean 3.0
+        Long rated = persistCaregiver(1, 4.0, 10);
+        persistCaregiver(2, 2.0, 10);
+        Long unrated = persistCaregiver(3, 0.0, 0);
+        weightedRatingScore.recompute();
+
+        // When - the mean rises to 3.5
+        jdbcTemplate.update("UPDATE caregivers SET average_rating = 5.0 WHERE user_id = ?", rated);
+        int updated = weightedRatingScore.recompute();
+
+        // Then
+        assertEquals(3, updated);
+        assertEquals(3.5, weightedScore(unrated), 0.0001);
+    }
+
+    @Test
+    void recompute_WithNoRatings_ShouldScoreEveryoneZero() {
+        // Given
+        Long caregiver = persistCaregiver(1, 0.0, 0);
+        jdbcTemplate.update("UPDATE caregivers SET weighted_score = 2.0 WHERE user_id = ?", caregiver);
+
+        // When
+        int updated = weightedRatingScore.recompute();
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(0.0, weightedScore(caregiver), 0.0001);
+    }
+
+    @Test
+    void scheduledRecompute_ShouldRecomputeUnderItsOwnLease() {
+        // Given - an average written by someone other than the sync, e.g. event ingestion
+        Long caregiver = persistCaregiver(1, 4.0, 3);
+
+        // When
+        weightedRatingScore.scheduledRecompute();
+
+        // Then
+        verify(leaseLock).runLocked(eq(WeightedRatingScore.RECOMPUTE_LOCK), eq(Duration.ofMinutes(10)),
+                eq(Duration.ofMinutes(2).plusSeconds(30)), any());
+        assertEquals(4.0, weightedScore(caregiver), 0.0001);
+    }
+
+    @Test
+    void scheduledRecompute_WhenDisabled_ShouldDoNothing() {
+        // Given
+        Long caregiver = persistCaregiver(1, 4.0, 3);
+        jdbcTemplate.update("UPDATE caregivers SET weighted_score = 2.0 WHERE user_id = ?", caregiver);
+
+        // When
+        new WeightedRatingScore(jdbcTemplate, leaseLock, 10, false, 300000L).scheduledRecompute();
+
+        // Then
+        verifyNoInteractions(leaseLock);
+        assertEquals(2.0, weightedScore(caregiver), 0.0001);
+    }
+
+    private Long persistCaregiver(int index, double averageRating, int ratingCount) {
+        CareGiver careGiver = new CareGiver();
+        careGiver.setEmail("weighted" + index + "@example.com");
+        careGiver.setPassword("password");
+        careGiver.setName("Dr. " + index);
+        careGiver.setNik(String.format("%016d", index));
+        careGiver.setAddress("Address " + index);
+        careGiver.setPhoneNumber("0812345678" + index);
+        careGiver.setSpeciality("Cardiology");
+        careGiver.setWorkAddress("Hospital " + index);
+        careGiver.setAverageRating(averageRating);
+        careGiver.setRatingCount(ratingCount);
+        return entityManager.persistAndFlush(careGiver).getId();
+    }
+
+    private double weightedScore(Long caregiverId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT weighted_score FROM caregivers WHERE user_id = ?", Double.class, caregiverId);
+    }
+}